@@ -0,0 +1,74 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.ParserConfig;
+import serializer.JSONSerializer;
+import serializer.SerializeConfig;
+import serializer.SerializeWriter;
+import util.ParameterizedTypeImpl;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding a hundred orders to beans and writing them back, with the codecs generated by ASM and with the reflective
+ * codecs selected by <code>@JSONType(asm = false)</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindBenchmark {
+
+    @Param({"asm", "reflect"})
+    public String codec;
+
+    private byte[] input;
+    private Type type;
+    private Object orders;
+    private ParserConfig parserConfig;
+    private SerializeConfig serializeConfig;
+
+    @Setup
+    public void setup() {
+        input = Documents.orders(100);
+        Class<?> beanClass = "asm".equals(codec) ? Beans.Order.class : Beans.ReflectOrder.class;
+        type = new ParameterizedTypeImpl(new Type[]{beanClass}, null, List.class);
+        parserConfig = new ParserConfig();
+        serializeConfig = new SerializeConfig();
+        orders = bind();
+    }
+
+    @Benchmark
+    public Object bind() {
+        DefaultJSONParser parser = new DefaultJSONParser(input, 0, input.length, parserConfig, 0);
+        Object value = parser.parseObject(type);
+        parser.close();
+        return value;
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out, serializeConfig).write(orders);
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package benchmark;
+
+import asm.ByteVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling a {@link ByteVector} from its default size up to the size of a class file, with the mix of puts the
+ * {@link asm.ClassWriter} makes, so that the score includes every copy made to grow it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteVectorBenchmark {
+
+    @Param({"1024", "16384", "262144"})
+    public int size;
+
+    @Benchmark
+    public ByteVector grow() {
+        ByteVector out = new ByteVector();
+        while (out.length < size) {
+            out.putByte(1)
+                    .putShort(out.length & 0xFFFF)
+                    .put12(7, 42)
+                    .putInt(out.length)
+                    .putUTF8("getCustomer");
+        }
+        return out;
+    }
+}
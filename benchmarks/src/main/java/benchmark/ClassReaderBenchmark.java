@@ -0,0 +1,59 @@
+package benchmark;
+
+import asm.ClassReader;
+import asm.TypeCollector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting the parameter names of the constructors and static methods of a class from its class file, as done once
+ * per class for the beans bound through a creator. The class file is read from memory, so the score is the parse
+ * alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassReaderBenchmark {
+
+    private byte[] classFile;
+
+    @Setup
+    public void setup() throws IOException {
+        InputStream is = ClassReader.class.getClassLoader().getResourceAsStream("util/TypeUtils.class");
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            for (int n; (n = is.read(buf)) != -1; ) {
+                out.write(buf, 0, n);
+            }
+            classFile = out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    @Benchmark
+    public Map<String, String[]> parameterNames() {
+        ClassReader reader = new ClassReader(classFile, false);
+        TypeCollector visitor = new TypeCollector();
+        reader.accept(visitor);
+        return visitor.getParameterNames();
+    }
+}
@@ -0,0 +1,158 @@
+package benchmark;
+
+import annotation.JSONField;
+import annotation.JSONType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.ParserConfig;
+import parser.deserializer.ObjectDeserializer;
+import serializer.JSONSerializer;
+import serializer.ObjectSerializer;
+import serializer.SerializeConfig;
+import serializer.SerializeWriter;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing a message whose amounts and ids have custom codecs, with the generated codecs, which call them
+ * from final fields, and with the reflective ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomCodecBenchmark {
+
+    /**
+     * Writes an amount as its number of cents, a string with the currency, e.g. "1234 EUR".
+     */
+    public static class MoneyCodec implements ObjectSerializer, ObjectDeserializer {
+
+        public static final MoneyCodec instance = new MoneyCodec();
+
+        public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+            Money money = (Money) object;
+            serializer.out.writeString(money.cents + " " + money.currency);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+            JSONLexer lexer = parser.lexer;
+            String text = lexer.stringVal();
+            lexer.nextToken();
+            int space = text.indexOf(' ');
+            return (T) new Money(Long.parseLong(text.substring(0, space)), text.substring(space + 1));
+        }
+    }
+
+    /**
+     * Writes an id as a string with a prefix, e.g. "ORD-42".
+     */
+    public static class IdCodec implements ObjectSerializer, ObjectDeserializer {
+
+        public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+            serializer.out.writeString("ORD-" + object);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+            JSONLexer lexer = parser.lexer;
+            String text = lexer.stringVal();
+            lexer.nextToken();
+            return (T) Long.valueOf(text.substring(4));
+        }
+    }
+
+    @JSONType(serializer = MoneyCodec.class, deserializer = MoneyCodec.class)
+    public static final class Money {
+        public final long cents;
+        public final String currency;
+
+        public Money(long cents, String currency) {
+            this.cents = cents;
+            this.currency = currency;
+        }
+    }
+
+    public static class Invoice {
+        @JSONField(serializeUsing = IdCodec.class, deserializeUsing = IdCodec.class)
+        public long id;
+        @JSONField(serializeUsing = IdCodec.class, deserializeUsing = IdCodec.class)
+        public long order;
+        public String customer;
+        public Money net;
+        public Money tax;
+        public Money shipping;
+        public Money total;
+    }
+
+    private byte[] text;
+    private Invoice invoice;
+    private ParserConfig generatedParser;
+    private ParserConfig reflectiveParser;
+    private SerializeConfig generatedSerializer;
+    private SerializeConfig reflectiveSerializer;
+
+    @Setup
+    public void setup() {
+        text = ("{\"id\":\"ORD-1001\",\"order\":\"ORD-77\",\"customer\":\"Ann Lee\",\"net\":\"10000 EUR\","
+                + "\"tax\":\"2100 EUR\",\"shipping\":\"495 EUR\",\"total\":\"12595 EUR\"}").getBytes(Documents.UTF8);
+        generatedParser = new ParserConfig();
+        reflectiveParser = new ParserConfig();
+        reflectiveParser.setAsmEnable(false);
+        generatedSerializer = new SerializeConfig();
+        reflectiveSerializer = new SerializeConfig();
+        reflectiveSerializer.setAsmEnable(false);
+        invoice = (Invoice) bind(generatedParser);
+    }
+
+    @Benchmark
+    public Object bindGenerated() {
+        return bind(generatedParser);
+    }
+
+    @Benchmark
+    public Object bindReflective() {
+        return bind(reflectiveParser);
+    }
+
+    @Benchmark
+    public byte[] writeGenerated() {
+        return write(generatedSerializer);
+    }
+
+    @Benchmark
+    public byte[] writeReflective() {
+        return write(reflectiveSerializer);
+    }
+
+    private Object bind(ParserConfig config) {
+        DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, config, 0);
+        Object value = parser.parseObject(Invoice.class);
+        parser.close();
+        return value;
+    }
+
+    private byte[] write(SerializeConfig config) {
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out, config).write(invoice);
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import annotation.JSONField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.ParserConfig;
+import serializer.JSONSerializer;
+import serializer.SerializeConfig;
+import serializer.SerializeWriter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwarding a message which carries an opaque JSON blob of about 20 KB: reading it and writing it back, with the
+ * blob bound to a tree and with the blob kept as its text by <code>jsonDirect</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectBenchmark {
+
+    public static class Tree {
+        public long id;
+        public String kind;
+        public Object payload;
+    }
+
+    public static class Direct {
+        public long id;
+        public String kind;
+        @JSONField(jsonDirect = true)
+        public String payload;
+    }
+
+    private byte[] text;
+    private ParserConfig parserConfig;
+    private SerializeConfig serializeConfig;
+
+    @Setup
+    public void setup() {
+        byte[] blob = Documents.orders(50);
+        StringBuilder buf = new StringBuilder("{\"id\":42,\"kind\":\"orders\",\"payload\":");
+        buf.append(new String(blob, Documents.UTF8)).append('}');
+        text = buf.toString().getBytes(Documents.UTF8);
+        parserConfig = new ParserConfig();
+        serializeConfig = new SerializeConfig();
+    }
+
+    @Benchmark
+    public byte[] forwardTree() {
+        return forward(Tree.class);
+    }
+
+    @Benchmark
+    public byte[] forwardDirect() {
+        return forward(Direct.class);
+    }
+
+    private byte[] forward(Class<?> type) {
+        DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, parserConfig, 0);
+        Object message = parser.parseObject(type);
+        parser.close();
+
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out, serializeConfig).write(message);
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+}
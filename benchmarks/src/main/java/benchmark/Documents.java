@@ -0,0 +1,91 @@
+package benchmark;
+
+import java.nio.charset.Charset;
+
+/**
+ * The documents the benchmarks read: a single order, arrays of a hundred and of ten thousand orders, and an array of
+ * a thousand articles of long texts, generated with a fixed seed so that every run sees the same bytes.
+ */
+final class Documents {
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private Documents() {
+    }
+
+    static byte[] get(String size) {
+        if ("small".equals(size)) {
+            return order(new StringBuilder(), 1).toString().getBytes(UTF8);
+        }
+        if ("medium".equals(size)) {
+            return orders(100);
+        }
+        if ("large".equals(size)) {
+            return orders(10000);
+        }
+        if ("articles".equals(size)) {
+            return articles(1000);
+        }
+        throw new IllegalArgumentException(size);
+    }
+
+    static byte[] orders(int count) {
+        StringBuilder buf = new StringBuilder(count * 256);
+        buf.append('[');
+        for (int i = 0; i < count; ++i) {
+            if (i != 0) {
+                buf.append(',');
+            }
+            order(buf, i + 1);
+        }
+        buf.append(']');
+        return buf.toString().getBytes(UTF8);
+    }
+
+    static byte[] lines(int count) {
+        StringBuilder buf = new StringBuilder(count * 256);
+        for (int i = 0; i < count; ++i) {
+            order(buf, i + 1).append('\n');
+        }
+        return buf.toString().getBytes(UTF8);
+    }
+
+    static byte[] articles(int count) {
+        String[] words = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do"};
+        StringBuilder buf = new StringBuilder(count * 2048);
+        buf.append('[');
+        for (int i = 0; i < count; ++i) {
+            if (i != 0) {
+                buf.append(',');
+            }
+            long seed = (i + 1) * 0x9E3779B97F4A7C15L;
+            buf.append("{\"id\":").append(i + 1).append(",\"title\":\"");
+            for (int k = 0; k < 8; ++k) {
+                buf.append(words[(int) ((seed >>> 4 * k) & 0xF) % words.length]).append(' ');
+            }
+            buf.append("\",\"body\":\"");
+            for (int k = 0, n = 100 + (int) (seed >>> 56); k < n; ++k) {
+                seed = seed * 6364136223846793005L + 1442695040888963407L;
+                buf.append(words[(int) (seed >>> 60) % words.length]).append(k % 40 == 39 ? "\\n" : " ");
+            }
+            buf.append("\\\"end\\\"\",\"tags\":[\"text\",\"draft\"]}");
+        }
+        buf.append(']');
+        return buf.toString().getBytes(UTF8);
+    }
+
+    static StringBuilder order(StringBuilder buf, int id) {
+        long seed = id * 0x9E3779B97F4A7C15L;
+        buf.append("{\"id\":").append(id)
+                .append(",\"customer\":\"customer-").append(seed >>> 48).append('"')
+                .append(",\"note\":\"line one\\nline \\\"two\\\", café\"")
+                .append(",\"quantity\":").append((int) (seed >>> 58))
+                .append(",\"price\":").append((seed >>> 40) / 100.0)
+                .append(",\"paid\":").append((id & 1) == 0)
+                .append(",\"coupon\":null")
+                .append(",\"tags\":[\"express\",\"gift\",\"tag-").append(id % 7).append("\"]")
+                .append(",\"address\":{\"street\":\"").append(id).append(" Main Street\",\"city\":\"Springfield\",\"zip\":\"")
+                .append(10000 + id % 90000).append("\"}}");
+        return buf;
+    }
+}
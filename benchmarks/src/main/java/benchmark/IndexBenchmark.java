@@ -0,0 +1,52 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.Feature;
+import parser.JSONNode;
+import parser.ParserConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing a document for lazy reads, byte by byte and 8 bytes at a time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexBenchmark {
+
+    @Param({"large", "articles"})
+    public String size;
+
+    private byte[] input;
+    private ParserConfig config;
+
+    @Setup
+    public void setup() {
+        input = Documents.get(size);
+        config = new ParserConfig();
+    }
+
+    @Benchmark
+    public int scalar() {
+        return JSONNode.parse(input, 0, input.length, config, 0).size();
+    }
+
+    @Benchmark
+    public int swar() {
+        return JSONNode.parse(input, 0, input.length, config, Feature.UseSWAR.mask).size();
+    }
+}
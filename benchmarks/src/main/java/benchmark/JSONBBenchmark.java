@@ -0,0 +1,84 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.JSONBReader;
+import parser.ParserConfig;
+import serializer.JSONBWriter;
+import serializer.JSONSerializer;
+import serializer.SerializeConfig;
+import serializer.SerializeWriter;
+import util.ParameterizedTypeImpl;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding a hundred orders to beans and writing them back, from and to JSON text and JSONB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JSONBBenchmark {
+
+    private byte[] text;
+    private byte[] binary;
+    private Type type;
+    private Object orders;
+    private ParserConfig parserConfig;
+    private SerializeConfig serializeConfig;
+
+    @Setup
+    public void setup() {
+        text = Documents.orders(100);
+        type = new ParameterizedTypeImpl(new Type[]{Beans.Order.class}, null, List.class);
+        parserConfig = new ParserConfig();
+        serializeConfig = new SerializeConfig();
+        orders = bindText();
+        binary = writeBinary();
+    }
+
+    @Benchmark
+    public Object bindText() {
+        DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, parserConfig, 0);
+        Object value = parser.parseObject(type);
+        parser.close();
+        return value;
+    }
+
+    @Benchmark
+    public Object bindBinary() {
+        return new JSONBReader(binary, 0, binary.length, parserConfig, 0).read(type);
+    }
+
+    @Benchmark
+    public byte[] writeText() {
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out, serializeConfig).write(orders);
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] writeBinary() {
+        JSONBWriter out = new JSONBWriter(serializeConfig, 0);
+        out.write(orders);
+        return out.toBytes();
+    }
+}
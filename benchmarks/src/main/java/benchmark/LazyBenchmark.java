@@ -0,0 +1,78 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.DefaultJSONParser;
+import parser.JSONNode;
+import parser.ParserConfig;
+import serializer.JSONSerializer;
+import serializer.SerializeConfig;
+import serializer.SerializeWriter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a few fields out of a document and forwarding one of its parts, through the lazy index and through the
+ * untyped tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LazyBenchmark {
+
+    @Param({"medium", "large"})
+    public String size;
+
+    private byte[] input;
+    private ParserConfig config;
+
+    @Setup
+    public void setup() {
+        input = Documents.get(size);
+        config = new ParserConfig();
+    }
+
+    @Benchmark
+    public void lazy(Blackhole bh) {
+        JSONNode root = JSONNode.parse(input, 0, input.length, config, 0);
+        bh.consume(root.get(50).get("id").asLong());
+        bh.consume(root.get(99).get("address").get("city").asString());
+        bh.consume(root.get(10).toBytes());
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void tree(Blackhole bh) {
+        DefaultJSONParser parser = new DefaultJSONParser(input, 0, input.length, config, 0);
+        List<Object> root = (List<Object>) parser.parse();
+        parser.close();
+        bh.consume(((Map<String, Object>) root.get(50)).get("id"));
+        bh.consume(((Map<String, Object>) ((Map<String, Object>) root.get(99)).get("address")).get("city"));
+        bh.consume(toBytes(root.get(10)));
+    }
+
+    private static byte[] toBytes(Object value) {
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out, SerializeConfig.globalInstance).write(value);
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+}
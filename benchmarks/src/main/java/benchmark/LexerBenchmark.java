@@ -0,0 +1,78 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.ParserConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tokenizer alone, walking every token and decoding every string and number, and the untyped parse into maps
+ * and lists on top of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private byte[] input;
+    private ParserConfig config;
+
+    @Setup
+    public void setup() {
+        input = Documents.get(size);
+        config = new ParserConfig();
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole bh) {
+        JSONLexer lexer = new JSONLexer(input, 0, input.length, 0);
+        for (; ; ) {
+            lexer.nextToken();
+            int token = lexer.token();
+            switch (token) {
+                case JSONToken.LITERAL_STRING:
+                    bh.consume(lexer.stringVal());
+                    break;
+                case JSONToken.LITERAL_INT:
+                    bh.consume(lexer.longValue());
+                    break;
+                case JSONToken.LITERAL_FLOAT:
+                    bh.consume(lexer.doubleValue());
+                    break;
+                case JSONToken.EOF:
+                    return;
+                default:
+                    bh.consume(token);
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public Object parse() {
+        DefaultJSONParser parser = new DefaultJSONParser(input, 0, input.length, config, 0);
+        Object value = parser.parse();
+        parser.close();
+        return value;
+    }
+}
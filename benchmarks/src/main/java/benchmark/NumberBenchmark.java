@@ -0,0 +1,102 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.ParserConfig;
+import serializer.SerializeWriter;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing an array of ten thousand numbers, the shape of telemetry payloads: longs, and doubles with
+ * their shortest representation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberBenchmark {
+
+    @Param({"long", "double"})
+    public String kind;
+
+    private long[] longs;
+    private double[] doubles;
+    private byte[] input;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        longs = new long[10000];
+        doubles = new double[10000];
+        for (int i = 0; i < longs.length; ++i) {
+            longs[i] = random.nextLong() >> random.nextInt(64);
+            doubles[i] = random.nextGaussian() * Math.pow(10, random.nextInt(12) - 4);
+        }
+        input = write();
+    }
+
+    @Benchmark
+    public void read(Blackhole bh) {
+        JSONLexer lexer = new JSONLexer(input, 0, input.length, 0);
+        boolean isLong = "long".equals(kind);
+        for (lexer.nextToken(); lexer.token() != JSONToken.EOF; lexer.nextToken()) {
+            int token = lexer.token();
+            if (token == JSONToken.LITERAL_INT || token == JSONToken.LITERAL_FLOAT) {
+                if (isLong) {
+                    bh.consume(lexer.longValue());
+                } else {
+                    bh.consume(lexer.doubleValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Binds the whole array to a <code>long[]</code> or a <code>double[]</code>, with no boxed element.
+     */
+    @Benchmark
+    public Object bind() {
+        DefaultJSONParser parser = new DefaultJSONParser(input, 0, input.length, ParserConfig.getGlobalInstance(), 0);
+        return parser.parseObject("long".equals(kind) ? long[].class : double[].class);
+    }
+
+    @Benchmark
+    public byte[] write() {
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            out.write('[');
+            boolean isLong = "long".equals(kind);
+            for (int i = 0; i < longs.length; ++i) {
+                if (i != 0) {
+                    out.write(',');
+                }
+                if (isLong) {
+                    out.writeLong(longs[i]);
+                } else {
+                    out.writeDouble(doubles[i]);
+                }
+            }
+            out.write(']');
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+}
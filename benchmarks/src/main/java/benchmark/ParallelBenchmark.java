@@ -0,0 +1,70 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.JSONSpliterator;
+import parser.ParserConfig;
+import util.ParameterizedTypeImpl;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Binding ten thousand orders to beans on one thread, and on the common pool from an array and from newline
+ * delimited JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+
+    private byte[] array;
+    private byte[] lines;
+    private Type listType;
+    private ParserConfig config;
+
+    @Setup
+    public void setup() {
+        array = Documents.orders(10000);
+        lines = Documents.lines(10000);
+        listType = new ParameterizedTypeImpl(new Type[]{Beans.Order.class}, null, List.class);
+        config = new ParserConfig();
+    }
+
+    @Benchmark
+    public Object sequential() {
+        DefaultJSONParser parser = new DefaultJSONParser(array, 0, array.length, config, 0);
+        Object value = parser.parseObject(listType);
+        parser.close();
+        return value;
+    }
+
+    @Benchmark
+    public List<Beans.Order> parallelArray() {
+        JSONSpliterator<Beans.Order> elements = JSONSpliterator.ofArray(array, 0, array.length, Beans.Order.class,
+                config, 0);
+        return StreamSupport.stream(elements, true).collect(Collectors.<Beans.Order>toList());
+    }
+
+    @Benchmark
+    public List<Beans.Order> parallelLines() {
+        JSONSpliterator<Beans.Order> lines = JSONSpliterator.ofLines(this.lines, 0, this.lines.length,
+                Beans.Order.class, config, 0);
+        return StreamSupport.stream(lines, true).collect(Collectors.<Beans.Order>toList());
+    }
+}
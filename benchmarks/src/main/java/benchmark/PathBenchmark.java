@@ -0,0 +1,70 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.JSONPath;
+import parser.ParserConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting values with compiled paths evaluated while tokenizing, against parsing the untyped tree and walking it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+    @Param({"$[*].address.city", "$..zip", "$[10].customer"})
+    public String path;
+
+    private byte[] input;
+    private JSONPath compiled;
+    private ParserConfig config;
+
+    @Setup
+    public void setup() {
+        input = Documents.get("medium");
+        compiled = JSONPath.compile(path);
+        config = new ParserConfig();
+    }
+
+    @Benchmark
+    public Object extract() {
+        return compiled.extract(input);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object tree() {
+        DefaultJSONParser parser = new DefaultJSONParser(input, 0, input.length, config, 0);
+        List<Object> orders = (List<Object>) parser.parse();
+        parser.close();
+
+        if (path.startsWith("$[10]")) {
+            return ((Map<String, Object>) orders.get(10)).get("customer");
+        }
+        List<Object> values = new ArrayList<Object>();
+        for (Object order : orders) {
+            values.add(((Map<String, Object>) ((Map<String, Object>) order).get("address"))
+                    .get(path.startsWith("$..") ? "zip" : "city"));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,119 @@
+package benchmark;
+
+import annotation.JSONType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.ParserConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading an event of a <code>seeAlso</code> hierarchy, with the type key first, as it is written, and last, and the
+ * same event read as its own class, for the cost of the dispatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolymorphicBenchmark {
+
+    @JSONType(typeKey = "event", seeAlso = {Created.class, Updated.class, Deleted.class, Moved.class,
+            Renamed.class, Shared.class, Locked.class, Unlocked.class})
+    public static abstract class Event {
+        public long id;
+        public long time;
+        public String user;
+    }
+
+    @JSONType(typeName = "created")
+    public static class Created extends Event {
+        public String path;
+    }
+
+    @JSONType(typeName = "updated")
+    public static class Updated extends Event {
+        public String path;
+        public int version;
+    }
+
+    @JSONType(typeName = "deleted")
+    public static class Deleted extends Event {
+        public String path;
+    }
+
+    @JSONType(typeName = "moved")
+    public static class Moved extends Event {
+        public String from;
+        public String to;
+    }
+
+    @JSONType(typeName = "renamed")
+    public static class Renamed extends Event {
+        public String from;
+        public String to;
+    }
+
+    @JSONType(typeName = "shared")
+    public static class Shared extends Event {
+        public String path;
+        public String with;
+    }
+
+    @JSONType(typeName = "locked")
+    public static class Locked extends Event {
+        public String path;
+    }
+
+    @JSONType(typeName = "unlocked")
+    public static class Unlocked extends Event {
+        public String path;
+    }
+
+    private byte[] typeFirst;
+    private byte[] typeLast;
+    private byte[] untyped;
+    private ParserConfig parserConfig;
+
+    @Setup
+    public void setup() {
+        String properties = "\"id\":42,\"time\":1700000000000,\"user\":\"ann\",\"path\":\"/docs/report.txt\","
+                + "\"with\":\"bob\"";
+        typeFirst = ("{\"event\":\"shared\"," + properties + "}").getBytes(Documents.UTF8);
+        typeLast = ("{" + properties + ",\"event\":\"shared\"}").getBytes(Documents.UTF8);
+        untyped = ("{" + properties + "}").getBytes(Documents.UTF8);
+        parserConfig = new ParserConfig();
+    }
+
+    @Benchmark
+    public Object bindTypeFirst() {
+        return bind(typeFirst, Event.class);
+    }
+
+    @Benchmark
+    public Object bindTypeLast() {
+        return bind(typeLast, Event.class);
+    }
+
+    @Benchmark
+    public Object bindSubtype() {
+        return bind(untyped, Shared.class);
+    }
+
+    private Object bind(byte[] text, Class<?> type) {
+        DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, parserConfig, 0);
+        Object value = parser.parseObject(type);
+        parser.close();
+        return value;
+    }
+}
@@ -0,0 +1,134 @@
+package benchmark;
+
+import annotation.JSONField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.ParserConfig;
+import serializer.JSONSerializer;
+import serializer.SerializeConfig;
+import serializer.SerializeWriter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing a message with three levels of value objects, once flattened into one JSON object by unwrapped
+ * properties and once as nested objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnwrappedBenchmark {
+
+    public static class Point {
+        public double lat;
+        public double lng;
+    }
+
+    public static class Place {
+        public String city;
+        public String zip;
+        @JSONField(unwrapped = true)
+        public Point point;
+    }
+
+    public static class Party {
+        public String name;
+        public String email;
+        @JSONField(unwrapped = true)
+        public Place place;
+    }
+
+    public static class Message {
+        public long id;
+        public String kind;
+        @JSONField(unwrapped = true)
+        public Party party;
+    }
+
+    public static class NestedPlace {
+        public String city;
+        public String zip;
+        public Point point;
+    }
+
+    public static class NestedParty {
+        public String name;
+        public String email;
+        public NestedPlace place;
+    }
+
+    public static class NestedMessage {
+        public long id;
+        public String kind;
+        public NestedParty party;
+    }
+
+    private byte[] flat;
+    private byte[] nested;
+    private Object flatMessage;
+    private Object nestedMessage;
+    private ParserConfig parserConfig;
+    private SerializeConfig serializeConfig;
+
+    @Setup
+    public void setup() {
+        flat = ("{\"id\":42,\"kind\":\"order\",\"name\":\"Ann Lee\",\"email\":\"ann@example.com\","
+                + "\"city\":\"Oslo\",\"zip\":\"0150\",\"lat\":59.91,\"lng\":10.75}").getBytes(Documents.UTF8);
+        nested = ("{\"id\":42,\"kind\":\"order\",\"party\":{\"name\":\"Ann Lee\",\"email\":\"ann@example.com\","
+                + "\"place\":{\"city\":\"Oslo\",\"zip\":\"0150\",\"point\":{\"lat\":59.91,\"lng\":10.75}}}}")
+                .getBytes(Documents.UTF8);
+        parserConfig = new ParserConfig();
+        serializeConfig = new SerializeConfig();
+        flatMessage = bindFlat();
+        nestedMessage = bindNested();
+    }
+
+    @Benchmark
+    public Object bindFlat() {
+        return bind(flat, Message.class);
+    }
+
+    @Benchmark
+    public Object bindNested() {
+        return bind(nested, NestedMessage.class);
+    }
+
+    @Benchmark
+    public byte[] writeFlat() {
+        return write(flatMessage);
+    }
+
+    @Benchmark
+    public byte[] writeNested() {
+        return write(nestedMessage);
+    }
+
+    private Object bind(byte[] text, Class<?> type) {
+        DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, parserConfig, 0);
+        Object value = parser.parseObject(type);
+        parser.close();
+        return value;
+    }
+
+    private byte[] write(Object message) {
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out, serializeConfig).write(message);
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+}
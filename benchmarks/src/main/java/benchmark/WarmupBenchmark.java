@@ -0,0 +1,90 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import parser.DefaultJSONParser;
+import parser.ParserConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The first read of a message by a new config, which generates the deserializers of the message and of the beans
+ * it holds, and the same read once the config has been warmed up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class WarmupBenchmark {
+
+    public static class Address {
+        public String street;
+        public String city;
+        public String zip;
+    }
+
+    public static class Customer {
+        public long id;
+        public String name;
+        public Address billing;
+        public Address shipping;
+    }
+
+    public static class Line {
+        public String sku;
+        public int quantity;
+        public double price;
+    }
+
+    public static class Order {
+        public long id;
+        public Customer customer;
+        public List<Line> lines;
+        public Map<String, String> attributes;
+    }
+
+    private byte[] text;
+    private ParserConfig coldConfig;
+    private ParserConfig warmConfig;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        text = ("{\"id\":1,\"customer\":{\"id\":2,\"name\":\"Ann\",\"billing\":{\"street\":\"Main 1\",\"city\":\"Oslo\","
+                + "\"zip\":\"0150\"},\"shipping\":{\"street\":\"Main 1\",\"city\":\"Oslo\",\"zip\":\"0150\"}},"
+                + "\"lines\":[{\"sku\":\"A-1\",\"quantity\":2,\"price\":9.5}],\"attributes\":{\"channel\":\"web\"}}")
+                .getBytes(Documents.UTF8);
+        coldConfig = new ParserConfig();
+        warmConfig = new ParserConfig();
+        warmConfig.warmup(Order.class);
+    }
+
+    @Benchmark
+    public Object firstReadCold() {
+        return bind(coldConfig);
+    }
+
+    @Benchmark
+    public Object firstReadWarm() {
+        return bind(warmConfig);
+    }
+
+    private Object bind(ParserConfig config) {
+        DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, config, 0);
+        Object value = parser.parseObject(Order.class);
+        parser.close();
+        return value;
+    }
+}
@@ -1,5 +1,410 @@
+import parser.DefaultJSONParser;
+import parser.Feature;
+import parser.JSONBReader;
+import parser.JSONNode;
+import parser.JSONReaderScanner;
+import parser.JSONSpliterator;
+import parser.ParserConfig;
+import serializer.JSONBWriter;
+import serializer.JSONSerializer;
+import serializer.SerializeConfig;
+import serializer.SerializeWriter;
+import serializer.SerializerFeature;
+import util.JSONException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Created by Syrius on 06/01/2022.
  */
-public abstract class class JSON implements {
+public abstract class JSON {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    public static int DEFAULT_GENERATE_FEATURE = 0;
+
+    public static int DEFAULT_PARSER_FEATURE = 0;
+
+    public static Object parse(String text) {
+        return parse(text, DEFAULT_PARSER_FEATURE);
+    }
+
+    public static Object parse(String text, Feature... features) {
+        return parse(text, DEFAULT_PARSER_FEATURE | Feature.of(features));
+    }
+
+    public static Object parse(String text, int features) {
+        if (text == null) {
+            return null;
+        }
+
+        DefaultJSONParser parser = new DefaultJSONParser(text, ParserConfig.getGlobalInstance(), features);
+        Object value = parser.parse();
+        parser.close();
+        return value;
+    }
+
+    public static <T> T parseObject(String text, Class<T> clazz, Feature... features) {
+        return parseObject(text, (Type) clazz, ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE | Feature.of(features));
+    }
+
+    public static <T> T parseObject(String text, Type type, Feature... features) {
+        return parseObject(text, type, ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE | Feature.of(features));
+    }
+
+    public static <T> T parseObject(String text, Type type, ParserConfig config, int features) {
+        if (text == null) {
+            return null;
+        }
+
+        DefaultJSONParser parser = new DefaultJSONParser(text, config, features);
+        T value = parser.parseObject(type);
+        parser.close();
+        return value;
+    }
+
+    public static <T> T parseObject(byte[] input, Type type, Feature... features) {
+        return parseObject(input, 0, input.length, type, ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE | Feature.of(features));
+    }
+
+    public static <T> T parseObject(byte[] input, int off, int len, Type type, ParserConfig config, int features) {
+        DefaultJSONParser parser = new DefaultJSONParser(input, off, len, config, features);
+        T value = parser.parseObject(type);
+        parser.close();
+        return value;
+    }
+
+    /**
+     * Parses a file by memory mapping it, see {@link #parseObject(FileChannel, Type, ParserConfig, int)}.
+     */
+    public static Object parse(Path path, Feature... features) {
+        return parseObject(path, Object.class, features);
+    }
+
+    public static <T> T parseObject(Path path, Type type, Feature... features) {
+        FileChannel file;
+        try {
+            file = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new JSONException("open error, " + path, e);
+        }
+        try {
+            return parseObject(file, type, ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE | Feature.of(features));
+        } finally {
+            try {
+                file.close();
+            } catch (IOException ignored) {
+                // the file was read
+            }
+        }
+    }
+
+    public static <T> T parseObject(FileChannel file, Type type, Feature... features) {
+        return parseObject(file, type, ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE | Feature.of(features));
+    }
+
+    /**
+     * Parses the file from the position of the channel to its end, tokenizing it from a memory mapping of the file
+     * through one pooled buffer instead of reading it into a <code>byte[]</code> or a <code>String</code>. The
+     * channel is left open.
+     */
+    public static <T> T parseObject(FileChannel file, Type type, ParserConfig config, int features) {
+        JSONReaderScanner lexer = new JSONReaderScanner(file, features);
+        try {
+            DefaultJSONParser parser = new DefaultJSONParser(lexer, config);
+            T value = parser.parseObject(type);
+            parser.close();
+            return value;
+        } finally {
+            lexer.close();
+        }
+    }
+
+    public static JSONNode parseLazy(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        byte[] input = text.getBytes(UTF8);
+        return parseLazy(input, 0, input.length, DEFAULT_PARSER_FEATURE);
+    }
+
+    public static JSONNode parseLazy(byte[] input, Feature... features) {
+        return parseLazy(input, 0, input.length, DEFAULT_PARSER_FEATURE | Feature.of(features));
+    }
+
+    /**
+     * Parses lazily: only indexes the structure of the text, checking its syntax as {@link #parse} would, and decodes
+     * a value when it is asked for, see {@link JSONNode}. Suits reading a few fields of a large document, or
+     * forwarding parts of it unchanged.
+     */
+    public static JSONNode parseLazy(byte[] input, int off, int len, int features) {
+        return JSONNode.parse(input, off, len, ParserConfig.getGlobalInstance(), features);
+    }
+
+    public static <T> List<T> parseArray(String text, Class<T> clazz) {
+        if (text == null) {
+            return null;
+        }
+
+        DefaultJSONParser parser = new DefaultJSONParser(text, ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE);
+        List<T> list = parser.parseArray(clazz);
+        parser.close();
+        return list;
+    }
+
+    /**
+     * Parses a top level array, binding its elements on the threads of <code>pool</code>, see
+     * {@link JSONSpliterator}. The elements are in the order of the array.
+     */
+    public static <T> List<T> parseArray(byte[] input, Type itemType, ForkJoinPool pool, Feature... features) {
+        return collect(JSON.<T>streamArray(input, itemType, features), pool);
+    }
+
+    /**
+     * Parses newline delimited JSON, binding the lines on the threads of <code>pool</code>. The values are in the
+     * order of the lines.
+     */
+    public static <T> List<T> parseLines(byte[] input, Type type, ForkJoinPool pool, Feature... features) {
+        JSONSpliterator<T> lines = JSONSpliterator.ofLines(input, 0, input.length, type,
+                ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE | Feature.of(features));
+        return collect(StreamSupport.stream(lines, true), pool);
+    }
+
+    /**
+     * Returns a parallel stream of the elements of a top level array.
+     */
+    public static <T> Stream<T> streamArray(byte[] input, Type itemType, Feature... features) {
+        JSONSpliterator<T> elements = JSONSpliterator.ofArray(input, 0, input.length, itemType,
+                ParserConfig.getGlobalInstance(), DEFAULT_PARSER_FEATURE | Feature.of(features));
+        return StreamSupport.stream(elements, true);
+    }
+
+    /**
+     * Returns a parallel stream of the values of newline delimited JSON, read from <code>in</code> in parts as the
+     * stream is consumed. The input stream is not closed.
+     */
+    public static <T> Stream<T> streamLines(InputStream in, Type type, Feature... features) {
+        JSONSpliterator<T> lines = JSONSpliterator.ofLines(in, type, ParserConfig.getGlobalInstance(),
+                DEFAULT_PARSER_FEATURE | Feature.of(features));
+        return StreamSupport.stream(lines, true);
+    }
+
+    private static <T> List<T> collect(final Stream<T> stream, ForkJoinPool pool) {
+        try {
+            // the tasks of a parallel stream run in the pool of the thread which starts it
+            return pool.submit(new Callable<List<T>>() {
+                public List<T> call() {
+                    return stream.collect(Collectors.<T>toList());
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JSONException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            // the pool rethrows a copy of an exception thrown by another thread, with the original as its cause
+            if (cause.getCause() != null && cause.getCause().getClass() == cause.getClass()) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new JSONException("parse error", cause);
+        }
+    }
+
+    public static String toJSONString(Object object) {
+        return toJSONString(object, SerializeConfig.globalInstance, DEFAULT_GENERATE_FEATURE);
+    }
+
+    public static String toJSONString(Object object, SerializerFeature... features) {
+        return toJSONString(object, SerializeConfig.globalInstance, DEFAULT_GENERATE_FEATURE | SerializerFeature.of(features));
+    }
+
+    public static String toJSONString(Object object, SerializeConfig config, SerializerFeature... features) {
+        return toJSONString(object, config, DEFAULT_GENERATE_FEATURE | SerializerFeature.of(features));
+    }
+
+    public static String toJSONString(Object object, SerializeConfig config, int features) {
+        SerializeWriter out = new SerializeWriter(features);
+        try {
+            JSONSerializer serializer = new JSONSerializer(out, config);
+            serializer.write(object);
+            return out.toString();
+        } finally {
+            out.close();
+        }
+    }
+
+    public static byte[] toJSONBytes(Object object, SerializerFeature... features) {
+        return toJSONBytes(object, SerializeConfig.globalInstance, DEFAULT_GENERATE_FEATURE | SerializerFeature.of(features));
+    }
+
+    public static byte[] toJSONBytes(Object object, SerializeConfig config, int features) {
+        SerializeWriter out = new SerializeWriter(features);
+        try {
+            JSONSerializer serializer = new JSONSerializer(out, config);
+            serializer.write(object);
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the value in the binary form described in {@link JSONBWriter}.
+     */
+    public static byte[] toJSONB(Object object, SerializerFeature... features) {
+        JSONBWriter writer = new JSONBWriter(SerializeConfig.globalInstance,
+                DEFAULT_GENERATE_FEATURE | SerializerFeature.of(features));
+        writer.write(object);
+        return writer.toBytes();
+    }
+
+    public static <T> T parseJSONB(byte[] input, Type type, Feature... features) {
+        JSONBReader reader = new JSONBReader(input, 0, input.length, ParserConfig.getGlobalInstance(),
+                DEFAULT_PARSER_FEATURE | Feature.of(features));
+        T value = reader.read(type);
+        if (!reader.isEnd()) {
+            throw new JSONException("not close jsonb input");
+        }
+        return value;
+    }
+
+    /**
+     * Writes the JSON text of an object to a stream, through one pooled buffer which is flushed whenever it is
+     * full. The stream is neither flushed nor closed. Returns the number of bytes written.
+     */
+    public static long writeJSONString(OutputStream os, Object object, SerializerFeature... features) {
+        return writeJSONString(os, object, SerializeConfig.globalInstance, DEFAULT_GENERATE_FEATURE | SerializerFeature.of(features));
+    }
+
+    public static long writeJSONString(OutputStream os, Object object, SerializeConfig config, int features) {
+        return writeJSONString(new SerializeWriter(os, features), object, config);
+    }
+
+    /**
+     * Writes the JSON text of an object to a blocking channel, in chunks of one pooled buffer. The channel is not
+     * closed. Returns the number of bytes written.
+     */
+    public static long writeJSONString(WritableByteChannel channel, Object object, SerializerFeature... features) {
+        return writeJSONString(channel, object, SerializeConfig.globalInstance, DEFAULT_GENERATE_FEATURE | SerializerFeature.of(features));
+    }
+
+    public static long writeJSONString(WritableByteChannel channel, Object object, SerializeConfig config, int features) {
+        return writeJSONString(new SerializeWriter(channel, features), object, config);
+    }
+
+    /**
+     * Puts the JSON text of an object into a heap or direct buffer, from its position on, and advances the
+     * position. Fails with a {@link JSONException} when the text does not fit the remaining space. Returns the
+     * number of bytes written.
+     */
+    public static long writeJSONString(ByteBuffer buffer, Object object, SerializerFeature... features) {
+        return writeJSONString(buffer, object, SerializeConfig.globalInstance, DEFAULT_GENERATE_FEATURE | SerializerFeature.of(features));
+    }
+
+    public static long writeJSONString(ByteBuffer buffer, Object object, SerializeConfig config, int features) {
+        return writeJSONString(new SerializeWriter(buffer, features), object, config);
+    }
+
+    /**
+     * Builds the serializers and deserializers of the classes, and of the classes they hold, see
+     * {@link SerializeConfig#warmup} and {@link ParserConfig#warmup}, on the common pool. Returns at once; the task
+     * is done when all the codecs are built.
+     */
+    public static ForkJoinTask<?> warmup(Class<?>... classes) {
+        return warmup(ForkJoinPool.commonPool(), Arrays.asList(classes));
+    }
+
+    /**
+     * Builds the codecs of the classes on the threads of <code>pool</code>, one task per class, ahead of the first
+     * values read and written, which otherwise wait for the code of the codecs to be generated and defined. A thread
+     * which needs a codec being built meanwhile waits for it rather than building one of its own.
+     */
+    public static ForkJoinTask<?> warmup(ForkJoinPool pool, Collection<Class<?>> classes) {
+        final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(classes.size());
+        for (final Class<?> clazz : classes) {
+            tasks.add(ForkJoinTask.adapt(new Runnable() {
+                public void run() {
+                    SerializeConfig.globalInstance.warmup(clazz);
+                    ParserConfig.getGlobalInstance().warmup(clazz);
+                }
+            }));
+        }
+
+        return pool.submit(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Builds the codecs of the classes named, as {@link #getResolvedTypes()} returned them in an earlier run. The
+     * names of the classes which <code>classLoader</code> does not find any more are skipped.
+     */
+    public static ForkJoinTask<?> warmup(ForkJoinPool pool, ClassLoader classLoader, Collection<String> typeNames) {
+        List<Class<?>> classes = new ArrayList<Class<?>>(typeNames.size());
+        for (String typeName : typeNames) {
+            try {
+                classes.add(Class.forName(typeName, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                // removed since the names were saved
+            } catch (LinkageError e) {
+                // changed incompatibly since the names were saved
+            }
+        }
+        return warmup(pool, classes);
+    }
+
+    /**
+     * Returns the names of the classes whose bean serializers or deserializers have been built so far, sorted, to be
+     * saved and passed to {@link #warmup(ForkJoinPool, ClassLoader, Collection)} on the next start.
+     */
+    public static List<String> getResolvedTypes() {
+        Set<String> names = new TreeSet<String>();
+        for (Class<?> clazz : SerializeConfig.globalInstance.getResolvedClasses()) {
+            names.add(clazz.getName());
+        }
+        for (Class<?> clazz : ParserConfig.getGlobalInstance().getResolvedClasses()) {
+            names.add(clazz.getName());
+        }
+        return new ArrayList<String>(names);
+    }
+
+    private static long writeJSONString(SerializeWriter out, Object object, SerializeConfig config) {
+        try {
+            JSONSerializer serializer = new JSONSerializer(out, config);
+            serializer.write(object);
+            out.flush();
+            return out.length();
+        } finally {
+            out.close();
+        }
+    }
 }
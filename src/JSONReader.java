@@ -0,0 +1,170 @@
+import parser.DefaultJSONParser;
+import parser.Feature;
+import parser.JSONLexer;
+import parser.JSONReaderScanner;
+import parser.JSONToken;
+import parser.ParserConfig;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A pull parser over a stream of JSON text, which holds one bounded buffer in memory whatever the size of the
+ * input. Containers are walked token by token with {@link #startObject()}, {@link #nextName()},
+ * {@link #startArray()}, {@link #hasNext()} and the matching <code>end</code> methods, and only the value at hand is
+ * bound, with the <code>readXxx</code> methods, or skipped with {@link #skipValue()}:
+ * <pre>
+ * JSONReader reader = new JSONReader(in);
+ * reader.startArray();
+ * while (reader.hasNext()) {
+ *     Order order = reader.readObject(Order.class);
+ * }
+ * reader.endArray();
+ * reader.close();
+ * </pre>
+ * For newline delimited JSON, call {@link #hasNext()} and a <code>readXxx</code> method at the top level.
+ */
+public class JSONReader implements Closeable {
+
+    private final JSONReaderScanner lexer;
+    private final DefaultJSONParser parser;
+
+    public JSONReader(InputStream in, Feature... features) {
+        this(new JSONReaderScanner(in, JSON.DEFAULT_PARSER_FEATURE | Feature.of(features)), ParserConfig.getGlobalInstance());
+    }
+
+    public JSONReader(ReadableByteChannel channel, Feature... features) {
+        this(new JSONReaderScanner(channel, JSON.DEFAULT_PARSER_FEATURE | Feature.of(features)), ParserConfig.getGlobalInstance());
+    }
+
+    public JSONReader(Reader reader, Feature... features) {
+        this(new JSONReaderScanner(reader, JSON.DEFAULT_PARSER_FEATURE | Feature.of(features)), ParserConfig.getGlobalInstance());
+    }
+
+    public JSONReader(JSONReaderScanner lexer, ParserConfig config) {
+        this.lexer = lexer;
+        this.parser = new DefaultJSONParser(lexer, config);
+    }
+
+    public JSONLexer getLexer() {
+        return lexer;
+    }
+
+    /**
+     * Returns the {@link JSONToken} of the next value, name or end of container, moving past the comma before it.
+     */
+    public int peek() {
+        if (lexer.token() == JSONToken.COMMA) {
+            lexer.nextToken();
+        }
+        return lexer.token();
+    }
+
+    /**
+     * Returns whether the current object or array, or the top level stream, has another element.
+     */
+    public boolean hasNext() {
+        int token = peek();
+        return token != JSONToken.RBRACE && token != JSONToken.RBRACKET && token != JSONToken.EOF;
+    }
+
+    public void startObject() {
+        accept(peek(), JSONToken.LBRACE);
+    }
+
+    public void endObject() {
+        accept(lexer.token(), JSONToken.RBRACE);
+    }
+
+    public void startArray() {
+        accept(peek(), JSONToken.LBRACKET);
+    }
+
+    public void endArray() {
+        accept(lexer.token(), JSONToken.RBRACKET);
+    }
+
+    private void accept(int token, int expect) {
+        if (token != expect) {
+            throw lexer.syntaxError("expect " + JSONToken.name(expect) + ", but " + JSONToken.name(token));
+        }
+        lexer.nextToken();
+    }
+
+    /**
+     * Reads the name of the next property of the current object, and its colon.
+     */
+    public String nextName() {
+        int token = peek();
+        if (token != JSONToken.LITERAL_STRING) {
+            throw lexer.syntaxError("expect property name, but " + JSONToken.name(token));
+        }
+        String name = lexer.stringVal();
+        lexer.nextToken();
+        accept(lexer.token(), JSONToken.COLON);
+        return name;
+    }
+
+    /**
+     * Skips the next value, which may be a whole object or array.
+     */
+    public void skipValue() {
+        peek();
+        lexer.skipCurrentValue();
+    }
+
+    public String readString() {
+        return readObject(String.class);
+    }
+
+    public Integer readInteger() {
+        return readObject(Integer.class);
+    }
+
+    public Long readLong() {
+        return readObject(Long.class);
+    }
+
+    public Double readDouble() {
+        return readObject(Double.class);
+    }
+
+    public BigDecimal readDecimal() {
+        return readObject(BigDecimal.class);
+    }
+
+    public Boolean readBoolean() {
+        return readObject(Boolean.class);
+    }
+
+    /**
+     * Reads the next value as a {@link java.util.Map}, {@link java.util.List}, number, string, boolean or null.
+     */
+    public Object readObject() {
+        peek();
+        return parser.parse();
+    }
+
+    /**
+     * Binds the next value, and only it, to the given type.
+     */
+    public <T> T readObject(Class<T> clazz) {
+        return readObject((Type) clazz);
+    }
+
+    public <T> T readObject(Type type) {
+        peek();
+        return parser.parseObject(type);
+    }
+
+    /**
+     * Closes the source.
+     */
+    public void close() {
+        lexer.close();
+    }
+}
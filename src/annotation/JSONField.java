@@ -1,6 +1,7 @@
 package annotation;
 
-import com.sun.org.apache.xalan.internal.utils.FeatureManager;
+import parser.Feature;
+import serializer.SerializerFeature;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -24,7 +25,12 @@ public @interface JSONField {
     SerializerFeature[] serializeFeatures() default {};
     Feature[] parseFeatures() default {};
     String label() default "";
-    boolean jsonDirect() default Void.class;
+    /**
+     * For a <code>String</code> or <code>byte[]</code> property holding JSON text: the text is written as it is,
+     * neither quoted nor escaped, and the exact text of the value is read into the property, without building the
+     * value.
+     */
+    boolean jsonDirect() default false;
     /**
      * Serializer class to use for serializing associated value.
      */
@@ -40,6 +46,10 @@ public @interface JSONField {
      */
     String[] alternateNames() default {};
 
+    /**
+     * The properties of the value are written as properties of the bean holding it, and read back from them. The
+     * entries of a map property take the properties which map to nothing else.
+     */
     boolean unwrapped() default false;
 
     /**
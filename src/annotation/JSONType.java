@@ -1,5 +1,11 @@
 package annotation;
 
+import parser.Feature;
+import parser.ParserConfig;
+import serializer.SerializeFilter;
+import serializer.SerializerFeature;
+import util.PropertyNamingStrategy;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -30,4 +36,10 @@ public @interface JSONType {
     PropertyNamingStrategy naming() default PropertyNamingStrategy.NeverUseThisValueExceptDefaultValue;
     Class<? extends SerializeFilter>[] serializeFilters() default {};
     Class<? extends ParserConfig.AutoTypeCheckHandler> autoTypeCheckHandler() default ParserConfig.AutoTypeCheckHandler.class;
+    /**
+     * The version of the schema of the bean written as an array, with {@link SerializerFeature#BeanToArray}: when
+     * positive, it is the first element of the array. The properties added in a new version come last, with a
+     * greater {@link JSONField#ordinal()}.
+     */
+    int version() default 0;
 }
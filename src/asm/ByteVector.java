@@ -133,15 +133,45 @@ public class ByteVector {
         return this;
     }
 
+    /**
+     * Puts a long into this byte vector. The byte vector is automatically
+     * enlarged if necessary.
+     *
+     * @param l a long.
+     * @return this byte vector.
+     */
+    public ByteVector putLong(final long l) {
+        int length = this.length;
+        if (length + 8 > data.length) {
+            enlarge(8);
+        }
+        final byte[] data = this.data;
+        int i = (int) (l >>> 32);
+        data[length++] = (byte) (i >>> 24);
+        data[length++] = (byte) (i >>> 16);
+        data[length++] = (byte) (i >>> 8);
+        data[length++] = (byte) i;
+        i = (int) l;
+        data[length++] = (byte) (i >>> 24);
+        data[length++] = (byte) (i >>> 16);
+        data[length++] = (byte) (i >>> 8);
+        data[length++] = (byte) i;
+        this.length = length;
+        return this;
+    }
+
     /**
      * Puts an UTF8 string into this byte vector. The byte vector is automatically
      * enlarged if necessary.
      *
-     * @param s a String.
+     * @param s a String whose UTF8 encoded length must be less than 65536.
      * @return this byte vector.
      */
     public ByteVector putUTF8(final String s) {
         final int charLength = s.length();
+        if (charLength > 65535) {
+            throw new IllegalArgumentException("UTF8 string too large");
+        }
         int len = length;
         if (len + 2 + charLength > data.length) {
             enlarge(2 + charLength);
@@ -155,18 +185,72 @@ public class ByteVector {
         // general method.
         data[len++] = (byte) (charLength >>> 8);
         data[len++] = (byte) charLength;
-        for (int i = 0; i < charLength; i++) {
+        for (int i = 0; i < charLength; ++i) {
             final char c = s.charAt(i);
-            if ((c >= '\001' && c <= '\177') || (c >= '\u4E00' && c <='\u9FFF')) {
+            if (c >= '\001' && c <= '\177') {
                 data[len++] = (byte) c;
             } else {
-                throw new UnsupportedOperationException();
+                length = len;
+                return encodeUTF8(s, i, 65535);
             }
         }
         length = len;
         return this;
+    }
 
-        
+    /**
+     * Puts an UTF8 string into this byte vector, in the modified UTF-8 of the class file format: the null char and
+     * the chars above 0x7F take two or three bytes. The string length, just before the current
+     * position, is rewritten with the encoded length.
+     *
+     * @param s a String.
+     * @param i the index of the first character to encode. The previous characters are supposed to have already
+     *          been encoded, using only one byte per character.
+     * @param maxByteLength the maximum byte length of the encoded string, including the already encoded characters.
+     * @return this byte vector.
+     */
+    ByteVector encodeUTF8(final String s, int i, int maxByteLength) {
+        final int charLength = s.length();
+        int byteLength = i;
+        char c;
+        for (int j = i; j < charLength; ++j) {
+            c = s.charAt(j);
+            if (c >= '\001' && c <= '\177') {
+                byteLength++;
+            } else if (c > '\u07FF') {
+                byteLength += 3;
+            } else {
+                byteLength += 2;
+            }
+        }
+        if (byteLength > maxByteLength) {
+            throw new IllegalArgumentException("UTF8 string too large");
+        }
+        int start = length - i - 2;
+        if (start >= 0) {
+            data[start] = (byte) (byteLength >>> 8);
+            data[start + 1] = (byte) byteLength;
+        }
+        if (length + byteLength - i > data.length) {
+            enlarge(byteLength - i);
+        }
+        final byte[] data = this.data;
+        int len = length;
+        for (int j = i; j < charLength; ++j) {
+            c = s.charAt(j);
+            if (c >= '\001' && c <= '\177') {
+                data[len++] = (byte) c;
+            } else if (c > '\u07FF') {
+                data[len++] = (byte) (0xE0 | c >> 12 & 0xF);
+                data[len++] = (byte) (0x80 | c >> 6 & 0x3F);
+                data[len++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                data[len++] = (byte) (0xC0 | c >> 6 & 0x1F);
+                data[len++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        length = len;
+        return this;
     }
 
     /**
@@ -7,6 +7,12 @@ import java.io.InputStream;
 /**
  * Created by Syrius on 07/01/2022.
  */
+
+/**
+ * A minimal Java class parser which only visits the class annotations, the methods and their
+ * <code>LocalVariableTable</code>, to recover the parameter names of classes compiled without
+ * <code>-parameters</code>.
+ */
 public class ClassReader {
     public final byte[] b;
     private final int[] items;
@@ -16,22 +22,12 @@ public class ClassReader {
     private boolean readAnnotations;
 
     public ClassReader(InputStream is, boolean readAnnotations) throws IOException {
+        this(readClass(is), readAnnotations);
+    }
+
+    public ClassReader(byte[] b, boolean readAnnotations) {
+        this.b = b;
         this.readAnnotations = readAnnotations;
-        {
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            byte[] buf = new byte[1024];
-            for (; ; ) {
-                int len = is.read(buf);
-                if (len == -1) {
-                    break;
-                }
-                if (len > 0) {
-                    out.write(buf, 0, len);
-                }
-            }
-            is.close();
-            this.b = out.toByteArray();
-        }
 
         // parses the constant pool
         items = new int[readUnsignedShort(8)];
@@ -79,6 +75,25 @@ public class ClassReader {
         header = index;
     }
 
+    private static byte[] readClass(InputStream is) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            for (; ; ) {
+                int len = is.read(buf);
+                if (len == -1) {
+                    break;
+                }
+                if (len > 0) {
+                    out.write(buf, 0, len);
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
     public void accept(final TypeCollector classVisitor) {
         char[] c = new char[maxStringLength]; // buffer use to read strings
         int i, j; // loop variables
@@ -105,38 +120,15 @@ public class ClassReader {
         for (i = 0; i < len; ++i) {
             u += 2;
         }
-        v = u;
-        i = readUnsignedShort(v);
-        v += 2;
-        for (; i > 0; --i) {
-            j = readUnsignedShort(v + 6);
-            v += 8;
-            for (; j > 0; --j) {
-                v += 6 + readInt(v + 2);
-            }
-        }
-        i = readUnsignedShort(v);
-        v += 2;
-        for (; i > 0; --i) {
-            j = readUnsignedShort(v + 6);
-            v += 8;
-            for (; j > 0; --j) {
-                v += 6 + readInt(v + 2);
-            }
-        }
-        i = readUnsignedShort(v);
-        v += 2;
-        for (; i > 0; --i) {
-            v += 6 + readInt(v + 2);
-        }
         if (anns != 0) {
             for (i = readUnsignedShort(anns), v = anns + 2; i > 0; --i) {
                 String name = readUTF8(v, c);
                 classVisitor.visitAnnotation(name);
+                v = skipAnnotationValues(v + 2);
             }
         }
 
-        // visits the fields
+        // skips the fields
         i = readUnsignedShort(u);
         u += 2;
         for (; i > 0; --i) {
@@ -156,6 +148,37 @@ public class ClassReader {
         }
     }
 
+    /**
+     * Skips the element value pairs of an annotation, starting at their count, and returns the index after them.
+     */
+    private int skipAnnotationValues(int v) {
+        int pairs = readUnsignedShort(v);
+        v += 2;
+        for (; pairs > 0; --pairs) {
+            v = skipElementValue(v + 2);
+        }
+        return v;
+    }
+
+    private int skipElementValue(int v) {
+        switch (b[v] & 0xFF) {
+            case 'e': // enum_const_value
+                return v + 5;
+            case '@': // annotation_value
+                return skipAnnotationValues(v + 3);
+            case '[': { // array_value
+                int size = readUnsignedShort(v + 1);
+                v += 3;
+                for (; size > 0; --size) {
+                    v = skipElementValue(v);
+                }
+                return v;
+            }
+            default: // const_value_index or class_info_index
+                return v + 3;
+        }
+    }
+
     private int getAttributes() {
         // skips the header
         int u = header + 8 + readUnsignedShort(header + 6) * 2;
@@ -187,30 +210,19 @@ public class ClassReader {
         String name = readUTF8(u + 2, c);
         String desc = readUTF8(u + 4, c);
         v = 0;
-        w = 0;
 
-        // looks for Code and Exceptions attributes
+        // looks for the Code attribute
         j = readUnsignedShort(u + 6);
         u += 8;
         for (; j > 0; --j) {
             attrName = readUTF8(u, c);
             int attrSize = readInt(u + 2);
             u += 6;
-            // tests are sorted in decreasing frequency order
-            // (based on frequencies observed on typical classes)
             if (attrName.equals("Code")) {
                 v = u;
             }
             u += attrSize;
         }
-        // reads declared exceptions
-        if (w == 0) {
-        } else {
-            w += 2;
-            for (j = 0; j < readUnsignedShort(w); ++j) {
-                w += 2;
-            }
-        }
 
         // visits the method's code, if any
         MethodCollector mv = classVisitor.visitMethod(access, name, desc);
@@ -218,47 +230,29 @@ public class ClassReader {
         if (mv != null && v != 0) {
             int codeLength = readInt(v + 4);
             v += 8;
+            v += codeLength;
 
-            int codeStart = v;
-            int codeEnd = v + codeLength;
-            v = codeEnd;
-
+            // skips the exception table
             j = readUnsignedShort(v);
             v += 2;
             for (; j > 0; --j) {
                 v += 8;
             }
-            // parses the local variable, line number tables, and code
-            // attributes
+
+            // looks for the local variable table among the code attributes
             int varTable = 0;
-            int varTypeTable = 0;
             j = readUnsignedShort(v);
             v += 2;
             for (; j > 0; --j) {
                 attrName = readUTF8(v, c);
                 if (attrName.equals("LocalVariableTable")) {
                     varTable = v + 6;
-                } else if (attrName.equals("LocalVariableTypeTable")) {
-                    varTypeTable = v + 6;
                 }
                 v += 6 + readInt(v + 2);
             }
 
-            v = codeStart;
-            // visits the local variable tables
+            // visits the local variable table
             if (varTable != 0) {
-                if (varTypeTable != 0) {
-                    k = readUnsignedShort(varTypeTable) * 3;
-                    w = varTypeTable + 2;
-                    int[] typeTable = new int[k];
-                    while (k > 0) {
-                        typeTable[--k] = w + 6; // signature
-                        typeTable[--k] = readUnsignedShort(w + 8); // index
-                        typeTable[--k] = readUnsignedShort(w); // start
-                        w += 10;
-                    }
-                }
-
                 k = readUnsignedShort(varTable);
                 w = varTable + 2;
                 for (; k > 0; --k) {
@@ -268,6 +262,10 @@ public class ClassReader {
                 }
             }
         }
+
+        if (mv != null) {
+            mv.visitEnd();
+        }
         return u;
     }
 
@@ -278,7 +276,60 @@ public class ClassReader {
 
     private int readInt(final int index) {
         byte[] b = this.b;
-        return ((b[index] & 0xFF) << 24) | (b[index + 1] & 0xFF) << 16)
+        return ((b[index] & 0xFF) << 24) | ((b[index + 1] & 0xFF) << 16)
                 | ((b[index + 2] & 0xFF) << 8) | (b[index + 3] & 0xFF);
     }
+
+    /**
+     * Reads the UTF8 constant pool item whose index is stored at <code>index</code>.
+     */
+    private String readUTF8(int index, final char[] buf) {
+        int item = readUnsignedShort(index);
+        String s = strings[item];
+        if (s != null) {
+            return s;
+        }
+        index = items[item];
+        return strings[item] = readUTF(index + 2, readUnsignedShort(index), buf);
+    }
+
+    /**
+     * Decodes a modified UTF-8 string of <code>utfLen</code> bytes starting at <code>index</code>.
+     */
+    private String readUTF(int index, final int utfLen, final char[] buf) {
+        int endIndex = index + utfLen;
+        byte[] b = this.b;
+        int strLen = 0;
+        int c;
+        int st = 0;
+        char cc = 0;
+        while (index < endIndex) {
+            c = b[index++];
+            switch (st) {
+                case 0:
+                    c = c & 0xFF;
+                    if (c < 0x80) { // 0xxxxxxx
+                        buf[strLen++] = (char) c;
+                    } else if (c < 0xE0 && c > 0xBF) { // 110x xxxx 10xx xxxx
+                        cc = (char) (c & 0x1F);
+                        st = 1;
+                    } else { // 1110 xxxx 10xx xxxx 10xx xxxx
+                        cc = (char) (c & 0x0F);
+                        st = 2;
+                    }
+                    break;
+
+                case 1: // byte 2 of 2-byte char or byte 3 of 3-byte char
+                    buf[strLen++] = (char) ((cc << 6) | (c & 0x3F));
+                    st = 0;
+                    break;
+
+                case 2: // byte 2 of 3-byte char
+                    cc = (char) ((cc << 6) | (c & 0x3F));
+                    st = 1;
+                    break;
+            }
+        }
+        return new String(buf, 0, strLen);
+    }
 }
@@ -1,7 +1,5 @@
 package asm;
 
-import java.lang.reflect.Type;
-
 /**
  * Created by Syrius on 10/01/2022.
  */
@@ -39,7 +37,7 @@ public class ClassWriter {
     /**
      * A reusable key used to look for items in the {@link #items} hash table.
      */
-    final Itam key2;
+    final Item key2;
 
     /**
      * A reusable key used to look for items in the {@link #items} hash table.
@@ -148,6 +146,17 @@ public class ClassWriter {
         }
     }
 
+    public FieldWriter visitField(final int access, final String name, final String desc) {
+        return new FieldWriter(this, access, name, desc);
+    }
+
+    public MethodVisitor visitMethod(final int access, final String name, final String desc, final String signature, final String[] exceptions) {
+        return new MethodWriter(this, access, name, desc, signature, exceptions);
+    }
+
+    public void visitEnd() {
+    }
+
     // ---------------------------------------------
     // Other public methods
     // ---------------------------------------------
@@ -227,11 +236,46 @@ public class ClassWriter {
                 put(result);
             }
             return result;
+        } else if (cst instanceof Long) {
+            long val = ((Long) cst).longValue();
+            key.set(val);
+            Item result = get(key);
+            if (result == null) {
+                pool.putByte(5 /* LONG */).putInt((int) (val >>> 32)).putInt((int) val);
+                result = new Item(index, key);
+                // long constants take two slots in the constant pool
+                index += 2;
+                put(result);
+            }
+            return result;
+        } else if (cst instanceof Float) {
+            float val = ((Float) cst).floatValue();
+            key.set(val);
+            Item result = get(key);
+            if (result == null) {
+                pool.putByte(4 /* FLOAT */).putInt(key.intVal);
+                result = new Item(index++, key);
+                put(result);
+            }
+            return result;
+        } else if (cst instanceof Double) {
+            double val = ((Double) cst).doubleValue();
+            key.set(val);
+            Item result = get(key);
+            if (result == null) {
+                long bits = key.longVal;
+                pool.putByte(6 /* DOUBLE */).putInt((int) (bits >>> 32)).putInt((int) bits);
+                result = new Item(index, key);
+                // double constants take two slots in the constant pool
+                index += 2;
+                put(result);
+            }
+            return result;
         } else if (cst instanceof String) {
             return newString((String) cst);
         } else if (cst instanceof Type) {
             Type t = (Type) cst;
-            return newClassItem(t.sort == 0 /* Type.OBJECT */ ? t.getInternalName() : t.getDescriptor());
+            return newClassItem(t.sort == Type.OBJECT ? t.getInternalName() : t.getDescriptor());
         } else {
             throw new IllegalArgumentException("value " + cst);
         }
@@ -272,7 +316,6 @@ public class ClassWriter {
         key3.set(9 /* FIELD */, owner, name, desc);
         Item result = get(key3);
         if (result == null) {
-            // put122(9 /* FIELD */, newClassItem(owner).index, newNameTypeItem(name, desc).index);
             int s1 = newClassItem(owner).index, s2 = newNameTypeItem(name, desc).index;
             pool.put12(9 /* FIELD */, s1).putShort(s2);
             result = new Item(index++, key3);
@@ -281,4 +324,108 @@ public class ClassWriter {
         return result;
     }
 
+    /**
+     * Adds a method reference to the constant pool of the class being build. Does nothing if the constant pool
+     * already contains a similar item.
+     *
+     * @param owner the internal name of the method's owner class.
+     * @param name the method's name.
+     * @param desc the method's descriptor.
+     * @param itf <tt>true</tt> if <tt>owner</tt> is an interface.
+     * @return a new or already existing method reference item.
+     */
+    Item newMethodItem(final String owner, final String name, final String desc, final boolean itf) {
+        int type = itf ? 11 /* IMETH */ : 10 /* METH */;
+        key3.set(type, owner, name, desc);
+        Item result = get(key3);
+        if (result == null) {
+            int s1 = newClassItem(owner).index, s2 = newNameTypeItem(name, desc).index;
+            pool.put12(type, s1).putShort(s2);
+            result = new Item(index++, key3);
+            put(result);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a string to the constant pool of the class being build. Does nothing if the constant pool already contains
+     * a similar item.
+     *
+     * @param value the String value.
+     * @return a new or already existing string item.
+     */
+    private Item newString(final String value) {
+        key2.set(8 /* STR */, value, null, null);
+        Item result = get(key2);
+        if (result == null) {
+            pool.put12(8 /* STR */, newUTF8(value));
+            result = new Item(index++, key2);
+            put(result);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a name and type to the constant pool of the class being build. Does nothing if the constant pool already
+     * contains a similar item.
+     *
+     * @param name a name.
+     * @param desc a type descriptor.
+     * @return a new or already existing name and type item.
+     */
+    Item newNameTypeItem(final String name, final String desc) {
+        key2.set(12 /* NAME_TYPE */, name, desc, null);
+        Item result = get(key2);
+        if (result == null) {
+            int s1 = newUTF8(name), s2 = newUTF8(desc);
+            pool.put12(12 /* NAME_TYPE */, s1).putShort(s2);
+            result = new Item(index++, key2);
+            put(result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the constant pool's hash table item which is equal to the given item.
+     *
+     * @param key a constant pool item.
+     * @return the constant pool's hash table item which is equal to the given item, or <tt>null</tt> if there is no
+     * such item.
+     */
+    private Item get(final Item key) {
+        Item i = items[key.hashCode % items.length];
+        while (i != null && (i.type != key.type || !key.isEqualTo(i))) {
+            i = i.next;
+        }
+        return i;
+    }
+
+    /**
+     * Puts the given item in the constant pool's hash table. The hash table <i>must</i> not already contains this
+     * item.
+     *
+     * @param i the item to be added to the constant pool's hash table.
+     */
+    private void put(final Item i) {
+        if (index > threshold) {
+            int ll = items.length;
+            int nl = ll * 2 + 1;
+            Item[] newItems = new Item[nl];
+            for (int l = ll - 1; l >= 0; --l) {
+                Item j = items[l];
+                while (j != null) {
+                    int index = j.hashCode % newItems.length;
+                    Item k = j.next;
+                    j.next = newItems[index];
+                    newItems[index] = j;
+                    j = k;
+                }
+            }
+            items = newItems;
+            threshold = (int) (nl * 0.75);
+        }
+        int index = i.hashCode % items.length;
+        i.next = items[index];
+        items[index] = i;
+    }
 }
@@ -0,0 +1,48 @@
+package asm;
+
+/**
+ * Maps the entries of the <code>LocalVariableTable</code> of a method to its parameters by local variable slot.
+ */
+public class MethodCollector {
+
+    private final TypeCollector owner;
+    private final String method;
+
+    /**
+     * The local variable slot of each parameter, after the receiver of an instance method.
+     */
+    private final int[] slots;
+    private final String[] names;
+    private int found;
+
+    protected MethodCollector(TypeCollector owner, String method, int ignoreCount, Type[] argumentTypes) {
+        this.owner = owner;
+        this.method = method;
+
+        slots = new int[argumentTypes.length];
+        names = new String[argumentTypes.length];
+        int slot = ignoreCount;
+        for (int i = 0; i < argumentTypes.length; ++i) {
+            slots[i] = slot;
+            slot += argumentTypes[i].getSize();
+        }
+    }
+
+    protected void visitLocalVariable(String name, int index) {
+        for (int i = 0; i < slots.length; ++i) {
+            if (slots[i] == index) {
+                if (names[i] == null) {
+                    names[i] = name;
+                    found++;
+                }
+                return;
+            }
+        }
+    }
+
+    protected void visitEnd() {
+        if (found == names.length) {
+            owner.visitParameterNames(method, names);
+        }
+    }
+}
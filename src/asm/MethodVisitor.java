@@ -0,0 +1,37 @@
+package asm;
+
+/**
+ * A visitor to visit a Java method. The methods of this interface must be
+ * called in the following order: ( <tt>visit</tt><i>X</i>Insn</tt> |
+ * <tt>visitLabel</tt> )* <tt>visitMaxs</tt> <tt>visitEnd</tt>.
+ */
+public interface MethodVisitor {
+
+    void visitInsn(int opcode);
+
+    void visitIntInsn(int opcode, int operand);
+
+    void visitVarInsn(int opcode, int var);
+
+    void visitTypeInsn(int opcode, String type);
+
+    void visitFieldInsn(int opcode, String owner, String name, String desc);
+
+    void visitMethodInsn(int opcode, String owner, String name, String desc);
+
+    void visitJumpInsn(int opcode, Label label);
+
+    void visitLabel(Label label);
+
+    void visitLdcInsn(Object cst);
+
+    void visitIincInsn(int var, int increment);
+
+    void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels);
+
+    void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels);
+
+    void visitMaxs(int maxStack, int maxLocals);
+
+    void visitEnd();
+}
@@ -0,0 +1,148 @@
+package asm;
+
+/**
+ * Defines the JVM opcodes, access flags and array type codes. This interface
+ * does not define all the JVM opcodes, only the ones emitted by the generated
+ * serializers and deserializers.
+ */
+public interface Opcodes {
+    int V1_5 = 0 << 16 | 49;
+
+    int ACC_PUBLIC = 0x0001;
+    int ACC_PRIVATE = 0x0002;
+    int ACC_PROTECTED = 0x0004;
+    int ACC_STATIC = 0x0008;
+    int ACC_FINAL = 0x0010;
+    int ACC_SUPER = 0x0020;
+    int ACC_SYNTHETIC = 0x1000;
+
+    int T_BOOLEAN = 4;
+    int T_CHAR = 5;
+    int T_FLOAT = 6;
+    int T_DOUBLE = 7;
+    int T_BYTE = 8;
+    int T_SHORT = 9;
+    int T_INT = 10;
+    int T_LONG = 11;
+
+    int NOP = 0;
+    int ACONST_NULL = 1;
+    int ICONST_M1 = 2;
+    int ICONST_0 = 3;
+    int ICONST_1 = 4;
+    int ICONST_2 = 5;
+    int ICONST_3 = 6;
+    int ICONST_4 = 7;
+    int ICONST_5 = 8;
+    int LCONST_0 = 9;
+    int LCONST_1 = 10;
+    int FCONST_0 = 11;
+    int DCONST_0 = 14;
+    int BIPUSH = 16;
+    int SIPUSH = 17;
+    int LDC = 18;
+    int LDC_W = 19;
+    int LDC2_W = 20;
+    int ILOAD = 21;
+    int LLOAD = 22;
+    int FLOAD = 23;
+    int DLOAD = 24;
+    int ALOAD = 25;
+    int IALOAD = 46;
+    int LALOAD = 47;
+    int FALOAD = 48;
+    int DALOAD = 49;
+    int AALOAD = 50;
+    int BALOAD = 51;
+    int CALOAD = 52;
+    int SALOAD = 53;
+    int ISTORE = 54;
+    int LSTORE = 55;
+    int FSTORE = 56;
+    int DSTORE = 57;
+    int ASTORE = 58;
+    int IASTORE = 79;
+    int LASTORE = 80;
+    int FASTORE = 81;
+    int DASTORE = 82;
+    int AASTORE = 83;
+    int BASTORE = 84;
+    int CASTORE = 85;
+    int SASTORE = 86;
+    int POP = 87;
+    int POP2 = 88;
+    int DUP = 89;
+    int DUP_X1 = 90;
+    int DUP_X2 = 91;
+    int DUP2 = 92;
+    int SWAP = 95;
+    int IADD = 96;
+    int LADD = 97;
+    int ISUB = 100;
+    int IMUL = 104;
+    int ISHL = 120;
+    int LSHL = 121;
+    int ISHR = 122;
+    int IUSHR = 124;
+    int LUSHR = 125;
+    int IAND = 126;
+    int LAND = 127;
+    int IOR = 128;
+    int LOR = 129;
+    int IXOR = 130;
+    int LXOR = 131;
+    int IINC = 132;
+    int I2L = 133;
+    int I2F = 134;
+    int I2D = 135;
+    int L2I = 136;
+    int F2D = 141;
+    int D2F = 144;
+    int I2B = 145;
+    int I2C = 146;
+    int I2S = 147;
+    int LCMP = 148;
+    int FCMPL = 149;
+    int DCMPL = 151;
+    int IFEQ = 153;
+    int IFNE = 154;
+    int IFLT = 155;
+    int IFGE = 156;
+    int IFGT = 157;
+    int IFLE = 158;
+    int IF_ICMPEQ = 159;
+    int IF_ICMPNE = 160;
+    int IF_ICMPLT = 161;
+    int IF_ICMPGE = 162;
+    int IF_ICMPGT = 163;
+    int IF_ICMPLE = 164;
+    int IF_ACMPEQ = 165;
+    int IF_ACMPNE = 166;
+    int GOTO = 167;
+    int TABLESWITCH = 170;
+    int LOOKUPSWITCH = 171;
+    int IRETURN = 172;
+    int LRETURN = 173;
+    int FRETURN = 174;
+    int DRETURN = 175;
+    int ARETURN = 176;
+    int RETURN = 177;
+    int GETSTATIC = 178;
+    int PUTSTATIC = 179;
+    int GETFIELD = 180;
+    int PUTFIELD = 181;
+    int INVOKEVIRTUAL = 182;
+    int INVOKESPECIAL = 183;
+    int INVOKESTATIC = 184;
+    int INVOKEINTERFACE = 185;
+    int NEW = 187;
+    int NEWARRAY = 188;
+    int ANEWARRAY = 189;
+    int ARRAYLENGTH = 190;
+    int ATHROW = 191;
+    int CHECKCAST = 192;
+    int INSTANCEOF = 193;
+    int WIDE = 196;
+    int IFNULL = 198;
+    int IFNONNULL = 199;
+}
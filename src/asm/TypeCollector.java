@@ -0,0 +1,55 @@
+package asm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects, in one pass of a {@link ClassReader}, the parameter names of the constructors and static methods of a
+ * class from their <code>LocalVariableTable</code>, and the descriptors of the class annotations.
+ */
+public class TypeCollector {
+
+    private final Map<String, String[]> parameterNames = new HashMap<String, String[]>();
+
+    private final List<String> annotations = new ArrayList<String>(2);
+
+    protected MethodCollector visitMethod(int access, String name, String desc) {
+        if ((access & Opcodes.ACC_STATIC) == 0 && !"<init>".equals(name)) {
+            return null;
+        }
+
+        Type[] argumentTypes = Type.getArgumentTypes(desc);
+        if (argumentTypes.length == 0) {
+            return null;
+        }
+
+        return new MethodCollector(this, name + desc, (access & Opcodes.ACC_STATIC) != 0 ? 0 : 1, argumentTypes);
+    }
+
+    protected void visitAnnotation(String desc) {
+        annotations.add(desc);
+    }
+
+    void visitParameterNames(String method, String[] names) {
+        parameterNames.put(method, names);
+    }
+
+    /**
+     * Returns the parameter names by method name followed by method descriptor, e.g. <code>&lt;init&gt;(IJ)V</code>,
+     * for the methods whose class file has a complete <code>LocalVariableTable</code>.
+     */
+    public Map<String, String[]> getParameterNames() {
+        return parameterNames;
+    }
+
+    public List<String> getAnnotations() {
+        return Collections.unmodifiableList(annotations);
+    }
+
+    public boolean hasAnnotation(String desc) {
+        return annotations.contains(desc);
+    }
+}
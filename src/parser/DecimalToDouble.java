@@ -0,0 +1,172 @@
+package parser;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal <code>w 10^q</code>, with at most 19 significant digits, to the nearest double, without going
+ * through a string: by one floating point operation when both <code>w</code> and <code>10^q</code> are exact
+ * doubles (Clinger's fast path), else with the algorithm of D. Lemire, "Number Parsing at a Gigabyte per Second"
+ * (2021), after Eisel, which multiplies <code>w</code> by a 128 bit approximation of <code>5^q</code>. When the
+ * approximation is not precise enough to round correctly, which almost never happens, {@link #toDouble} returns NaN
+ * and the caller falls back to {@link Double#parseDouble(String)}.
+ */
+final class DecimalToDouble {
+
+    private static final int SMALLEST_POWER_OF_TEN = -342;
+    private static final int LARGEST_POWER_OF_TEN = 308;
+
+    /**
+     * The 128 most significant bits of <code>5^q</code>, high then low word, from
+     * {@link #SMALLEST_POWER_OF_TEN}: truncated for <code>q &gt;= 0</code>, and rounded up for <code>q &lt; 0</code>.
+     */
+    private static final long[] POWER_OF_FIVE_128 = new long[2 * (LARGEST_POWER_OF_TEN - SMALLEST_POWER_OF_TEN + 1)];
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final float[] FLOAT_POW10 = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    static {
+        BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+        BigInteger two127 = BigInteger.ONE.shiftLeft(127);
+        BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        BigInteger five = BigInteger.valueOf(5);
+        for (int q = SMALLEST_POWER_OF_TEN; q <= LARGEST_POWER_OF_TEN; ++q) {
+            BigInteger c;
+            if (q >= 0) {
+                c = five.pow(q);
+                if (c.compareTo(two127) < 0) {
+                    c = c.shiftLeft(127 - c.bitLength() + 1);
+                } else {
+                    c = c.shiftRight(c.bitLength() - 128);
+                }
+            } else {
+                BigInteger power5 = five.pow(-q);
+                int z = power5.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                c = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+                while (c.compareTo(two128) >= 0) {
+                    c = c.shiftRight(1);
+                }
+            }
+            int index = 2 * (q - SMALLEST_POWER_OF_TEN);
+            POWER_OF_FIVE_128[index] = c.shiftRight(64).longValue();
+            POWER_OF_FIVE_128[index + 1] = c.and(mask64).longValue();
+        }
+    }
+
+    private DecimalToDouble() {
+    }
+
+    /**
+     * Returns <code>w 10^q</code>, where <code>w</code> is unsigned and has at most 19 digits, or NaN when it cannot
+     * be decided here.
+     */
+    static double toDouble(boolean negative, long w, int q) {
+        if (w == 0 || q < SMALLEST_POWER_OF_TEN) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (q > LARGEST_POWER_OF_TEN) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        if (q >= -22 && q <= 22 && w >= 0 && w <= (1L << 53)) {
+            double d = (double) w;
+            d = q < 0 ? d / POW10[-q] : d * POW10[q];
+            return negative ? -d : d;
+        }
+
+        int lz = Long.numberOfLeadingZeros(w);
+        w <<= lz;
+
+        // the product of w and the 128 bits of 5^q, only the high 64 bits when they are precise enough
+        int index = 2 * (q - SMALLEST_POWER_OF_TEN);
+        long high = multiplyHigh(w, POWER_OF_FIVE_128[index]);
+        long low = w * POWER_OF_FIVE_128[index];
+        final long precisionMask = 0xFFFFFFFFFFFFFFFFL >>> 55;
+        if ((high & precisionMask) == precisionMask) {
+            long secondHigh = multiplyHigh(w, POWER_OF_FIVE_128[index + 1]);
+            low += secondHigh;
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                high++;
+            }
+        }
+        if (low == 0xFFFFFFFFFFFFFFFFL && (q < -27 || q > 55)) {
+            return Double.NaN;
+        }
+
+        int upperbit = (int) (high >>> 63);
+        int shift = upperbit + 64 - 52 - 3;
+        long mantissa = high >>> shift;
+        // floor(log2(10^q)) + 63 + 1023
+        int power2 = (((152170 + 65536) * q) >> 16) + 63 + upperbit - lz + 1023;
+
+        if (power2 <= 0) {
+            // subnormal
+            if (-power2 + 1 >= 64) {
+                return negative ? -0.0 : 0.0;
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << 52) ? 0 : 1;
+            return assemble(negative, mantissa, power2);
+        }
+
+        // exactly half way between two doubles, round to even
+        if (Long.compareUnsigned(low, 1) <= 0 && q >= -4 && q <= 23 && (mantissa & 3) == 1) {
+            if ((mantissa << shift) == high) {
+                mantissa &= ~1L;
+            }
+        }
+
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << 52)) {
+            mantissa = 1L << 52;
+            power2++;
+        }
+        if (power2 >= 0x7FF) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return assemble(negative, mantissa, power2);
+    }
+
+    /**
+     * Returns <code>w 10^q</code> as a float when Clinger's fast path applies, else NaN.
+     */
+    static float toFloat(boolean negative, long w, int q) {
+        if (w == 0) {
+            return negative ? -0.0f : 0.0f;
+        }
+        if (q >= -10 && q <= 10 && w >= 0 && w <= (1L << 24)) {
+            float f = (float) w;
+            f = q < 0 ? f / FLOAT_POW10[-q] : f * FLOAT_POW10[q];
+            return negative ? -f : f;
+        }
+        return Float.NaN;
+    }
+
+    private static double assemble(boolean negative, long mantissa, int power2) {
+        long bits = (mantissa & ((1L << 52) - 1)) | ((long) power2 << 52);
+        if (negative) {
+            bits |= 1L << 63;
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * The high 64 bits of the unsigned product of two longs.
+     */
+    private static long multiplyHigh(long x, long y) {
+        long x0 = x & 0xFFFFFFFFL, x1 = x >>> 32;
+        long y0 = y & 0xFFFFFFFFL, y1 = y >>> 32;
+        long p01 = x0 * y1;
+        long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+    }
+}
@@ -0,0 +1,224 @@
+package parser;
+
+import parser.deserializer.ObjectDeserializer;
+import util.JSONException;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static parser.JSONToken.COMMA;
+import static parser.JSONToken.EOF;
+import static parser.JSONToken.LBRACE;
+import static parser.JSONToken.LBRACKET;
+import static parser.JSONToken.RBRACE;
+import static parser.JSONToken.RBRACKET;
+
+/**
+ * Parses JSON text into untyped values ({@link Map}, {@link List}, numbers, strings and booleans) or, through the
+ * deserializers of its {@link ParserConfig}, into typed values.
+ */
+public class DefaultJSONParser {
+
+    public final JSONLexer lexer;
+
+    protected final ParserConfig config;
+
+    public DefaultJSONParser(String input) {
+        this(input, ParserConfig.getGlobalInstance(), 0);
+    }
+
+    public DefaultJSONParser(String input, ParserConfig config, int features) {
+        this(new JSONLexer(input, features), config);
+    }
+
+    public DefaultJSONParser(byte[] input, int off, int len, ParserConfig config, int features) {
+        this(new JSONLexer(input, off, len, features), config);
+    }
+
+    public DefaultJSONParser(JSONLexer lexer, ParserConfig config) {
+        this.lexer = lexer;
+        this.config = config;
+
+        lexer.nextToken();
+    }
+
+    public ParserConfig getConfig() {
+        return config;
+    }
+
+    public JSONLexer getLexer() {
+        return lexer;
+    }
+
+    public boolean isEnabled(Feature feature) {
+        return lexer.isEnabled(feature);
+    }
+
+    /**
+     * Parses the value at the current token into a {@link Map}, {@link List}, {@link Integer}, {@link Long},
+     * {@link java.math.BigInteger}, {@link Double} (or {@link java.math.BigDecimal} with
+     * {@link Feature#UseBigDecimal}), {@link String}, {@link Boolean} or null.
+     */
+    public Object parse() {
+        return parse(null);
+    }
+
+    public Object parse(Object fieldName) {
+        final JSONLexer lexer = this.lexer;
+        switch (lexer.token()) {
+            case LBRACE: {
+                Map<String, Object> map = lexer.isEnabled(Feature.OrderedField)
+                        ? new LinkedHashMap<String, Object>()
+                        : new HashMap<String, Object>();
+                parseObject(map, fieldName);
+                return map;
+            }
+            case LBRACKET: {
+                List<Object> list = new ArrayList<Object>();
+                parseArray(list, fieldName);
+                return list;
+            }
+            case JSONToken.LITERAL_INT: {
+                Number value = lexer.integerValue();
+                lexer.nextToken();
+                return value;
+            }
+            case JSONToken.LITERAL_FLOAT: {
+                Object value = lexer.isEnabled(Feature.UseBigDecimal)
+                        ? lexer.decimalValue()
+                        : (Object) lexer.doubleValue();
+                lexer.nextToken();
+                return value;
+            }
+            case JSONToken.LITERAL_STRING: {
+                String value = lexer.stringVal();
+                lexer.nextToken();
+                return value;
+            }
+            case JSONToken.TRUE:
+                lexer.nextToken();
+                return Boolean.TRUE;
+            case JSONToken.FALSE:
+                lexer.nextToken();
+                return Boolean.FALSE;
+            case JSONToken.NULL:
+                lexer.nextToken();
+                return null;
+            case EOF:
+                throw lexer.syntaxError("unexpected end of input");
+            default:
+                throw lexer.syntaxError("unexpected token " + JSONToken.name(lexer.token()));
+        }
+    }
+
+    /**
+     * Parses an object into the given map. The current token must be the opening <code>{</code>.
+     */
+    public void parseObject(Map<String, Object> map, Object fieldName) {
+        final JSONLexer lexer = this.lexer;
+        if (lexer.token() != LBRACE) {
+            throw lexer.syntaxError("expect '{', but " + JSONToken.name(lexer.token()));
+        }
+
+        for (; ; ) {
+            String key = lexer.scanFieldName(config.symbolTable);
+            if (key == null) {
+                break;
+            }
+
+            lexer.nextToken();
+            map.put(key, parse(key));
+
+            int token = lexer.token();
+            if (token == COMMA) {
+                continue;
+            }
+            if (token == RBRACE) {
+                break;
+            }
+            throw lexer.syntaxError("expect ',' or '}', but " + JSONToken.name(token));
+        }
+
+        lexer.nextToken();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void parseArray(Collection collection, Object fieldName) {
+        parseArray(Object.class, collection, fieldName);
+    }
+
+    /**
+     * Parses an array into the given collection, reading each element with the deserializer of
+     * <code>itemType</code>. The current token must be the opening <code>[</code>.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void parseArray(Type itemType, Collection collection, Object fieldName) {
+        final JSONLexer lexer = this.lexer;
+        if (lexer.token() != LBRACKET) {
+            throw lexer.syntaxError("expect '[', but " + JSONToken.name(lexer.token()));
+        }
+
+        ObjectDeserializer itemDeserializer = itemType == Object.class || itemType == null
+                ? null
+                : config.getDeserializer(itemType);
+
+        lexer.nextToken();
+        if (lexer.token() == RBRACKET) {
+            lexer.nextToken();
+            return;
+        }
+
+        for (int i = 0; ; ++i) {
+            Object item = itemDeserializer == null
+                    ? parse(i)
+                    : itemDeserializer.deserialze(this, itemType, i);
+            collection.add(item);
+
+            int token = lexer.token();
+            if (token == COMMA) {
+                lexer.nextToken();
+                continue;
+            }
+            if (token == RBRACKET) {
+                break;
+            }
+            throw lexer.syntaxError("expect ',' or ']', but " + JSONToken.name(token));
+        }
+
+        lexer.nextToken();
+    }
+
+    public <T> List<T> parseArray(Class<T> clazz) {
+        List<T> list = new ArrayList<T>();
+        if (lexer.token() == JSONToken.NULL) {
+            lexer.nextToken();
+            return null;
+        }
+        parseArray(clazz, list, null);
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T parseObject(Type type) {
+        return (T) parseObject(type, null);
+    }
+
+    public <T> T parseObject(Type type, Object fieldName) {
+        ObjectDeserializer deserializer = config.getDeserializer(type);
+        return deserializer.<T>deserialze(this, type, fieldName);
+    }
+
+    /**
+     * Checks that the whole input has been consumed.
+     */
+    public void close() {
+        if (lexer.token() != EOF) {
+            throw new JSONException("not close json text, token : " + JSONToken.name(lexer.token()));
+        }
+    }
+}
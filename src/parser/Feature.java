@@ -0,0 +1,67 @@
+package parser;
+
+public enum Feature {
+    /**
+     * Parse decimal numbers as {@link java.math.BigDecimal} instead of {@link Double}.
+     */
+    UseBigDecimal,
+    /**
+     * Fail on properties that do not map to a field of the target type.
+     */
+    FailOnUnknownProperties,
+    /**
+     * Keep the field order of parsed objects.
+     */
+    OrderedField,
+    /**
+     * Do not use generated deserializers.
+     */
+    DisableASM,
+    /**
+     * Index lazy documents ({@link JSONNode}) 8 bytes at a time instead of byte by byte, which is faster when most
+     * of the text is in long strings, and slower for compact documents of short values.
+     */
+    UseSWAR,
+    /**
+     * Bind arrays to beans by position, as written with {@link serializer.SerializerFeature#BeanToArray}.
+     */
+    SupportArrayToBean;
+
+    Feature() {
+        mask = (1 << ordinal());
+    }
+
+    public final int mask;
+
+    public final int getMask() {
+        return mask;
+    }
+
+    public static boolean isEnabled(int features, Feature feature) {
+        return (features & feature.mask) != 0;
+    }
+
+    public static int config(int features, Feature feature, boolean state) {
+        if (state) {
+            features |= feature.mask;
+        } else {
+            features &= ~feature.mask;
+        }
+
+        return features;
+    }
+
+    public static int of(Feature[] features) {
+        if (features == null) {
+            return 0;
+        }
+
+        int value = 0;
+
+        for (Feature feature : features) {
+            value |= feature.mask;
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,540 @@
+package parser;
+
+import parser.deserializer.FieldDeserializer;
+import parser.deserializer.JavaBeanDeserializer;
+import parser.deserializer.MapDeserializer;
+import parser.deserializer.ObjectDeserializer;
+import serializer.CollectionCodec;
+import serializer.JSONBWriter;
+import serializer.JSONSerializer;
+import serializer.SerializeWriter;
+import util.FieldInfo;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static serializer.JSONBWriter.ARRAY;
+import static serializer.JSONBWriter.BINARY;
+import static serializer.JSONBWriter.DECIMAL;
+import static serializer.JSONBWriter.DOUBLE;
+import static serializer.JSONBWriter.FALSE;
+import static serializer.JSONBWriter.FLOAT;
+import static serializer.JSONBWriter.INTEGER;
+import static serializer.JSONBWriter.NULL;
+import static serializer.JSONBWriter.OBJECT;
+import static serializer.JSONBWriter.STRING;
+import static serializer.JSONBWriter.TEXT;
+import static serializer.JSONBWriter.TRUE;
+
+/**
+ * Reads the JSONB written by {@link JSONBWriter}, binding objects to beans by the hashes of their property names,
+ * which are computed once per name of the stream, through the tables of the {@link JavaBeanDeserializer} of each
+ * bean. Values written as JSON text are parsed with {@link DefaultJSONParser}, as are the values of types read by a
+ * custom deserializer.
+ */
+public final class JSONBReader {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private final byte[] buf;
+    private int pos;
+    private final int end;
+    private final ParserConfig config;
+    private final int features;
+
+    // the names of the stream, by id
+    private String[] names = new String[16];
+    private long[] nameHashes = new long[16];
+    private int nameCount;
+
+    public JSONBReader(byte[] input, int off, int len, ParserConfig config, int features) {
+        this.buf = input;
+        this.pos = off;
+        this.end = off + len;
+        this.config = config;
+        this.features = features;
+    }
+
+    public boolean isEnd() {
+        return pos >= end;
+    }
+
+    /**
+     * Reads the next value, converted to <code>type</code>.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T read(Type type) {
+        return (T) readValue(type);
+    }
+
+    /**
+     * Reads the next value, as {@link DefaultJSONParser#parse()} would: a map, a list, a string, a number, a boolean
+     * or null.
+     */
+    public Object readAny() {
+        int tag = tag();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INTEGER: {
+                long value = readLong();
+                return value == (int) value ? (Object) (int) value : (Object) value;
+            }
+            case FLOAT:
+                return Float.intBitsToFloat(readInt());
+            case DOUBLE:
+                return Double.longBitsToDouble((long) readInt() << 32 | readInt() & 0xFFFFFFFFL);
+            case STRING:
+                return readString();
+            case BINARY:
+                return readBytes();
+            case ARRAY: {
+                int count = readSize();
+                List<Object> list = new ArrayList<Object>(Math.min(count, end - pos));
+                for (int i = 0; i < count; ++i) {
+                    list.add(readAny());
+                }
+                return list;
+            }
+            case OBJECT: {
+                Map<Object, Object> map = MapDeserializer.createMap(Map.class, Feature.isEnabled(features, Feature.OrderedField));
+                for (int id; (id = readName()) >= 0; ) {
+                    map.put(names[id], readAny());
+                }
+                return map;
+            }
+            case DECIMAL: {
+                int len = readSize();
+                String text = new String(buf, skip(len), len, UTF8);
+                try {
+                    return new BigDecimal(text);
+                } catch (NumberFormatException e) {
+                    throw new JSONException("illegal decimal " + text + ", pos " + pos, e);
+                }
+            }
+            case TEXT: {
+                int len = readSize();
+                DefaultJSONParser parser = new DefaultJSONParser(buf, skip(len), len, config, features);
+                Object value = parser.parse();
+                parser.close();
+                return value;
+            }
+            default:
+                throw error(tag);
+        }
+    }
+
+    private Object readValue(Type type) {
+        if (type == null || type == Object.class) {
+            return readAny();
+        }
+
+        int tag = peek();
+        if (tag == NULL) {
+            pos++;
+            return null;
+        }
+        if (tag == TEXT) {
+            pos++;
+            int len = readSize();
+            DefaultJSONParser parser = new DefaultJSONParser(buf, skip(len), len, config, features);
+            Object value = parser.parseObject(type);
+            parser.close();
+            return value;
+        }
+
+        Class<?> clazz = TypeUtils.getClass(type);
+        if (clazz == String.class && tag == STRING) {
+            pos++;
+            return readString();
+        }
+        if ((clazz == int.class || clazz == Integer.class) && tag == INTEGER) {
+            pos++;
+            return (int) readLong();
+        }
+        if ((clazz == long.class || clazz == Long.class) && tag == INTEGER) {
+            pos++;
+            return readLong();
+        }
+        if (clazz.isPrimitive() || clazz == String.class || Number.class.isAssignableFrom(clazz)
+                || clazz == Boolean.class || clazz == Character.class || clazz.isEnum()) {
+            return TypeUtils.cast(readAny(), clazz);
+        }
+        if (clazz == Date.class || Calendar.class.isAssignableFrom(clazz)) {
+            Date date = TypeUtils.castToDate(readAny());
+            if (clazz == Date.class) {
+                return date;
+            }
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(date);
+            return calendar;
+        }
+        if (clazz == byte[].class && tag == BINARY) {
+            pos++;
+            return readBytes();
+        }
+
+        if (tag == ARRAY) {
+            if (clazz.isArray()) {
+                pos++;
+                Type componentType = type instanceof GenericArrayType
+                        ? ((GenericArrayType) type).getGenericComponentType()
+                        : clazz.getComponentType();
+                Class<?> componentClass = TypeUtils.getClass(componentType);
+                int count = readSize();
+                Object array = Array.newInstance(componentClass, count);
+                for (int i = 0; i < count; ++i) {
+                    Object item = readValue(componentType);
+                    if (item != null || !componentClass.isPrimitive()) {
+                        Array.set(array, i, item);
+                    }
+                }
+                return array;
+            }
+            if (Collection.class.isAssignableFrom(clazz)) {
+                pos++;
+                @SuppressWarnings("unchecked")
+                Collection<Object> collection = CollectionCodec.createCollection(type);
+                Type itemType = TypeUtils.getCollectionItemType(type);
+                for (int i = 0, count = readSize(); i < count; ++i) {
+                    collection.add(readValue(itemType));
+                }
+                return collection;
+            }
+        }
+
+        if (tag == OBJECT) {
+            if (Map.class.isAssignableFrom(clazz)) {
+                pos++;
+                Type keyType = Object.class, valueType = Object.class;
+                if (type instanceof ParameterizedType) {
+                    Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+                    keyType = arguments[0];
+                    valueType = arguments[1];
+                }
+                Class<?> keyClass = TypeUtils.getClass(keyType);
+                Map<Object, Object> map = MapDeserializer.createMap(type, Feature.isEnabled(features, Feature.OrderedField));
+                for (int id; (id = readName()) >= 0; ) {
+                    Object key = keyClass == Object.class ? names[id] : TypeUtils.cast(names[id], keyClass);
+                    map.put(key, readValue(valueType));
+                }
+                return map;
+            }
+
+            ObjectDeserializer deserializer = config.getDeserializer(type);
+            if (deserializer instanceof JavaBeanDeserializer) {
+                pos++;
+                Bean bean = new Bean((JavaBeanDeserializer) deserializer);
+                for (int id; (id = readName()) >= 0; ) {
+                    if (!bean.read(id)) {
+                        skipUnknown(bean, id);
+                    }
+                }
+                return bean.finish();
+            }
+        }
+
+        // a type with a custom deserializer, or a value of another form than the type has: through the text
+        Object value = readAny();
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out).write(value);
+            byte[] text = out.toBytes();
+            DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, config, features);
+            Object result = parser.parseObject(type);
+            parser.close();
+            return result;
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the JSON text of a value, as it is when it was written as text.
+     */
+    private Object readDirect(Class<?> fieldClass) {
+        byte[] text = readText();
+        return text == null || fieldClass == byte[].class ? text : new String(text, UTF8);
+    }
+
+    /**
+     * Reads a value of a property with a custom deserializer, which reads JSON text: the text written by the custom
+     * serializer, or the value written as text.
+     */
+    private Object readCustom(FieldDeserializer fieldDeserializer) {
+        byte[] text = readText();
+        if (text == null) {
+            return null;
+        }
+
+        FieldInfo fieldInfo = fieldDeserializer.fieldInfo;
+        DefaultJSONParser parser = new DefaultJSONParser(text, 0, text.length, config, features);
+        Object value = fieldDeserializer.customDeserializer.deserialze(parser, fieldInfo.fieldType, fieldInfo.name);
+        parser.close();
+        return value;
+    }
+
+    /**
+     * Reads the JSON text of a value written as text, or writes the value as text; null for a null.
+     */
+    private byte[] readText() {
+        int tag = peek();
+        if (tag == NULL) {
+            pos++;
+            return null;
+        }
+        if (tag == TEXT) {
+            pos++;
+            return readBytes();
+        }
+
+        SerializeWriter out = new SerializeWriter(0);
+        try {
+            new JSONSerializer(out).write(readAny());
+            return out.toBytes();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void skipUnknown(Bean bean, int id) {
+        JavaBeanDeserializer deserializer = bean.deserializer;
+        if (Feature.isEnabled(features, Feature.FailOnUnknownProperties)
+                || Feature.isEnabled(deserializer.beanInfo.parserFeatures, Feature.FailOnUnknownProperties)) {
+            throw new JSONException("unknown property '" + names[id] + "' for " + deserializer.getType().getName());
+        }
+        readAny();
+    }
+
+    /**
+     * A bean being read, and the beans of its unwrapped properties, whose properties are those of the object.
+     */
+    private final class Bean {
+
+        final JavaBeanDeserializer deserializer;
+        final boolean creator;
+        Object instance;
+        Object[] params;
+
+        // by property, the bean or the map of an unwrapped property once one of its properties is read
+        Object[] unwrapped;
+
+        Bean(JavaBeanDeserializer deserializer) {
+            this.deserializer = deserializer;
+            this.creator = deserializer.beanInfo.isCreator();
+            if (creator) {
+                params = new Object[deserializer.beanInfo.fields.length];
+            } else {
+                instance = deserializer.createInstance();
+            }
+        }
+
+        /**
+         * Reads the value of the property of this bean, or of one of its unwrapped properties, with the name of the
+         * given id. Returns false when there is none.
+         */
+        boolean read(int id) {
+            long hash = nameHashes[id];
+            FieldInfo[] fields = deserializer.beanInfo.fields;
+            // the properties of the unwrapped beans are read by the beans, below
+            int index = deserializer.getFieldIndex(hash);
+            if (index >= 0 && index < fields.length) {
+                FieldDeserializer fieldDeserializer = deserializer.getFieldDeserializer(index);
+                FieldInfo fieldInfo = fieldDeserializer.fieldInfo;
+                if (fieldDeserializer.customDeserializer != null) {
+                    set(index, readCustom(fieldDeserializer));
+                } else if (fieldInfo.jsonDirect) {
+                    set(index, readDirect(fieldInfo.fieldClass));
+                } else {
+                    set(index, readValue(fieldInfo.fieldType));
+                }
+                return true;
+            }
+
+            for (int i = 0; i < fields.length; ++i) {
+                if (!fields[i].unwrapped) {
+                    continue;
+                }
+                if (unwrapped == null) {
+                    unwrapped = new Object[fields.length];
+                }
+                Object child = unwrapped[i];
+                if (Map.class.isAssignableFrom(fields[i].fieldClass)) {
+                    // a map takes all the properties left, after those of the beans
+                    continue;
+                }
+                if (child == null) {
+                    ObjectDeserializer childDeserializer = config.getDeserializer(fields[i].fieldType);
+                    if (!(childDeserializer instanceof JavaBeanDeserializer)
+                            || !hasProperty((JavaBeanDeserializer) childDeserializer, hash)) {
+                        continue;
+                    }
+                    unwrapped[i] = child = new Bean((JavaBeanDeserializer) childDeserializer);
+                }
+                if (((Bean) child).read(id)) {
+                    return true;
+                }
+            }
+
+            for (int i = 0; i < fields.length; ++i) {
+                if (fields[i].unwrapped && Map.class.isAssignableFrom(fields[i].fieldClass)) {
+                    if (unwrapped[i] == null) {
+                        unwrapped[i] = MapDeserializer.createMap(fields[i].fieldType, true);
+                    }
+                    Type valueType = fields[i].fieldType instanceof ParameterizedType
+                            ? ((ParameterizedType) fields[i].fieldType).getActualTypeArguments()[1]
+                            : Object.class;
+                    @SuppressWarnings("unchecked")
+                    Map<Object, Object> map = (Map<Object, Object>) unwrapped[i];
+                    map.put(names[id], readValue(valueType));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void set(int index, Object value) {
+            if (creator) {
+                params[index] = value;
+            } else {
+                instance = deserializer.getFieldDeserializer(index).setValue(instance, value);
+            }
+        }
+
+        Object finish() {
+            if (unwrapped != null) {
+                for (int i = 0; i < unwrapped.length; ++i) {
+                    if (unwrapped[i] != null) {
+                        set(i, unwrapped[i] instanceof Bean ? ((Bean) unwrapped[i]).finish() : unwrapped[i]);
+                    }
+                }
+            }
+            if (creator) {
+                return deserializer.createInstance(params);
+            }
+            if (deserializer.beanInfo.buildMethod != null) {
+                return deserializer.build(instance);
+            }
+            return instance;
+        }
+    }
+
+    private boolean hasProperty(JavaBeanDeserializer deserializer, long hash) {
+        // the table of the deserializer holds the properties of its unwrapped beans as well
+        return deserializer.getFieldIndex(hash) >= 0;
+    }
+
+    /**
+     * Reads the name of the next property, defining it when it is new, and returns its id, or -1 at the end of the
+     * object.
+     */
+    private int readName() {
+        long x = readVarint();
+        if (x == 0) {
+            return -1;
+        }
+        if ((x & 1) == 0) {
+            long id = (x >>> 1) - 1;
+            if (id >= nameCount) {
+                throw new JSONException("undefined name " + id + ", pos " + pos);
+            }
+            return (int) id;
+        }
+
+        int len = (int) (x >>> 1);
+        String name = new String(buf, skip(len), len, UTF8);
+        if (nameCount == names.length) {
+            names = Arrays.copyOf(names, nameCount << 1);
+            nameHashes = Arrays.copyOf(nameHashes, nameCount << 1);
+        }
+        names[nameCount] = name;
+        nameHashes[nameCount] = TypeUtils.fnv1a_64(name);
+        return nameCount++;
+    }
+
+    private int tag() {
+        return buf[skip(1)] & 0xFF;
+    }
+
+    private int peek() {
+        if (pos >= end) {
+            throw new JSONException("unexpected end of input, pos " + pos);
+        }
+        return buf[pos] & 0xFF;
+    }
+
+    private long readLong() {
+        long x = readVarint();
+        return x >>> 1 ^ -(x & 1);
+    }
+
+    private int readInt() {
+        int i = skip(4);
+        return buf[i] << 24 | (buf[i + 1] & 0xFF) << 16 | (buf[i + 2] & 0xFF) << 8 | buf[i + 3] & 0xFF;
+    }
+
+    private String readString() {
+        int len = readSize();
+        return new String(buf, skip(len), len, UTF8);
+    }
+
+    private byte[] readBytes() {
+        int len = readSize();
+        int start = skip(len);
+        return Arrays.copyOfRange(buf, start, start + len);
+    }
+
+    private int readSize() {
+        long size = readVarint();
+        // every element takes a byte at least
+        if (size > end - pos) {
+            throw new JSONException("illegal size " + size + ", pos " + pos);
+        }
+        return (int) size;
+    }
+
+    private long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf[skip(1)];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new JSONException("illegal varint, pos " + pos);
+    }
+
+    /**
+     * Returns the position, and moves it <code>n</code> bytes forward.
+     */
+    private int skip(int n) {
+        if (n < 0 || n > end - pos) {
+            throw new JSONException("unexpected end of input, pos " + pos);
+        }
+        int start = pos;
+        pos += n;
+        return start;
+    }
+
+    private JSONException error(int tag) {
+        return new JSONException("illegal tag 0x" + Integer.toHexString(tag) + ", pos " + (pos - 1));
+    }
+}
@@ -0,0 +1,465 @@
+package parser;
+
+import util.JSONException;
+
+import java.util.Arrays;
+
+/**
+ * The structural index of a JSON text, built in one pass which checks the nesting, the punctuation, the number syntax
+ * and the escape sequences, but decodes nothing. Every value, and every property name, is an entry of two ints in
+ * {@link #tape}: the offset of its first byte, then for a string, a number or a literal the offset after its last
+ * byte, and for an object or an array the entry of its closing bracket. The closing bracket is an entry too, of its
+ * offset and -1, so that the entry after it is the next sibling of the container. Properties are a name entry
+ * followed by a value entry.
+ * <p>
+ * The bytes are not copied: the index refers to the input, which must not change while it is in use.
+ */
+final class JSONIndex {
+
+    // what the scan expects next
+    private static final int VALUE = 0;
+    private static final int FIRST_VALUE = 1;
+    private static final int NAME = 2;
+    private static final int FIRST_NAME = 3;
+    private static final int COLON = 4;
+    private static final int NEXT = 5;
+
+    /**
+     * The bytes which end a number or a literal.
+     */
+    private static final boolean[] DELIMITERS = new boolean[256];
+
+    static {
+        for (char c : ",:[]{}\" \n\r\t\f\b".toCharArray()) {
+            DELIMITERS[c] = true;
+        }
+    }
+
+    final byte[] buf;
+    final int off;
+    final int end;
+    final ParserConfig config;
+    final int features;
+
+    int[] tape;
+    int size;
+
+    JSONIndex(byte[] buf, int off, int len, ParserConfig config, int features) {
+        this.buf = buf;
+        this.off = off;
+        this.end = off + len;
+        this.config = config;
+        this.features = features;
+        // typical documents have an entry every 6 to 8 bytes, sized so that they do not grow the tape
+        this.tape = new int[Math.max(16, len >> 1)];
+
+        int start = off;
+        // skip the UTF-8 byte order mark
+        if (len >= 3 && buf[off] == (byte) 0xEF && buf[off + 1] == (byte) 0xBB && buf[off + 2] == (byte) 0xBF) {
+            start += 3;
+        }
+        if (Feature.isEnabled(features, Feature.UseSWAR)) {
+            build(StructuralScanner.scan(buf, start, end));
+        } else {
+            build(start);
+        }
+    }
+
+    private void build(int from) {
+        final byte[] buf = this.buf;
+        final int end = this.end;
+
+        int[] containers = new int[32];
+        int depth = 0;
+        int state = VALUE;
+        int i = from;
+        while (i < end) {
+            byte b = buf[i];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == '\b') {
+                i++;
+                continue;
+            }
+
+            switch (b) {
+                case '{':
+                case '[':
+                    if (state > FIRST_VALUE) {
+                        throw error(i);
+                    }
+                    if (depth == containers.length) {
+                        containers = Arrays.copyOf(containers, depth << 1);
+                    }
+                    containers[depth++] = add(i, 0);
+                    state = b == '{' ? FIRST_NAME : FIRST_VALUE;
+                    i++;
+                    break;
+                case '}':
+                case ']': {
+                    if (depth == 0 || (state != NEXT && state != FIRST_NAME && state != FIRST_VALUE)) {
+                        throw error(i);
+                    }
+                    int open = containers[--depth];
+                    if (buf[tape[2 * open]] != (b == '}' ? '{' : '[')) {
+                        throw error(i);
+                    }
+                    int close = add(i, -1);
+                    tape[2 * open + 1] = close;
+                    state = NEXT;
+                    i++;
+                    break;
+                }
+                case ',':
+                    if (state != NEXT || depth == 0) {
+                        throw error(i);
+                    }
+                    state = buf[tape[2 * containers[depth - 1]]] == '{' ? NAME : VALUE;
+                    i++;
+                    break;
+                case ':':
+                    if (state != COLON) {
+                        throw error(i);
+                    }
+                    state = VALUE;
+                    i++;
+                    break;
+                case '"': {
+                    if (state == NEXT || state == COLON) {
+                        throw error(i);
+                    }
+                    int start = i++;
+                    for (; ; ) {
+                        if (i >= end) {
+                            throw new JSONException("unclosed string, pos " + (start - off));
+                        }
+                        byte c = buf[i++];
+                        if (c == '"') {
+                            break;
+                        }
+                        if (c == '\\') {
+                            i++;
+                        }
+                    }
+                    checkEscapes(start + 1, i - 1);
+                    add(start, i);
+                    state = state >= NAME ? COLON : NEXT;
+                    break;
+                }
+                default: {
+                    if (state > FIRST_VALUE) {
+                        throw error(i);
+                    }
+                    int start = i;
+                    while (i < end && !DELIMITERS[buf[i] & 0xFF]) {
+                        i++;
+                    }
+                    checkScalar(start, i);
+                    add(start, i);
+                    state = NEXT;
+                    break;
+                }
+            }
+
+            if (state == NEXT && depth == 0) {
+                break;
+            }
+        }
+
+        while (i < end) {
+            byte b = buf[i];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t' && b != '\f' && b != '\b') {
+                throw new JSONException("not close json text, pos " + (i - off));
+            }
+            i++;
+        }
+        if (state != NEXT || depth != 0) {
+            throw new JSONException("unexpected end of input");
+        }
+    }
+
+    /**
+     * Builds the tape from the positions found by {@link StructuralScanner}, with the checks of {@link #build(int)}.
+     */
+    private void build(int[] positions) {
+        final byte[] buf = this.buf;
+        final int end = this.end;
+
+        int[] containers = new int[32];
+        int depth = 0;
+        int state = VALUE;
+        int p = 0;
+        for (int i; (i = positions[p++]) >= 0; ) {
+            byte b = buf[i];
+            switch (b) {
+                case '{':
+                case '[':
+                    if (state > FIRST_VALUE) {
+                        throw error(i);
+                    }
+                    if (depth == containers.length) {
+                        containers = Arrays.copyOf(containers, depth << 1);
+                    }
+                    containers[depth++] = add(i, 0);
+                    state = b == '{' ? FIRST_NAME : FIRST_VALUE;
+                    break;
+                case '}':
+                case ']': {
+                    if (depth == 0 || (state != NEXT && state != FIRST_NAME && state != FIRST_VALUE)) {
+                        throw error(i);
+                    }
+                    int open = containers[--depth];
+                    if (buf[tape[2 * open]] != (b == '}' ? '{' : '[')) {
+                        throw error(i);
+                    }
+                    int close = add(i, -1);
+                    tape[2 * open + 1] = close;
+                    state = NEXT;
+                    break;
+                }
+                case ',':
+                    if (state != NEXT || depth == 0) {
+                        throw error(i);
+                    }
+                    state = buf[tape[2 * containers[depth - 1]]] == '{' ? NAME : VALUE;
+                    break;
+                case ':':
+                    if (state != COLON) {
+                        throw error(i);
+                    }
+                    state = VALUE;
+                    break;
+                case '"': {
+                    if (state == NEXT || state == COLON) {
+                        throw error(i);
+                    }
+                    // the closing quote is the next position
+                    int close = positions[p++];
+                    if (close < 0) {
+                        throw new JSONException("unclosed string, pos " + (i - off));
+                    }
+                    checkEscapes(i + 1, close);
+                    add(i, close + 1);
+                    state = state >= NAME ? COLON : NEXT;
+                    break;
+                }
+                default: {
+                    if (state > FIRST_VALUE) {
+                        throw error(i);
+                    }
+                    int next = i + 1;
+                    while (next < end && !DELIMITERS[buf[next] & 0xFF]) {
+                        next++;
+                    }
+                    checkScalar(i, next);
+                    add(i, next);
+                    state = NEXT;
+                    break;
+                }
+            }
+
+            if (state == NEXT && depth == 0) {
+                break;
+            }
+        }
+
+        // anything but whitespace left is a position
+        if (positions[p - 1] >= 0 && positions[p] >= 0) {
+            throw new JSONException("not close json text, pos " + (positions[p] - off));
+        }
+        if (state != NEXT || depth != 0) {
+            throw new JSONException("unexpected end of input");
+        }
+    }
+
+    /**
+     * Checks the number or the literal from <code>start</code> to <code>end</code>, with the number syntax of
+     * {@link JSONLexer}.
+     */
+    private void checkScalar(int start, int end) {
+        byte b = buf[start];
+        if (b == '-' || (b >= '0' && b <= '9')) {
+            if (!isNumber(start, end)) {
+                throw new JSONException("syntax error, illegal number, pos " + (start - off));
+            }
+        } else if (!isLiteral(start, end)) {
+            throw error(start);
+        }
+    }
+
+    private boolean isNumber(int start, int end) {
+        int i = start;
+        if (buf[i] == '-') {
+            i++;
+        }
+        i = digits(i, end);
+        if (i < 0) {
+            return false;
+        }
+        if (i < end && buf[i] == '.') {
+            i = digits(i + 1, end);
+            if (i < 0) {
+                return false;
+            }
+        }
+        if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            if (i < end && (buf[i] == '+' || buf[i] == '-')) {
+                i++;
+            }
+            i = digits(i, end);
+        }
+        return i == end;
+    }
+
+    /**
+     * Returns the offset after the digits from <code>start</code>, or -1 when there are none.
+     */
+    private int digits(int start, int end) {
+        int i = start;
+        while (i < end && buf[i] >= '0' && buf[i] <= '9') {
+            i++;
+        }
+        return i == start ? -1 : i;
+    }
+
+    /**
+     * Checks the escape sequences of the string content from <code>start</code> to the closing quote at
+     * <code>end</code>.
+     */
+    private void checkEscapes(int start, int end) {
+        final byte[] buf = this.buf;
+        for (int i = start; i < end; ++i) {
+            if (buf[i] != '\\') {
+                continue;
+            }
+            byte c = buf[++i];
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                case 'b':
+                case 'f':
+                case 'n':
+                case 'r':
+                case 't':
+                    break;
+                case 'u':
+                    for (int k = 1; k <= 4; ++k) {
+                        if (i + k >= end || Character.digit(buf[i + k], 16) < 0) {
+                            throw new JSONException("syntax error, illegal unicode escape, pos " + (i - 1 - off));
+                        }
+                    }
+                    i += 4;
+                    break;
+                default:
+                    throw new JSONException("syntax error, illegal escape character '" + (char) (c & 0xFF)
+                            + "', pos " + (i - 1 - off));
+            }
+        }
+    }
+
+    private boolean isLiteral(int start, int end) {
+        switch (end - start) {
+            case 4:
+                return matches(start, "true") || matches(start, "null");
+            case 5:
+                return matches(start, "false");
+            default:
+                return false;
+        }
+    }
+
+    private boolean matches(int start, String literal) {
+        for (int i = 0; i < literal.length(); ++i) {
+            if (buf[start + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JSONException error(int pos) {
+        return new JSONException("syntax error, unexpected '" + (char) (buf[pos] & 0xFF) + "', pos " + (pos - off));
+    }
+
+    private int add(int start, int next) {
+        if (2 * size + 2 > tape.length) {
+            tape = Arrays.copyOf(tape, tape.length << 1);
+        }
+        tape[2 * size] = start;
+        tape[2 * size + 1] = next;
+        return size++;
+    }
+
+    /**
+     * Returns the entry after the value at <code>entry</code> and all it contains.
+     */
+    int next(int entry) {
+        int first = buf[tape[2 * entry]];
+        if (first == '{' || first == '[') {
+            return tape[2 * entry + 1] + 1;
+        }
+        return entry + 1;
+    }
+
+    /**
+     * Returns the offset after the last byte of the value at <code>entry</code>.
+     */
+    int endOf(int entry) {
+        int first = buf[tape[2 * entry]];
+        if (first == '{' || first == '[') {
+            return tape[2 * tape[2 * entry + 1]] + 1;
+        }
+        return tape[2 * entry + 1];
+    }
+
+    /**
+     * Returns the entry of the property value of the object at <code>entry</code> whose name is the UTF-8 encoded
+     * <code>name</code>, or -1. Names with escape sequences are decoded to be compared.
+     */
+    int find(int entry, byte[] name, String nameString) {
+        final byte[] buf = this.buf;
+        int close = tape[2 * entry + 1];
+        int child = entry + 1;
+        while (child < close) {
+            int start = tape[2 * child] + 1;
+            int len = tape[2 * child + 1] - 1 - start;
+            if (len == name.length) {
+                int k = 0;
+                while (k < len && buf[start + k] == name[k]) {
+                    k++;
+                }
+                if (k == len) {
+                    return child + 1;
+                }
+            }
+            if (indexOf(start, start + len, '\\') >= 0 && nameString.equals(stringAt(child))) {
+                return child + 1;
+            }
+            child = next(child + 1);
+        }
+        return -1;
+    }
+
+    private int indexOf(int start, int end, char c) {
+        for (int i = start; i < end; ++i) {
+            if (buf[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a lexer over the value at <code>entry</code>, positioned on its first token.
+     */
+    JSONLexer lexer(int entry) {
+        int start = tape[2 * entry];
+        JSONLexer lexer = new JSONLexer(buf, start, endOf(entry) - start, features);
+        lexer.nextToken();
+        return lexer;
+    }
+
+    String stringAt(int entry) {
+        return lexer(entry).stringVal();
+    }
+}
@@ -0,0 +1,1417 @@
+package parser;
+
+import util.IOUtils;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static parser.JSONToken.COLON;
+import static parser.JSONToken.COMMA;
+import static parser.JSONToken.EOF;
+import static parser.JSONToken.FALSE;
+import static parser.JSONToken.LBRACE;
+import static parser.JSONToken.LBRACKET;
+import static parser.JSONToken.LITERAL_FLOAT;
+import static parser.JSONToken.LITERAL_INT;
+import static parser.JSONToken.LITERAL_STRING;
+import static parser.JSONToken.NULL;
+import static parser.JSONToken.RBRACE;
+import static parser.JSONToken.RBRACKET;
+import static parser.JSONToken.TRUE;
+
+/**
+ * Tokenizer over UTF-8 encoded JSON text.
+ * <p>
+ * Besides the token level API ({@link #nextToken()}, {@link #token()}, {@link #stringVal()}...), the lexer has
+ * value scanners used by the deserializers: {@link #scanFieldHash()} reads a property name and its colon and returns
+ * the FNV-1a hash of the name without materializing it, and the <code>scanXxx</code> methods read a value of the
+ * given type and then the following token.
+ */
+public class JSONLexer {
+
+    protected final static Charset UTF8 = Charset.forName("UTF-8");
+    protected final static Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    protected byte[] buf;
+
+    /**
+     * The position of the next byte to read.
+     */
+    protected int bp;
+
+    /**
+     * The end of the input, exclusive.
+     */
+    protected int end;
+
+    protected int token;
+
+    /**
+     * The position of the first byte of the current token.
+     */
+    protected int pos;
+
+    protected int features;
+
+    /**
+     * Start and length of the current number token.
+     */
+    protected int np;
+    protected int sp;
+
+    /**
+     * The value of the current number token, accumulated while scanning it: its first 19 significant digits as an
+     * unsigned long, the number of its significant digits, and the power of ten of the last digit kept. The number
+     * is exactly <code>numMantissa 10^numExponent</code> when <code>numDigits &lt;= 19</code>.
+     */
+    protected long numMantissa;
+    protected int numDigits;
+    protected int numExponent;
+    protected boolean numNegative;
+
+    /**
+     * The bytes of the current string token, between the quotes, when the string has no escape sequence.
+     */
+    protected int strStart;
+    protected int strEnd;
+
+    /**
+     * The decoded characters of the current string token when it has escape sequences.
+     */
+    protected char[] sbuf = new char[64];
+    protected int sbufLen;
+    protected boolean hasSpecial;
+
+    /**
+     * The raw bytes of the last property name read by {@link #scanFieldHash()}.
+     */
+    protected int nameStart;
+    protected int nameEnd;
+    protected long nameHash;
+    protected boolean nameHasSpecial;
+
+    /**
+     * The state saved by {@link #mark()}, -1 when there is none.
+     */
+    protected int markPos = -1;
+    protected int markBp;
+    protected int markToken;
+
+    public JSONLexer(String input) {
+        this(input, 0);
+    }
+
+    public JSONLexer(String input, int features) {
+        this(input.getBytes(UTF8), features);
+    }
+
+    public JSONLexer(byte[] input, int features) {
+        this(input, 0, input.length, features);
+    }
+
+    public JSONLexer(byte[] input) {
+        this(input, 0);
+    }
+
+    public JSONLexer(byte[] input, int off, int len, int features) {
+        this.buf = input;
+        this.bp = off;
+        this.end = off + len;
+        this.features = features;
+
+        // skip the UTF-8 byte order mark
+        if (len >= 3 && input[off] == (byte) 0xEF && input[off + 1] == (byte) 0xBB && input[off + 2] == (byte) 0xBF) {
+            bp += 3;
+        }
+    }
+
+    public final int token() {
+        return token;
+    }
+
+    public final int pos() {
+        return pos;
+    }
+
+    public final boolean isEnabled(Feature feature) {
+        return (features & feature.mask) != 0;
+    }
+
+    public final int getFeatures() {
+        return features;
+    }
+
+    public final void config(Feature feature, boolean state) {
+        features = Feature.config(features, feature, state);
+    }
+
+    public final boolean isEOF() {
+        fill();
+        skipWhitespace();
+        return bp >= end;
+    }
+
+    public JSONException syntaxError(String message) {
+        return new JSONException("syntax error, " + message + ", pos " + bp);
+    }
+
+    public JSONException syntaxError(String message, Throwable cause) {
+        return new JSONException("syntax error, " + message + ", pos " + bp, cause);
+    }
+
+    /**
+     * Called before a token is read, to make sure the buffer holds all of it. A lexer over an array already has its
+     * whole input; {@link JSONReaderScanner} refills its buffer here.
+     */
+    protected void fill() {
+    }
+
+    protected final void skipWhitespace() {
+        final byte[] buf = this.buf;
+        int bp = this.bp;
+        while (bp < end) {
+            byte b = buf[bp];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == '\b') {
+                bp++;
+                continue;
+            }
+            break;
+        }
+        this.bp = bp;
+    }
+
+    public final void nextToken() {
+        fill();
+        skipWhitespace();
+
+        pos = bp;
+        if (bp >= end) {
+            token = EOF;
+            return;
+        }
+
+        byte b = buf[bp];
+        switch (b) {
+            case '"':
+                scanStringLiteral();
+                return;
+            case '{':
+                bp++;
+                token = LBRACE;
+                return;
+            case '}':
+                bp++;
+                token = RBRACE;
+                return;
+            case '[':
+                bp++;
+                token = LBRACKET;
+                return;
+            case ']':
+                bp++;
+                token = RBRACKET;
+                return;
+            case ',':
+                bp++;
+                token = COMMA;
+                return;
+            case ':':
+                bp++;
+                token = COLON;
+                return;
+            case 't':
+                scanLiteral("true");
+                token = TRUE;
+                return;
+            case 'f':
+                scanLiteral("false");
+                token = FALSE;
+                return;
+            case 'n':
+                scanLiteral("null");
+                token = NULL;
+                return;
+            default:
+                if (b == '-' || (b >= '0' && b <= '9')) {
+                    scanNumber();
+                    return;
+                }
+                throw syntaxError("illegal character '" + (char) (b & 0xFF) + "'");
+        }
+    }
+
+    private void scanLiteral(String literal) {
+        int len = literal.length();
+        if (bp + len > end) {
+            throw syntaxError("unexpected end of input, expect " + literal);
+        }
+        for (int i = 0; i < len; ++i) {
+            if (buf[bp + i] != literal.charAt(i)) {
+                throw syntaxError("expect " + literal);
+            }
+        }
+        bp += len;
+    }
+
+    // ------------------------------------------------------------------------
+    // numbers
+    // ------------------------------------------------------------------------
+
+    protected final void scanNumber() {
+        final byte[] buf = this.buf;
+        final int end = this.end;
+        final int start = bp;
+        int i = bp;
+        boolean isFloat = false;
+
+        boolean negative = false;
+        if (i < end && buf[i] == '-') {
+            negative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+
+        int digitStart = i;
+        for (; i < end; ++i) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            if (digits < 19) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                digits++;
+                exponent++;
+            }
+        }
+        if (i == digitStart) {
+            bp = i;
+            throw syntaxError("illegal number");
+        }
+
+        if (i < end && buf[i] == '.') {
+            isFloat = true;
+            digitStart = ++i;
+            for (; i < end; ++i) {
+                int digit = buf[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                if (digits < 19) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    exponent--;
+                } else {
+                    digits++;
+                }
+            }
+            if (i == digitStart) {
+                bp = i;
+                throw syntaxError("illegal number");
+            }
+        }
+
+        if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+            isFloat = true;
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (buf[i] == '+' || buf[i] == '-')) {
+                negativeExponent = buf[i] == '-';
+                i++;
+            }
+            int value = 0;
+            digitStart = i;
+            for (; i < end; ++i) {
+                int digit = buf[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                // beyond any double, and far from overflowing
+                if (value < 100000) {
+                    value = value * 10 + digit;
+                }
+            }
+            if (i == digitStart) {
+                bp = i;
+                throw syntaxError("illegal number");
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+
+        bp = i;
+        np = start;
+        sp = i - start;
+        numMantissa = mantissa;
+        numDigits = digits;
+        numExponent = exponent;
+        numNegative = negative;
+        token = isFloat ? LITERAL_FLOAT : LITERAL_INT;
+    }
+
+    public final String numberString() {
+        return new String(buf, np, sp, ISO_8859_1);
+    }
+
+    /**
+     * Returns the current integer token as an <code>Integer</code>, a <code>Long</code> or a <code>BigInteger</code>,
+     * whichever is the smallest that holds it.
+     */
+    public final Number integerValue() {
+        if (numDigits <= 18) {
+            long value = numNegative ? -numMantissa : numMantissa;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return Integer.valueOf((int) value);
+            }
+            return Long.valueOf(value);
+        }
+        BigInteger value = new BigInteger(numberString());
+        if (value.bitLength() < 64) {
+            return Long.valueOf(value.longValue());
+        }
+        return value;
+    }
+
+    public final int intValue() {
+        long value = longValue();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JSONException("int overflow, value " + numberString());
+        }
+        return (int) value;
+    }
+
+    public final long longValue() {
+        if (token == LITERAL_FLOAT) {
+            double value = doubleValue();
+            // NaN fails both comparisons
+            if (!(value >= -0x1p63 && value < 0x1p63)) {
+                throw new JSONException("long overflow, value " + numberString());
+            }
+            return (long) value;
+        }
+        if (numDigits <= 18) {
+            return numNegative ? -numMantissa : numMantissa;
+        }
+        return parseLong(np, np + sp);
+    }
+
+    public final BigDecimal decimalValue() {
+        if (numDigits <= 18) {
+            return BigDecimal.valueOf(numNegative ? -numMantissa : numMantissa, -numExponent);
+        }
+        return new BigDecimal(numberString());
+    }
+
+    /**
+     * Returns the current number token as the nearest double, from the digits accumulated while scanning it. Only
+     * numbers of more than 19 significant digits, and the rare ones {@link DecimalToDouble} cannot decide, are
+     * parsed again from their text.
+     */
+    public final double doubleValue() {
+        if (numDigits <= 19) {
+            double value = DecimalToDouble.toDouble(numNegative, numMantissa, numExponent);
+            if (value == value) {
+                return value;
+            }
+        }
+        return Double.parseDouble(numberString());
+    }
+
+    public final float floatValue() {
+        if (numDigits <= 19) {
+            float value = DecimalToDouble.toFloat(numNegative, numMantissa, numExponent);
+            if (value == value) {
+                return value;
+            }
+        }
+        return Float.parseFloat(numberString());
+    }
+
+    /**
+     * Parses the digits in <code>[start, end)</code>, with an optional leading minus sign. Accumulates negatively
+     * like {@link Long#parseLong(String)} so that <code>Long.MIN_VALUE</code> can be represented.
+     */
+    private long parseLong(int start, int end) {
+        final byte[] buf = this.buf;
+        boolean negative = false;
+        int i = start;
+        long limit = -Long.MAX_VALUE;
+        if (buf[i] == '-') {
+            negative = true;
+            limit = Long.MIN_VALUE;
+            i++;
+        }
+        long multmin = limit / 10;
+        long result = 0;
+        for (; i < end; ++i) {
+            int digit = buf[i] - '0';
+            if (result < multmin) {
+                throw new JSONException("long overflow, value " + new String(buf, start, end - start, ISO_8859_1));
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw new JSONException("long overflow, value " + new String(buf, start, end - start, ISO_8859_1));
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    // ------------------------------------------------------------------------
+    // strings
+    // ------------------------------------------------------------------------
+
+    /**
+     * Scans a string token. The common case of a string without escape sequences is recorded as a byte range and
+     * only decoded by {@link #stringVal()}.
+     */
+    protected final void scanStringLiteral() {
+        final byte[] buf = this.buf;
+        final int start = ++bp;
+        int i = start;
+        for (; ; ) {
+            if (i >= end) {
+                throw syntaxError("unclosed string");
+            }
+            byte b = buf[i];
+            if (b == '"') {
+                strStart = start;
+                strEnd = i;
+                hasSpecial = false;
+                bp = i + 1;
+                token = LITERAL_STRING;
+                return;
+            }
+            if (b == '\\') {
+                break;
+            }
+            i++;
+        }
+
+        hasSpecial = true;
+        sbufLen = 0;
+        bp = start;
+        decodeString();
+        token = LITERAL_STRING;
+    }
+
+    /**
+     * Decodes the string starting at {@link #bp} into {@link #sbuf} and moves past the closing quote.
+     */
+    private void decodeString() {
+        final byte[] buf = this.buf;
+        for (; ; ) {
+            if (bp >= end) {
+                throw syntaxError("unclosed string");
+            }
+            byte b = buf[bp];
+            if (b == '"') {
+                bp++;
+                return;
+            }
+            if (b == '\\') {
+                putChar(readEscape());
+                continue;
+            }
+            if (b >= 0) {
+                putChar((char) b);
+                bp++;
+                continue;
+            }
+            int cp = readCodePoint();
+            if (cp >= 0x10000) {
+                putChar(Character.highSurrogate(cp));
+                putChar(Character.lowSurrogate(cp));
+            } else {
+                putChar((char) cp);
+            }
+        }
+    }
+
+    private void putChar(char c) {
+        if (sbufLen == sbuf.length) {
+            char[] newsbuf = new char[sbuf.length * 2];
+            System.arraycopy(sbuf, 0, newsbuf, 0, sbuf.length);
+            sbuf = newsbuf;
+        }
+        sbuf[sbufLen++] = c;
+    }
+
+    /**
+     * Reads the escape sequence at {@link #bp}, which is a backslash.
+     */
+    private char readEscape() {
+        if (bp + 1 >= end) {
+            throw syntaxError("unclosed string");
+        }
+        byte b = buf[bp + 1];
+        bp += 2;
+        switch (b) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (bp + 4 > end) {
+                    throw syntaxError("illegal unicode escape");
+                }
+                int c = 0;
+                for (int i = 0; i < 4; ++i) {
+                    int d = Character.digit(buf[bp + i], 16);
+                    if (d < 0) {
+                        throw syntaxError("illegal unicode escape");
+                    }
+                    c = (c << 4) | d;
+                }
+                bp += 4;
+                return (char) c;
+            default:
+                throw syntaxError("illegal escape character '" + (char) (b & 0xFF) + "'");
+        }
+    }
+
+    /**
+     * Decodes the multi-byte UTF-8 sequence at {@link #bp}.
+     */
+    private int readCodePoint() {
+        final byte[] buf = this.buf;
+        int b = buf[bp] & 0xFF;
+        int len, cp;
+        if ((b & 0xE0) == 0xC0) {
+            len = 2;
+            cp = b & 0x1F;
+        } else if ((b & 0xF0) == 0xE0) {
+            len = 3;
+            cp = b & 0x0F;
+        } else if ((b & 0xF8) == 0xF0) {
+            len = 4;
+            cp = b & 0x07;
+        } else {
+            throw syntaxError("illegal UTF-8 byte");
+        }
+        if (bp + len > end) {
+            throw syntaxError("truncated UTF-8 sequence");
+        }
+        for (int i = 1; i < len; ++i) {
+            int c = buf[bp + i] & 0xFF;
+            if ((c & 0xC0) != 0x80) {
+                throw syntaxError("illegal UTF-8 byte");
+            }
+            cp = (cp << 6) | (c & 0x3F);
+        }
+        bp += len;
+        return cp;
+    }
+
+    /**
+     * Returns the value of the current string token.
+     */
+    public final String stringVal() {
+        if (hasSpecial) {
+            return new String(sbuf, 0, sbufLen);
+        }
+        return new String(buf, strStart, strEnd - strStart, UTF8);
+    }
+
+    // ------------------------------------------------------------------------
+    // property names
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reads a property name and the colon that follows it. Must be called when the current token is the
+     * <code>{</code> that opens an object or the <code>,</code> before a property. Returns the
+     * {@link TypeUtils#fnv1a_64(String)} hash of the name, or 0 with the current token set to
+     * {@link JSONToken#RBRACE} when the object ends instead.
+     */
+    public final long scanFieldHash() {
+        if (token != LBRACE && token != COMMA) {
+            throw syntaxError("expect ',' or '}', but " + JSONToken.name(token));
+        }
+
+        fill();
+        skipWhitespace();
+        if (bp >= end) {
+            throw syntaxError("unclosed object");
+        }
+
+        final byte[] buf = this.buf;
+        byte b = buf[bp];
+        if (b == '}') {
+            bp++;
+            token = RBRACE;
+            return 0;
+        }
+        if (b != '"') {
+            throw syntaxError("expect '\"', but '" + (char) (b & 0xFF) + "'");
+        }
+
+        long hash = scanNameHash();
+
+        skipWhitespace();
+        if (bp >= end || buf[bp] != ':') {
+            throw syntaxError("expect ':'");
+        }
+        bp++;
+        token = COLON;
+        return hash;
+    }
+
+    /**
+     * Reads a string value, after the colon of a property, and the following token, and returns the hash of the
+     * string as {@link #scanFieldHash()} does for a name. The string is then the one {@link #fieldName()} returns.
+     */
+    public final long scanStringHash() {
+        fill();
+        skipWhitespace();
+        if (bp >= end || buf[bp] != '"') {
+            nextToken();
+            throw syntaxError("expect string, but " + JSONToken.name(token));
+        }
+
+        long hash = scanNameHash();
+        nextToken();
+        return hash;
+    }
+
+    /**
+     * Hashes the string which starts at the current byte, its opening quote, and moves past its closing quote.
+     */
+    private long scanNameHash() {
+        final byte[] buf = this.buf;
+        byte b;
+        long hash = TypeUtils.fnv1a_64_magic_hashcode;
+        boolean special = false;
+        final int start = ++bp;
+        for (; ; ) {
+            if (bp >= end) {
+                throw syntaxError("unclosed string");
+            }
+            b = buf[bp];
+            if (b == '"') {
+                break;
+            }
+            if (b >= 0 && b != '\\') {
+                hash ^= b;
+                hash *= TypeUtils.fnv1a_64_magic_prime;
+                bp++;
+                continue;
+            }
+
+            if (b == '\\') {
+                special = true;
+                hash ^= readEscape();
+                hash *= TypeUtils.fnv1a_64_magic_prime;
+                continue;
+            }
+
+            int cp = readCodePoint();
+            if (cp >= 0x10000) {
+                hash ^= Character.highSurrogate(cp);
+                hash *= TypeUtils.fnv1a_64_magic_prime;
+                hash ^= Character.lowSurrogate(cp);
+                hash *= TypeUtils.fnv1a_64_magic_prime;
+            } else {
+                hash ^= cp;
+                hash *= TypeUtils.fnv1a_64_magic_prime;
+            }
+        }
+        nameStart = start;
+        nameEnd = bp;
+        nameHash = hash;
+        nameHasSpecial = special;
+        bp++;
+        return hash;
+    }
+
+    /**
+     * Saves the state at the current token, the <code>{</code> that opens an object, for {@link #reset()}, so that
+     * the object can be looked ahead into with {@link #scanFieldHash()} and {@link #skipValue()}. A lexer reading a
+     * stream keeps the bytes from the mark on until the reset.
+     */
+    public final void mark() {
+        markPos = pos;
+        markBp = bp;
+        markToken = token;
+    }
+
+    /**
+     * Returns to the state saved by {@link #mark()}, and drops the mark.
+     */
+    public final void reset() {
+        if (markPos < 0) {
+            throw new JSONException("not marked");
+        }
+        pos = markPos;
+        bp = markBp;
+        token = markToken;
+        markPos = -1;
+    }
+
+    /**
+     * Moves to the next element of an array, for the value scanners. Must be called when the current token is the
+     * <code>[</code> that opens the array, the <code>,</code> before an element or the <code>]</code> that closes
+     * it. Returns false, with the current token set to {@link JSONToken#RBRACKET}, when the array ends instead.
+     */
+    public final boolean scanElement() {
+        if (token == COMMA) {
+            return true;
+        }
+        if (token == RBRACKET) {
+            return false;
+        }
+        if (token != LBRACKET) {
+            throw syntaxError("expect ',' or ']', but " + JSONToken.name(token));
+        }
+
+        fill();
+        skipWhitespace();
+        if (bp >= end) {
+            throw syntaxError("unclosed array");
+        }
+        if (buf[bp] == ']') {
+            bp++;
+            token = RBRACKET;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the last property name read by {@link #scanFieldHash()}.
+     */
+    public final String fieldName() {
+        if (nameHasSpecial) {
+            int savedBp = bp;
+            char[] savedSbuf = sbuf;
+            int savedLen = sbufLen;
+            sbuf = new char[nameEnd - nameStart];
+            sbufLen = 0;
+            bp = nameStart;
+            decodeString();
+            String name = new String(sbuf, 0, sbufLen);
+            sbuf = savedSbuf;
+            sbufLen = savedLen;
+            bp = savedBp;
+            return name;
+        }
+        return new String(buf, nameStart, nameEnd - nameStart, UTF8);
+    }
+
+    /**
+     * Returns whether the last property name read by {@link #scanFieldHash()} is the one encoded in the UTF-8
+     * <code>bytes</code>. The name is compared in place, unless it has an escape sequence.
+     */
+    public final boolean fieldNameEquals(byte[] bytes) {
+        if (nameHasSpecial) {
+            return Arrays.equals(fieldName().getBytes(UTF8), bytes);
+        }
+        final int len = nameEnd - nameStart;
+        if (len != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < len; ++i) {
+            if (buf[nameStart + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the last property name read by {@link #scanFieldHash()}, as the canonical instance kept by the symbol
+     * table when the name has no escape sequence.
+     */
+    public final String fieldName(SymbolTable symbolTable) {
+        if (nameHasSpecial) {
+            return fieldName();
+        }
+        return symbolTable.addSymbol(buf, nameStart, nameEnd - nameStart, nameHash);
+    }
+
+    /**
+     * Reads a property name as {@link #scanFieldHash()} does and returns it, or returns null at the end of the
+     * object.
+     */
+    public String scanFieldName() {
+        scanFieldHash();
+        if (token == RBRACE) {
+            return null;
+        }
+        return fieldName();
+    }
+
+    public String scanFieldName(SymbolTable symbolTable) {
+        scanFieldHash();
+        if (token == RBRACE) {
+            return null;
+        }
+        return fieldName(symbolTable);
+    }
+
+    // ------------------------------------------------------------------------
+    // primitive arrays
+    // ------------------------------------------------------------------------
+
+    /**
+     * Reads the array of numbers which starts at the current token, or null, and the token that follows it. The
+     * elements go into a primitive array which grows by doubling and is trimmed at the end, so no element is ever
+     * boxed. Like the <code>scanXxx</code> methods, the elements may be quoted numbers, and null reads as 0.
+     */
+    public final int[] intArrayValue() {
+        if (!beginArray()) {
+            return null;
+        }
+
+        int[] array = new int[16];
+        int size = 0;
+        if (token != RBRACKET) {
+            do {
+                long value = longElement();
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    throw new JSONException("int overflow, value " + value);
+                }
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size << 1);
+                }
+                array[size++] = (int) value;
+            } while (nextElement());
+        } else {
+            nextToken();
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    public final long[] longArrayValue() {
+        if (!beginArray()) {
+            return null;
+        }
+
+        long[] array = new long[16];
+        int size = 0;
+        if (token != RBRACKET) {
+            do {
+                long value = longElement();
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size << 1);
+                }
+                array[size++] = value;
+            } while (nextElement());
+        } else {
+            nextToken();
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    public final float[] floatArrayValue() {
+        if (!beginArray()) {
+            return null;
+        }
+
+        float[] array = new float[16];
+        int size = 0;
+        if (token != RBRACKET) {
+            do {
+                float value;
+                switch (token) {
+                    case LITERAL_INT:
+                    case LITERAL_FLOAT:
+                        value = floatValue();
+                        break;
+                    default:
+                        value = (float) doubleElement();
+                        break;
+                }
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size << 1);
+                }
+                array[size++] = value;
+            } while (nextElement());
+        } else {
+            nextToken();
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    public final double[] doubleArrayValue() {
+        if (!beginArray()) {
+            return null;
+        }
+
+        double[] array = new double[16];
+        int size = 0;
+        if (token != RBRACKET) {
+            do {
+                double value = doubleElement();
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size << 1);
+                }
+                array[size++] = value;
+            } while (nextElement());
+        } else {
+            nextToken();
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Reads a base64 string, as written for <code>byte[]</code> values, or an array of numbers, or null, and the
+     * token that follows it. The string is decoded from the input bytes when it has no escape sequence.
+     */
+    public final byte[] bytesValue() {
+        if (token == LITERAL_STRING) {
+            byte[] bytes;
+            if (hasSpecial) {
+                byte[] chars = new byte[sbufLen];
+                for (int i = 0; i < sbufLen; ++i) {
+                    chars[i] = sbuf[i] < 0x80 ? (byte) sbuf[i] : (byte) 0xFF;
+                }
+                bytes = IOUtils.decodeBase64(chars, 0, chars.length);
+            } else {
+                bytes = IOUtils.decodeBase64(buf, strStart, strEnd - strStart);
+            }
+            nextToken();
+            return bytes;
+        }
+
+        if (!beginArray()) {
+            return null;
+        }
+
+        byte[] array = new byte[64];
+        int size = 0;
+        if (token != RBRACKET) {
+            do {
+                long value = longElement();
+                if (value < Byte.MIN_VALUE || value > 0xFF) {
+                    throw new JSONException("byte overflow, value " + value);
+                }
+                if (size == array.length) {
+                    array = Arrays.copyOf(array, size << 1);
+                }
+                array[size++] = (byte) value;
+            } while (nextElement());
+        } else {
+            nextToken();
+        }
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Returns false and reads the next token when the current token is null, else checks that it is the
+     * <code>[</code> of an array and reads the first element.
+     */
+    private boolean beginArray() {
+        if (token == NULL) {
+            nextToken();
+            return false;
+        }
+        if (token != LBRACKET) {
+            throw syntaxError("expect '[', but " + JSONToken.name(token));
+        }
+        nextToken();
+        return true;
+    }
+
+    /**
+     * Reads the token after an element: moves to the next element and returns true after a comma, or past the
+     * closing <code>]</code> and returns false.
+     */
+    private boolean nextElement() {
+        nextToken();
+        if (token == COMMA) {
+            nextToken();
+            return true;
+        }
+        if (token == RBRACKET) {
+            nextToken();
+            return false;
+        }
+        throw syntaxError("expect ',' or ']', but " + JSONToken.name(token));
+    }
+
+    private long longElement() {
+        switch (token) {
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+                return longValue();
+            case LITERAL_STRING: {
+                Long value;
+                try {
+                    value = TypeUtils.castToLong(stringVal());
+                } catch (JSONException e) {
+                    throw syntaxError(e.getMessage(), e);
+                }
+                return value == null ? 0 : value;
+            }
+            case NULL:
+                return 0;
+            default:
+                throw syntaxError("expect number, but " + JSONToken.name(token));
+        }
+    }
+
+    private double doubleElement() {
+        switch (token) {
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+                return doubleValue();
+            case LITERAL_STRING: {
+                Double value;
+                try {
+                    value = TypeUtils.castToDouble(stringVal());
+                } catch (JSONException e) {
+                    throw syntaxError(e.getMessage(), e);
+                }
+                return value == null ? 0 : value;
+            }
+            case NULL:
+                return 0;
+            default:
+                throw syntaxError("expect number, but " + JSONToken.name(token));
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // value scanners, called after the colon of a property
+    // ------------------------------------------------------------------------
+
+    public final int scanInt() {
+        long value = scanLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JSONException("int overflow, value " + value);
+        }
+        return (int) value;
+    }
+
+    public final short scanShort() {
+        long value = scanLong();
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+            throw new JSONException("short overflow, value " + value);
+        }
+        return (short) value;
+    }
+
+    /**
+     * Reads a byte, signed or unsigned, as the elements of {@link #bytesValue()}.
+     */
+    public final byte scanByte() {
+        long value = scanLong();
+        if (value < Byte.MIN_VALUE || value > 0xFF) {
+            throw new JSONException("byte overflow, value " + value);
+        }
+        return (byte) value;
+    }
+
+    public final long scanLong() {
+        fill();
+        skipWhitespace();
+        if (bp >= end) {
+            throw syntaxError("unexpected end of input");
+        }
+
+        final byte[] buf = this.buf;
+        byte b = buf[bp];
+        if (b == 'n') {
+            scanLiteral("null");
+            nextToken();
+            return 0;
+        }
+
+        boolean quote = b == '"';
+        if (quote) {
+            bp++;
+        }
+
+        scanNumber();
+        long value = longValue();
+
+        if (quote) {
+            if (bp >= end || buf[bp] != '"') {
+                throw syntaxError("unclosed string");
+            }
+            bp++;
+        }
+
+        nextToken();
+        return value;
+    }
+
+    public final double scanDouble() {
+        fill();
+        skipWhitespace();
+        if (bp >= end) {
+            throw syntaxError("unexpected end of input");
+        }
+
+        final byte[] buf = this.buf;
+        byte b = buf[bp];
+        if (b == 'n') {
+            scanLiteral("null");
+            nextToken();
+            return 0;
+        }
+
+        boolean quote = b == '"';
+        if (quote) {
+            bp++;
+        }
+
+        scanNumber();
+        double value = doubleValue();
+
+        if (quote) {
+            if (bp >= end || buf[bp] != '"') {
+                throw syntaxError("unclosed string");
+            }
+            bp++;
+        }
+
+        nextToken();
+        return value;
+    }
+
+    public final float scanFloat() {
+        fill();
+        skipWhitespace();
+        if (bp >= end) {
+            throw syntaxError("unexpected end of input");
+        }
+
+        final byte[] buf = this.buf;
+        byte b = buf[bp];
+        if (b == 'n') {
+            scanLiteral("null");
+            nextToken();
+            return 0;
+        }
+
+        boolean quote = b == '"';
+        if (quote) {
+            bp++;
+        }
+
+        scanNumber();
+        float value = floatValue();
+
+        if (quote) {
+            if (bp >= end || buf[bp] != '"') {
+                throw syntaxError("unclosed string");
+            }
+            bp++;
+        }
+
+        nextToken();
+        return value;
+    }
+
+    public final int[] scanIntArray() {
+        nextToken();
+        return intArrayValue();
+    }
+
+    public final long[] scanLongArray() {
+        nextToken();
+        return longArrayValue();
+    }
+
+    public final float[] scanFloatArray() {
+        nextToken();
+        return floatArrayValue();
+    }
+
+    public final double[] scanDoubleArray() {
+        nextToken();
+        return doubleArrayValue();
+    }
+
+    public final byte[] scanBytes() {
+        nextToken();
+        return bytesValue();
+    }
+
+    public final boolean scanBoolean() {
+        nextToken();
+        boolean value;
+        switch (token) {
+            case TRUE:
+                value = true;
+                break;
+            case FALSE:
+            case NULL:
+                value = false;
+                break;
+            case LITERAL_INT:
+                value = longValue() != 0;
+                break;
+            case LITERAL_STRING:
+                value = "true".equalsIgnoreCase(stringVal()) || "1".equals(stringVal());
+                break;
+            default:
+                throw syntaxError("expect boolean, but " + JSONToken.name(token));
+        }
+        nextToken();
+        return value;
+    }
+
+    public final String scanString() {
+        nextToken();
+        String value;
+        switch (token) {
+            case LITERAL_STRING:
+                value = stringVal();
+                break;
+            case NULL:
+                value = null;
+                break;
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+                value = numberString();
+                break;
+            case TRUE:
+                value = "true";
+                break;
+            case FALSE:
+                value = "false";
+                break;
+            default:
+                throw syntaxError("expect string, but " + JSONToken.name(token));
+        }
+        nextToken();
+        return value;
+    }
+
+    public final char scanChar() {
+        String value = scanString();
+        return value == null || value.length() == 0 ? '\0' : value.charAt(0);
+    }
+
+    /**
+     * Skips the value of a property, after its colon, and reads the following token.
+     */
+    public final void skipValue() {
+        nextToken();
+        skipCurrentValue();
+    }
+
+    /**
+     * Skips the value whose first token is the current token, and reads the token that follows it. Objects and
+     * arrays are skipped with a byte scan which only tracks nesting and strings.
+     */
+    public final void skipCurrentValue() {
+        switch (token) {
+            case LBRACE:
+            case LBRACKET:
+                skipNested(false);
+                nextToken();
+                return;
+            case LITERAL_STRING:
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+            case TRUE:
+            case FALSE:
+            case NULL:
+                nextToken();
+                return;
+            default:
+                throw syntaxError("expect value, but " + JSONToken.name(token));
+        }
+    }
+
+    /**
+     * Reads a value, after the colon of a property, as the exact bytes of its JSON text, and then the following
+     * token. An object or an array is neither parsed nor decoded: only its nesting and its strings are followed to
+     * find its end. Returns null for <code>null</code>.
+     */
+    public final byte[] scanRaw() {
+        nextToken();
+        switch (token) {
+            case LBRACE:
+            case LBRACKET:
+                skipNested(true);
+                break;
+            case LITERAL_STRING:
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+            case TRUE:
+            case FALSE:
+                break;
+            case NULL:
+                nextToken();
+                return null;
+            default:
+                throw syntaxError("expect value, but " + JSONToken.name(token));
+        }
+
+        byte[] raw = Arrays.copyOfRange(buf, pos, bp);
+        nextToken();
+        return raw;
+    }
+
+    /**
+     * Moves past the end of the object or array opened by the current token. With <code>retain</code>, the bytes
+     * from the current token on are kept in the buffer, from {@link #pos}.
+     */
+    protected void skipNested(boolean retain) {
+        final byte[] buf = this.buf;
+        int depth = 1;
+        int bp = this.bp;
+        while (depth > 0) {
+            if (bp >= end) {
+                this.bp = bp;
+                throw syntaxError("unclosed " + (token == LBRACE ? "object" : "array"));
+            }
+            byte b = buf[bp++];
+            switch (b) {
+                case '"':
+                    for (; ; ) {
+                        if (bp >= end) {
+                            this.bp = bp;
+                            throw syntaxError("unclosed string");
+                        }
+                        byte c = buf[bp++];
+                        if (c == '"') {
+                            break;
+                        }
+                        if (c == '\\') {
+                            bp++;
+                        }
+                    }
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.bp = bp;
+    }
+}
@@ -0,0 +1,262 @@
+package parser;
+
+import serializer.SerializeWriter;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A value of a lazily parsed JSON text, see {@link #parse(byte[], int, int, ParserConfig, int)}. Parsing only
+ * builds a structural index of the text; a node is a position in that index, and nothing is decoded until a value
+ * is asked for:
+ * <pre>
+ * JSONNode root = JSON.parseLazy(bytes);
+ * long id = root.get("items").get(3).get("id").asLong();
+ * </pre>
+ * Navigating with {@link #get(String)} and {@link #get(int)} compares and skips bytes, the <code>asXxx</code>
+ * methods decode the one value at hand, and {@link #as(Type)} binds it like {@link DefaultJSONParser} does. The
+ * text of any node can be copied out unchanged, with {@link #toBytes()} or {@link #writeTo(OutputStream)}, and a
+ * node which is serialized as part of another value is written as its original bytes.
+ * <p>
+ * The nodes refer to the input, which must not change while they are in use.
+ */
+public final class JSONNode {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private final JSONIndex index;
+    private final int entry;
+
+    private JSONNode(JSONIndex index, int entry) {
+        this.index = index;
+        this.entry = entry;
+    }
+
+    /**
+     * Indexes <code>len</code> bytes of UTF-8 encoded JSON text from <code>off</code>, checking its structure, and
+     * returns its root value.
+     */
+    public static JSONNode parse(byte[] input, int off, int len, ParserConfig config, int features) {
+        return new JSONNode(new JSONIndex(input, off, len, config, features), 0);
+    }
+
+    /**
+     * Returns the {@link JSONToken} of this value: {@link JSONToken#LBRACE} for an object,
+     * {@link JSONToken#LBRACKET} for an array, or the token of a scalar.
+     */
+    public int token() {
+        final byte[] buf = index.buf;
+        int start = index.tape[2 * entry];
+        switch (buf[start]) {
+            case '{':
+                return JSONToken.LBRACE;
+            case '[':
+                return JSONToken.LBRACKET;
+            case '"':
+                return JSONToken.LITERAL_STRING;
+            case 't':
+                return JSONToken.TRUE;
+            case 'f':
+                return JSONToken.FALSE;
+            case 'n':
+                return JSONToken.NULL;
+            default:
+                for (int i = start, end = index.endOf(entry); i < end; ++i) {
+                    byte b = buf[i];
+                    if (b == '.' || b == 'e' || b == 'E') {
+                        return JSONToken.LITERAL_FLOAT;
+                    }
+                }
+                return JSONToken.LITERAL_INT;
+        }
+    }
+
+    public boolean isObject() {
+        return index.buf[index.tape[2 * entry]] == '{';
+    }
+
+    public boolean isArray() {
+        return index.buf[index.tape[2 * entry]] == '[';
+    }
+
+    public boolean isNull() {
+        return index.buf[index.tape[2 * entry]] == 'n';
+    }
+
+    /**
+     * Returns the value of the property, or null when this is not an object or has no such property.
+     */
+    public JSONNode get(String name) {
+        if (!isObject()) {
+            return null;
+        }
+        int value = index.find(entry, name.getBytes(UTF8), name);
+        return value < 0 ? null : new JSONNode(index, value);
+    }
+
+    /**
+     * Returns the element at the position, or null when this is not an array or is shorter.
+     */
+    public JSONNode get(int i) {
+        if (!isArray() || i < 0) {
+            return null;
+        }
+        int close = index.tape[2 * entry + 1];
+        int child = entry + 1;
+        for (; child < close && i > 0; --i) {
+            child = index.next(child);
+        }
+        return child < close ? new JSONNode(index, child) : null;
+    }
+
+    /**
+     * Returns the number of properties of an object or elements of an array.
+     */
+    public int size() {
+        boolean object = isObject();
+        if (!object && !isArray()) {
+            throw new JSONException("size of a " + JSONToken.name(token()) + " value");
+        }
+        int close = index.tape[2 * entry + 1];
+        int size = 0;
+        for (int child = entry + 1; child < close; child = index.next(object ? child + 1 : child)) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the names of the properties of an object, in order, or an empty list for other values.
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<String>();
+        if (isObject()) {
+            int close = index.tape[2 * entry + 1];
+            for (int child = entry + 1; child < close; child = index.next(child + 1)) {
+                names.add(index.stringAt(child));
+            }
+        }
+        return names;
+    }
+
+    public long asLong() {
+        JSONLexer lexer = index.lexer(entry);
+        switch (lexer.token()) {
+            case JSONToken.LITERAL_INT:
+            case JSONToken.LITERAL_FLOAT:
+                return lexer.longValue();
+            case JSONToken.NULL:
+                return 0;
+            default:
+                Long value = TypeUtils.castToLong(value());
+                return value == null ? 0 : value;
+        }
+    }
+
+    public int asInt() {
+        long value = asLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JSONException("int overflow, value " + value);
+        }
+        return (int) value;
+    }
+
+    public double asDouble() {
+        JSONLexer lexer = index.lexer(entry);
+        switch (lexer.token()) {
+            case JSONToken.LITERAL_INT:
+            case JSONToken.LITERAL_FLOAT:
+                return lexer.doubleValue();
+            case JSONToken.NULL:
+                return 0;
+            default:
+                Double value = TypeUtils.castToDouble(value());
+                return value == null ? 0 : value;
+        }
+    }
+
+    public boolean asBoolean() {
+        Boolean value = TypeUtils.castToBoolean(value());
+        return value != null && value;
+    }
+
+    /**
+     * Returns a string decoded, a number or a literal as written, null for null, and the text of an object or an
+     * array.
+     */
+    public String asString() {
+        JSONLexer lexer = index.lexer(entry);
+        switch (lexer.token()) {
+            case JSONToken.LITERAL_STRING:
+                return lexer.stringVal();
+            case JSONToken.NULL:
+                return null;
+            default:
+                return toString();
+        }
+    }
+
+    /**
+     * Binds this value to the type, with the configuration and features it was parsed with.
+     */
+    public <T> T as(Type type) {
+        int start = index.tape[2 * entry];
+        DefaultJSONParser parser = new DefaultJSONParser(index.buf, start, index.endOf(entry) - start, index.config,
+                index.features);
+        T value = parser.parseObject(type);
+        parser.close();
+        return value;
+    }
+
+    /**
+     * Decodes this value as {@link DefaultJSONParser#parse()} does.
+     */
+    public Object value() {
+        return as(Object.class);
+    }
+
+    /**
+     * Returns the offset of the first byte of this value in the input.
+     */
+    public int offset() {
+        return index.tape[2 * entry];
+    }
+
+    /**
+     * Returns the number of bytes of this value in the input.
+     */
+    public int length() {
+        return index.endOf(entry) - index.tape[2 * entry];
+    }
+
+    /**
+     * Returns a copy of the bytes of this value.
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[length()];
+        System.arraycopy(index.buf, offset(), bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    public void writeTo(OutputStream os) throws IOException {
+        os.write(index.buf, offset(), length());
+    }
+
+    public void writeTo(SerializeWriter out) {
+        out.write(index.buf, offset(), length());
+    }
+
+    /**
+     * Returns the text of this value.
+     */
+    @Override
+    public String toString() {
+        return new String(index.buf, offset(), length(), UTF8);
+    }
+}
@@ -0,0 +1,754 @@
+package parser;
+
+import util.JSONException;
+import util.TypeUtils;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static parser.JSONToken.COMMA;
+import static parser.JSONToken.LBRACE;
+import static parser.JSONToken.LBRACKET;
+import static parser.JSONToken.RBRACE;
+import static parser.JSONToken.RBRACKET;
+
+/**
+ * A compiled JSONPath expression, evaluated while the text is tokenized: the values on the path are followed token
+ * by token, property names are matched by their hash without being decoded, and the subtrees which cannot match are
+ * skipped with a byte scan. Only the matches are decoded, as {@link DefaultJSONParser#parse()} does.
+ * <p>
+ * The supported syntax is:
+ * <ul>
+ * <li><code>$</code>, the root, which may be omitted: <code>a.b</code> is <code>$.a.b</code>;</li>
+ * <li><code>.name</code> or <code>['name']</code>, a property;</li>
+ * <li><code>[3]</code>, an element of an array;</li>
+ * <li><code>.*</code> or <code>[*]</code>, all the properties or elements;</li>
+ * <li><code>..name</code>, the properties of that name at any depth;</li>
+ * <li><code>[?(@.price &lt; 10 &amp;&amp; @.tags[0])]</code>, the properties or elements whose scalar field compares
+ * to a literal with <code>== != &lt; &lt;= &gt; &gt;=</code>, or exists, combined with <code>&amp;&amp;</code> and
+ * <code>||</code>. A filtered value is indexed with {@link JSONNode} to be tested, then followed like the others.</li>
+ * </ul>
+ * A path of properties and positions only is definite: {@link #extract(byte[])} returns its value, or null, and
+ * stops reading once it is found. Any other path returns the list of its matches in document order.
+ * <p>
+ * A compiled path is immutable and can be shared between threads.
+ */
+public final class JSONPath {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final ConcurrentMap<String, JSONPath> paths = new ConcurrentHashMap<String, JSONPath>();
+
+    private final String path;
+    private final Segment[] segments;
+    private final boolean definite;
+    private final ParserConfig config;
+
+    private JSONPath(String path, Segment[] segments, ParserConfig config) {
+        this.path = path;
+        this.segments = segments;
+        this.config = config;
+
+        boolean definite = true;
+        for (Segment segment : segments) {
+            definite &= segment instanceof PropertySegment || segment instanceof IndexSegment;
+        }
+        this.definite = definite;
+    }
+
+    /**
+     * Returns the compiled path, compiling it on first use. A bounded number of paths is cached.
+     */
+    public static JSONPath compile(String path) {
+        JSONPath compiled = paths.get(path);
+        if (compiled == null) {
+            compiled = new JSONPath(path, new PathParser(path).parse(), ParserConfig.getGlobalInstance());
+            if (paths.size() < 1024) {
+                JSONPath previous = paths.putIfAbsent(path, compiled);
+                if (previous != null) {
+                    compiled = previous;
+                }
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiles a path whose matches are decoded with the given configuration. The result is not cached.
+     */
+    public static JSONPath compile(String path, ParserConfig config) {
+        return new JSONPath(path, new PathParser(path).parse(), config);
+    }
+
+    public static Object extract(String text, String path) {
+        return compile(path).extract(text);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isDefinite() {
+        return definite;
+    }
+
+    public Object extract(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        byte[] input = text.getBytes(UTF8);
+        return extract(input, 0, input.length, 0);
+    }
+
+    public Object extract(byte[] input) {
+        return extract(input, 0, input.length, 0);
+    }
+
+    /**
+     * Evaluates the path over <code>len</code> bytes of UTF-8 encoded JSON text from <code>off</code>.
+     */
+    public Object extract(byte[] input, int off, int len, int features) {
+        List<Object> matches = new ArrayList<Object>(definite ? 1 : 8);
+        DefaultJSONParser parser = new DefaultJSONParser(input, off, len, config, features);
+        if (!eval(parser, 0, matches)) {
+            parser.close();
+        }
+        if (definite) {
+            return matches.isEmpty() ? null : matches.get(0);
+        }
+        return matches;
+    }
+
+    /**
+     * Follows the segments from <code>index</code> on the value at the current token, which is consumed with the
+     * token that follows it. Returns true when a definite path has found its value, in which case the rest of the
+     * input is not read.
+     */
+    boolean eval(DefaultJSONParser parser, int index, List<Object> matches) {
+        if (index == segments.length) {
+            matches.add(parser.parse());
+            return definite;
+        }
+        return segments[index].eval(this, parser, index, matches);
+    }
+
+    /**
+     * Follows the segments from <code>index</code> on the value in <code>[start, end)</code> of the input.
+     */
+    boolean eval(JSONLexer lexer, int start, int end, int index, List<Object> matches) {
+        DefaultJSONParser parser = new DefaultJSONParser(lexer.buf, start, end - start, config, lexer.getFeatures());
+        return eval(parser, index, matches);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    static abstract class Segment {
+
+        /**
+         * Applies this segment, the <code>index</code>-th of the path, to the value at the current token.
+         */
+        abstract boolean eval(JSONPath path, DefaultJSONParser parser, int index, List<Object> matches);
+    }
+
+    static final class PropertySegment extends Segment {
+
+        final String name;
+        final long hash;
+
+        PropertySegment(String name) {
+            this.name = name;
+            this.hash = TypeUtils.fnv1a_64(name);
+        }
+
+        boolean eval(JSONPath path, DefaultJSONParser parser, int index, List<Object> matches) {
+            JSONLexer lexer = parser.lexer;
+            if (lexer.token() != LBRACE) {
+                lexer.skipCurrentValue();
+                return false;
+            }
+
+            for (; ; ) {
+                long hash = lexer.scanFieldHash();
+                if (lexer.token() == RBRACE) {
+                    break;
+                }
+                if (hash == this.hash) {
+                    lexer.nextToken();
+                    if (path.eval(parser, index + 1, matches)) {
+                        return true;
+                    }
+                } else {
+                    lexer.skipValue();
+                }
+                if (!nextProperty(lexer)) {
+                    break;
+                }
+            }
+            lexer.nextToken();
+            return false;
+        }
+    }
+
+    static final class IndexSegment extends Segment {
+
+        final int position;
+
+        IndexSegment(int position) {
+            this.position = position;
+        }
+
+        boolean eval(JSONPath path, DefaultJSONParser parser, int index, List<Object> matches) {
+            JSONLexer lexer = parser.lexer;
+            if (!beginArray(lexer)) {
+                return false;
+            }
+
+            for (int i = 0; ; ++i) {
+                if (i == position) {
+                    if (path.eval(parser, index + 1, matches)) {
+                        return true;
+                    }
+                } else {
+                    lexer.skipCurrentValue();
+                }
+                if (!nextElement(lexer)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    static final class WildcardSegment extends Segment {
+
+        boolean eval(JSONPath path, DefaultJSONParser parser, int index, List<Object> matches) {
+            JSONLexer lexer = parser.lexer;
+            if (lexer.token() == LBRACE) {
+                for (; ; ) {
+                    lexer.scanFieldHash();
+                    if (lexer.token() == RBRACE) {
+                        break;
+                    }
+                    lexer.nextToken();
+                    path.eval(parser, index + 1, matches);
+                    if (!nextProperty(lexer)) {
+                        break;
+                    }
+                }
+                lexer.nextToken();
+                return false;
+            }
+
+            if (!beginArray(lexer)) {
+                return false;
+            }
+            do {
+                path.eval(parser, index + 1, matches);
+            } while (nextElement(lexer));
+            return false;
+        }
+    }
+
+    /**
+     * <code>..name</code>: a matching property is followed by the rest of the path and, when it is an object or an
+     * array, searched again for nested matches; the other values are searched.
+     */
+    static final class DescendantSegment extends Segment {
+
+        final long hash;
+
+        DescendantSegment(String name) {
+            this.hash = TypeUtils.fnv1a_64(name);
+        }
+
+        boolean eval(JSONPath path, DefaultJSONParser parser, int index, List<Object> matches) {
+            JSONLexer lexer = parser.lexer;
+            if (lexer.token() == LBRACE) {
+                for (; ; ) {
+                    long hash = lexer.scanFieldHash();
+                    if (lexer.token() == RBRACE) {
+                        break;
+                    }
+                    lexer.nextToken();
+                    if (hash != this.hash) {
+                        eval(path, parser, index, matches);
+                    } else if (lexer.token() == LBRACE || lexer.token() == LBRACKET) {
+                        int start = lexer.pos();
+                        lexer.skipCurrentValue();
+                        int end = lexer.pos();
+                        path.eval(lexer, start, end, index + 1, matches);
+                        path.eval(lexer, start, end, index, matches);
+                    } else {
+                        path.eval(parser, index + 1, matches);
+                    }
+                    if (!nextProperty(lexer)) {
+                        break;
+                    }
+                }
+                lexer.nextToken();
+                return false;
+            }
+
+            if (lexer.token() == LBRACKET) {
+                if (!beginArray(lexer)) {
+                    return false;
+                }
+                do {
+                    eval(path, parser, index, matches);
+                } while (nextElement(lexer));
+                return false;
+            }
+
+            lexer.skipCurrentValue();
+            return false;
+        }
+    }
+
+    static final class FilterSegment extends Segment {
+
+        final Filter filter;
+
+        FilterSegment(Filter filter) {
+            this.filter = filter;
+        }
+
+        boolean eval(JSONPath path, DefaultJSONParser parser, int index, List<Object> matches) {
+            JSONLexer lexer = parser.lexer;
+            if (lexer.token() == LBRACE) {
+                for (; ; ) {
+                    lexer.scanFieldHash();
+                    if (lexer.token() == RBRACE) {
+                        break;
+                    }
+                    lexer.nextToken();
+                    test(path, parser, index, matches);
+                    if (!nextProperty(lexer)) {
+                        break;
+                    }
+                }
+                lexer.nextToken();
+                return false;
+            }
+
+            if (!beginArray(lexer)) {
+                return false;
+            }
+            do {
+                test(path, parser, index, matches);
+            } while (nextElement(lexer));
+            return false;
+        }
+
+        private void test(JSONPath path, DefaultJSONParser parser, int index, List<Object> matches) {
+            JSONLexer lexer = parser.lexer;
+            int start = lexer.pos();
+            lexer.skipCurrentValue();
+            int end = lexer.pos();
+            JSONNode node = JSONNode.parse(lexer.buf, start, end - start, path.config, lexer.getFeatures());
+            if (filter.test(node)) {
+                path.eval(lexer, start, end, index + 1, matches);
+            }
+        }
+    }
+
+    /**
+     * Reads the token after an array element: moves to the next element and returns true after a comma, or past the
+     * closing <code>]</code> and returns false.
+     */
+    static boolean nextElement(JSONLexer lexer) {
+        int token = lexer.token();
+        if (token == COMMA) {
+            lexer.nextToken();
+            return true;
+        }
+        if (token == RBRACKET) {
+            lexer.nextToken();
+            return false;
+        }
+        throw lexer.syntaxError("expect ',' or ']', but " + JSONToken.name(token));
+    }
+
+    /**
+     * Checks the token after a property value, and returns false at the closing <code>}</code>.
+     */
+    static boolean nextProperty(JSONLexer lexer) {
+        int token = lexer.token();
+        if (token == COMMA) {
+            return true;
+        }
+        if (token == RBRACE) {
+            return false;
+        }
+        throw lexer.syntaxError("expect ',' or '}', but " + JSONToken.name(token));
+    }
+
+    /**
+     * Moves to the first element of the array at the current token and returns true, or skips the current value, or
+     * an empty array, and returns false.
+     */
+    static boolean beginArray(JSONLexer lexer) {
+        if (lexer.token() != LBRACKET) {
+            lexer.skipCurrentValue();
+            return false;
+        }
+        lexer.nextToken();
+        if (lexer.token() == RBRACKET) {
+            lexer.nextToken();
+            return false;
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------------------
+    // filters
+    // ------------------------------------------------------------------------
+
+    static abstract class Filter {
+
+        abstract boolean test(JSONNode node);
+    }
+
+    static final class AndFilter extends Filter {
+
+        final Filter left, right;
+
+        AndFilter(Filter left, Filter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        boolean test(JSONNode node) {
+            return left.test(node) && right.test(node);
+        }
+    }
+
+    static final class OrFilter extends Filter {
+
+        final Filter left, right;
+
+        OrFilter(Filter left, Filter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        boolean test(JSONNode node) {
+            return left.test(node) || right.test(node);
+        }
+    }
+
+    /**
+     * <code>@.a.b op literal</code>, or <code>@.a.b</code> alone which tests that the field exists. A field of another
+     * type than the literal is only different from it.
+     */
+    static final class CompareFilter extends Filter {
+
+        static final int EXISTS = 0, EQ = 1, NE = 2, LT = 3, LE = 4, GT = 5, GE = 6;
+
+        /**
+         * The names and positions of the field from <code>@</code>.
+         */
+        final Object[] names;
+        final int op;
+        final Object literal;
+
+        CompareFilter(Object[] names, int op, Object literal) {
+            this.names = names;
+            this.op = op;
+            this.literal = literal;
+        }
+
+        boolean test(JSONNode node) {
+            for (Object name : names) {
+                node = name instanceof String ? node.get((String) name) : node.get((Integer) name);
+                if (node == null) {
+                    return false;
+                }
+            }
+            if (op == EXISTS) {
+                return true;
+            }
+
+            int token = node.token();
+            int cmp;
+            if (literal == null) {
+                if (op != EQ && op != NE) {
+                    return false;
+                }
+                cmp = token == JSONToken.NULL ? 0 : 1;
+            } else if (literal instanceof Boolean) {
+                if (op != EQ && op != NE) {
+                    return false;
+                }
+                boolean value = (Boolean) literal;
+                cmp = token == (value ? JSONToken.TRUE : JSONToken.FALSE) ? 0 : 1;
+            } else if (literal instanceof String) {
+                if (token != JSONToken.LITERAL_STRING) {
+                    return op == NE;
+                }
+                cmp = node.asString().compareTo((String) literal);
+            } else {
+                if (token != JSONToken.LITERAL_INT && token != JSONToken.LITERAL_FLOAT) {
+                    return op == NE;
+                }
+                cmp = Double.compare(node.asDouble(), ((Number) literal).doubleValue());
+            }
+
+            switch (op) {
+                case EQ:
+                    return cmp == 0;
+                case NE:
+                    return cmp != 0;
+                case LT:
+                    return cmp < 0;
+                case LE:
+                    return cmp <= 0;
+                case GT:
+                    return cmp > 0;
+                default:
+                    return cmp >= 0;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // compilation
+    // ------------------------------------------------------------------------
+
+    static final class PathParser {
+
+        private final String path;
+        private int pos;
+
+        PathParser(String path) {
+            this.path = path;
+        }
+
+        Segment[] parse() {
+            List<Segment> segments = new ArrayList<Segment>();
+            if (pos < path.length() && path.charAt(pos) == '$') {
+                pos++;
+            } else if (pos < path.length() && path.charAt(pos) != '.' && path.charAt(pos) != '[') {
+                // a relative path, "a.b" for "$.a.b"
+                segments.add(new PropertySegment(readName()));
+            }
+            while (pos < path.length()) {
+                char c = path.charAt(pos);
+                if (c == '.') {
+                    pos++;
+                    if (pos < path.length() && path.charAt(pos) == '.') {
+                        pos++;
+                        if (pos < path.length() && path.charAt(pos) == '[') {
+                            pos++;
+                            skipSpaces();
+                            segments.add(new DescendantSegment(readQuoted()));
+                            expect(']');
+                        } else {
+                            String name = readName();
+                            if ("*".equals(name)) {
+                                throw error("'..*' is not supported");
+                            }
+                            segments.add(new DescendantSegment(name));
+                        }
+                    } else {
+                        String name = readName();
+                        segments.add("*".equals(name) ? new WildcardSegment() : new PropertySegment(name));
+                    }
+                } else if (c == '[') {
+                    pos++;
+                    segments.add(readBracket());
+                } else {
+                    throw error("unexpected '" + c + "'");
+                }
+            }
+            return segments.toArray(new Segment[segments.size()]);
+        }
+
+        private Segment readBracket() {
+            skipSpaces();
+            if (pos >= path.length()) {
+                throw error("unclosed '['");
+            }
+            char c = path.charAt(pos);
+            Segment segment;
+            if (c == '*') {
+                pos++;
+                segment = new WildcardSegment();
+            } else if (c == '\'' || c == '"') {
+                segment = new PropertySegment(readQuoted());
+            } else if (c == '?') {
+                pos++;
+                expect('(');
+                segment = new FilterSegment(readOr());
+                expect(')');
+            } else {
+                int start = pos;
+                while (pos < path.length() && Character.isDigit(path.charAt(pos))) {
+                    pos++;
+                }
+                if (start == pos) {
+                    throw error("expect a position, a name, '*' or a filter in '[]'");
+                }
+                try {
+                    segment = new IndexSegment(Integer.parseInt(path.substring(start, pos)));
+                } catch (NumberFormatException e) {
+                    throw error("position out of range");
+                }
+            }
+            expect(']');
+            return segment;
+        }
+
+        private Filter readOr() {
+            Filter filter = readAnd();
+            while (skipSpaces() && path.startsWith("||", pos)) {
+                pos += 2;
+                filter = new OrFilter(filter, readAnd());
+            }
+            return filter;
+        }
+
+        private Filter readAnd() {
+            Filter filter = readCompare();
+            while (skipSpaces() && path.startsWith("&&", pos)) {
+                pos += 2;
+                filter = new AndFilter(filter, readCompare());
+            }
+            return filter;
+        }
+
+        private Filter readCompare() {
+            expect('@');
+            List<Object> names = new ArrayList<Object>();
+            while (pos < path.length()) {
+                char c = path.charAt(pos);
+                if (c == '.') {
+                    pos++;
+                    names.add(readName());
+                } else if (c == '[') {
+                    pos++;
+                    skipSpaces();
+                    if (pos < path.length() && Character.isDigit(path.charAt(pos))) {
+                        int start = pos;
+                        while (pos < path.length() && Character.isDigit(path.charAt(pos))) {
+                            pos++;
+                        }
+                        names.add(Integer.valueOf(path.substring(start, pos)));
+                    } else {
+                        names.add(readQuoted());
+                    }
+                    expect(']');
+                } else {
+                    break;
+                }
+            }
+            Object[] fields = names.toArray();
+
+            skipSpaces();
+            int op;
+            if (path.startsWith("==", pos)) {
+                op = CompareFilter.EQ;
+            } else if (path.startsWith("!=", pos)) {
+                op = CompareFilter.NE;
+            } else if (path.startsWith("<=", pos)) {
+                op = CompareFilter.LE;
+            } else if (path.startsWith(">=", pos)) {
+                op = CompareFilter.GE;
+            } else if (path.startsWith("<", pos)) {
+                op = CompareFilter.LT;
+            } else if (path.startsWith(">", pos)) {
+                op = CompareFilter.GT;
+            } else {
+                return new CompareFilter(fields, CompareFilter.EXISTS, null);
+            }
+            pos += op == CompareFilter.LT || op == CompareFilter.GT ? 1 : 2;
+            skipSpaces();
+            return new CompareFilter(fields, op, readLiteral());
+        }
+
+        private Object readLiteral() {
+            if (pos >= path.length()) {
+                throw error("expect a literal");
+            }
+            char c = path.charAt(pos);
+            if (c == '\'' || c == '"') {
+                return readQuoted();
+            }
+            for (String literal : new String[]{"true", "false", "null"}) {
+                if (path.startsWith(literal, pos)) {
+                    pos += literal.length();
+                    return "null".equals(literal) ? null : Boolean.valueOf(literal);
+                }
+            }
+            int start = pos;
+            while (pos < path.length() && "+-.0123456789eE".indexOf(path.charAt(pos)) >= 0) {
+                pos++;
+            }
+            try {
+                return Double.valueOf(path.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("illegal literal");
+            }
+        }
+
+        /**
+         * Reads a name after a dot, up to the next dot, bracket, space or operator.
+         */
+        private String readName() {
+            int start = pos;
+            while (pos < path.length() && ".[]() =!<>&|".indexOf(path.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("expect a name");
+            }
+            return path.substring(start, pos);
+        }
+
+        private String readQuoted() {
+            char quote = pos < path.length() ? path.charAt(pos) : 0;
+            if (quote != '\'' && quote != '"') {
+                throw error("expect a quoted name");
+            }
+            StringBuilder buf = new StringBuilder();
+            for (pos++; ; pos++) {
+                if (pos >= path.length()) {
+                    throw error("unclosed string");
+                }
+                char c = path.charAt(pos);
+                if (c == quote) {
+                    pos++;
+                    return buf.toString();
+                }
+                if (c == '\\' && pos + 1 < path.length()) {
+                    c = path.charAt(++pos);
+                }
+                buf.append(c);
+            }
+        }
+
+        private void expect(char c) {
+            skipSpaces();
+            if (pos >= path.length() || path.charAt(pos) != c) {
+                throw error("expect '" + c + "'");
+            }
+            pos++;
+        }
+
+        private boolean skipSpaces() {
+            while (pos < path.length() && path.charAt(pos) == ' ') {
+                pos++;
+            }
+            return true;
+        }
+
+        private JSONException error(String message) {
+            return new JSONException("illegal jsonpath " + path + ", " + message + ", pos " + pos);
+        }
+    }
+}
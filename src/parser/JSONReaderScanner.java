@@ -0,0 +1,358 @@
+package parser;
+
+import util.BufferPool;
+import util.JSONException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * A {@link JSONLexer} which reads its input incrementally from an {@link InputStream}, a
+ * {@link ReadableByteChannel} or a {@link Reader}, through a bounded buffer taken from the {@link BufferPool}.
+ * <p>
+ * Before each token the buffer is refilled until it holds the whole token, discarding the bytes before the current
+ * token, or before the {@link #mark()}; the buffer only grows for a single token, or a marked span, larger than
+ * itself. Nested values are skipped without buffering
+ * them. Characters from a {@link Reader} are encoded to UTF-8 on the fly. Channels must be blocking.
+ * <p>
+ * A {@link FileChannel} is not read but memory mapped, region by region, and the buffer is refilled with a bulk copy
+ * from the mapping: there is no read system call and no copy of the whole file on the heap. As with any input,
+ * names are matched and numbers parsed in place, and a string is only decoded when its value is asked for.
+ */
+public class JSONReaderScanner extends JSONLexer implements Closeable {
+
+    private final InputStream in;
+    private final ReadableByteChannel channel;
+    private final Reader reader;
+
+    /**
+     * Largest region of a file mapped at once.
+     */
+    private final static long MAP_REGION = 1L << 30;
+
+    private final FileChannel file;
+    private long filePosition;
+    private long fileEnd;
+    private ByteBuffer mapped;
+
+    private CharsetEncoder encoder;
+    private CharBuffer chars;
+    private boolean readerEOF;
+    private boolean encoderFlushed;
+
+    /**
+     * Whether the source is exhausted.
+     */
+    private boolean eof;
+
+    /**
+     * Number of bytes of the input discarded before the start of the buffer.
+     */
+    private long discarded;
+
+    public JSONReaderScanner(InputStream in, int features) {
+        this(in, null, null, null, features);
+    }
+
+    public JSONReaderScanner(ReadableByteChannel channel, int features) {
+        this(null, channel, null, null, features);
+    }
+
+    public JSONReaderScanner(Reader reader, int features) {
+        this(null, null, reader, null, features);
+    }
+
+    /**
+     * Creates a scanner which maps the file from the position of the channel to its end. Unlike the other sources,
+     * the channel is left open by {@link #close()}.
+     */
+    public JSONReaderScanner(FileChannel file, int features) {
+        this(null, null, null, file, features);
+    }
+
+    private JSONReaderScanner(InputStream in, ReadableByteChannel channel, Reader reader, FileChannel file, int features) {
+        super(BufferPool.acquireBytes(), 0, 0, features);
+        this.in = in;
+        this.channel = channel;
+        this.reader = reader;
+        this.file = file;
+
+        if (file != null) {
+            try {
+                filePosition = file.position();
+                fileEnd = file.size();
+            } catch (IOException e) {
+                throw new JSONException("read error", e);
+            }
+        }
+
+        if (reader != null) {
+            encoder = UTF8.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            chars = CharBuffer.allocate(1024);
+            chars.flip();
+        }
+
+        // skip the UTF-8 byte order mark
+        while (end < 3 && refill()) {
+        }
+        if (end >= 3 && buf[0] == (byte) 0xEF && buf[1] == (byte) 0xBB && buf[2] == (byte) 0xBF) {
+            bp = 3;
+        }
+    }
+
+    @Override
+    public JSONException syntaxError(String message) {
+        return new JSONException("syntax error, " + message + ", pos " + (discarded + bp));
+    }
+
+    /**
+     * Refills the buffer until it holds the next token and the first byte after it, which is the colon that must
+     * follow a property name, or until the input ends.
+     */
+    @Override
+    protected void fill() {
+        for (; ; ) {
+            skipWhitespace();
+            if ((bp < end && isComplete(bp)) || !refill()) {
+                return;
+            }
+        }
+    }
+
+    private boolean isComplete(int i) {
+        final byte[] buf = this.buf;
+        final int end = this.end;
+        byte b = buf[i];
+        switch (b) {
+            case '{':
+            case '}':
+            case '[':
+            case ']':
+            case ',':
+            case ':':
+                return true;
+            case '"':
+                for (++i; i < end; ++i) {
+                    b = buf[i];
+                    if (b == '"') {
+                        break;
+                    }
+                    if (b == '\\') {
+                        ++i;
+                    }
+                }
+                for (++i; i < end; ++i) {
+                    if (!isWhitespace(buf[i])) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                // a number or a literal, up to the next delimiter
+                for (++i; i < end; ++i) {
+                    b = buf[i];
+                    if (b == ',' || b == '}' || b == ']' || b == ':' || b == '"' || isWhitespace(b)) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == '\b';
+    }
+
+    /**
+     * Skips an object or an array one buffer at a time, so that a large skipped value is never held in memory,
+     * unless it is retained.
+     */
+    @Override
+    protected void skipNested(boolean retain) {
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+        for (; ; ) {
+            final byte[] buf = this.buf;
+            final int end = this.end;
+            int bp = this.bp;
+            for (; bp < end; ++bp) {
+                byte b = buf[bp];
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                switch (b) {
+                    case '"':
+                        inString = true;
+                        break;
+                    case '{':
+                    case '[':
+                        depth++;
+                        break;
+                    case '}':
+                    case ']':
+                        if (--depth == 0) {
+                            this.bp = bp + 1;
+                            return;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            // nothing before the end of the buffer is needed any more, unless the whole value is
+            this.bp = bp;
+            if (!retain) {
+                this.pos = bp;
+            }
+            if (!refill()) {
+                throw syntaxError(inString ? "unclosed string" : "unclosed " + (token == JSONToken.LBRACE ? "object" : "array"));
+            }
+        }
+    }
+
+    /**
+     * Discards the bytes before the current token and before the mark, or grows the buffer when they fill it, and
+     * reads more input. Returns false at the end of the input.
+     */
+    private boolean refill() {
+        if (eof) {
+            return false;
+        }
+
+        int offset = pos < bp ? pos : bp;
+        if (markPos >= 0 && markPos < offset) {
+            offset = markPos;
+        }
+        if (offset > 0) {
+            System.arraycopy(buf, offset, buf, 0, end - offset);
+            end -= offset;
+            bp -= offset;
+            pos -= offset;
+            np -= offset;
+            strStart -= offset;
+            strEnd -= offset;
+            nameStart -= offset;
+            nameEnd -= offset;
+            if (markPos >= 0) {
+                markPos -= offset;
+                markBp -= offset;
+            }
+            discarded += offset;
+        }
+        if (end == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length * 2);
+        }
+
+        int n;
+        try {
+            n = read(buf, end, buf.length - end);
+        } catch (IOException e) {
+            throw new JSONException("read error", e);
+        }
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        end += n;
+        return true;
+    }
+
+    /**
+     * Reads at least one byte, or returns -1 at the end of the input.
+     */
+    private int read(byte[] b, int off, int len) throws IOException {
+        if (in != null) {
+            int n;
+            do {
+                n = in.read(b, off, len);
+            } while (n == 0);
+            return n;
+        }
+
+        if (file != null) {
+            if (mapped == null || !mapped.hasRemaining()) {
+                if (filePosition >= fileEnd) {
+                    return -1;
+                }
+                long size = Math.min(MAP_REGION, fileEnd - filePosition);
+                mapped = file.map(FileChannel.MapMode.READ_ONLY, filePosition, size);
+                filePosition += size;
+            }
+            int n = Math.min(len, mapped.remaining());
+            mapped.get(b, off, n);
+            return n;
+        }
+
+        if (channel != null) {
+            ByteBuffer dst = ByteBuffer.wrap(b, off, len);
+            int n;
+            do {
+                n = channel.read(dst);
+            } while (n == 0);
+            return n;
+        }
+
+        ByteBuffer dst = ByteBuffer.wrap(b, off, len);
+        while (dst.position() == off) {
+            if (readerEOF) {
+                if (!encoderFlushed && encoder.encode(chars, dst, true).isUnderflow()) {
+                    encoder.flush(dst);
+                    encoderFlushed = true;
+                }
+                int n = dst.position() - off;
+                return n == 0 ? -1 : n;
+            }
+
+            chars.compact();
+            int n = reader.read(chars);
+            chars.flip();
+            if (n < 0) {
+                readerEOF = true;
+                continue;
+            }
+            encoder.encode(chars, dst, false);
+        }
+        return dst.position() - off;
+    }
+
+    /**
+     * Closes the source, except a mapped file, and gives the buffer back to the pool.
+     */
+    public void close() {
+        byte[] buf = this.buf;
+        this.buf = null;
+        mapped = null;
+        BufferPool.releaseBytes(buf);
+        try {
+            if (in != null) {
+                in.close();
+            } else if (channel != null) {
+                channel.close();
+            } else if (reader != null) {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new JSONException("close error", e);
+        }
+    }
+}
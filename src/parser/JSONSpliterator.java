@@ -0,0 +1,315 @@
+package parser;
+
+import util.JSONException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import static parser.JSONToken.COMMA;
+import static parser.JSONToken.EOF;
+
+/**
+ * The records of a large input, bound one by one to a type: the elements of a top level array, or the lines of
+ * newline delimited JSON. It splits at record boundaries, so that a parallel stream parses and binds the parts on
+ * several threads:
+ * <pre>
+ * Stream&lt;Order&gt; orders = StreamSupport.stream(JSONSpliterator.&lt;Order&gt;ofLines(in, Order.class, config, 0), true);
+ * </pre>
+ * A line never contains a raw newline, so newline delimited JSON splits anywhere, at the next newline. The
+ * boundaries of the elements of an array are found first, in one pass which only follows the strings and the
+ * nesting, a few times cheaper than parsing. Records are returned in the order of the input.
+ */
+public final class JSONSpliterator<T> implements Spliterator<T> {
+
+    /**
+     * The fewest bytes worth a part of their own.
+     */
+    static final int MIN_PART = 1 << 16;
+
+    private static final int BATCH_UNIT = 1 << 20;
+    private static final int MAX_BATCH = 1 << 25;
+
+    private final Type type;
+    private final ParserConfig config;
+    private final int features;
+
+    private final byte[] buf;
+    private int pos;
+    private int end;
+
+    // the start of each part of an array, after a comma, then the closing bracket; lo and hi index the parts left
+    private final int[] cuts;
+    private int lo;
+    private final int hi;
+
+    // the stream of lines read in parts, and the bytes after the last newline read
+    private final InputStream in;
+    private byte[] carry;
+    private int batch;
+    private JSONSpliterator<T> part;
+
+    private DefaultJSONParser parser;
+
+    private JSONSpliterator(Type type, ParserConfig config, int features, byte[] buf, int pos, int end, int[] cuts,
+                            int lo, int hi, InputStream in) {
+        this.type = type;
+        this.config = config;
+        this.features = features;
+        this.buf = buf;
+        this.pos = pos;
+        this.end = end;
+        this.cuts = cuts;
+        this.lo = lo;
+        this.hi = hi;
+        this.in = in;
+    }
+
+    /**
+     * Returns the elements of the array in <code>len</code> bytes of <code>input</code> from <code>off</code>.
+     */
+    public static <T> JSONSpliterator<T> ofArray(byte[] input, int off, int len, Type itemType, ParserConfig config,
+                                                 int features) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int[] cuts = cutArray(input, off, off + len, Math.max(MIN_PART, len / (8 * parallelism)));
+        return new JSONSpliterator<T>(itemType, config, features, input, 0, 0, cuts, 0, cuts.length - 1, null);
+    }
+
+    /**
+     * Returns the values, one per line, in <code>len</code> bytes of <code>input</code> from <code>off</code>.
+     */
+    public static <T> JSONSpliterator<T> ofLines(byte[] input, int off, int len, Type type, ParserConfig config,
+                                                 int features) {
+        return new JSONSpliterator<T>(type, config, features, input, off, off + len, null, 0, 0, null);
+    }
+
+    /**
+     * Returns the values, one per line, read from <code>in</code> in parts of up to 32 MB. The stream is not
+     * closed.
+     */
+    public static <T> JSONSpliterator<T> ofLines(InputStream in, Type type, ParserConfig config, int features) {
+        JSONSpliterator<T> lines = new JSONSpliterator<T>(type, config, features, null, 0, 0, null, 0, 0, in);
+        lines.carry = new byte[0];
+        return lines;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (in != null) {
+            while (part == null || !part.tryAdvance(action)) {
+                if ((part = readPart()) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (parser == null) {
+            if (cuts != null) {
+                if (lo == hi) {
+                    return false;
+                }
+                pos = cuts[lo];
+                end = cuts[hi] - (hi == cuts.length - 1 ? 0 : 1);
+                lo = hi;
+            }
+            parser = new DefaultJSONParser(buf, pos, end - pos, config, features);
+        }
+
+        JSONLexer lexer = parser.getLexer();
+        if (lexer.token() == EOF) {
+            return false;
+        }
+        T value = parser.parseObject(type);
+        if (cuts != null) {
+            // the elements of a part are separated by commas, the comma after its last one is out of the part
+            if (lexer.token() == COMMA) {
+                lexer.nextToken();
+                if (lexer.token() == EOF) {
+                    throw lexer.syntaxError("unexpected ',' before ']'");
+                }
+            } else if (lexer.token() != EOF) {
+                throw lexer.syntaxError("expect ',' or ']', but " + JSONToken.name(lexer.token()));
+            }
+        }
+        action.accept(value);
+        return true;
+    }
+
+    public Spliterator<T> trySplit() {
+        if (parser != null) {
+            return null;
+        }
+
+        if (in != null) {
+            if (part != null) {
+                // the rest of the lines read comes before the stream
+                JSONSpliterator<T> prefix = part;
+                part = null;
+                return prefix;
+            }
+            return readPart();
+        }
+
+        if (cuts != null) {
+            if (hi - lo < 2) {
+                return null;
+            }
+            int mid = (lo + hi) >>> 1;
+            JSONSpliterator<T> prefix = new JSONSpliterator<T>(type, config, features, buf, 0, 0, cuts, lo, mid, null);
+            lo = mid;
+            return prefix;
+        }
+
+        if (end - pos < 2 * MIN_PART) {
+            return null;
+        }
+        int cut = pos + (end - pos) / 2;
+        while (cut < end && buf[cut] != '\n') {
+            cut++;
+        }
+        if (cut == end) {
+            return null;
+        }
+        JSONSpliterator<T> prefix = new JSONSpliterator<T>(type, config, features, buf, pos, cut + 1, null, 0, 0, null);
+        pos = cut + 1;
+        return prefix;
+    }
+
+    /**
+     * Returns the bytes left, which the parallel streams balance the parts by.
+     */
+    public long estimateSize() {
+        if (in != null) {
+            return Long.MAX_VALUE;
+        }
+        if (cuts != null) {
+            return parser != null ? end - pos : lo == hi ? 0 : cuts[hi] - cuts[lo];
+        }
+        return end - pos;
+    }
+
+    public int characteristics() {
+        return ORDERED;
+    }
+
+    /**
+     * Reads the next lines of the stream, a batch a little larger each time, up to the last newline.
+     */
+    private JSONSpliterator<T> readPart() {
+        if (carry == null) {
+            return null;
+        }
+
+        batch = Math.min(batch + BATCH_UNIT, MAX_BATCH);
+        byte[] bytes = Arrays.copyOf(carry, Math.max(batch, carry.length + BATCH_UNIT));
+        int len = carry.length;
+        int cut = -1;
+        try {
+            for (int n; (n = in.read(bytes, len, bytes.length - len)) >= 0; ) {
+                len += n;
+                if (len < bytes.length) {
+                    continue;
+                }
+                cut = len - 1;
+                while (cut >= 0 && bytes[cut] != '\n') {
+                    cut--;
+                }
+                if (cut >= 0) {
+                    break;
+                }
+                // a line longer than the batch
+                bytes = Arrays.copyOf(bytes, bytes.length << 1);
+            }
+        } catch (IOException e) {
+            throw new JSONException("read error", e);
+        }
+
+        if (cut < 0) {
+            // the end of the stream
+            carry = null;
+            cut = len - 1;
+        } else {
+            carry = Arrays.copyOfRange(bytes, cut + 1, len);
+        }
+        return new JSONSpliterator<T>(type, config, features, bytes, 0, cut + 1, null, 0, 0, null);
+    }
+
+    /**
+     * Returns the offset of the first element of the array, then of the first element after each comma found at
+     * least <code>grain</code> bytes after the previous one, then of the closing bracket.
+     */
+    static int[] cutArray(byte[] buf, int off, int end, int grain) {
+        int i = skipWhitespace(buf, off, end);
+        // the UTF-8 byte order mark
+        if (end - i >= 3 && buf[i] == (byte) 0xEF && buf[i + 1] == (byte) 0xBB && buf[i + 2] == (byte) 0xBF) {
+            i = skipWhitespace(buf, i + 3, end);
+        }
+        if (i == end || buf[i] != '[') {
+            throw new JSONException(i == end
+                    ? "unexpected end of input"
+                    : "syntax error, expect '[', but '" + (char) (buf[i] & 0xFF) + "', pos " + (i - off));
+        }
+
+        int[] cuts = new int[16];
+        int count = 0;
+        cuts[count++] = ++i;
+        int depth = 1;
+        for (; ; ) {
+            if (i >= end) {
+                throw new JSONException("unexpected end of input");
+            }
+            byte b = buf[i++];
+            if (b == '"') {
+                for (; ; ) {
+                    if (i >= end) {
+                        throw new JSONException("unclosed string");
+                    }
+                    byte c = buf[i++];
+                    if (c == '"') {
+                        break;
+                    }
+                    if (c == '\\') {
+                        i++;
+                    }
+                }
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (--depth == 0) {
+                    break;
+                }
+            } else if (b == ',' && depth == 1 && i - cuts[count - 1] >= grain) {
+                if (count + 1 == cuts.length) {
+                    cuts = Arrays.copyOf(cuts, count << 1);
+                }
+                cuts[count++] = i;
+            }
+        }
+
+        int close = i - 1;
+        if (buf[close] != ']') {
+            throw new JSONException("syntax error, unexpected '}', pos " + (close - off));
+        }
+        i = skipWhitespace(buf, i, end);
+        if (i != end) {
+            throw new JSONException("not close json text, pos " + (i - off));
+        }
+        cuts[count++] = close;
+        return Arrays.copyOf(cuts, count);
+    }
+
+    private static int skipWhitespace(byte[] buf, int i, int end) {
+        while (i < end) {
+            byte b = buf[i];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t' && b != '\f' && b != '\b') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+}
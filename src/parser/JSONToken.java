@@ -0,0 +1,54 @@
+package parser;
+
+public class JSONToken {
+
+    public final static int ERROR = 1;
+    public final static int LITERAL_INT = 2;
+    public final static int LITERAL_FLOAT = 3;
+    public final static int LITERAL_STRING = 4;
+    public final static int TRUE = 6;
+    public final static int FALSE = 7;
+    public final static int NULL = 8;
+    public final static int LBRACE = 12; // ("{"),
+    public final static int RBRACE = 13; // ("}"),
+    public final static int LBRACKET = 14; // ("["),
+    public final static int RBRACKET = 15; // ("]"),
+    public final static int COMMA = 16; // (","),
+    public final static int COLON = 17; // (":"),
+    public final static int EOF = 20;
+
+    public static String name(int value) {
+        switch (value) {
+            case ERROR:
+                return "error";
+            case LITERAL_INT:
+                return "int";
+            case LITERAL_FLOAT:
+                return "float";
+            case LITERAL_STRING:
+                return "string";
+            case TRUE:
+                return "true";
+            case FALSE:
+                return "false";
+            case NULL:
+                return "null";
+            case LBRACE:
+                return "{";
+            case RBRACE:
+                return "}";
+            case LBRACKET:
+                return "[";
+            case RBRACKET:
+                return "]";
+            case COMMA:
+                return ",";
+            case COLON:
+                return ":";
+            case EOF:
+                return "EOF";
+            default:
+                return "Unknown";
+        }
+    }
+}
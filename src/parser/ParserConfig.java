@@ -0,0 +1,389 @@
+package parser;
+
+import annotation.JSONType;
+import parser.deserializer.ASMDeserializerFactory;
+import parser.deserializer.EnumDeserializer;
+import parser.deserializer.FieldDeserializer;
+import parser.deserializer.JavaBeanDeserializer;
+import parser.deserializer.JavaObjectDeserializer;
+import parser.deserializer.MapDeserializer;
+import parser.deserializer.NumberDeserializer;
+import parser.deserializer.ObjectDeserializer;
+import parser.deserializer.PolymorphicDeserializer;
+import serializer.BigDecimalCodec;
+import serializer.BooleanCodec;
+import serializer.CharacterCodec;
+import serializer.CollectionCodec;
+import serializer.DateCodec;
+import serializer.FloatCodec;
+import serializer.IntegerCodec;
+import serializer.LongCodec;
+import serializer.MiscCodec;
+import serializer.ObjectArrayCodec;
+import serializer.PrimitiveArrayCodec;
+import serializer.StringCodec;
+import util.ASMUtils;
+import util.CodecCache;
+import util.IdentityHashMap;
+import util.JavaBeanInfo;
+import util.TypeUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.Serializable;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Maps types to their {@link ObjectDeserializer}. Java beans get a deserializer generated by
+ * {@link ASMDeserializerFactory} unless asm is disabled globally, for the bean with
+ * <code>@JSONType(asm = false)</code> or <code>@JSONType(parseFeatures = Feature.DisableASM)</code>, or the bean
+ * cannot be accessed from generated code; in that case the reflection based {@link JavaBeanDeserializer} is used.
+ * Types annotated with {@link JSONType#seeAlso()} are read by a {@link PolymorphicDeserializer}, and those annotated
+ * with {@link JSONType#deserializer()} by that deserializer, created once.
+ */
+public class ParserConfig {
+
+    private static final ParserConfig global = new ParserConfig();
+
+    private boolean asmEnable = !ASMUtils.IS_ANDROID;
+    protected ASMDeserializerFactory asmFactory;
+
+    private final IdentityHashMap<Type, ObjectDeserializer> deserializers;
+
+    /**
+     * Deserializers of parameterized bean types, which are not canonical instances and so are looked up by
+     * equality.
+     */
+    private final ConcurrentMap<Type, ObjectDeserializer> genericDeserializers = new ConcurrentHashMap<Type, ObjectDeserializer>();
+
+    /**
+     * Canonical instances of the property names read into maps, seeded with the names of the beans deserialized.
+     */
+    public final SymbolTable symbolTable = new SymbolTable(4096);
+
+    /**
+     * The bean deserializers, created once per type even when many threads ask for a type at the same time.
+     */
+    private final CodecCache<ObjectDeserializer> beanDeserializers = new CodecCache<ObjectDeserializer>();
+
+    private final CodecCache.Generator<ObjectDeserializer> beanDeserializerGenerator = new CodecCache.Generator<ObjectDeserializer>() {
+
+        public ObjectDeserializer generate(Type type, int features) {
+            return createJavaBeanDeserializer(TypeUtils.getClass(type), type);
+        }
+    };
+
+    public static ParserConfig getGlobalInstance() {
+        return global;
+    }
+
+    public ParserConfig() {
+        deserializers = new IdentityHashMap<Type, ObjectDeserializer>();
+
+        if (asmEnable) {
+            asmFactory = new ASMDeserializerFactory();
+        }
+
+        putDeserializer(Object.class, JavaObjectDeserializer.instance);
+        putDeserializer(Serializable.class, JavaObjectDeserializer.instance);
+        putDeserializer(Cloneable.class, JavaObjectDeserializer.instance);
+        putDeserializer(Closeable.class, JavaObjectDeserializer.instance);
+        putDeserializer(Comparable.class, JavaObjectDeserializer.instance);
+
+        putDeserializer(boolean.class, BooleanCodec.instance);
+        putDeserializer(Boolean.class, BooleanCodec.instance);
+        putDeserializer(char.class, CharacterCodec.instance);
+        putDeserializer(Character.class, CharacterCodec.instance);
+        putDeserializer(byte.class, IntegerCodec.instance);
+        putDeserializer(Byte.class, IntegerCodec.instance);
+        putDeserializer(short.class, IntegerCodec.instance);
+        putDeserializer(Short.class, IntegerCodec.instance);
+        putDeserializer(int.class, IntegerCodec.instance);
+        putDeserializer(Integer.class, IntegerCodec.instance);
+        putDeserializer(long.class, LongCodec.instance);
+        putDeserializer(Long.class, LongCodec.instance);
+        putDeserializer(float.class, FloatCodec.instance);
+        putDeserializer(Float.class, FloatCodec.instance);
+        putDeserializer(double.class, NumberDeserializer.instance);
+        putDeserializer(Double.class, NumberDeserializer.instance);
+        putDeserializer(Number.class, NumberDeserializer.instance);
+        putDeserializer(BigDecimal.class, BigDecimalCodec.instance);
+        putDeserializer(BigInteger.class, BigDecimalCodec.instance);
+        putDeserializer(String.class, StringCodec.instance);
+        putDeserializer(StringBuffer.class, StringCodec.instance);
+        putDeserializer(StringBuilder.class, StringCodec.instance);
+        putDeserializer(CharSequence.class, StringCodec.instance);
+
+        putDeserializer(byte[].class, PrimitiveArrayCodec.instance);
+        putDeserializer(short[].class, PrimitiveArrayCodec.instance);
+        putDeserializer(int[].class, PrimitiveArrayCodec.instance);
+        putDeserializer(long[].class, PrimitiveArrayCodec.instance);
+        putDeserializer(float[].class, PrimitiveArrayCodec.instance);
+        putDeserializer(double[].class, PrimitiveArrayCodec.instance);
+        putDeserializer(boolean[].class, PrimitiveArrayCodec.instance);
+        putDeserializer(char[].class, PrimitiveArrayCodec.instance);
+
+        putDeserializer(AtomicBoolean.class, BooleanCodec.instance);
+        putDeserializer(AtomicInteger.class, IntegerCodec.instance);
+        putDeserializer(AtomicLong.class, LongCodec.instance);
+
+        putDeserializer(Date.class, DateCodec.instance);
+        putDeserializer(Calendar.class, DateCodec.instance);
+
+        putDeserializer(UUID.class, MiscCodec.instance);
+        putDeserializer(URI.class, MiscCodec.instance);
+        putDeserializer(URL.class, MiscCodec.instance);
+        putDeserializer(Locale.class, MiscCodec.instance);
+        putDeserializer(Currency.class, MiscCodec.instance);
+        putDeserializer(Pattern.class, MiscCodec.instance);
+        putDeserializer(File.class, MiscCodec.instance);
+        putDeserializer(Charset.class, MiscCodec.instance);
+
+        putDeserializer(Map.class, MapDeserializer.instance);
+        putDeserializer(Collection.class, CollectionCodec.instance);
+    }
+
+    public boolean isAsmEnable() {
+        return asmEnable;
+    }
+
+    public void setAsmEnable(boolean asmEnable) {
+        if (ASMUtils.IS_ANDROID) {
+            return;
+        }
+        this.asmEnable = asmEnable;
+        if (asmEnable && asmFactory == null) {
+            asmFactory = new ASMDeserializerFactory();
+        }
+    }
+
+    public void putDeserializer(Type type, ObjectDeserializer deserializer) {
+        deserializers.put(type, deserializer);
+    }
+
+    public ObjectDeserializer getDeserializer(Type type) {
+        ObjectDeserializer deserializer = deserializers.get(type);
+        if (deserializer != null) {
+            return deserializer;
+        }
+
+        if (type instanceof Class<?>) {
+            return getDeserializer((Class<?>) type, type);
+        }
+
+        if (type instanceof ParameterizedType) {
+            Type rawType = ((ParameterizedType) type).getRawType();
+            if (rawType instanceof Class<?>) {
+                return getDeserializer((Class<?>) rawType, type);
+            }
+            return getDeserializer(rawType);
+        }
+
+        if (type instanceof GenericArrayType) {
+            return ObjectArrayCodec.instance;
+        }
+
+        if (type instanceof WildcardType) {
+            Type[] upperBounds = ((WildcardType) type).getUpperBounds();
+            if (upperBounds.length == 1) {
+                return getDeserializer(upperBounds[0]);
+            }
+        }
+
+        // type variables which are not resolved, and anything else, are read untyped
+        return JavaObjectDeserializer.instance;
+    }
+
+    public ObjectDeserializer getDeserializer(Class<?> clazz, Type type) {
+        ObjectDeserializer deserializer = deserializers.get(type);
+        if (deserializer != null) {
+            return deserializer;
+        }
+
+        if (type != clazz) {
+            deserializer = genericDeserializers.get(type);
+            if (deserializer != null) {
+                return deserializer;
+            }
+
+            // collections, maps and arrays read their type arguments at runtime, share the raw class entry
+            deserializer = deserializers.get(clazz);
+            if (deserializer != null && !(deserializer instanceof JavaBeanDeserializer)) {
+                return deserializer;
+            }
+        }
+
+        JSONType jsonType = clazz.getAnnotation(JSONType.class);
+        if (jsonType != null && jsonType.deserializer() != Void.class) {
+            deserializer = TypeUtils.getCodec(jsonType.deserializer(), ObjectDeserializer.class);
+        } else if (jsonType != null && jsonType.seeAlso().length > 0) {
+            deserializer = new PolymorphicDeserializer(this, clazz);
+        } else if (clazz.isEnum()) {
+            deserializer = new EnumDeserializer(clazz);
+        } else if (clazz.isArray()) {
+            deserializer = ObjectArrayCodec.instance;
+        } else if (Collection.class.isAssignableFrom(clazz)) {
+            deserializer = CollectionCodec.instance;
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            deserializer = MapDeserializer.instance;
+        } else if (Date.class.isAssignableFrom(clazz) || Calendar.class.isAssignableFrom(clazz)) {
+            deserializer = DateCodec.instance;
+        } else if (Charset.class.isAssignableFrom(clazz)) {
+            deserializer = MiscCodec.instance;
+        } else {
+            deserializer = beanDeserializers.get(type, 0, beanDeserializerGenerator);
+        }
+
+        if (type == clazz) {
+            putDeserializer(type, deserializer);
+        } else {
+            ObjectDeserializer previous = genericDeserializers.putIfAbsent(type, deserializer);
+            if (previous != null) {
+                deserializer = previous;
+            }
+        }
+        return deserializer;
+    }
+
+    /**
+     * Returns the deserializer of the bean itself, for a type whose deserializer is a
+     * {@link PolymorphicDeserializer}.
+     */
+    public ObjectDeserializer getBeanDeserializer(Class<?> clazz) {
+        return beanDeserializers.get(clazz, 0, beanDeserializerGenerator);
+    }
+
+    /**
+     * Builds the deserializer of the type ahead of its first use, and, transitively, those of the types of its
+     * properties, of the elements of its collections and arrays, of the values of its maps and of the subtypes of
+     * its {@link JSONType#seeAlso()}, so that the first value read does not generate them.
+     */
+    public void warmup(Type type) {
+        warmup(type, new HashSet<Type>());
+    }
+
+    private void warmup(Type type, Set<Type> visited) {
+        if (!visited.add(type)) {
+            return;
+        }
+
+        ObjectDeserializer deserializer = getDeserializer(type);
+        if (deserializer instanceof JavaBeanDeserializer) {
+            JavaBeanDeserializer beanDeserializer = (JavaBeanDeserializer) deserializer;
+            for (int i = 0; i < beanDeserializer.beanInfo.fields.length; ++i) {
+                FieldDeserializer fieldDeserializer = beanDeserializer.getFieldDeserializer(i);
+                if (fieldDeserializer.customDeserializer == null && !fieldDeserializer.fieldInfo.jsonDirect) {
+                    // the property keeps the deserializer of its type
+                    fieldDeserializer.getFieldValueDeserializer(this);
+                    warmup(fieldDeserializer.fieldInfo.fieldType, visited);
+                }
+            }
+            return;
+        }
+
+        if (deserializer instanceof PolymorphicDeserializer) {
+            for (Class<?> subtype : ((PolymorphicDeserializer) deserializer).getSubtypes()) {
+                warmup(subtype, visited);
+            }
+            return;
+        }
+
+        Type itemType = null;
+        if (type instanceof GenericArrayType) {
+            itemType = ((GenericArrayType) type).getGenericComponentType();
+        } else if (type instanceof Class<?> && ((Class<?>) type).isArray()) {
+            itemType = ((Class<?>) type).getComponentType();
+        } else if (type instanceof Class<?> || type instanceof ParameterizedType) {
+            Class<?> clazz = TypeUtils.getClass(type);
+            if (Collection.class.isAssignableFrom(clazz)) {
+                itemType = TypeUtils.getCollectionItemType(type);
+            } else if (Map.class.isAssignableFrom(clazz) && type instanceof ParameterizedType) {
+                itemType = ((ParameterizedType) type).getActualTypeArguments()[1];
+            }
+        }
+        if (itemType != null) {
+            warmup(itemType, visited);
+        }
+    }
+
+    /**
+     * Returns the classes whose bean deserializers have been built, in no particular order; a parameterized type
+     * counts as its raw class.
+     */
+    public Set<Class<?>> getResolvedClasses() {
+        List<Type> types = beanDeserializers.getTypes();
+        Set<Class<?>> classes = new LinkedHashSet<Class<?>>(types.size());
+        for (Type type : types) {
+            classes.add(TypeUtils.getClass(type));
+        }
+        return classes;
+    }
+
+    public ObjectDeserializer createJavaBeanDeserializer(Class<?> clazz, Type type) {
+        JavaBeanInfo beanInfo = JavaBeanInfo.build(clazz, type);
+
+        boolean asmEnable = this.asmEnable;
+        JSONType jsonType = beanInfo.jsonType;
+        if (jsonType != null && !jsonType.asm()) {
+            asmEnable = false;
+        }
+
+        if (Feature.isEnabled(beanInfo.parserFeatures, Feature.DisableASM)) {
+            asmEnable = false;
+        }
+
+        if (asmEnable && !asmFactory.isSupported(beanInfo)) {
+            asmEnable = false;
+        }
+
+        if (asmEnable) {
+            try {
+                return asmFactory.createJavaBeanDeserializer(this, beanInfo);
+            } catch (Exception e) {
+                // fall back to reflection
+            } catch (LinkageError e) {
+                // fall back to reflection, e.g. the generated class failed verification
+            }
+        }
+
+        return new JavaBeanDeserializer(this, beanInfo);
+    }
+
+    /**
+     * Decides which types a type name not listed by {@link JSONType#seeAlso()} stands for, see
+     * {@link JSONType#autoTypeCheckHandler()}, and whether the listed ones are allowed. Asked once per name.
+     */
+    public interface AutoTypeCheckHandler {
+
+        /**
+         * Returns the subtype of <code>expectClass</code> named <code>typeName</code>, or null when the name is not
+         * allowed.
+         */
+        Class<?> handler(String typeName, Class<?> expectClass, int features);
+    }
+}
@@ -0,0 +1,130 @@
+package parser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Finds the structural positions of a JSON text 8 bytes at a time, after G. Langdale and D. Lemire, "Parsing
+ * Gigabytes of JSON per Second" (2019), with SWAR arithmetic on longs standing in for SIMD registers: each long of 8
+ * bytes is compared to a character at once, giving a mask with the high bit of each matching byte set. The escaped
+ * quotes, and from them the bytes inside strings, are then found with bit operations on the masks, so that the bytes
+ * of a string are not looked at one by one, and the words entirely inside a string are skipped after two compares.
+ * <p>
+ * {@link JSONIndex} walks the positions to build its tape when {@link Feature#UseSWAR} is enabled.
+ */
+final class StructuralScanner {
+
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+    private static final long ONES = 0x0101010101010101L;
+
+    private StructuralScanner() {
+    }
+
+    /**
+     * Returns the offsets, in order, of the characters <code>{}[],:</code> outside strings, of the opening and the
+     * closing quote of each string, and of the first byte of each number or literal, followed by -1.
+     */
+    static int[] scan(byte[] buf, int off, int end) {
+        int[] positions = new int[Math.max(16, (end - off) >> 3)];
+        int count = 0;
+
+        ByteBuffer words = ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+        // the high bit of the first byte of the next word, when it is escaped
+        long escapedCarry = 0;
+        boolean inString = false;
+        // the high bit of the first byte of the next word, when the last byte of this one is in a number or literal
+        long scalarCarry = 0;
+        for (int i = off; i < end; i += 8) {
+            long w = i + 8 <= end ? words.getLong(i) : tail(buf, i, end);
+
+            long quotes = eq(w, '"');
+            long backslashes = eq(w, '\\');
+            if ((backslashes | escapedCarry) != 0) {
+                // a backslash escapes the next byte, unless it is escaped itself
+                long escaped = escapedCarry;
+                escapedCarry = 0;
+                long escapes = backslashes & ~escaped;
+                while (escapes != 0) {
+                    long bit = escapes & -escapes;
+                    long next = bit << 8;
+                    if (next == 0) {
+                        escapedCarry = 0x80;
+                    }
+                    escaped |= next;
+                    escapes &= ~(bit | next);
+                }
+                quotes &= ~escaped;
+            }
+            if (quotes == 0 && inString) {
+                continue;
+            }
+
+            // the high bit of each byte from an opening quote to the byte before the closing one
+            long strings = quotes;
+            strings ^= strings << 8;
+            strings ^= strings << 16;
+            strings ^= strings << 32;
+            if (inString) {
+                strings ^= HIGH;
+            }
+            inString = strings < 0;
+
+            long outside = ~strings & ~quotes & HIGH;
+            long structural = 0;
+            long scalar = 0;
+            if (outside != 0) {
+                // '[' and ']' differ from '{' and '}' by the 0x20 bit
+                long low = w & LOW7;
+                long lower = low | 0x2020202020202020L;
+                structural = ~(ne(lower, '{') & ne(lower, '}') & ne(low, ',') & ne(low, ':') | w) & outside;
+                long whitespace = ~(ne(low, ' ') & ne(low, '\n') & ne(low, '\r') & ne(low, '\t') & ne(low, '\f')
+                        & ne(low, '\b') | w) & HIGH;
+                scalar = outside & ~structural & ~whitespace;
+            }
+            long scalarStarts = scalar & ~(scalar << 8 | scalarCarry);
+            scalarCarry = scalar >>> 56;
+
+            long bits = structural | quotes | scalarStarts;
+            if (count + 8 >= positions.length) {
+                positions = Arrays.copyOf(positions, positions.length << 1);
+            }
+            while (bits != 0) {
+                positions[count++] = i + (Long.numberOfTrailingZeros(bits) >>> 3);
+                bits &= bits - 1;
+            }
+        }
+
+        positions[count] = -1;
+        return positions;
+    }
+
+    /**
+     * Returns the last bytes from <code>i</code>, padded with spaces to a word.
+     */
+    private static long tail(byte[] buf, int i, int end) {
+        long w = 0x2020202020202020L;
+        for (int k = 0; i + k < end; ++k) {
+            w = w & ~(0xFFL << 8 * k) | (buf[i + k] & 0xFFL) << 8 * k;
+        }
+        return w;
+    }
+
+    /**
+     * Sets the high bit of each byte of <code>w</code> which is the ASCII character <code>c</code>, exactly: unlike the classic
+     * <code>(x - 0x01..) &amp; ~x</code>, no borrow crosses the bytes.
+     */
+    static long eq(long w, int c) {
+        return ~(ne(w & LOW7, c) | w) & HIGH;
+    }
+
+    /**
+     * Clears the high bit of each byte of <code>low</code>, a word with the high bits cleared, which is the ASCII
+     * character <code>c</code>, and sets the others. The high bits of the word itself are or'ed in by the caller, so
+     * that the compares to several characters are and'ed together before.
+     */
+    private static long ne(long low, int c) {
+        return (low ^ c * ONES) + LOW7;
+    }
+}
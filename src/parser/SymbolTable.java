@@ -0,0 +1,110 @@
+package parser;
+
+import util.TypeUtils;
+
+import java.nio.charset.Charset;
+
+/**
+ * A bounded cache of property names, so that the names which repeat across documents are returned as one canonical
+ * {@link String} instead of being decoded again each time. The lexer looks a name up with the FNV-1a hash it computed
+ * while scanning it, then compares the bytes, so a hit allocates nothing.
+ * <p>
+ * The table is a fixed array of slots addressed by the hash, one symbol per slot. It takes no lock: entries are
+ * immutable and a slot is written with a plain store, so two threads racing on a slot at worst both decode the name.
+ * Names registered with {@link #addSymbol(String)}, such as the properties of the known beans, stay in their slot;
+ * names learned from the input only take a free slot or replace another learned name.
+ */
+public class SymbolTable {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Longer names are not cached.
+     */
+    public final static int MAX_SYMBOL_LENGTH = 64;
+
+    private final Entry[] symbols;
+    private final int mask;
+
+    public SymbolTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        symbols = new Entry[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Registers a name which stays in the table, and returns its canonical instance.
+     */
+    public String addSymbol(String name) {
+        byte[] bytes = name.getBytes(UTF8);
+        if (bytes.length > MAX_SYMBOL_LENGTH) {
+            return name;
+        }
+
+        long hash = TypeUtils.fnv1a_64(name);
+        int index = indexOf(hash);
+        Entry entry = symbols[index];
+        if (entry != null && entry.hash == hash && entry.equals(bytes, 0, bytes.length)) {
+            if (!entry.pinned) {
+                symbols[index] = new Entry(hash, entry.name, entry.bytes, true);
+            }
+            return entry.name;
+        }
+        if (entry == null || !entry.pinned) {
+            symbols[index] = new Entry(hash, name, bytes, true);
+        }
+        return name;
+    }
+
+    /**
+     * Returns the name encoded in <code>len</code> bytes of <code>buf</code> from <code>off</code>, which must not
+     * contain escape sequences, and whose {@link TypeUtils#fnv1a_64(String)} hash is <code>hash</code>.
+     */
+    public String addSymbol(byte[] buf, int off, int len, long hash) {
+        int index = indexOf(hash);
+        Entry entry = symbols[index];
+        if (entry != null && entry.hash == hash && entry.equals(buf, off, len)) {
+            return entry.name;
+        }
+
+        String name = new String(buf, off, len, UTF8);
+        if (len <= MAX_SYMBOL_LENGTH && (entry == null || !entry.pinned)) {
+            byte[] bytes = new byte[len];
+            System.arraycopy(buf, off, bytes, 0, len);
+            symbols[index] = new Entry(hash, name, bytes, false);
+        }
+        return name;
+    }
+
+    private int indexOf(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static final class Entry {
+
+        final long hash;
+        final String name;
+        final byte[] bytes;
+        final boolean pinned;
+
+        Entry(long hash, String name, byte[] bytes, boolean pinned) {
+            this.hash = hash;
+            this.name = name;
+            this.bytes = bytes;
+            this.pinned = pinned;
+        }
+
+        boolean equals(byte[] buf, int off, int len) {
+            final byte[] bytes = this.bytes;
+            if (bytes.length != len) {
+                return false;
+            }
+            for (int i = 0; i < len; ++i) {
+                if (bytes[i] != buf[off + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
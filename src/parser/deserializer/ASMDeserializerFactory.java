@@ -0,0 +1,882 @@
+package parser.deserializer;
+
+import asm.ClassWriter;
+import asm.Label;
+import asm.MethodVisitor;
+import asm.Opcodes;
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.ParserConfig;
+import serializer.FieldFormat;
+import util.ASMClassLoader;
+import util.ASMUtils;
+import util.FieldInfo;
+import util.JSONException;
+import util.JavaBeanInfo;
+import util.TypeUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static util.ASMUtils.desc;
+import static util.ASMUtils.type;
+
+/**
+ * Generates a deserializer class per java bean. The generated class extends {@link JavaBeanDeserializer} and
+ * overrides {@link JavaBeanDeserializer#deserialze} with a loop that reads the hash of each property name with
+ * {@link JSONLexer#scanFieldHash()} and dispatches on it with a <code>lookupswitch</code> over the folded hash,
+ * confirmed by a comparison of the full 64 bit hash, so names are never materialized as strings. Primitive and
+ * string values are read by the typed lexer scanners and passed straight to the setter, the public field, the
+ * "with" method of the builder or a local variable holding a parameter of the <code>@JSONCreator</code>, which is
+ * called once the object is closed; no intermediate map or array is allocated. With
+ * {@link parser.Feature#SupportArrayToBean}, the elements of an array are bound in sequence, by position, with no
+ * lookup at all.
+ * <p>
+ * The names of the properties of the beans of unwrapped properties are cases of the same switch: such a bean is
+ * created in a local variable on its first property and set on the bean holding it once the object is closed.
+ * <p>
+ * A property with a custom deserializer, see {@link FieldDeserializer#customDeserializer}, has it in a final field
+ * of the generated class, which the code calls.
+ */
+public class ASMDeserializerFactory implements Opcodes {
+
+    /**
+     * Numbers the generated classes; shared by all the factories since they share the class loaders.
+     */
+    private static final AtomicLong seed = new AtomicLong();
+
+    static final String DefaultJSONParser = type(DefaultJSONParser.class);
+    static final String JSONLexer = type(JSONLexer.class);
+    static final String JavaBeanDeserializer = type(JavaBeanDeserializer.class);
+
+    static final String DefaultJSONParser_desc = desc(DefaultJSONParser.class);
+    static final String JSONLexer_desc = desc(JSONLexer.class);
+    static final String ObjectDeserializer_desc = desc(ObjectDeserializer.class);
+
+    static final String deserialze_desc = "(" + DefaultJSONParser_desc + "Ljava/lang/reflect/Type;Ljava/lang/Object;)Ljava/lang/Object;";
+
+    /**
+     * Local variable slots of the generated <code>deserialze</code> method. The parameters of a creator are kept in
+     * the slots from {@link #params} on, followed by the beans of the unwrapped properties. The beans of the
+     * unwrapped properties have contexts of their own, which share the method.
+     */
+    static class Context {
+        static final int parser = 1;
+        static final int type = 2;
+        static final int fieldName = 3;
+        static final int lexer = 4;
+        static final int hash = 5;
+        static final int instance = 7;
+        static final int params = 8;
+
+        final String className;
+        final JavaBeanInfo beanInfo;
+        final FieldInfo[] fields;
+
+        /**
+         * The class whose methods are called while binding: the builder or the bean.
+         */
+        final Class<?> instanceClass;
+
+        /**
+         * The declared parameter types of the creator, the raw types of the setters or fields otherwise.
+         */
+        final Class<?>[] rawClasses;
+
+        final int[] paramVars;
+        final int maxLocals;
+
+        /**
+         * The slot of the instance being bound, and the index passed to <code>parseFieldValue</code> for the first
+         * property, which is not 0 for the properties of the bean of an unwrapped property.
+         */
+        final int instanceVar;
+        final int offset;
+
+        final JavaBeanInfo.Unwrapped[] unwrapped;
+        final Context[] unwrappedContexts;
+
+        Context(String className, JavaBeanInfo beanInfo) {
+            this(className, beanInfo, instance, 0);
+        }
+
+        private Context(String className, JavaBeanInfo beanInfo, int instanceVar, int offset) {
+            this.className = className;
+            this.beanInfo = beanInfo;
+            this.fields = beanInfo.fields;
+            this.instanceClass = beanInfo.builderClass != null ? beanInfo.builderClass : beanInfo.clazz;
+            this.rawClasses = rawClasses(beanInfo);
+            this.instanceVar = instanceVar;
+            this.offset = offset;
+
+            paramVars = new int[fields.length];
+            int var = params;
+            if (beanInfo.isCreator()) {
+                for (int i = 0; i < fields.length; ++i) {
+                    paramVars[i] = var;
+                    var += slots(rawClasses[i]);
+                }
+            }
+
+            if (offset > 0) {
+                unwrapped = new JavaBeanInfo.Unwrapped[0];
+                unwrappedContexts = new Context[0];
+                maxLocals = var;
+                return;
+            }
+
+            unwrapped = beanInfo.getUnwrapped();
+            unwrappedContexts = new Context[unwrapped.length];
+            int unwrappedOffset = fields.length;
+            for (int k = 0; k < unwrapped.length; ++k) {
+                unwrappedContexts[k] = new Context(className, unwrapped[k].beanInfo, var++, unwrappedOffset);
+                unwrappedOffset += unwrapped[k].beanInfo.fields.length;
+            }
+            maxLocals = var;
+        }
+    }
+
+    static Class<?>[] rawClasses(JavaBeanInfo beanInfo) {
+        if (beanInfo.creatorConstructor != null) {
+            return beanInfo.creatorConstructor.getParameterTypes();
+        }
+
+        if (beanInfo.factoryMethod != null) {
+            return beanInfo.factoryMethod.getParameterTypes();
+        }
+
+        FieldInfo[] fields = beanInfo.fields;
+        Class<?>[] rawClasses = new Class<?>[fields.length];
+        for (int i = 0; i < fields.length; ++i) {
+            rawClasses[i] = fields[i].method != null
+                    ? fields[i].method.getParameterTypes()[0]
+                    : fields[i].field.getType();
+        }
+        return rawClasses;
+    }
+
+    static int slots(Class<?> clazz) {
+        return clazz == long.class || clazz == double.class ? 2 : 1;
+    }
+
+    public boolean isSupported(JavaBeanInfo beanInfo) {
+        Class<?> clazz = beanInfo.clazz;
+        ASMClassLoader classLoader = ASMClassLoader.getInstance(clazz);
+        if (!isAccessible(clazz, classLoader) || !ASMUtils.checkName(clazz.getSimpleName())) {
+            return false;
+        }
+
+        if (beanInfo.builderClass != null) {
+            if (!isAccessible(beanInfo.builderClass, classLoader)
+                    || !Modifier.isPublic(beanInfo.defaultConstructor.getModifiers())
+                    || !Modifier.isPublic(beanInfo.buildMethod.getModifiers())) {
+                return false;
+            }
+        } else if (beanInfo.creatorConstructor != null) {
+            if (!Modifier.isPublic(beanInfo.creatorConstructor.getModifiers())) {
+                return false;
+            }
+        } else if (beanInfo.factoryMethod != null) {
+            if (!Modifier.isPublic(beanInfo.factoryMethod.getModifiers())) {
+                return false;
+            }
+        } else if (!Modifier.isPublic(beanInfo.defaultConstructor.getModifiers())) {
+            return false;
+        }
+
+        Class<?>[] rawClasses = rawClasses(beanInfo);
+        Set<Long> hashes = new HashSet<Long>();
+        for (int i = 0; i < beanInfo.fields.length; ++i) {
+            FieldInfo fieldInfo = beanInfo.fields[i];
+
+            if (!beanInfo.isCreator()) {
+                Member member = fieldInfo.getMember();
+                if (!Modifier.isPublic(member.getModifiers()) || !ASMUtils.checkName(member.getName())) {
+                    return false;
+                }
+            }
+
+            Class<?> rawClass = rawClasses[i];
+            while (rawClass.isArray()) {
+                rawClass = rawClass.getComponentType();
+            }
+            if (!rawClass.isPrimitive() && !isAccessible(rawClass, classLoader)) {
+                return false;
+            }
+
+            // a hash collision between two names would make the generated switch ambiguous
+            if (!hashes.add(fieldInfo.nameHashCode)) {
+                return false;
+            }
+            for (String alternateName : fieldInfo.alternateNames) {
+                if (!hashes.add(TypeUtils.fnv1a_64(alternateName))) {
+                    return false;
+                }
+            }
+
+            // the properties left over are collected by the reflective implementation
+            if (fieldInfo.unwrapped && Map.class.isAssignableFrom(fieldInfo.fieldClass)) {
+                return false;
+            }
+        }
+
+        // the beans of unwrapped properties are created with their default constructors, in the generated code
+        for (JavaBeanInfo.Unwrapped unwrapped : beanInfo.getUnwrapped()) {
+            JavaBeanInfo childInfo = unwrapped.beanInfo;
+            if (childInfo.isCreator() || childInfo.builderClass != null || !isSupported(childInfo)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isAccessible(Class<?> clazz, ASMClassLoader classLoader) {
+        if (!Modifier.isPublic(clazz.getModifiers()) || classLoader.isExternalClass(clazz)) {
+            return false;
+        }
+
+        Class<?> declaringClass = clazz.getDeclaringClass();
+        return declaringClass == null || isAccessible(declaringClass, classLoader);
+    }
+
+    public JavaBeanDeserializer createJavaBeanDeserializer(ParserConfig config, JavaBeanInfo beanInfo) throws Exception {
+        Class<?> clazz = beanInfo.clazz;
+        if (clazz.isPrimitive()) {
+            throw new JSONException("unsupportd class " + clazz.getName());
+        }
+
+        String className = "ASMDeserializer_" + seed.incrementAndGet() + "_" + clazz.getSimpleName();
+        String classNameType = "parser/deserializer/" + className;
+        String classNameFull = "parser.deserializer." + className;
+
+        ClassWriter cw = new ClassWriter();
+        cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, classNameType, JavaBeanDeserializer, null);
+
+        Context context = new Context(classNameType, beanInfo);
+
+        {
+            String initDesc = "(" + desc(ParserConfig.class) + desc(JavaBeanInfo.class) + ")V";
+            MethodVisitor mw = cw.visitMethod(ACC_PUBLIC, "<init>", initDesc, null, null);
+            mw.visitVarInsn(ALOAD, 0);
+            mw.visitVarInsn(ALOAD, 1);
+            mw.visitVarInsn(ALOAD, 2);
+            mw.visitMethodInsn(INVOKESPECIAL, JavaBeanDeserializer, "<init>", initDesc);
+
+            _init(cw, mw, context);
+            for (Context unwrappedContext : context.unwrappedContexts) {
+                _init(cw, mw, unwrappedContext);
+            }
+
+            mw.visitInsn(RETURN);
+            mw.visitMaxs(3, 3);
+            mw.visitEnd();
+        }
+
+        _deserialze(cw, context);
+
+        byte[] code = cw.toByteArray();
+
+        Class<?> deserializerClass = ASMClassLoader.getInstance(clazz).defineClassPublic(classNameFull, code, 0, code.length);
+        Object instance = deserializerClass.getConstructor(ParserConfig.class, JavaBeanInfo.class)
+                .newInstance(config, beanInfo);
+
+        return (JavaBeanDeserializer) instance;
+    }
+
+    /**
+     * Declares the final fields holding the custom deserializers of the properties, and the declared types passed to
+     * them, and sets them in the constructor.
+     */
+    private void _init(ClassWriter cw, MethodVisitor mw, Context context) {
+        for (int i = 0; i < context.fields.length; ++i) {
+            if (FieldDeserializer.getCustomDeserializerClass(context.fields[i]) == null) {
+                continue;
+            }
+
+            int index = context.offset + i;
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "deserializer" + index, ObjectDeserializer_desc);
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "fieldType" + index, "Ljava/lang/reflect/Type;");
+
+            mw.visitVarInsn(ALOAD, 0);
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, index);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "getFieldDeserializer",
+                    "(I)" + desc(FieldDeserializer.class));
+            mw.visitFieldInsn(GETFIELD, type(FieldDeserializer.class), "customDeserializer", ObjectDeserializer_desc);
+            mw.visitFieldInsn(PUTFIELD, context.className, "deserializer" + index, ObjectDeserializer_desc);
+
+            mw.visitVarInsn(ALOAD, 0);
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, index);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "getFieldDeserializer",
+                    "(I)" + desc(FieldDeserializer.class));
+            mw.visitFieldInsn(GETFIELD, type(FieldDeserializer.class), "fieldInfo", desc(FieldInfo.class));
+            mw.visitFieldInsn(GETFIELD, type(FieldInfo.class), "fieldType", "Ljava/lang/reflect/Type;");
+            mw.visitFieldInsn(PUTFIELD, context.className, "fieldType" + index, "Ljava/lang/reflect/Type;");
+        }
+    }
+
+    private void _deserialze(ClassWriter cw, Context context) {
+        JavaBeanInfo beanInfo = context.beanInfo;
+        FieldInfo[] fields = context.fields;
+
+        MethodVisitor mw = cw.visitMethod(ACC_PUBLIC, "deserialze", deserialze_desc, null, null);
+
+        mw.visitVarInsn(ALOAD, Context.parser);
+        mw.visitFieldInsn(GETFIELD, DefaultJSONParser, "lexer", JSONLexer_desc);
+        mw.visitVarInsn(ASTORE, Context.lexer);
+
+        // null, empty strings and syntax errors are handled by the reflective implementation
+        Label object = new Label(), reflect = new Label();
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "token", "()I");
+        _push(mw, JSONToken.LBRACE);
+        mw.visitJumpInsn(IF_ICMPEQ, object);
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "token", "()I");
+        _push(mw, JSONToken.LBRACKET);
+        mw.visitJumpInsn(IF_ICMPNE, reflect);
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "isArrayToBean", "(" + JSONLexer_desc + ")Z");
+        mw.visitJumpInsn(IFNE, object);
+        mw.visitLabel(reflect);
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitVarInsn(ALOAD, Context.parser);
+        mw.visitVarInsn(ALOAD, Context.type);
+        mw.visitVarInsn(ALOAD, Context.fieldName);
+        mw.visitMethodInsn(INVOKESPECIAL, JavaBeanDeserializer, "deserialze", deserialze_desc);
+        mw.visitInsn(ARETURN);
+        mw.visitLabel(object);
+
+        if (beanInfo.isCreator()) {
+            for (int i = 0; i < fields.length; ++i) {
+                Class<?> rawClass = context.rawClasses[i];
+                int var = context.paramVars[i];
+                if (rawClass == long.class) {
+                    mw.visitInsn(LCONST_0);
+                    mw.visitVarInsn(LSTORE, var);
+                } else if (rawClass == double.class) {
+                    mw.visitInsn(DCONST_0);
+                    mw.visitVarInsn(DSTORE, var);
+                } else if (rawClass == float.class) {
+                    mw.visitInsn(FCONST_0);
+                    mw.visitVarInsn(FSTORE, var);
+                } else if (rawClass.isPrimitive()) {
+                    mw.visitInsn(ICONST_0);
+                    mw.visitVarInsn(ISTORE, var);
+                } else {
+                    mw.visitInsn(ACONST_NULL);
+                    mw.visitVarInsn(ASTORE, var);
+                }
+            }
+        } else {
+            _new(mw, context);
+        }
+        for (Context unwrappedContext : context.unwrappedContexts) {
+            mw.visitInsn(ACONST_NULL);
+            mw.visitVarInsn(ASTORE, unwrappedContext.instanceVar);
+        }
+
+        Label loop = new Label(), next = new Label(), unknown = new Label(), end = new Label(), array = new Label();
+
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "token", "()I");
+        _push(mw, JSONToken.LBRACKET);
+        mw.visitJumpInsn(IF_ICMPEQ, array);
+
+        mw.visitLabel(loop);
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanFieldHash", "()J");
+        mw.visitVarInsn(LSTORE, Context.hash);
+
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "token", "()I");
+        _push(mw, JSONToken.RBRACE);
+        mw.visitJumpInsn(IF_ICMPEQ, end);
+
+        // buckets of (hash, field index) by the folded hash, sorted as lookupswitch requires; the properties of the
+        // beans of unwrapped properties follow, with the names already taken left out
+        TreeMap<Integer, List<long[]>> buckets = new TreeMap<Integer, List<long[]>>();
+        Set<Long> hashes = new HashSet<Long>();
+        for (int i = 0; i < fields.length; ++i) {
+            _bucket(buckets, hashes, fields[i].nameHashCode, i);
+            for (String alternateName : fields[i].alternateNames) {
+                _bucket(buckets, hashes, TypeUtils.fnv1a_64(alternateName), i);
+            }
+        }
+        for (Context unwrappedContext : context.unwrappedContexts) {
+            FieldInfo[] unwrappedFields = unwrappedContext.fields;
+            for (int j = 0; j < unwrappedFields.length; ++j) {
+                int index = unwrappedContext.offset + j;
+                _bucket(buckets, hashes, unwrappedFields[j].nameHashCode, index);
+                for (String alternateName : unwrappedFields[j].alternateNames) {
+                    _bucket(buckets, hashes, TypeUtils.fnv1a_64(alternateName), index);
+                }
+            }
+        }
+
+        if (buckets.isEmpty()) {
+            mw.visitJumpInsn(GOTO, unknown);
+        } else {
+            int[] keys = new int[buckets.size()];
+            Label[] labels = new Label[buckets.size()];
+            int k = 0;
+            for (Integer key : buckets.keySet()) {
+                keys[k] = key;
+                labels[k] = new Label();
+                ++k;
+            }
+
+            mw.visitVarInsn(LLOAD, Context.hash);
+            mw.visitVarInsn(LLOAD, Context.hash);
+            _push(mw, 32);
+            mw.visitInsn(LUSHR);
+            mw.visitInsn(LXOR);
+            mw.visitInsn(L2I);
+            mw.visitLookupSwitchInsn(unknown, keys, labels);
+
+            k = 0;
+            for (Map.Entry<Integer, List<long[]>> bucket : buckets.entrySet()) {
+                mw.visitLabel(labels[k++]);
+                for (long[] entry : bucket.getValue()) {
+                    Label mismatch = new Label();
+                    mw.visitVarInsn(LLOAD, Context.hash);
+                    mw.visitLdcInsn(entry[0]);
+                    mw.visitInsn(LCMP);
+                    mw.visitJumpInsn(IFNE, mismatch);
+                    _field(mw, context, (int) entry[1]);
+                    mw.visitJumpInsn(GOTO, next);
+                    mw.visitLabel(mismatch);
+                }
+                mw.visitJumpInsn(GOTO, unknown);
+            }
+        }
+
+        mw.visitLabel(unknown);
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitVarInsn(ALOAD, Context.parser);
+        mw.visitVarInsn(LLOAD, Context.hash);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "parseUnknownField", "(" + DefaultJSONParser_desc + "J)V");
+
+        mw.visitLabel(next);
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "token", "()I");
+        _push(mw, JSONToken.COMMA);
+        mw.visitJumpInsn(IF_ICMPEQ, loop);
+
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "token", "()I");
+        _push(mw, JSONToken.RBRACE);
+        mw.visitJumpInsn(IF_ICMPEQ, end);
+
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "unexpectedToken",
+                "(" + JSONLexer_desc + ")" + desc(JSONException.class));
+        mw.visitInsn(ATHROW);
+
+        mw.visitLabel(end);
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "nextToken", "()V");
+
+        _setUnwrapped(mw, context);
+        _create(mw, context);
+
+        mw.visitLabel(array);
+        _array(mw, context);
+        mw.visitJumpInsn(GOTO, end);
+
+        int paramSlots = context.maxLocals - Context.params;
+        mw.visitMaxs(Math.max(6, paramSlots + 2), context.maxLocals);
+        mw.visitEnd();
+    }
+
+    /**
+     * Binds the elements of an array by position, with straight-line code, up to the closing bracket.
+     */
+    private void _array(MethodVisitor mw, Context context) {
+        // the version shares the slot of the hash, which the array does not use
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitVarInsn(ALOAD, Context.parser);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "scanVersion", "(" + DefaultJSONParser_desc + ")I");
+        mw.visitVarInsn(ISTORE, Context.hash);
+
+        Label extra = new Label();
+        for (int index : context.beanInfo.getPositions()) {
+            mw.visitVarInsn(ALOAD, Context.lexer);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanElement", "()Z");
+            mw.visitJumpInsn(IFEQ, extra);
+            if (index < 0) {
+                mw.visitVarInsn(ALOAD, Context.lexer);
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "skipValue", "()V");
+            } else {
+                _field(mw, context, index);
+            }
+        }
+
+        mw.visitLabel(extra);
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitVarInsn(ALOAD, Context.parser);
+        mw.visitVarInsn(ILOAD, Context.hash);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "parseExtraElements",
+                "(" + DefaultJSONParser_desc + "I)V");
+    }
+
+    private static void _bucket(TreeMap<Integer, List<long[]>> buckets, Set<Long> hashes, long hash, int index) {
+        if (!hashes.add(hash)) {
+            return;
+        }
+
+        int key = (int) (hash ^ (hash >>> 32));
+        List<long[]> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<long[]>(1);
+            buckets.put(key, bucket);
+        }
+        bucket.add(new long[]{hash, index});
+    }
+
+    /**
+     * Reads the value of the i-th property and binds it. From the number of properties of the bean on, the property
+     * is one of the bean of an unwrapped property, created here when it is the first.
+     */
+    private void _field(MethodVisitor mw, Context context, int i) {
+        if (i >= context.fields.length) {
+            int k = context.unwrappedContexts.length - 1;
+            while (context.unwrappedContexts[k].offset > i) {
+                --k;
+            }
+            Context unwrappedContext = context.unwrappedContexts[k];
+            _newUnwrapped(mw, unwrappedContext);
+            _field(mw, unwrappedContext, i - unwrappedContext.offset);
+            return;
+        }
+
+        JavaBeanInfo beanInfo = context.beanInfo;
+        FieldInfo fieldInfo = context.fields[i];
+        Class<?> rawClass = context.rawClasses[i];
+
+        if (beanInfo.isCreator()) {
+            _value(mw, context, i, rawClass);
+
+            int var = context.paramVars[i];
+            if (rawClass == long.class) {
+                mw.visitVarInsn(LSTORE, var);
+            } else if (rawClass == double.class) {
+                mw.visitVarInsn(DSTORE, var);
+            } else if (rawClass == float.class) {
+                mw.visitVarInsn(FSTORE, var);
+            } else if (rawClass.isPrimitive()) {
+                mw.visitVarInsn(ISTORE, var);
+            } else {
+                mw.visitVarInsn(ASTORE, var);
+            }
+            return;
+        }
+
+        mw.visitVarInsn(ALOAD, context.instanceVar);
+        _value(mw, context, i, rawClass);
+        _set(mw, context, i);
+    }
+
+    /**
+     * Sets the i-th property of the instance to the value, both on the stack.
+     */
+    private void _set(MethodVisitor mw, Context context, int i) {
+        JavaBeanInfo beanInfo = context.beanInfo;
+        FieldInfo fieldInfo = context.fields[i];
+        Class<?> rawClass = context.rawClasses[i];
+        String instanceType = type(context.instanceClass);
+
+        Method method = fieldInfo.method;
+        if (method == null) {
+            mw.visitFieldInsn(PUTFIELD, instanceType, fieldInfo.field.getName(), desc(rawClass));
+            return;
+        }
+
+        mw.visitMethodInsn(INVOKEVIRTUAL, instanceType, method.getName(), desc(method));
+
+        Class<?> returnType = method.getReturnType();
+        if (returnType == Void.TYPE) {
+            return;
+        }
+
+        if (beanInfo.builderClass != null && beanInfo.builderClass.isAssignableFrom(returnType)) {
+            // a "with" method may return a new builder
+            mw.visitVarInsn(ASTORE, context.instanceVar);
+        } else if (returnType == long.class || returnType == double.class) {
+            mw.visitInsn(POP2);
+        } else {
+            mw.visitInsn(POP);
+        }
+    }
+
+    private void _new(MethodVisitor mw, Context context) {
+        String instanceType = type(context.instanceClass);
+        mw.visitTypeInsn(NEW, instanceType);
+        mw.visitInsn(DUP);
+        mw.visitMethodInsn(INVOKESPECIAL, instanceType, "<init>", "()V");
+        mw.visitVarInsn(ASTORE, context.instanceVar);
+    }
+
+    /**
+     * Creates the bean of an unwrapped property unless it exists.
+     */
+    private void _newUnwrapped(MethodVisitor mw, Context unwrappedContext) {
+        Label exists = new Label();
+        mw.visitVarInsn(ALOAD, unwrappedContext.instanceVar);
+        mw.visitJumpInsn(IFNONNULL, exists);
+        _new(mw, unwrappedContext);
+        mw.visitLabel(exists);
+    }
+
+    /**
+     * Sets the beans of the unwrapped properties which were created on the beans holding them, the innermost first,
+     * creating the beans holding them which have no property of their own.
+     */
+    private void _setUnwrapped(MethodVisitor mw, Context context) {
+        for (int k = context.unwrapped.length - 1; k >= 0; --k) {
+            Context unwrappedContext = context.unwrappedContexts[k];
+            int parent = context.unwrapped[k].parent;
+            int index = context.unwrapped[k].index;
+
+            Label absent = new Label();
+            mw.visitVarInsn(ALOAD, unwrappedContext.instanceVar);
+            mw.visitJumpInsn(IFNULL, absent);
+
+            Context parentContext = parent < 0 ? context : context.unwrappedContexts[parent];
+            String rawType = type(parentContext.rawClasses[index]);
+            if (parent < 0 && context.beanInfo.isCreator()) {
+                mw.visitVarInsn(ALOAD, unwrappedContext.instanceVar);
+                mw.visitTypeInsn(CHECKCAST, rawType);
+                mw.visitVarInsn(ASTORE, context.paramVars[index]);
+            } else {
+                if (parent >= 0) {
+                    _newUnwrapped(mw, parentContext);
+                }
+                mw.visitVarInsn(ALOAD, parentContext.instanceVar);
+                mw.visitVarInsn(ALOAD, unwrappedContext.instanceVar);
+                mw.visitTypeInsn(CHECKCAST, rawType);
+                _set(mw, parentContext, index);
+            }
+
+            mw.visitLabel(absent);
+        }
+    }
+
+    /**
+     * Pushes the value of the i-th property, read after its colon.
+     */
+    private void _value(MethodVisitor mw, Context context, int i, Class<?> rawClass) {
+        if (FieldDeserializer.getCustomDeserializerClass(context.fields[i]) != null) {
+            _custom(mw, context, i, rawClass);
+            return;
+        }
+
+        String format = context.fields[i].format;
+        if (rawClass.isPrimitive() && format != null && FieldFormat.of(format).parses(rawClass)) {
+            // a number written as a string by a decimal format, parsed and unboxed
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, context.offset + i);
+            mw.visitVarInsn(ALOAD, Context.parser);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "parseFieldValue",
+                    "(I" + DefaultJSONParser_desc + ")Ljava/lang/Object;");
+            mw.visitTypeInsn(CHECKCAST, "java/lang/Number");
+            mw.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Number", rawClass.getName() + "Value", "()" + desc(rawClass));
+            return;
+        }
+
+        if (rawClass.isPrimitive()) {
+            mw.visitVarInsn(ALOAD, Context.lexer);
+            if (rawClass == int.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanInt", "()I");
+            } else if (rawClass == short.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanShort", "()S");
+            } else if (rawClass == byte.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanByte", "()B");
+            } else if (rawClass == long.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanLong", "()J");
+            } else if (rawClass == boolean.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanBoolean", "()Z");
+            } else if (rawClass == char.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanChar", "()C");
+            } else if (rawClass == float.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanFloat", "()F");
+            } else {
+                mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanDouble", "()D");
+            }
+            return;
+        }
+
+        if (rawClass == String.class && !context.fields[i].jsonDirect) {
+            mw.visitVarInsn(ALOAD, Context.lexer);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "scanString", "()Ljava/lang/String;");
+            return;
+        }
+
+        String arrayMethod = null;
+        if (rawClass == int[].class) {
+            arrayMethod = "scanIntArray";
+        } else if (rawClass == long[].class) {
+            arrayMethod = "scanLongArray";
+        } else if (rawClass == float[].class) {
+            arrayMethod = "scanFloatArray";
+        } else if (rawClass == double[].class) {
+            arrayMethod = "scanDoubleArray";
+        } else if (rawClass == byte[].class) {
+            arrayMethod = "scanBytes";
+        }
+        if (arrayMethod != null && format == null && !context.fields[i].jsonDirect) {
+            mw.visitVarInsn(ALOAD, Context.lexer);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, arrayMethod, "()" + desc(rawClass));
+            return;
+        }
+
+        mw.visitVarInsn(ALOAD, 0);
+        _push(mw, context.offset + i);
+        mw.visitVarInsn(ALOAD, Context.parser);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanDeserializer, "parseFieldValue",
+                "(I" + DefaultJSONParser_desc + ")Ljava/lang/Object;");
+        if (rawClass != Object.class) {
+            mw.visitTypeInsn(CHECKCAST, type(rawClass));
+        }
+    }
+
+    /**
+     * Pushes the value of the i-th property read by its custom deserializer, from a final field of the generated
+     * class; a null read into a primitive is its zero.
+     */
+    private void _custom(MethodVisitor mw, Context context, int i, Class<?> rawClass) {
+        int index = context.offset + i;
+        mw.visitVarInsn(ALOAD, Context.lexer);
+        mw.visitMethodInsn(INVOKEVIRTUAL, JSONLexer, "nextToken", "()V");
+
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitFieldInsn(GETFIELD, context.className, "deserializer" + index, ObjectDeserializer_desc);
+        mw.visitVarInsn(ALOAD, Context.parser);
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitFieldInsn(GETFIELD, context.className, "fieldType" + index, "Ljava/lang/reflect/Type;");
+        mw.visitLdcInsn(context.fields[i].name);
+        mw.visitMethodInsn(INVOKEINTERFACE, type(ObjectDeserializer.class), "deserialze", deserialze_desc);
+
+        if (!rawClass.isPrimitive()) {
+            if (rawClass != Object.class) {
+                mw.visitTypeInsn(CHECKCAST, type(rawClass));
+            }
+            return;
+        }
+
+        Label notNull = new Label(), end = new Label();
+        mw.visitInsn(DUP);
+        mw.visitJumpInsn(IFNONNULL, notNull);
+        mw.visitInsn(POP);
+        if (rawClass == long.class) {
+            mw.visitInsn(LCONST_0);
+        } else if (rawClass == float.class) {
+            mw.visitInsn(FCONST_0);
+        } else if (rawClass == double.class) {
+            mw.visitInsn(DCONST_0);
+        } else {
+            mw.visitInsn(ICONST_0);
+        }
+        mw.visitJumpInsn(GOTO, end);
+
+        mw.visitLabel(notNull);
+        if (rawClass == boolean.class) {
+            mw.visitTypeInsn(CHECKCAST, "java/lang/Boolean");
+            mw.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z");
+        } else if (rawClass == char.class) {
+            mw.visitTypeInsn(CHECKCAST, "java/lang/Character");
+            mw.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Character", "charValue", "()C");
+        } else {
+            mw.visitTypeInsn(CHECKCAST, "java/lang/Number");
+            mw.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Number", rawClass.getName() + "Value", "()" + desc(rawClass));
+        }
+        mw.visitLabel(end);
+    }
+
+    /**
+     * Returns the bean: the instance, the result of the build method of the builder, or the result of the creator
+     * called with the parameter variables.
+     */
+    private void _create(MethodVisitor mw, Context context) {
+        JavaBeanInfo beanInfo = context.beanInfo;
+
+        if (beanInfo.buildMethod != null) {
+            Method buildMethod = beanInfo.buildMethod;
+            mw.visitVarInsn(ALOAD, Context.instance);
+            mw.visitMethodInsn(INVOKEVIRTUAL, type(context.instanceClass), buildMethod.getName(), desc(buildMethod));
+            mw.visitInsn(ARETURN);
+            return;
+        }
+
+        if (!beanInfo.isCreator()) {
+            mw.visitVarInsn(ALOAD, Context.instance);
+            mw.visitInsn(ARETURN);
+            return;
+        }
+
+        Constructor<?> constructor = beanInfo.creatorConstructor;
+        if (constructor != null) {
+            String beanType = type(beanInfo.clazz);
+            mw.visitTypeInsn(NEW, beanType);
+            mw.visitInsn(DUP);
+            _loadParams(mw, context);
+
+            StringBuilder constructorDesc = new StringBuilder("(");
+            for (Class<?> parameterType : constructor.getParameterTypes()) {
+                constructorDesc.append(desc(parameterType));
+            }
+            constructorDesc.append(")V");
+            mw.visitMethodInsn(INVOKESPECIAL, beanType, "<init>", constructorDesc.toString());
+        } else {
+            Method factoryMethod = beanInfo.factoryMethod;
+            _loadParams(mw, context);
+            mw.visitMethodInsn(INVOKESTATIC, type(factoryMethod.getDeclaringClass()), factoryMethod.getName(),
+                    desc(factoryMethod));
+        }
+        mw.visitInsn(ARETURN);
+    }
+
+    private void _loadParams(MethodVisitor mw, Context context) {
+        for (int i = 0; i < context.fields.length; ++i) {
+            Class<?> rawClass = context.rawClasses[i];
+            int var = context.paramVars[i];
+            if (rawClass == long.class) {
+                mw.visitVarInsn(LLOAD, var);
+            } else if (rawClass == double.class) {
+                mw.visitVarInsn(DLOAD, var);
+            } else if (rawClass == float.class) {
+                mw.visitVarInsn(FLOAD, var);
+            } else if (rawClass.isPrimitive()) {
+                mw.visitVarInsn(ILOAD, var);
+            } else {
+                mw.visitVarInsn(ALOAD, var);
+            }
+        }
+    }
+
+    static void _push(MethodVisitor mw, int value) {
+        if (value >= -1 && value <= 5) {
+            mw.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mw.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mw.visitIntInsn(SIPUSH, value);
+        } else {
+            mw.visitLdcInsn(value);
+        }
+    }
+}
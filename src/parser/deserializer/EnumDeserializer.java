@@ -0,0 +1,87 @@
+package parser.deserializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * Reads an enum constant from its name, or from its ordinal. Names are matched by their FNV-1a hash.
+ */
+public class EnumDeserializer implements ObjectDeserializer {
+
+    protected final Class<?> enumClass;
+
+    protected final Enum<?>[] ordinalEnums;
+
+    /**
+     * The constants sorted by the hash of their name, and the sorted hashes.
+     */
+    protected final Enum<?>[] enums;
+    protected final long[] enumNameHashCodes;
+
+    public EnumDeserializer(Class<?> enumClass) {
+        this.enumClass = enumClass;
+        ordinalEnums = (Enum<?>[]) enumClass.getEnumConstants();
+
+        long[] hashCodes = new long[ordinalEnums.length];
+        for (int i = 0; i < ordinalEnums.length; ++i) {
+            hashCodes[i] = TypeUtils.fnv1a_64(ordinalEnums[i].name());
+        }
+        Arrays.sort(hashCodes);
+
+        enums = new Enum[ordinalEnums.length];
+        for (Enum<?> e : ordinalEnums) {
+            enums[Arrays.binarySearch(hashCodes, TypeUtils.fnv1a_64(e.name()))] = e;
+        }
+        enumNameHashCodes = hashCodes;
+    }
+
+    public Enum<?> getEnumByHashCode(long hashCode) {
+        int enumIndex = Arrays.binarySearch(enumNameHashCodes, hashCode);
+        if (enumIndex < 0) {
+            return null;
+        }
+
+        return enums[enumIndex];
+    }
+
+    public Enum<?> valueOf(int ordinal) {
+        return ordinalEnums[ordinal];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+
+        Enum<?> value;
+        switch (lexer.token()) {
+            case JSONToken.LITERAL_STRING: {
+                String name = lexer.stringVal();
+                value = name.length() == 0 ? null : getEnumByHashCode(TypeUtils.fnv1a_64(name));
+                break;
+            }
+            case JSONToken.LITERAL_INT: {
+                int ordinal = lexer.intValue();
+                if (ordinal < 0 || ordinal >= ordinalEnums.length) {
+                    throw new JSONException("parse enum " + enumClass.getName() + " error, value : " + ordinal);
+                }
+                value = ordinalEnums[ordinal];
+                break;
+            }
+            case JSONToken.NULL:
+                value = null;
+                break;
+            default:
+                throw lexer.syntaxError("parse enum " + enumClass.getName() + " error, token "
+                        + JSONToken.name(lexer.token()));
+        }
+
+        lexer.nextToken();
+        return (T) value;
+    }
+}
@@ -0,0 +1,128 @@
+package parser.deserializer;
+
+import annotation.JSONField;
+import annotation.JSONType;
+import parser.DefaultJSONParser;
+import parser.ParserConfig;
+import serializer.FieldFormat;
+import util.FieldInfo;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the value of one property of a bean and sets it, used by {@link JavaBeanDeserializer}.
+ */
+public class FieldDeserializer {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    public final FieldInfo fieldInfo;
+
+    protected final Class<?> clazz;
+
+    private ObjectDeserializer fieldValueDeserializer;
+
+    /**
+     * The deserializer of {@link JSONField#deserializeUsing()}, or the {@link JSONType#deserializer()} of the class
+     * of the property, resolved once; null when there is neither.
+     */
+    public final ObjectDeserializer customDeserializer;
+
+    /**
+     * The compiled <code>format</code> of the property, when it parses the values read, else null.
+     */
+    private final FieldFormat format;
+
+    public FieldDeserializer(Class<?> clazz, FieldInfo fieldInfo) {
+        this.clazz = clazz;
+        this.fieldInfo = fieldInfo;
+
+        if (fieldInfo.method != null || fieldInfo.field != null) {
+            fieldInfo.setAccessible();
+        }
+
+        Class<?> deserializerClass = getCustomDeserializerClass(fieldInfo);
+        this.customDeserializer = deserializerClass == null
+                ? null
+                : TypeUtils.getCodec(deserializerClass, ObjectDeserializer.class);
+        this.fieldValueDeserializer = customDeserializer;
+
+        FieldFormat format = fieldInfo.format == null ? null : FieldFormat.of(fieldInfo.format);
+        this.format = format != null && format.parses(fieldInfo.fieldClass) ? format : null;
+    }
+
+    /**
+     * Returns the class of the custom deserializer of the property, see {@link #customDeserializer}, or null.
+     */
+    static Class<?> getCustomDeserializerClass(FieldInfo fieldInfo) {
+        if (fieldInfo.deserializeUsing != null) {
+            return fieldInfo.deserializeUsing;
+        }
+        JSONType jsonType = fieldInfo.fieldClass.getAnnotation(JSONType.class);
+        return jsonType == null || jsonType.deserializer() == Void.class ? null : jsonType.deserializer();
+    }
+
+    public ObjectDeserializer getFieldValueDeserializer(ParserConfig config) {
+        if (fieldValueDeserializer == null) {
+            fieldValueDeserializer = config.getDeserializer(fieldInfo.fieldType);
+        }
+
+        return fieldValueDeserializer;
+    }
+
+    /**
+     * Reads the value of the property. The lexer must be positioned after the colon that follows the name; on exit
+     * the current token is the one after the value.
+     */
+    public Object parseValue(DefaultJSONParser parser) {
+        if (customDeserializer != null) {
+            parser.lexer.nextToken();
+            return customDeserializer.deserialze(parser, fieldInfo.fieldType, fieldInfo.name);
+        }
+
+        if (fieldInfo.jsonDirect) {
+            // the JSON text of the value, as it is
+            byte[] raw = parser.lexer.scanRaw();
+            return raw == null || fieldInfo.fieldClass == byte[].class ? raw : new String(raw, UTF8);
+        }
+
+        parser.lexer.nextToken();
+        if (format != null) {
+            return format.parse(parser.parse(fieldInfo.name), fieldInfo.fieldClass);
+        }
+        return getFieldValueDeserializer(parser.getConfig()).deserialze(parser, fieldInfo.fieldType, fieldInfo.name);
+    }
+
+    /**
+     * Sets the property of a bean, or calls the "with" method of a builder, and returns the instance to use from
+     * now on: the result of a "with" method which returns a builder, else <code>object</code>.
+     */
+    public Object setValue(Object object, Object value) {
+        if (value == null && fieldInfo.fieldClass.isPrimitive()) {
+            return object;
+        }
+
+        try {
+            Method method = fieldInfo.method;
+            if (method != null) {
+                Object result = method.invoke(object, value);
+                if (result != null && method.getDeclaringClass().isAssignableFrom(result.getClass())
+                        && method.getReturnType() != Void.TYPE) {
+                    return result;
+                }
+                return object;
+            }
+
+            fieldInfo.field.set(object, value);
+            return object;
+        } catch (InvocationTargetException e) {
+            throw new JSONException("set property error, " + clazz.getName() + "#" + fieldInfo.name, e.getTargetException());
+        } catch (Exception e) {
+            throw new JSONException("set property error, " + clazz.getName() + "#" + fieldInfo.name, e);
+        }
+    }
+}
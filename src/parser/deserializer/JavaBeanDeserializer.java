@@ -0,0 +1,544 @@
+package parser.deserializer;
+
+import parser.DefaultJSONParser;
+import parser.Feature;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.ParserConfig;
+import util.FieldInfo;
+import util.JSONException;
+import util.JavaBeanInfo;
+import util.TypeUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflection based deserializer for java beans. Property names are matched by the FNV-1a hash computed by
+ * {@link JSONLexer#scanFieldHash()}, looked up in a sorted table that also holds the
+ * {@link annotation.JSONField#alternateNames()}, and the properties of the beans of unwrapped properties, see
+ * {@link JavaBeanInfo#getUnwrapped()}, numbered after those of the bean. Generated deserializers extend this class
+ * and override {@link #deserialze}; they call back into {@link #parseFieldValue} and {@link #parseUnknownField}.
+ */
+public class JavaBeanDeserializer implements ObjectDeserializer {
+
+    protected final Class<?> clazz;
+
+    public final JavaBeanInfo beanInfo;
+
+    protected final FieldDeserializer[] fieldDeserializers;
+
+    /**
+     * Hashes of the property names and alternate names, sorted, and the index of the property of each.
+     */
+    private final long[] hashArray;
+    private final short[] hashArrayMapping;
+
+    /**
+     * The beans of the unwrapped properties and their deserializers.
+     */
+    protected final JavaBeanInfo.Unwrapped[] unwrapped;
+    private final JavaBeanDeserializer[] unwrappedDeserializers;
+
+    /**
+     * The properties of the beans of the unwrapped properties, in the order of the beans, and the bean of each.
+     */
+    private final FieldDeserializer[] unwrappedFields;
+    private final int[] unwrappedFieldBeans;
+
+    /**
+     * The index of the unwrapped property which is a map, taking the properties which map to nothing else, or -1.
+     */
+    private final int unwrappedMap;
+    private final Type unwrappedMapValueType;
+
+    /**
+     * The hash of {@link TypeUtils#getTypeKey}, whose property is the type of the bean and not an unknown one.
+     */
+    private final long typeKeyHash;
+
+    public JavaBeanDeserializer(ParserConfig config, Class<?> clazz, Type type) {
+        this(config, JavaBeanInfo.build(clazz, type));
+    }
+
+    public JavaBeanDeserializer(ParserConfig config, JavaBeanInfo beanInfo) {
+        this.clazz = beanInfo.clazz;
+        this.beanInfo = beanInfo;
+
+        if (beanInfo.defaultConstructor != null) {
+            TypeUtils.setAccessible(beanInfo.defaultConstructor);
+        }
+        if (beanInfo.creatorConstructor != null) {
+            TypeUtils.setAccessible(beanInfo.creatorConstructor);
+        }
+        if (beanInfo.factoryMethod != null) {
+            TypeUtils.setAccessible(beanInfo.factoryMethod);
+        }
+
+        FieldInfo[] fields = beanInfo.fields;
+        fieldDeserializers = new FieldDeserializer[fields.length];
+        int map = -1;
+        for (int i = 0; i < fields.length; ++i) {
+            fieldDeserializers[i] = new FieldDeserializer(clazz, fields[i]);
+            if (fields[i].unwrapped && map < 0 && Map.class.isAssignableFrom(fields[i].fieldClass)) {
+                map = i;
+            }
+        }
+        unwrappedMap = map;
+        typeKeyHash = TypeUtils.fnv1a_64(TypeUtils.getTypeKey(clazz));
+        unwrappedMapValueType = map >= 0 && fields[map].fieldType instanceof ParameterizedType
+                ? ((ParameterizedType) fields[map].fieldType).getActualTypeArguments()[1]
+                : Object.class;
+
+        unwrapped = beanInfo.getUnwrapped();
+        unwrappedDeserializers = new JavaBeanDeserializer[unwrapped.length];
+        List<FieldDeserializer> unwrappedFieldList = new ArrayList<FieldDeserializer>();
+        List<Integer> unwrappedFieldBeanList = new ArrayList<Integer>();
+        for (int k = 0; k < unwrapped.length; ++k) {
+            JavaBeanDeserializer deserializer = new JavaBeanDeserializer(config, unwrapped[k].beanInfo);
+            unwrappedDeserializers[k] = deserializer;
+            for (FieldDeserializer fieldDeserializer : deserializer.fieldDeserializers) {
+                unwrappedFieldList.add(fieldDeserializer);
+                unwrappedFieldBeanList.add(k);
+            }
+        }
+        unwrappedFields = unwrappedFieldList.toArray(new FieldDeserializer[unwrappedFieldList.size()]);
+        unwrappedFieldBeans = new int[unwrappedFields.length];
+        for (int i = 0; i < unwrappedFieldBeans.length; ++i) {
+            unwrappedFieldBeans[i] = unwrappedFieldBeanList.get(i);
+        }
+
+        // a name of the bean hides the same name in the beans of unwrapped properties, as does an earlier bean
+        Map<Long, Integer> indexes = new HashMap<Long, Integer>();
+        for (int i = 0; i < fields.length + unwrappedFields.length; ++i) {
+            FieldInfo fieldInfo = i < fields.length ? fields[i] : unwrappedFields[i - fields.length].fieldInfo;
+            if (!indexes.containsKey(fieldInfo.nameHashCode)) {
+                indexes.put(fieldInfo.nameHashCode, i);
+            }
+            for (String alternateName : fieldInfo.alternateNames) {
+                long hash = TypeUtils.fnv1a_64(alternateName);
+                if (!indexes.containsKey(hash)) {
+                    indexes.put(hash, i);
+                }
+            }
+
+            if (config != null && i < fields.length) {
+                config.symbolTable.addSymbol(fieldInfo.name);
+                for (String alternateName : fieldInfo.alternateNames) {
+                    config.symbolTable.addSymbol(alternateName);
+                }
+            }
+        }
+
+        long[] hashes = new long[indexes.size()];
+        int n = 0;
+        for (Long hash : indexes.keySet()) {
+            hashes[n++] = hash;
+        }
+        Arrays.sort(hashes);
+
+        hashArray = hashes;
+        hashArrayMapping = new short[hashes.length];
+        for (int i = 0; i < hashes.length; ++i) {
+            hashArrayMapping[i] = (short) (int) indexes.get(hashes[i]);
+        }
+    }
+
+    public Class<?> getType() {
+        return clazz;
+    }
+
+    /**
+     * Returns the index of the property whose name or alternate name has the given hash, or -1. An index from the
+     * number of properties of the bean on is the one of a property of the bean of an unwrapped property.
+     */
+    public int getFieldIndex(long hash) {
+        int pos = Arrays.binarySearch(hashArray, hash);
+        if (pos < 0) {
+            return -1;
+        }
+        return hashArrayMapping[pos];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        final JSONLexer lexer = parser.lexer;
+
+        int token = lexer.token();
+        if (token == JSONToken.NULL) {
+            lexer.nextToken();
+            return null;
+        }
+
+        if (token == JSONToken.LITERAL_STRING && lexer.stringVal().length() == 0) {
+            lexer.nextToken();
+            return null;
+        }
+
+        if (token == JSONToken.LBRACKET && isArrayToBean(lexer)) {
+            return (T) deserialzeArray(parser);
+        }
+
+        if (token != JSONToken.LBRACE) {
+            throw lexer.syntaxError("expect '{', but " + JSONToken.name(token) + ", class " + clazz.getName());
+        }
+
+        boolean creator = beanInfo.isCreator();
+        Object[] params = null;
+        Object instance = null;
+        if (creator) {
+            params = new Object[fieldDeserializers.length];
+        } else {
+            instance = createInstance();
+        }
+
+        // the beans of the unwrapped properties, once one of their properties is read
+        Object[] beans = null;
+        Map<Object, Object> map = null;
+        for (; ; ) {
+            long hash = lexer.scanFieldHash();
+            if (lexer.token() == JSONToken.RBRACE) {
+                break;
+            }
+
+            int index = getFieldIndex(hash);
+            if (index >= fieldDeserializers.length) {
+                if (beans == null) {
+                    beans = new Object[unwrapped.length];
+                }
+                setUnwrappedValue(beans, index, parseFieldValue(index, parser));
+            } else if (index >= 0) {
+                Object value = parseFieldValue(index, parser);
+                if (creator) {
+                    params[index] = value;
+                } else {
+                    instance = fieldDeserializers[index].setValue(instance, value);
+                }
+            } else if (unwrappedMap >= 0) {
+                if (map == null) {
+                    map = MapDeserializer.createMap(beanInfo.fields[unwrappedMap].fieldType, true);
+                }
+                String name = lexer.fieldName();
+                lexer.nextToken();
+                map.put(name, parser.parseObject(unwrappedMapValueType, name));
+            } else {
+                parseUnknownField(parser, hash);
+            }
+
+            token = lexer.token();
+            if (token == JSONToken.COMMA) {
+                continue;
+            }
+            if (token == JSONToken.RBRACE) {
+                break;
+            }
+            throw unexpectedToken(lexer);
+        }
+        lexer.nextToken();
+
+        if (map != null) {
+            if (creator) {
+                params[unwrappedMap] = map;
+            } else {
+                instance = fieldDeserializers[unwrappedMap].setValue(instance, map);
+            }
+        }
+        if (beans != null) {
+            instance = setUnwrappedBeans(beans, instance, params);
+        }
+
+        if (creator) {
+            return (T) createInstance(params);
+        }
+
+        if (beanInfo.buildMethod != null) {
+            return (T) build(instance);
+        }
+
+        return (T) instance;
+    }
+
+    /**
+     * Binds the elements of an array to the properties of the bean by position, see
+     * {@link JavaBeanInfo#getPositions()}. The current token is the opening bracket. The properties of the elements
+     * missing at the end are left unset.
+     */
+    protected Object deserialzeArray(DefaultJSONParser parser) {
+        final JSONLexer lexer = parser.lexer;
+
+        boolean creator = beanInfo.isCreator();
+        Object[] params = null;
+        Object instance = null;
+        if (creator) {
+            params = new Object[fieldDeserializers.length];
+        } else {
+            instance = createInstance();
+        }
+
+        int version = scanVersion(parser);
+        int[] positions = beanInfo.getPositions();
+        for (int p = 0; p < positions.length && lexer.scanElement(); ++p) {
+            int index = positions[p];
+            if (index < 0) {
+                lexer.skipValue();
+                continue;
+            }
+
+            Object value = parseFieldValue(index, parser);
+            if (creator) {
+                params[index] = value;
+            } else {
+                instance = fieldDeserializers[index].setValue(instance, value);
+            }
+        }
+        parseExtraElements(parser, version);
+        lexer.nextToken();
+
+        if (creator) {
+            return createInstance(params);
+        }
+
+        if (beanInfo.buildMethod != null) {
+            return build(instance);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Whether arrays are bound to the bean by position, with {@link Feature#SupportArrayToBean}.
+     */
+    public boolean isArrayToBean(JSONLexer lexer) {
+        return lexer.isEnabled(Feature.SupportArrayToBean)
+                || Feature.isEnabled(beanInfo.parserFeatures, Feature.SupportArrayToBean);
+    }
+
+    /**
+     * Reads the version which is the first element of the bean written as an array, when the bean has a
+     * {@link annotation.JSONType#version()}, and returns it; returns 0 otherwise.
+     */
+    public int scanVersion(DefaultJSONParser parser) {
+        if (beanInfo.version <= 0) {
+            return 0;
+        }
+
+        JSONLexer lexer = parser.lexer;
+        if (!lexer.scanElement()) {
+            throw lexer.syntaxError("expect the version of " + clazz.getName());
+        }
+        return lexer.scanInt();
+    }
+
+    /**
+     * Skips the elements after those of the properties, up to the closing bracket. They are the properties which a
+     * later version of the bean appended; in a version which is not later than the one of the bean, they are an
+     * error. Fails with {@link Feature#FailOnUnknownProperties}.
+     */
+    public void parseExtraElements(DefaultJSONParser parser, int version) {
+        JSONLexer lexer = parser.lexer;
+        while (lexer.scanElement()) {
+            if (beanInfo.version > 0 && version <= beanInfo.version) {
+                throw lexer.syntaxError("too many elements for " + clazz.getName() + ", version " + version);
+            }
+            if (lexer.isEnabled(Feature.FailOnUnknownProperties)
+                    || Feature.isEnabled(beanInfo.parserFeatures, Feature.FailOnUnknownProperties)) {
+                throw new JSONException("unknown element for " + clazz.getName() + ", version " + version);
+            }
+            lexer.skipValue();
+        }
+    }
+
+    /**
+     * Returns the i-th property; from the number of properties of the bean on, one of the bean of an unwrapped
+     * property.
+     */
+    public FieldDeserializer getFieldDeserializer(int i) {
+        if (i >= fieldDeserializers.length) {
+            return unwrappedFields[i - fieldDeserializers.length];
+        }
+        return fieldDeserializers[i];
+    }
+
+    /**
+     * Reads the value of the i-th property, after its colon.
+     */
+    public Object parseFieldValue(int i, DefaultJSONParser parser) {
+        return getFieldDeserializer(i).parseValue(parser);
+    }
+
+    /**
+     * Sets the value of the i-th property, one of the bean of an unwrapped property, on that bean, which is created
+     * on its first property and kept in <code>beans</code>, by its index in {@link JavaBeanInfo#getUnwrapped()}.
+     */
+    protected void setUnwrappedValue(Object[] beans, int i, Object value) {
+        i -= fieldDeserializers.length;
+        int k = unwrappedFieldBeans[i];
+        JavaBeanDeserializer deserializer = unwrappedDeserializers[k];
+        Object bean = beans[k];
+        if (bean == null) {
+            beans[k] = bean = deserializer.beanInfo.isCreator()
+                    ? new Object[deserializer.fieldDeserializers.length]
+                    : deserializer.createInstance();
+        }
+
+        if (deserializer.beanInfo.isCreator()) {
+            ((Object[]) bean)[indexOf(deserializer, unwrappedFields[i])] = value;
+        } else {
+            beans[k] = unwrappedFields[i].setValue(bean, value);
+        }
+    }
+
+    private static int indexOf(JavaBeanDeserializer deserializer, FieldDeserializer fieldDeserializer) {
+        FieldDeserializer[] fieldDeserializers = deserializer.fieldDeserializers;
+        for (int i = 0; ; ++i) {
+            if (fieldDeserializers[i] == fieldDeserializer) {
+                return i;
+            }
+        }
+    }
+
+    /**
+     * Creates the beans read by {@link #setUnwrappedValue} and sets each on the bean holding it, from the innermost
+     * on, creating the beans holding them which have no property of their own. Returns the instance, which a "with"
+     * method of a builder may replace.
+     */
+    protected Object setUnwrappedBeans(Object[] beans, Object instance, Object[] params) {
+        for (int k = beans.length - 1; k >= 0; --k) {
+            Object bean = beans[k];
+            if (bean == null) {
+                continue;
+            }
+
+            JavaBeanDeserializer deserializer = unwrappedDeserializers[k];
+            if (deserializer.beanInfo.isCreator()) {
+                bean = deserializer.createInstance((Object[]) bean);
+            } else if (deserializer.beanInfo.buildMethod != null) {
+                bean = deserializer.build(bean);
+            }
+
+            int index = unwrapped[k].index;
+            int parent = unwrapped[k].parent;
+            if (parent < 0) {
+                if (beanInfo.isCreator()) {
+                    params[index] = bean;
+                } else {
+                    instance = fieldDeserializers[index].setValue(instance, bean);
+                }
+                continue;
+            }
+
+            JavaBeanDeserializer parentDeserializer = unwrappedDeserializers[parent];
+            if (beans[parent] == null) {
+                beans[parent] = parentDeserializer.beanInfo.isCreator()
+                        ? new Object[parentDeserializer.fieldDeserializers.length]
+                        : parentDeserializer.createInstance();
+            }
+            if (parentDeserializer.beanInfo.isCreator()) {
+                ((Object[]) beans[parent])[index] = bean;
+            } else {
+                beans[parent] = parentDeserializer.fieldDeserializers[index].setValue(beans[parent], bean);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Skips the value of a property which does not map to the bean, or fails with
+     * {@link Feature#FailOnUnknownProperties}. The type of a subtype, see {@link PolymorphicDeserializer}, is skipped.
+     */
+    public void parseUnknownField(DefaultJSONParser parser, long hash) {
+        JSONLexer lexer = parser.lexer;
+        if (hash != typeKeyHash
+                && (lexer.isEnabled(Feature.FailOnUnknownProperties)
+                || Feature.isEnabled(beanInfo.parserFeatures, Feature.FailOnUnknownProperties))) {
+            throw new JSONException("unknown property '" + lexer.fieldName() + "' for " + clazz.getName());
+        }
+
+        lexer.skipValue();
+    }
+
+    public JSONException unexpectedToken(JSONLexer lexer) {
+        return lexer.syntaxError("expect ',' or '}', but " + JSONToken.name(lexer.token()));
+    }
+
+    /**
+     * Creates the bean, or its builder, with the default constructor.
+     */
+    public Object createInstance() {
+        Constructor<?> constructor = beanInfo.defaultConstructor;
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            throw new JSONException("create instance error, class " + clazz.getName(), e.getTargetException());
+        } catch (Exception e) {
+            throw new JSONException("create instance error, class " + clazz.getName(), e);
+        }
+    }
+
+    /**
+     * Creates the bean with its creator, from the values of the properties in parameter order.
+     */
+    public Object createInstance(Object[] params) {
+        FieldInfo[] fields = beanInfo.fields;
+        for (int i = 0; i < params.length; ++i) {
+            if (params[i] == null && fields[i].fieldClass.isPrimitive()) {
+                params[i] = defaultValue(fields[i].fieldClass);
+            }
+        }
+
+        try {
+            if (beanInfo.creatorConstructor != null) {
+                return beanInfo.creatorConstructor.newInstance(params);
+            }
+            return beanInfo.factoryMethod.invoke(null, params);
+        } catch (InvocationTargetException e) {
+            throw new JSONException("create instance error, " + (beanInfo.creatorConstructor != null
+                    ? beanInfo.creatorConstructor : beanInfo.factoryMethod), e.getTargetException());
+        } catch (Exception e) {
+            throw new JSONException("create instance error, " + (beanInfo.creatorConstructor != null
+                    ? beanInfo.creatorConstructor : beanInfo.factoryMethod), e);
+        }
+    }
+
+    public Object build(Object builder) {
+        try {
+            return beanInfo.buildMethod.invoke(builder);
+        } catch (InvocationTargetException e) {
+            throw new JSONException("build error, " + beanInfo.buildMethod, e.getTargetException());
+        } catch (Exception e) {
+            throw new JSONException("build error, " + beanInfo.buildMethod, e);
+        }
+    }
+
+    private static Object defaultValue(Class<?> primitiveClass) {
+        if (primitiveClass == boolean.class) {
+            return Boolean.FALSE;
+        }
+        if (primitiveClass == char.class) {
+            return '\0';
+        }
+        if (primitiveClass == byte.class) {
+            return (byte) 0;
+        }
+        if (primitiveClass == short.class) {
+            return (short) 0;
+        }
+        if (primitiveClass == int.class) {
+            return 0;
+        }
+        if (primitiveClass == long.class) {
+            return 0L;
+        }
+        if (primitiveClass == float.class) {
+            return 0F;
+        }
+        return 0D;
+    }
+}
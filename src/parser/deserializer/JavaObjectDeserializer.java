@@ -0,0 +1,19 @@
+package parser.deserializer;
+
+import parser.DefaultJSONParser;
+
+import java.lang.reflect.Type;
+
+/**
+ * Reads values declared as {@link Object}, or as an unresolved type variable, into their untyped form, see
+ * {@link DefaultJSONParser#parse()}.
+ */
+public class JavaObjectDeserializer implements ObjectDeserializer {
+
+    public final static JavaObjectDeserializer instance = new JavaObjectDeserializer();
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        return (T) parser.parse(fieldName);
+    }
+}
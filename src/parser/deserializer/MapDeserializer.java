@@ -0,0 +1,128 @@
+package parser.deserializer;
+
+import parser.DefaultJSONParser;
+import parser.Feature;
+import parser.JSONLexer;
+import parser.JSONToken;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads a {@link Map}, converting keys and values to the type arguments of its declared type.
+ */
+public class MapDeserializer implements ObjectDeserializer {
+
+    public final static MapDeserializer instance = new MapDeserializer();
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+        if (lexer.token() == JSONToken.NULL) {
+            lexer.nextToken();
+            return null;
+        }
+
+        Map<Object, Object> map = createMap(type, lexer);
+
+        Type keyType = Object.class, valueType = Object.class;
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            keyType = arguments[0];
+            valueType = arguments[1];
+        }
+
+        parseMap(parser, map, keyType, valueType, fieldName);
+        return (T) map;
+    }
+
+    public static void parseMap(DefaultJSONParser parser, Map<Object, Object> map, Type keyType, Type valueType, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+        if (lexer.token() != JSONToken.LBRACE) {
+            throw lexer.syntaxError("expect '{', but " + JSONToken.name(lexer.token()));
+        }
+
+        Class<?> keyClass = TypeUtils.getClass(keyType);
+        boolean stringKey = keyClass == String.class || keyClass == Object.class;
+        ObjectDeserializer valueDeserializer = valueType == Object.class
+                ? null
+                : parser.getConfig().getDeserializer(valueType);
+
+        for (; ; ) {
+            String name = lexer.scanFieldName(parser.getConfig().symbolTable);
+            if (name == null) {
+                break;
+            }
+
+            Object key = stringKey ? name : TypeUtils.cast(name, keyClass);
+
+            lexer.nextToken();
+            Object value = valueDeserializer == null
+                    ? parser.parse(key)
+                    : valueDeserializer.deserialze(parser, valueType, key);
+            if (value != null || !(map instanceof ConcurrentMap)) {
+                map.put(key, value);
+            }
+
+            int token = lexer.token();
+            if (token == JSONToken.COMMA) {
+                continue;
+            }
+            if (token == JSONToken.RBRACE) {
+                break;
+            }
+            throw lexer.syntaxError("expect ',' or '}', but " + JSONToken.name(token));
+        }
+
+        lexer.nextToken();
+    }
+
+    protected Map<Object, Object> createMap(Type type, JSONLexer lexer) {
+        return createMap(type, lexer.isEnabled(Feature.OrderedField));
+    }
+
+    /**
+     * Creates an empty map of the given declared type, a {@link LinkedHashMap} for {@link Map} when
+     * <code>ordered</code>, else a {@link HashMap}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Map<Object, Object> createMap(Type type, boolean ordered) {
+        Class<?> rawClass = TypeUtils.getClass(type);
+
+        if (rawClass == Map.class || rawClass == HashMap.class || rawClass == Object.class) {
+            return ordered ? new LinkedHashMap() : new HashMap();
+        }
+
+        if (rawClass == LinkedHashMap.class) {
+            return new LinkedHashMap();
+        }
+
+        if (rawClass == SortedMap.class || rawClass == TreeMap.class) {
+            return new TreeMap();
+        }
+
+        if (rawClass == ConcurrentMap.class || rawClass == ConcurrentHashMap.class) {
+            return new ConcurrentHashMap();
+        }
+
+        if (rawClass.isInterface() || Modifier.isAbstract(rawClass.getModifiers())) {
+            throw new JSONException("unsupport type " + type);
+        }
+
+        try {
+            return (Map<Object, Object>) rawClass.newInstance();
+        } catch (Exception e) {
+            throw new JSONException("unsupport type " + type, e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package parser.deserializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+
+/**
+ * Reads {@link Double} and values declared as {@link Number}.
+ */
+public class NumberDeserializer implements ObjectDeserializer {
+
+    public final static NumberDeserializer instance = new NumberDeserializer();
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+
+        if (clazz == double.class || clazz == Double.class) {
+            int token = lexer.token();
+            if (token == JSONToken.LITERAL_INT || token == JSONToken.LITERAL_FLOAT) {
+                double value = lexer.doubleValue();
+                lexer.nextToken();
+                return (T) Double.valueOf(value);
+            }
+            return (T) TypeUtils.castToDouble(parser.parse(fieldName));
+        }
+
+        Object value = parser.parse(fieldName);
+        if (value == null || value instanceof Number) {
+            return (T) value;
+        }
+        return (T) TypeUtils.castToBigDecimal(value);
+    }
+}
@@ -0,0 +1,19 @@
+package parser.deserializer;
+
+import parser.DefaultJSONParser;
+
+import java.lang.reflect.Type;
+
+/**
+ * Reads a value of a given type. On entry the current token of the lexer is the first token of the value; on exit
+ * it is the token that follows the value.
+ */
+public interface ObjectDeserializer {
+
+    /**
+     * @param parser    the parser, whose lexer is positioned on the first token of the value
+     * @param type      the declared type of the value, possibly a {@link java.lang.reflect.ParameterizedType}
+     * @param fieldName the name of the property or the index of the element holding the value, or null
+     */
+    <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName);
+}
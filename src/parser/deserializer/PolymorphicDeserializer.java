@@ -0,0 +1,262 @@
+package parser.deserializer;
+
+import annotation.JSONType;
+import parser.DefaultJSONParser;
+import parser.Feature;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.ParserConfig;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reads a type annotated with {@link JSONType#seeAlso()}. The property named by {@link TypeUtils#getTypeKey} holds
+ * the {@link TypeUtils#getTypeName type name} of a subtype, and the object is read by the deserializer of that
+ * subtype.
+ * <p>
+ * The subtypes of <code>seeAlso</code>, and theirs, are resolved once, into a table of the FNV-1a hashes of their
+ * names, sorted, which {@link JSONLexer#scanStringHash()} is looked up in without materializing the name; the bytes
+ * of the name are then compared with those of the entry, so that another name with the same hash is not taken for
+ * it. The type
+ * key is usually the first property, as the serializers write it; when it is not, the properties before it are
+ * skipped with {@link JSONLexer#skipValue()}, neither parsed nor decoded. Either way the lexer then returns to the
+ * opening brace and the object is read once, by the subtype, which skips the type key.
+ * <p>
+ * The {@link JSONType#autoTypeCheckHandler()}, when there is one, is an allow list: it is asked once for each name
+ * of <code>seeAlso</code>, when the table is built, and for each other name, when it is read. The subtypes it allows
+ * are remembered by name, up to {@link #MAX_CHECKED_TYPES} of them; a name it denies is asked about again each time.
+ */
+public class PolymorphicDeserializer implements ObjectDeserializer {
+
+    /**
+     * The number of names allowed by the handler which are remembered.
+     */
+    public final static int MAX_CHECKED_TYPES = 1024;
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ParserConfig config;
+    private final Class<?> clazz;
+    private final String typeKey;
+    private final long typeKeyHash;
+
+    /**
+     * The hashes of the type names, sorted, and the name, the subtype and the deserializer of each.
+     */
+    private final long[] typeHashes;
+    private final byte[][] typeNames;
+    private final Class<?>[] subtypes;
+    private final ObjectDeserializer[] deserializers;
+
+    /**
+     * The deserializer of the type itself, for an object without a type, or null when the type is abstract.
+     */
+    private final ObjectDeserializer defaultDeserializer;
+
+    private final ParserConfig.AutoTypeCheckHandler autoTypeCheckHandler;
+    private final int parserFeatures;
+
+    /**
+     * The subtypes of the names which are not in the table, as allowed by the handler.
+     */
+    private final ConcurrentMap<String, Class<?>> checkedTypes = new ConcurrentHashMap<String, Class<?>>();
+
+    public PolymorphicDeserializer(ParserConfig config, Class<?> clazz) {
+        this.config = config;
+        this.clazz = clazz;
+        this.typeKey = TypeUtils.getTypeKey(clazz);
+        this.typeKeyHash = TypeUtils.fnv1a_64(typeKey);
+
+        JSONType jsonType = clazz.getAnnotation(JSONType.class);
+        this.parserFeatures = Feature.of(jsonType.parseFeatures());
+        this.autoTypeCheckHandler = createHandler(jsonType.autoTypeCheckHandler());
+
+        Map<Long, Class<?>> types = new LinkedHashMap<Long, Class<?>>();
+        collectSubtypes(types, clazz);
+
+        typeHashes = new long[types.size()];
+        int n = 0;
+        for (Long hash : types.keySet()) {
+            typeHashes[n++] = hash;
+        }
+        Arrays.sort(typeHashes);
+
+        typeNames = new byte[typeHashes.length][];
+        subtypes = new Class<?>[typeHashes.length];
+        deserializers = new ObjectDeserializer[typeHashes.length];
+        for (int i = 0; i < typeHashes.length; ++i) {
+            subtypes[i] = types.get(typeHashes[i]);
+            typeNames[i] = TypeUtils.getTypeName(subtypes[i]).getBytes(UTF8);
+            deserializers[i] = getSubtypeDeserializer(subtypes[i]);
+        }
+
+        defaultDeserializer = isConcrete(clazz) ? config.getBeanDeserializer(clazz) : null;
+    }
+
+    private static ParserConfig.AutoTypeCheckHandler createHandler(Class<? extends ParserConfig.AutoTypeCheckHandler> handlerClass) {
+        if (handlerClass == ParserConfig.AutoTypeCheckHandler.class) {
+            return null;
+        }
+        try {
+            return handlerClass.newInstance();
+        } catch (Exception e) {
+            throw new JSONException("create autoTypeCheckHandler error, class " + handlerClass.getName(), e);
+        }
+    }
+
+    private void collectSubtypes(Map<Long, Class<?>> types, Class<?> type) {
+        List<Class<?>> candidates = new ArrayList<Class<?>>();
+        candidates.add(type);
+        JSONType jsonType = type.getAnnotation(JSONType.class);
+        if (jsonType != null) {
+            candidates.addAll(Arrays.asList(jsonType.seeAlso()));
+        }
+
+        for (Class<?> subtype : candidates) {
+            String typeName = TypeUtils.getTypeName(subtype);
+            if (subtype != type) {
+                if (!clazz.isAssignableFrom(subtype)) {
+                    throw new JSONException("seeAlso " + subtype.getName() + " is not a subtype of " + clazz.getName());
+                }
+                // an abstract subtype only lists subtypes of its own
+                collectSubtypes(types, subtype);
+            }
+            if (typeName == null || !isConcrete(subtype) || !isAllowed(typeName, subtype)) {
+                continue;
+            }
+
+            long hash = TypeUtils.fnv1a_64(typeName);
+            Class<?> previous = types.put(hash, subtype);
+            if (previous != null && previous != subtype) {
+                throw new JSONException("duplicate type name '" + typeName + "', " + previous.getName() + " and "
+                        + subtype.getName());
+            }
+        }
+    }
+
+    private boolean isAllowed(String typeName, Class<?> subtype) {
+        return autoTypeCheckHandler == null
+                || autoTypeCheckHandler.handler(typeName, clazz, parserFeatures) == subtype;
+    }
+
+    private static boolean isConcrete(Class<?> clazz) {
+        return !clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers());
+    }
+
+    /**
+     * The deserializer of the bean, for a subtype which lists subtypes of its own.
+     */
+    private ObjectDeserializer getSubtypeDeserializer(Class<?> subtype) {
+        JSONType jsonType = subtype.getAnnotation(JSONType.class);
+        if (jsonType != null && jsonType.seeAlso().length > 0) {
+            return config.getBeanDeserializer(subtype);
+        }
+        return config.getDeserializer(subtype);
+    }
+
+    public Class<?> getType() {
+        return clazz;
+    }
+
+    /**
+     * Returns the subtypes of the table, in no particular order.
+     */
+    public Class<?>[] getSubtypes() {
+        return subtypes.clone();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+        int token = lexer.token();
+        if (token == JSONToken.NULL) {
+            lexer.nextToken();
+            return null;
+        }
+
+        if (token != JSONToken.LBRACE) {
+            if (defaultDeserializer != null) {
+                return defaultDeserializer.deserialze(parser, clazz, fieldName);
+            }
+            throw lexer.syntaxError("expect '{', but " + JSONToken.name(token) + ", class " + clazz.getName());
+        }
+
+        lexer.mark();
+        long typeHash = 0;
+        boolean typed = false;
+        for (; ; ) {
+            long hash = lexer.scanFieldHash();
+            if (lexer.token() == JSONToken.RBRACE) {
+                break;
+            }
+            if (hash == typeKeyHash) {
+                typeHash = lexer.scanStringHash();
+                typed = true;
+                break;
+            }
+
+            lexer.skipValue();
+            token = lexer.token();
+            if (token == JSONToken.RBRACE) {
+                break;
+            }
+            if (token != JSONToken.COMMA) {
+                throw lexer.syntaxError("expect ',' or '}', but " + JSONToken.name(token));
+            }
+        }
+
+        ObjectDeserializer deserializer;
+        Class<?> subtype;
+        if (!typed) {
+            if (defaultDeserializer == null) {
+                throw new JSONException("type key '" + typeKey + "' not found, class " + clazz.getName());
+            }
+            deserializer = defaultDeserializer;
+            subtype = clazz;
+        } else {
+            int i = Arrays.binarySearch(typeHashes, typeHash);
+            if (i >= 0 && lexer.fieldNameEquals(typeNames[i])) {
+                deserializer = deserializers[i];
+                subtype = subtypes[i];
+            } else {
+                subtype = checkType(lexer.fieldName());
+                deserializer = getSubtypeDeserializer(subtype);
+            }
+        }
+
+        lexer.reset();
+        return (T) deserializer.deserialze(parser, subtype, fieldName);
+    }
+
+    /**
+     * Asks the handler for the subtype of a name which is not in the table.
+     */
+    private Class<?> checkType(String typeName) {
+        Class<?> subtype = checkedTypes.get(typeName);
+        if (subtype != null) {
+            return subtype;
+        }
+
+        subtype = autoTypeCheckHandler == null
+                ? null
+                : autoTypeCheckHandler.handler(typeName, clazz, parserFeatures);
+        if (subtype == null || !clazz.isAssignableFrom(subtype) || !isConcrete(subtype)) {
+            throw new JSONException("type not allowed, name '" + typeName + "', class " + clazz.getName());
+        }
+        if (checkedTypes.size() < MAX_CHECKED_TYPES) {
+            checkedTypes.putIfAbsent(typeName, subtype);
+        }
+        return subtype;
+    }
+}
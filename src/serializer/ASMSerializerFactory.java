@@ -0,0 +1,689 @@
+package serializer;
+
+import asm.ClassWriter;
+import asm.Label;
+import asm.MethodVisitor;
+import asm.Opcodes;
+import asm.Type;
+import util.ASMClassLoader;
+import util.ASMUtils;
+import util.FieldInfo;
+import util.JSONException;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static util.ASMUtils.desc;
+import static util.ASMUtils.type;
+
+/**
+ * Generates a serializer class per java bean. The generated class extends {@link JavaBeanSerializer} and overrides
+ * {@link JavaBeanSerializer#write} with straight-line code that calls each getter (or reads each public field)
+ * directly and hands primitives to the typed {@link SerializeWriter} methods, so properties are neither looked up
+ * by reflection nor boxed. The same code, without the names, writes the bean as an array with
+ * {@link SerializerFeature#BeanToArray}. The properties are also generated into
+ * {@link JavaBeanSerializer#writeProperties}, which the serializer of a bean holding this one in an unwrapped property
+ * calls to write them in its own object. A property with a custom serializer, see
+ * {@link FieldSerializer#customSerializer}, has it in a final field of the generated class, which the code calls.
+ * <p>
+ * The filters of a bean, {@link annotation.JSONType#serializeFilters()}, may drop, rename or replace any property
+ * on any write, so for a bean which has them the code reads each property directly, boxing a primitive, and hands it
+ * to {@link JavaBeanSerializer#writeProperty}, or {@link JavaBeanSerializer#filterValue} in an array, which apply the
+ * filters and write the value.
+ */
+public class ASMSerializerFactory implements Opcodes {
+
+    /**
+     * Numbers the generated classes; shared by all the factories since they share the class loaders.
+     */
+    private static final AtomicLong seed = new AtomicLong();
+
+    static final String JSONSerializer = type(JSONSerializer.class);
+    static final String JavaBeanSerializer = type(JavaBeanSerializer.class);
+    static final String SerializeWriter = type(SerializeWriter.class);
+    static final String ObjectSerializer = type(ObjectSerializer.class);
+
+    static final String JSONSerializer_desc = desc(JSONSerializer.class);
+    static final String SerializeWriter_desc = desc(SerializeWriter.class);
+
+    /**
+     * Local variable slots of the generated <code>write</code> and <code>writeProperties</code> methods.
+     */
+    static class Context {
+        static final int serializer = 1;
+        static final int obj = 2;
+        static final int paramSeperator = 3;
+        static final int paramFieldName = 3;
+        static final int paramFieldType = 4;
+        static final int features = 5;
+        static final int out = 6;
+        static final int entity = 7;
+        static final int seperator = 8;
+        static final int writeNull = 9;
+        static final int value = 10;
+
+        static final int maxLocals = 11;
+
+        final String className;
+        final Class<?> beanClass;
+        final FieldInfo[] getters;
+
+        /**
+         * Whether the bean has filters, which each property is written through.
+         */
+        final boolean filtered;
+
+        /**
+         * Whether the code generated is the one of the bean written as an array.
+         */
+        boolean array;
+
+        Context(String className, Class<?> beanClass, FieldInfo[] getters, boolean filtered) {
+            this.className = className;
+            this.beanClass = beanClass;
+            this.getters = getters;
+            this.filtered = filtered;
+        }
+    }
+
+    public boolean isSupported(SerializeBeanInfo beanInfo) {
+        Class<?> clazz = beanInfo.beanType;
+
+        if (!Modifier.isPublic(clazz.getModifiers()) || clazz.isInterface() || clazz.isPrimitive() || clazz.isArray()) {
+            return false;
+        }
+
+        ASMClassLoader classLoader = ASMClassLoader.getInstance(clazz);
+        if (!ASMUtils.checkName(clazz.getSimpleName()) || classLoader.isExternalClass(clazz)) {
+            return false;
+        }
+
+        for (FieldInfo fieldInfo : beanInfo.fields) {
+            if (!ASMUtils.checkName(fieldInfo.getMember().getName())) {
+                return false;
+            }
+
+            Method method = fieldInfo.method;
+            Class<?> rawClass;
+            if (method != null) {
+                if (!Modifier.isPublic(method.getModifiers())) {
+                    return false;
+                }
+                rawClass = method.getReturnType();
+            } else {
+                if (!Modifier.isPublic(fieldInfo.field.getModifiers())) {
+                    return false;
+                }
+                rawClass = fieldInfo.field.getType();
+            }
+
+            // resolved type variables are checkcast by the generated code
+            Class<?> fieldClass = fieldInfo.fieldClass;
+            if (rawClass != fieldClass
+                    && (!Modifier.isPublic(fieldClass.getModifiers()) || classLoader.isExternalClass(fieldClass))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public JavaBeanSerializer createJavaBeanSerializer(SerializeBeanInfo beanInfo) throws Exception {
+        Class<?> clazz = beanInfo.beanType;
+        if (clazz.isPrimitive()) {
+            throw new JSONException("unsupportd class " + clazz.getName());
+        }
+
+        FieldInfo[] getters = beanInfo.fields;
+
+        String className = "ASMSerializer_" + seed.incrementAndGet() + "_" + clazz.getSimpleName();
+        String classNameType = "serializer/" + className;
+        String classNameFull = "serializer." + className;
+
+        ClassWriter cw = new ClassWriter();
+        cw.visit(V1_5, ACC_PUBLIC + ACC_SUPER, classNameType, JavaBeanSerializer, null);
+
+        for (int i = 0; i < getters.length; ++i) {
+            cw.visitField(ACC_PUBLIC, "nameBytes" + i, "[B");
+            if (isCustom(getters[i])) {
+                cw.visitField(ACC_PRIVATE + ACC_FINAL, "serializer" + i, desc(ObjectSerializer.class));
+                cw.visitField(ACC_PRIVATE + ACC_FINAL, "fieldType" + i, "Ljava/lang/reflect/Type;");
+            }
+        }
+
+        Context context = new Context(classNameType, clazz, getters, beanInfo.filters != null);
+
+        {
+            MethodVisitor mw = cw.visitMethod(ACC_PUBLIC, "<init>", "(" + desc(SerializeBeanInfo.class) + ")V", null, null);
+            mw.visitVarInsn(ALOAD, 0);
+            mw.visitVarInsn(ALOAD, 1);
+            mw.visitMethodInsn(INVOKESPECIAL, JavaBeanSerializer, "<init>", "(" + desc(SerializeBeanInfo.class) + ")V");
+
+            for (int i = 0; i < getters.length; ++i) {
+                mw.visitVarInsn(ALOAD, 0);
+                mw.visitVarInsn(ALOAD, 0);
+                _push(mw, i);
+                mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "getNameBytes", "(I)[B");
+                mw.visitFieldInsn(PUTFIELD, classNameType, "nameBytes" + i, "[B");
+
+                if (isCustom(getters[i])) {
+                    mw.visitVarInsn(ALOAD, 0);
+                    mw.visitVarInsn(ALOAD, 0);
+                    _push(mw, i);
+                    mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "getCustomSerializer",
+                            "(I)" + desc(ObjectSerializer.class));
+                    mw.visitFieldInsn(PUTFIELD, classNameType, "serializer" + i, desc(ObjectSerializer.class));
+
+                    mw.visitVarInsn(ALOAD, 0);
+                    mw.visitVarInsn(ALOAD, 0);
+                    _push(mw, i);
+                    mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "getFieldType", "(I)Ljava/lang/reflect/Type;");
+                    mw.visitFieldInsn(PUTFIELD, classNameType, "fieldType" + i, "Ljava/lang/reflect/Type;");
+                }
+            }
+
+            mw.visitInsn(RETURN);
+            mw.visitMaxs(4, 2);
+            mw.visitEnd();
+        }
+
+        {
+            MethodVisitor mw = cw.visitMethod(ACC_PUBLIC,
+                    "write",
+                    "(" + JSONSerializer_desc + "Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/reflect/Type;I)V",
+                    null,
+                    null);
+
+            mw.visitVarInsn(ALOAD, Context.serializer);
+            mw.visitFieldInsn(GETFIELD, JSONSerializer, "out", SerializeWriter_desc);
+            mw.visitVarInsn(ASTORE, Context.out);
+
+            Label notNull = new Label();
+            mw.visitVarInsn(ALOAD, Context.obj);
+            mw.visitJumpInsn(IFNONNULL, notNull);
+            mw.visitVarInsn(ALOAD, Context.out);
+            mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeNull", "()V");
+            mw.visitInsn(RETURN);
+            mw.visitLabel(notNull);
+
+            mw.visitVarInsn(ALOAD, Context.obj);
+            mw.visitTypeInsn(CHECKCAST, type(clazz));
+            mw.visitVarInsn(ASTORE, Context.entity);
+
+            if (SerializerFeature.isEnabled(beanInfo.features, SerializerFeature.BeanToArray)) {
+                _array(mw, context, beanInfo);
+            } else {
+                Label object = new Label();
+                mw.visitVarInsn(ALOAD, Context.out);
+                _push(mw, SerializerFeature.BeanToArray.mask);
+                mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "isEnabled", "(I)Z");
+                mw.visitJumpInsn(IFEQ, object);
+                _array(mw, context, beanInfo);
+                mw.visitLabel(object);
+                _object(mw, context, beanInfo);
+            }
+
+            mw.visitMaxs(8, Context.maxLocals);
+            mw.visitEnd();
+        }
+
+        {
+            MethodVisitor mw = cw.visitMethod(ACC_PUBLIC,
+                    "writeProperties",
+                    "(" + JSONSerializer_desc + "Ljava/lang/Object;I)I",
+                    null,
+                    null);
+
+            mw.visitVarInsn(ALOAD, Context.serializer);
+            mw.visitFieldInsn(GETFIELD, JSONSerializer, "out", SerializeWriter_desc);
+            mw.visitVarInsn(ASTORE, Context.out);
+
+            mw.visitVarInsn(ALOAD, Context.obj);
+            mw.visitTypeInsn(CHECKCAST, type(clazz));
+            mw.visitVarInsn(ASTORE, Context.entity);
+
+            mw.visitVarInsn(ILOAD, Context.paramSeperator);
+            mw.visitVarInsn(ISTORE, Context.seperator);
+            _fields(mw, context);
+            mw.visitVarInsn(ILOAD, Context.seperator);
+            mw.visitInsn(IRETURN);
+
+            mw.visitMaxs(8, Context.maxLocals);
+            mw.visitEnd();
+        }
+
+        byte[] code = cw.toByteArray();
+
+        Class<?> serializerClass = ASMClassLoader.getInstance(clazz).defineClassPublic(classNameFull, code, 0, code.length);
+        Object instance = serializerClass.getConstructor(SerializeBeanInfo.class).newInstance(beanInfo);
+
+        return (JavaBeanSerializer) instance;
+    }
+
+    /**
+     * Writes the properties with their names, as an object, after the type of a subtype, and returns.
+     */
+    private void _object(MethodVisitor mw, Context context, SerializeBeanInfo beanInfo) {
+        if (beanInfo.typeName != null) {
+            mw.visitVarInsn(ALOAD, Context.out);
+            mw.visitIntInsn(BIPUSH, '{');
+            mw.visitVarInsn(ALOAD, 0);
+            mw.visitFieldInsn(GETFIELD, JavaBeanSerializer, "typeBytes", "[B");
+            mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeFieldName", "(I[B)V");
+            mw.visitIntInsn(BIPUSH, ',');
+        } else {
+            mw.visitIntInsn(BIPUSH, '{');
+        }
+        mw.visitVarInsn(ISTORE, Context.seperator);
+        _fields(mw, context);
+
+        Label end = new Label();
+        mw.visitVarInsn(ILOAD, Context.seperator);
+        mw.visitIntInsn(BIPUSH, '{');
+        mw.visitJumpInsn(IF_ICMPNE, end);
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitIntInsn(BIPUSH, '{');
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "write", "(I)V");
+        mw.visitLabel(end);
+
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitIntInsn(BIPUSH, '}');
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "write", "(I)V");
+
+        mw.visitInsn(RETURN);
+    }
+
+    /**
+     * Writes the properties with their names, each after the separator.
+     */
+    private void _fields(MethodVisitor mw, Context context) {
+        mw.visitVarInsn(ALOAD, Context.out);
+        _push(mw, SerializerFeature.WriteMapNullValue.mask);
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "isEnabled", "(I)Z");
+        mw.visitVarInsn(ISTORE, Context.writeNull);
+
+        for (int i = 0; i < context.getters.length; ++i) {
+            _field(mw, context, i);
+        }
+    }
+
+    /**
+     * Writes the values of the properties, in order, as an array, and returns.
+     */
+    private void _array(MethodVisitor mw, Context context, SerializeBeanInfo beanInfo) {
+        context.array = true;
+
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitIntInsn(BIPUSH, '[');
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "write", "(I)V");
+        if (beanInfo.version > 0) {
+            mw.visitVarInsn(ALOAD, Context.out);
+            _push(mw, beanInfo.version);
+            mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeInt", "(I)V");
+        }
+
+        // every element is written, so the separators are known here
+        for (int i = 0; i < context.getters.length; ++i) {
+            if (i > 0 || beanInfo.version > 0) {
+                mw.visitVarInsn(ALOAD, Context.out);
+                mw.visitIntInsn(BIPUSH, ',');
+                mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "write", "(I)V");
+            }
+            _field(mw, context, i);
+        }
+
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitIntInsn(BIPUSH, ']');
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "write", "(I)V");
+        mw.visitInsn(RETURN);
+
+        context.array = false;
+    }
+
+    private void _field(MethodVisitor mw, Context context, int i) {
+        if (context.filtered) {
+            _filtered(mw, context, i);
+            return;
+        }
+
+        FieldInfo fieldInfo = context.getters[i];
+        Class<?> propertyClass = fieldInfo.fieldClass;
+        boolean formatted = fieldInfo.format != null && propertyClass != String.class;
+        boolean custom = isCustom(fieldInfo);
+
+        if (propertyClass.isPrimitive() && custom) {
+            // boxed for the custom serializer
+            _prefix(mw, context, i);
+            _get(mw, context, fieldInfo);
+            Class<?> boxClass = box(propertyClass);
+            mw.visitMethodInsn(INVOKESTATIC, type(boxClass), "valueOf",
+                    "(" + desc(propertyClass) + ")" + desc(boxClass));
+            mw.visitVarInsn(ASTORE, Context.value);
+            _custom(mw, context, i);
+            _seperator(mw);
+            return;
+        }
+
+        if (propertyClass.isPrimitive() && formatted) {
+            // boxed for the format of the field serializer
+            _prefix(mw, context, i);
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, i);
+            mw.visitVarInsn(ALOAD, Context.serializer);
+            _get(mw, context, fieldInfo);
+            Class<?> boxClass = box(propertyClass);
+            mw.visitMethodInsn(INVOKESTATIC, type(boxClass), "valueOf",
+                    "(" + desc(propertyClass) + ")" + desc(boxClass));
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "writeFieldValue",
+                    "(I" + JSONSerializer_desc + "Ljava/lang/Object;)V");
+            _seperator(mw);
+            return;
+        }
+
+        if (propertyClass.isPrimitive()) {
+            String writeMethod, writeDesc;
+            if (propertyClass == int.class || propertyClass == short.class || propertyClass == byte.class) {
+                writeMethod = "writeInt";
+                writeDesc = "(I)V";
+            } else if (propertyClass == long.class) {
+                writeMethod = "writeLong";
+                writeDesc = "(J)V";
+            } else if (propertyClass == boolean.class) {
+                writeMethod = "writeBoolean";
+                writeDesc = "(Z)V";
+            } else if (propertyClass == char.class) {
+                writeMethod = "writeChar";
+                writeDesc = "(C)V";
+            } else if (propertyClass == float.class) {
+                writeMethod = "writeFloat";
+                writeDesc = "(F)V";
+            } else {
+                writeMethod = "writeDouble";
+                writeDesc = "(D)V";
+            }
+
+            _prefix(mw, context, i);
+            mw.visitVarInsn(ALOAD, Context.out);
+            _get(mw, context, fieldInfo);
+            mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, writeMethod, writeDesc);
+            _seperator(mw);
+            return;
+        }
+
+        Label notNull = new Label(), end = new Label();
+
+        _get(mw, context, fieldInfo);
+        mw.visitVarInsn(ASTORE, Context.value);
+
+        // the properties of the value in place of the property; an array keeps the value at its position
+        if (fieldInfo.unwrapped && !context.array) {
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitJumpInsn(IFNULL, end);
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, i);
+            mw.visitVarInsn(ALOAD, Context.serializer);
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitVarInsn(ILOAD, Context.seperator);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "writeUnwrapped",
+                    "(I" + JSONSerializer_desc + "Ljava/lang/Object;I)I");
+            mw.visitVarInsn(ISTORE, Context.seperator);
+            mw.visitLabel(end);
+            return;
+        }
+
+        mw.visitVarInsn(ALOAD, Context.value);
+        mw.visitJumpInsn(IFNONNULL, notNull);
+
+        // a null element keeps the position of the property in an array
+        if (!context.array && !fieldInfo.isEnabled(SerializerFeature.WriteMapNullValue)) {
+            mw.visitVarInsn(ILOAD, Context.writeNull);
+            mw.visitJumpInsn(IFEQ, end);
+        }
+        _prefix(mw, context, i);
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeNull", "()V");
+        _seperator(mw);
+        mw.visitJumpInsn(GOTO, end);
+
+        mw.visitLabel(notNull);
+        _prefix(mw, context, i);
+
+        if (custom && FieldSerializer.isCustomForAll(fieldInfo)) {
+            _custom(mw, context, i);
+            _seperator(mw);
+            mw.visitLabel(end);
+            return;
+        }
+
+        Label written = new Label();
+        if (custom) {
+            // the serializer of the class of the property is not the one of its subclasses
+            Label other = new Label();
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "getClass", "()Ljava/lang/Class;");
+            mw.visitLdcInsn(Type.getType(propertyClass));
+            mw.visitJumpInsn(IF_ACMPNE, other);
+            _custom(mw, context, i);
+            mw.visitJumpInsn(GOTO, written);
+            mw.visitLabel(other);
+        }
+
+        if (formatted) {
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, i);
+            mw.visitVarInsn(ALOAD, Context.serializer);
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "writeFieldValue",
+                    "(I" + JSONSerializer_desc + "Ljava/lang/Object;)V");
+        } else if (fieldInfo.jsonDirect) {
+            mw.visitVarInsn(ALOAD, Context.out);
+            mw.visitVarInsn(ALOAD, Context.value);
+            if (propertyClass == String.class) {
+                mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeRaw", "(Ljava/lang/String;)V");
+            } else {
+                mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "write", "([B)V");
+            }
+        } else if (propertyClass == String.class) {
+            mw.visitVarInsn(ALOAD, Context.out);
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeString", "(Ljava/lang/String;)V");
+        } else if (propertyClass == Integer.class || propertyClass == Short.class || propertyClass == Byte.class) {
+            _unbox(mw, propertyClass, "intValue", "()I", "writeInt", "(I)V");
+        } else if (propertyClass == Long.class) {
+            _unbox(mw, propertyClass, "longValue", "()J", "writeLong", "(J)V");
+        } else if (propertyClass == Boolean.class) {
+            _unbox(mw, propertyClass, "booleanValue", "()Z", "writeBoolean", "(Z)V");
+        } else if (propertyClass == Character.class) {
+            _unbox(mw, propertyClass, "charValue", "()C", "writeChar", "(C)V");
+        } else if (propertyClass == Float.class) {
+            _unbox(mw, propertyClass, "floatValue", "()F", "writeFloat", "(F)V");
+        } else if (propertyClass == Double.class) {
+            _unbox(mw, propertyClass, "doubleValue", "()D", "writeDouble", "(D)V");
+        } else if (propertyClass == int[].class) {
+            _array(mw, propertyClass, "writeIntArray");
+        } else if (propertyClass == long[].class) {
+            _array(mw, propertyClass, "writeLongArray");
+        } else if (propertyClass == float[].class) {
+            _array(mw, propertyClass, "writeFloatArray");
+        } else if (propertyClass == double[].class) {
+            _array(mw, propertyClass, "writeDoubleArray");
+        } else if (propertyClass == byte[].class) {
+            _array(mw, propertyClass, "writeByteArray");
+        } else if (propertyClass.isEnum()) {
+            _enum(mw, fieldInfo);
+        } else {
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, i);
+            mw.visitVarInsn(ALOAD, Context.serializer);
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "writeFieldValue",
+                    "(I" + JSONSerializer_desc + "Ljava/lang/Object;)V");
+        }
+        mw.visitLabel(written);
+        _seperator(mw);
+
+        mw.visitLabel(end);
+    }
+
+    /**
+     * Reads the i-th property, boxed, and writes it through the filters of the bean.
+     */
+    private void _filtered(MethodVisitor mw, Context context, int i) {
+        FieldInfo fieldInfo = context.getters[i];
+        _get(mw, context, fieldInfo);
+        if (fieldInfo.fieldClass.isPrimitive()) {
+            Class<?> boxClass = box(fieldInfo.fieldClass);
+            mw.visitMethodInsn(INVOKESTATIC, type(boxClass), "valueOf",
+                    "(" + desc(fieldInfo.fieldClass) + ")" + desc(boxClass));
+        }
+        mw.visitVarInsn(ASTORE, Context.value);
+
+        mw.visitVarInsn(ALOAD, 0);
+        _push(mw, i);
+        mw.visitVarInsn(ALOAD, Context.serializer);
+        if (context.array) {
+            mw.visitVarInsn(ALOAD, 0);
+            _push(mw, i);
+            mw.visitVarInsn(ALOAD, Context.obj);
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "filterValue",
+                    "(ILjava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;");
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "writeFieldValue",
+                    "(I" + JSONSerializer_desc + "Ljava/lang/Object;)V");
+        } else {
+            mw.visitVarInsn(ALOAD, Context.obj);
+            mw.visitVarInsn(ALOAD, Context.value);
+            mw.visitVarInsn(ILOAD, Context.seperator);
+            mw.visitMethodInsn(INVOKEVIRTUAL, JavaBeanSerializer, "writeProperty",
+                    "(I" + JSONSerializer_desc + "Ljava/lang/Object;Ljava/lang/Object;I)I");
+            mw.visitVarInsn(ISTORE, Context.seperator);
+        }
+    }
+
+    /**
+     * Whether the property is written by its custom serializer, from a final field of the generated class. The
+     * serializer of the class of the property is checked against the class of the value, which is a constant of
+     * the generated class, so the class must be public.
+     */
+    private static boolean isCustom(FieldInfo fieldInfo) {
+        return FieldSerializer.getCustomSerializerClass(fieldInfo) != null
+                && (FieldSerializer.isCustomForAll(fieldInfo) || Modifier.isPublic(fieldInfo.fieldClass.getModifiers()));
+    }
+
+    /**
+     * Writes the value with the custom serializer of the i-th property.
+     */
+    private void _custom(MethodVisitor mw, Context context, int i) {
+        FieldInfo fieldInfo = context.getters[i];
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitFieldInsn(GETFIELD, context.className, "serializer" + i, desc(ObjectSerializer.class));
+        mw.visitVarInsn(ALOAD, Context.serializer);
+        mw.visitVarInsn(ALOAD, Context.value);
+        mw.visitLdcInsn(fieldInfo.name);
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitFieldInsn(GETFIELD, context.className, "fieldType" + i, "Ljava/lang/reflect/Type;");
+        _push(mw, fieldInfo.serialzeFeatures);
+        mw.visitMethodInsn(INVOKEINTERFACE, ObjectSerializer, "write",
+                "(" + JSONSerializer_desc + "Ljava/lang/Object;Ljava/lang/Object;Ljava/lang/reflect/Type;I)V");
+    }
+
+    private void _unbox(MethodVisitor mw, Class<?> boxClass, String valueMethod, String valueDesc, String writeMethod, String writeDesc) {
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitVarInsn(ALOAD, Context.value);
+        mw.visitMethodInsn(INVOKEVIRTUAL, type(boxClass), valueMethod, valueDesc);
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, writeMethod, writeDesc);
+    }
+
+    private void _array(MethodVisitor mw, Class<?> arrayClass, String writeMethod) {
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitVarInsn(ALOAD, Context.value);
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, writeMethod, "(" + desc(arrayClass) + ")V");
+    }
+
+    private void _enum(MethodVisitor mw, FieldInfo fieldInfo) {
+        Label name = new Label(), write = new Label();
+
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitVarInsn(ALOAD, Context.value);
+        if (!fieldInfo.isEnabled(SerializerFeature.WriteEnumUsingToString)) {
+            mw.visitVarInsn(ALOAD, Context.out);
+            _push(mw, SerializerFeature.WriteEnumUsingToString.mask);
+            mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "isEnabled", "(I)Z");
+            mw.visitJumpInsn(IFEQ, name);
+        }
+        mw.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "toString", "()Ljava/lang/String;");
+        mw.visitJumpInsn(GOTO, write);
+
+        mw.visitLabel(name);
+        mw.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Enum", "name", "()Ljava/lang/String;");
+
+        mw.visitLabel(write);
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeString", "(Ljava/lang/String;)V");
+    }
+
+    private void _prefix(MethodVisitor mw, Context context, int i) {
+        if (context.array) {
+            return;
+        }
+        mw.visitVarInsn(ALOAD, Context.out);
+        mw.visitVarInsn(ILOAD, Context.seperator);
+        mw.visitVarInsn(ALOAD, 0);
+        mw.visitFieldInsn(GETFIELD, context.className, "nameBytes" + i, "[B");
+        mw.visitMethodInsn(INVOKEVIRTUAL, SerializeWriter, "writeFieldName", "(I[B)V");
+    }
+
+    private void _seperator(MethodVisitor mw) {
+        mw.visitIntInsn(BIPUSH, ',');
+        mw.visitVarInsn(ISTORE, Context.seperator);
+    }
+
+    private void _get(MethodVisitor mw, Context context, FieldInfo fieldInfo) {
+        Method method = fieldInfo.method;
+        Class<?> rawClass;
+        mw.visitVarInsn(ALOAD, Context.entity);
+        if (method != null) {
+            rawClass = method.getReturnType();
+            mw.visitMethodInsn(INVOKEVIRTUAL, type(context.beanClass), method.getName(), desc(method));
+        } else {
+            rawClass = fieldInfo.field.getType();
+            mw.visitFieldInsn(GETFIELD, type(context.beanClass), fieldInfo.field.getName(), desc(rawClass));
+        }
+
+        // a type variable resolved against the bean type, e.g. T getValue() in a Bean<String>
+        if (rawClass != fieldInfo.fieldClass && !rawClass.isPrimitive()) {
+            mw.visitTypeInsn(CHECKCAST, type(fieldInfo.fieldClass));
+        }
+    }
+
+    private static Class<?> box(Class<?> primitiveClass) {
+        if (primitiveClass == int.class) {
+            return Integer.class;
+        } else if (primitiveClass == long.class) {
+            return Long.class;
+        } else if (primitiveClass == boolean.class) {
+            return Boolean.class;
+        } else if (primitiveClass == char.class) {
+            return Character.class;
+        } else if (primitiveClass == short.class) {
+            return Short.class;
+        } else if (primitiveClass == byte.class) {
+            return Byte.class;
+        } else if (primitiveClass == float.class) {
+            return Float.class;
+        }
+        return Double.class;
+    }
+
+    static void _push(MethodVisitor mw, int value) {
+        if (value >= -1 && value <= 5) {
+            mw.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mw.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mw.visitIntInsn(SIPUSH, value);
+        } else {
+            mw.visitLdcInsn(value);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Reads and writes {@link BigDecimal} and {@link BigInteger}.
+ */
+public class BigDecimalCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public final static BigDecimalCodec instance = new BigDecimalCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        if (object instanceof BigInteger) {
+            out.writeAscii(object.toString());
+            return;
+        }
+
+        BigDecimal val = (BigDecimal) object;
+        if (out.isEnabled(SerializerFeature.WriteBigDecimalAsPlain)
+                || SerializerFeature.isEnabled(features, SerializerFeature.WriteBigDecimalAsPlain)) {
+            out.writeAscii(val.toPlainString());
+        } else {
+            out.writeAscii(val.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+
+        // read numbers from their text, without a round trip through double
+        int token = lexer.token();
+        if (token == JSONToken.LITERAL_INT || token == JSONToken.LITERAL_FLOAT) {
+            BigDecimal value = lexer.decimalValue();
+            lexer.nextToken();
+            return clazz == BigInteger.class ? (T) value.toBigInteger() : (T) value;
+        }
+
+        Object value = parser.parse(fieldName);
+        if (clazz == BigInteger.class) {
+            return (T) TypeUtils.castToBigInteger(value);
+        }
+        return (T) TypeUtils.castToBigDecimal(value);
+    }
+}
@@ -0,0 +1,38 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class BooleanCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public final static BooleanCodec instance = new BooleanCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        boolean value = object instanceof AtomicBoolean
+                ? ((AtomicBoolean) object).get()
+                : ((Boolean) object).booleanValue();
+        out.writeBoolean(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        Boolean value = TypeUtils.castToBoolean(parser.parse(fieldName));
+
+        if (clazz == AtomicBoolean.class) {
+            return value == null ? null : (T) new AtomicBoolean(value);
+        }
+
+        return (T) value;
+    }
+}
@@ -0,0 +1,28 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+
+public class CharacterCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public final static CharacterCodec instance = new CharacterCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        out.writeChar(((Character) object).charValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        return (T) TypeUtils.castToChar(parser.parse(fieldName));
+    }
+}
@@ -0,0 +1,103 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONToken;
+import parser.deserializer.ObjectDeserializer;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+public class CollectionCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public final static CollectionCodec instance = new CollectionCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        Type elementType = fieldType == null ? null : TypeUtils.getCollectionItemType(fieldType);
+
+        Collection<?> collection = (Collection<?>) object;
+
+        out.write('[');
+        int i = 0;
+        Class<?> lastClass = null;
+        ObjectSerializer lastSerializer = null;
+        for (Object item : collection) {
+            if (i != 0) {
+                out.write(',');
+            }
+
+            if (item == null) {
+                out.writeNull();
+            } else {
+                Class<?> clazz = item.getClass();
+                if (clazz != lastClass) {
+                    lastClass = clazz;
+                    lastSerializer = serializer.getObjectWriter(clazz);
+                }
+                lastSerializer.write(serializer, item, i, elementType, features);
+            }
+            ++i;
+        }
+        out.write(']');
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        if (parser.lexer.token() == JSONToken.NULL) {
+            parser.lexer.nextToken();
+            return null;
+        }
+
+        Collection list = createCollection(type);
+        parser.parseArray(TypeUtils.getCollectionItemType(type), list, fieldName);
+        return (T) list;
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static Collection createCollection(Type type) {
+        Class<?> rawClass = TypeUtils.getClass(type);
+
+        if (rawClass == List.class || rawClass == Collection.class || rawClass == ArrayList.class
+                || rawClass == Iterable.class) {
+            return new ArrayList();
+        }
+
+        if (rawClass == Set.class || rawClass == HashSet.class) {
+            return new HashSet();
+        }
+
+        if (rawClass == LinkedHashSet.class) {
+            return new LinkedHashSet();
+        }
+
+        if (rawClass == SortedSet.class || rawClass == TreeSet.class) {
+            return new TreeSet();
+        }
+
+        if (rawClass.isInterface() || Modifier.isAbstract(rawClass.getModifiers())) {
+            throw new JSONException("create instance error, class " + rawClass.getName());
+        }
+
+        try {
+            return (Collection) rawClass.newInstance();
+        } catch (Exception e) {
+            throw new JSONException("create instance error, class " + rawClass.getName(), e);
+        }
+    }
+}
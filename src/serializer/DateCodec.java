@@ -0,0 +1,44 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Reads and writes {@link Date} and {@link Calendar} as epoch milliseconds.
+ */
+public class DateCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public final static DateCodec instance = new DateCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        long millis = object instanceof Calendar
+                ? ((Calendar) object).getTimeInMillis()
+                : ((Date) object).getTime();
+        out.writeLong(millis);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        Date date = TypeUtils.castToDate(parser.parse(fieldName));
+
+        if (date != null && clazz == Calendar.class) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(date);
+            return (T) calendar;
+        }
+
+        return (T) date;
+    }
+}
@@ -0,0 +1,19 @@
+package serializer;
+
+import java.lang.reflect.Type;
+
+public class DoubleSerializer implements ObjectSerializer {
+
+    public final static DoubleSerializer instance = new DoubleSerializer();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        out.writeDouble(((Double) object).doubleValue());
+    }
+}
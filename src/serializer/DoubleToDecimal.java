@@ -0,0 +1,285 @@
+package serializer;
+
+import java.math.BigInteger;
+
+/**
+ * Writes the shortest decimal which rounds back to a <code>double</code> or a <code>float</code>, with the
+ * Schubfach algorithm of R. Giulietti, "The Schubfach way to render doubles" (2020), the one of
+ * {@link Double#toString(double)} since JDK 19. The digits go straight into a byte array and the layout is the one of
+ * {@link Double#toString(double)}, except that integral values have no <code>".0"</code>, e.g. <code>100</code>,
+ * <code>0.001</code>, <code>1.0E7</code>, <code>4.9E-324</code>.
+ */
+final class DoubleToDecimal {
+
+    /**
+     * The most bytes written: a sign, 17 digits, a point, and <code>E-324</code>.
+     */
+    static final int MAX_CHARS = 24;
+
+    private static final long MASK_63 = (1L << 63) - 1;
+
+    private static final int K_MIN = -324;
+    private static final int K_MAX = 292;
+
+    /**
+     * <code>g1(k)</code> and <code>g0(k)</code> at <code>2 (k - K_MIN)</code> and <code>2 (k - K_MIN) + 1</code>:
+     * writing <code>10^-k = b 2^r</code> with <code>2^125 &lt;= b &lt; 2^126</code>, <code>g = floor(b) + 1</code>
+     * is <code>g1 2^63 + g0</code>.
+     */
+    private static final long[] G = new long[2 * (K_MAX - K_MIN + 1)];
+
+    private static final long[] POW10 = new long[18];
+
+    static {
+        BigInteger mask63 = BigInteger.ONE.shiftLeft(63).subtract(BigInteger.ONE);
+        for (int k = K_MIN; k <= K_MAX; ++k) {
+            int e = -k;
+            BigInteger b;
+            if (e >= 0) {
+                BigInteger pow = BigInteger.TEN.pow(e);
+                int r = pow.bitLength() - 126;
+                b = r >= 0 ? pow.shiftRight(r) : pow.shiftLeft(-r);
+            } else {
+                BigInteger pow = BigInteger.TEN.pow(-e);
+                b = BigInteger.ONE.shiftLeft(pow.bitLength() + 125).divide(pow);
+            }
+            BigInteger g = b.add(BigInteger.ONE);
+            G[2 * (k - K_MIN)] = g.shiftRight(63).longValue();
+            G[2 * (k - K_MIN) + 1] = g.and(mask63).longValue();
+        }
+
+        long pow = 1;
+        for (int i = 0; i < POW10.length; ++i) {
+            POW10[i] = pow;
+            pow *= 10;
+        }
+    }
+
+    private DoubleToDecimal() {
+    }
+
+    /**
+     * Puts the finite value at <code>index</code> and returns the index after it.
+     */
+    static int write(byte[] buf, int index, double v) {
+        long bits = Double.doubleToRawLongBits(v);
+        if (bits < 0) {
+            buf[index++] = '-';
+        }
+        long t = bits & ((1L << 52) - 1);
+        int bq = (int) (bits >>> 52) & 0x7FF;
+        if (bq != 0) {
+            // normal value, mq = -q
+            int mq = 1075 - bq;
+            long c = (1L << 52) | t;
+            if (0 < mq && mq < 53) {
+                // integral values below 2^53
+                long f = c >> mq;
+                if (f << mq == c) {
+                    return toChars(buf, index, f, 0);
+                }
+            }
+            return toDecimal(buf, index, -mq, c, 0, 1L << 52, -1074);
+        }
+        if (t != 0) {
+            // subnormal value
+            return t < 3
+                    ? toDecimal(buf, index, -1074, 10 * t, -1, 1L << 52, -1074)
+                    : toDecimal(buf, index, -1074, t, 0, 1L << 52, -1074);
+        }
+        buf[index] = '0';
+        return index + 1;
+    }
+
+    static int write(byte[] buf, int index, float v) {
+        int bits = Float.floatToRawIntBits(v);
+        if (bits < 0) {
+            buf[index++] = '-';
+        }
+        int t = bits & ((1 << 23) - 1);
+        int bq = (bits >>> 23) & 0xFF;
+        if (bq != 0) {
+            int mq = 150 - bq;
+            int c = (1 << 23) | t;
+            if (0 < mq && mq < 24) {
+                int f = c >> mq;
+                if (f << mq == c) {
+                    return toChars(buf, index, f, 0);
+                }
+            }
+            return toDecimal(buf, index, -mq, c, 0, 1L << 23, -149);
+        }
+        if (t != 0) {
+            return t < 8
+                    ? toDecimal(buf, index, -149, 10 * t, -1, 1L << 23, -149)
+                    : toDecimal(buf, index, -149, t, 0, 1L << 23, -149);
+        }
+        buf[index] = '0';
+        return index + 1;
+    }
+
+    /**
+     * Finds the shortest decimal of <code>c 2^q</code> and puts it. The skeleton is figure 7 of the paper, the
+     * computations are those of its figure 9; the 126 bits of <code>g</code> are precise enough for both formats.
+     */
+    private static int toDecimal(byte[] buf, int index, int q, long c, int dk, long cMin, int qMin) {
+        int out = (int) c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        if (c != cMin || q == qMin) {
+            // regular spacing
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // irregular spacing
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 2;
+
+        long g1 = G[2 * (k - K_MIN)];
+        long g0 = G[2 * (k - K_MIN) + 1];
+
+        long vb = rop(g1, g0, cb << h);
+        long vbl = rop(g1, g0, cbl << h);
+        long vbr = rop(g1, g0, cbr << h);
+
+        long s = vb >> 2;
+        if (s >= 100) {
+            // one digit less: s' = floor(s / 10), u' = 10 s' and w' = 10 s' + 10
+            long sp10 = 10 * multiplyHigh(s, 115292150460684698L << 4);
+            long tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return toChars(buf, index, upin ? sp10 : tp10, k);
+            }
+        }
+
+        // u = s and w = s + 1, take the one in the rounding interval, else the closest
+        long t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            return toChars(buf, index, uin ? s : t, k + dk);
+        }
+        long cmp = vb - (s + t << 1);
+        return toChars(buf, index, cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+    }
+
+    /**
+     * Computes <code>cp g 2^-127</code>, rounded to odd.
+     */
+    private static long rop(long g1, long g0, long cp) {
+        long x1 = multiplyHigh(g0, cp);
+        long y0 = g1 * cp;
+        long y1 = multiplyHigh(g1, cp);
+        long z = (y0 >>> 1) + x1;
+        long vbp = y1 + (z >>> 63);
+        return vbp | (z & MASK_63) + MASK_63 >>> 63;
+    }
+
+    /**
+     * The high 64 bits of the product of two non negative longs.
+     */
+    private static long multiplyHigh(long x, long y) {
+        long x0 = x & 0xFFFFFFFFL, x1 = x >>> 32;
+        long y0 = y & 0xFFFFFFFFL, y1 = y >>> 32;
+        long p01 = x0 * y1;
+        long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+        return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+    }
+
+    /**
+     * floor(log10(2^e))
+     */
+    private static int flog10pow2(int e) {
+        return (int) (e * 661971961083L >> 41);
+    }
+
+    /**
+     * floor(log10(3/4 2^e))
+     */
+    private static int flog10threeQuartersPow2(int e) {
+        return (int) (e * 661971961083L + -274743187321L >> 41);
+    }
+
+    /**
+     * floor(log2(10^e))
+     */
+    private static int flog2pow10(int e) {
+        return (int) (e * 913124641741L >> 38);
+    }
+
+    /**
+     * Puts <code>f 10^e</code>, laid out as {@link Double#toString(double)} does: plainly from 10^-3 included to
+     * 10^7 excluded, else in computerized scientific notation.
+     */
+    private static int toChars(byte[] buf, int index, long f, int e) {
+        while (f % 10 == 0) {
+            f /= 10;
+            e++;
+        }
+        int n = 1;
+        while (n < POW10.length && f >= POW10[n]) {
+            n++;
+        }
+
+        // the value is 0.d1..dn 10^exp
+        int exp = e + n;
+        if (0 < exp && exp <= 7) {
+            if (n <= exp) {
+                SerializeWriter.getChars(f, index + n, buf);
+                index += n;
+                for (int i = n; i < exp; ++i) {
+                    buf[index++] = '0';
+                }
+                return index;
+            }
+            SerializeWriter.getChars(f, index + n + 1, buf);
+            System.arraycopy(buf, index + 1, buf, index, exp);
+            buf[index + exp] = '.';
+            return index + n + 1;
+        }
+
+        if (-3 < exp && exp <= 0) {
+            buf[index++] = '0';
+            buf[index++] = '.';
+            for (int i = exp; i < 0; ++i) {
+                buf[index++] = '0';
+            }
+            SerializeWriter.getChars(f, index + n, buf);
+            return index + n;
+        }
+
+        SerializeWriter.getChars(f, index + n + 1, buf);
+        buf[index] = buf[index + 1];
+        buf[index + 1] = '.';
+        if (n == 1) {
+            buf[index + 2] = '0';
+            index += 3;
+        } else {
+            index += n + 1;
+        }
+        buf[index++] = 'E';
+        int x = exp - 1;
+        if (x < 0) {
+            buf[index++] = '-';
+            x = -x;
+        }
+        if (x >= 100) {
+            buf[index++] = (byte) ('0' + x / 100);
+            x %= 100;
+            SerializeWriter.putDigits(buf, index, x);
+            return index + 2;
+        }
+        if (x >= 10) {
+            SerializeWriter.putDigits(buf, index, x);
+            return index + 2;
+        }
+        buf[index] = (byte) ('0' + x);
+        return index + 1;
+    }
+}
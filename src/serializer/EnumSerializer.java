@@ -0,0 +1,25 @@
+package serializer;
+
+import java.lang.reflect.Type;
+
+public class EnumSerializer implements ObjectSerializer {
+
+    public final static EnumSerializer instance = new EnumSerializer();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        Enum<?> e = (Enum<?>) object;
+        if (out.isEnabled(SerializerFeature.WriteEnumUsingToString)
+                || SerializerFeature.isEnabled(features, SerializerFeature.WriteEnumUsingToString)) {
+            out.writeString(e.toString());
+        } else {
+            out.writeString(e.name());
+        }
+    }
+}
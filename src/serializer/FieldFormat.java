@@ -0,0 +1,847 @@
+package serializer;
+
+import util.JSONException;
+import util.TypeUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
+import java.text.DecimalFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The compiled form of a <code>@JSONField(format = ...)</code> pattern. {@link #of(String)} compiles each distinct
+ * pattern once; the format is immutable, so the fields which use the pattern share it across threads.
+ * <p>
+ * Dates and times are written straight into the buffer of the {@link SerializeWriter}, without
+ * {@link DateTimeFormatter}:
+ * <ul>
+ * <li><code>"millis"</code> and <code>"unixtime"</code> write the epoch milliseconds or seconds as a number;</li>
+ * <li><code>"iso8601"</code> writes an instant as <code>yyyy-MM-ddTHH:mm:ss.SSSZ</code> in UTC, and a local date or
+ * time as is;</li>
+ * <li>patterns made of <code>yyyy yy MM M dd d HH H mm m ss s SSS</code> and literals are compiled to a list of
+ * fields.</li>
+ * </ul>
+ * Other date patterns are formatted with a {@link DateTimeFormatter}, which also parses the strings read into
+ * formatted date properties. Instants are converted to local times in the default time zone of when the pattern is
+ * compiled.
+ * <p>
+ * Number patterns made of <code>#</code>, <code>0</code> and a decimal point, e.g. <code>0.00</code>, are rounded
+ * half even and written as numbers; other number patterns are applied with a {@link DecimalFormat} and written as
+ * strings.
+ */
+public abstract class FieldFormat {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private final static ConcurrentMap<String, FieldFormat> formats = new ConcurrentHashMap<String, FieldFormat>();
+
+    public final String pattern;
+
+    FieldFormat(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Returns the format compiled from the pattern, compiling it on first use.
+     */
+    public static FieldFormat of(String pattern) {
+        FieldFormat format = formats.get(pattern);
+        if (format == null) {
+            format = compile(pattern);
+            FieldFormat previous = formats.putIfAbsent(pattern, format);
+            if (previous != null) {
+                format = previous;
+            }
+        }
+        return format;
+    }
+
+    private static FieldFormat compile(String pattern) {
+        try {
+            if ("millis".equals(pattern)) {
+                return new EpochFormat(pattern, false);
+            }
+            if ("unixtime".equals(pattern)) {
+                return new EpochFormat(pattern, true);
+            }
+            if ("iso8601".equals(pattern)) {
+                return new IsoFormat(pattern);
+            }
+
+            char c = pattern.charAt(0);
+            if (c == '#' || c == '0' || c == '.') {
+                return new DecimalPattern(pattern);
+            }
+            return new DatePattern(pattern);
+        } catch (IllegalArgumentException e) {
+            throw new JSONException("illegal format " + pattern, e);
+        }
+    }
+
+    static boolean isTemporal(Class<?> clazz) {
+        return clazz == Date.class
+                || Calendar.class.isAssignableFrom(clazz)
+                || clazz == Instant.class
+                || clazz == LocalDateTime.class
+                || clazz == LocalDate.class
+                || clazz == LocalTime.class
+                || clazz == ZonedDateTime.class
+                || clazz == OffsetDateTime.class;
+    }
+
+    /**
+     * Writes the value and returns true, or returns false when the format does not apply to the class of the value.
+     */
+    public abstract boolean write(SerializeWriter out, Object value);
+
+    /**
+     * Whether the values read for a property of the class are converted with {@link #parse(Object, Class)}.
+     */
+    public boolean parses(Class<?> type) {
+        return false;
+    }
+
+    /**
+     * Converts the string or the number read for a property of a class this format {@link #parses}.
+     */
+    public Object parse(Object value, Class<?> type) {
+        throw new JSONException("format " + pattern + " does not apply to " + type.getName());
+    }
+
+    /**
+     * The formats of dates and times.
+     */
+    static abstract class TemporalFormat extends FieldFormat {
+
+        final TimeZone timeZone;
+        final ZoneId zone;
+
+        TemporalFormat(String pattern) {
+            super(pattern);
+            this.timeZone = TimeZone.getDefault();
+            this.zone = timeZone.toZoneId();
+        }
+
+        abstract Object parseText(String text, Class<?> type);
+
+        @Override
+        public boolean parses(Class<?> type) {
+            return isTemporal(type);
+        }
+
+        @Override
+        public Object parse(Object value, Class<?> type) {
+            if (value == null) {
+                return null;
+            }
+
+            if (value instanceof Number) {
+                return fromInstant(Instant.ofEpochMilli(((Number) value).longValue()), type);
+            }
+
+            String text = value.toString().trim();
+            if (text.length() == 0 || "null".equals(text)) {
+                return null;
+            }
+            try {
+                return parseText(text, type);
+            } catch (DateTimeException e) {
+                throw new JSONException("can not parse " + text + " with format " + pattern, e);
+            } catch (NumberFormatException e) {
+                throw new JSONException("can not parse " + text + " with format " + pattern, e);
+            }
+        }
+
+        Object fromTemporal(TemporalAccessor temporal, Class<?> type) {
+            if (type == LocalDate.class) {
+                return LocalDate.from(temporal);
+            }
+            if (type == LocalTime.class) {
+                return LocalTime.from(temporal);
+            }
+            if (type == ZonedDateTime.class && temporal.isSupported(ChronoField.OFFSET_SECONDS)) {
+                return ZonedDateTime.from(temporal);
+            }
+            if (type == OffsetDateTime.class && temporal.isSupported(ChronoField.OFFSET_SECONDS)) {
+                return OffsetDateTime.from(temporal);
+            }
+
+            LocalDate date = temporal.query(TemporalQueries.localDate());
+            if (date == null) {
+                throw new DateTimeException("no date in " + temporal);
+            }
+            LocalTime time = temporal.query(TemporalQueries.localTime());
+            LocalDateTime dateTime = LocalDateTime.of(date, time == null ? LocalTime.MIDNIGHT : time);
+            if (type == LocalDateTime.class) {
+                return dateTime;
+            }
+
+            Instant instant = temporal.isSupported(ChronoField.INSTANT_SECONDS)
+                    ? Instant.from(temporal)
+                    : dateTime.atZone(zone).toInstant();
+            return fromInstant(instant, type);
+        }
+
+        Object fromInstant(Instant instant, Class<?> type) {
+            if (type == Date.class) {
+                return new Date(instant.toEpochMilli());
+            }
+            if (Calendar.class.isAssignableFrom(type)) {
+                Calendar calendar = Calendar.getInstance(timeZone);
+                calendar.setTimeInMillis(instant.toEpochMilli());
+                return calendar;
+            }
+            if (type == Instant.class) {
+                return instant;
+            }
+            if (type == ZonedDateTime.class) {
+                return ZonedDateTime.ofInstant(instant, zone);
+            }
+            if (type == OffsetDateTime.class) {
+                return OffsetDateTime.ofInstant(instant, zone);
+            }
+
+            LocalDateTime dateTime = LocalDateTime.ofInstant(instant, zone);
+            if (type == LocalDate.class) {
+                return dateTime.toLocalDate();
+            }
+            if (type == LocalTime.class) {
+                return dateTime.toLocalTime();
+            }
+            return dateTime;
+        }
+
+        /**
+         * Returns the epoch milliseconds of an instant, or {@link Long#MIN_VALUE} when the value is no instant.
+         */
+        static long epochMillis(Object value) {
+            if (value instanceof Date) {
+                return ((Date) value).getTime();
+            }
+            if (value instanceof Calendar) {
+                return ((Calendar) value).getTimeInMillis();
+            }
+            return Long.MIN_VALUE;
+        }
+
+        /**
+         * Writes the date and time at the offset of the default time zone.
+         */
+        void writeMillis(SerializeWriter out, long millis, DateWriter writer) {
+            long local = millis + timeZone.getOffset(millis);
+            writeLocal(out, Math.floorDiv(local, 1000L), (int) Math.floorMod(local, 1000L) * 1000000, writer);
+        }
+
+        static void writeLocal(SerializeWriter out, long localSecond, int nano, DateWriter writer) {
+            long days = Math.floorDiv(localSecond, 86400L);
+            int secondOfDay = (int) Math.floorMod(localSecond, 86400L);
+
+            // days since the epoch to the proleptic gregorian calendar, after H. Hinnant
+            long z = days + 719468;
+            long era = (z >= 0 ? z : z - 146096) / 146097;
+            int dayOfEra = (int) (z - era * 146097);
+            int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+            int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            int mp = (5 * dayOfYear + 2) / 153;
+            int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+            int month = mp < 10 ? mp + 3 : mp - 9;
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+            writer.write(out, (int) year, month, day,
+                    secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, nano);
+        }
+    }
+
+    interface DateWriter {
+        void write(SerializeWriter out, int year, int month, int day, int hour, int minute, int second, int nano);
+    }
+
+    /**
+     * <code>"millis"</code> and <code>"unixtime"</code>.
+     */
+    static final class EpochFormat extends TemporalFormat {
+
+        private final boolean seconds;
+
+        EpochFormat(String pattern, boolean seconds) {
+            super(pattern);
+            this.seconds = seconds;
+        }
+
+        @Override
+        public boolean write(SerializeWriter out, Object value) {
+            long millis = epochMillis(value);
+            if (millis == Long.MIN_VALUE) {
+                Instant instant;
+                if (value instanceof Instant) {
+                    instant = (Instant) value;
+                } else if (value instanceof ZonedDateTime) {
+                    instant = ((ZonedDateTime) value).toInstant();
+                } else if (value instanceof OffsetDateTime) {
+                    instant = ((OffsetDateTime) value).toInstant();
+                } else if (value instanceof LocalDateTime) {
+                    instant = ((LocalDateTime) value).atZone(zone).toInstant();
+                } else if (value instanceof LocalDate) {
+                    instant = ((LocalDate) value).atStartOfDay(zone).toInstant();
+                } else {
+                    return false;
+                }
+                if (seconds) {
+                    out.writeLong(instant.getEpochSecond());
+                    return true;
+                }
+                millis = instant.toEpochMilli();
+            }
+
+            out.writeLong(seconds ? Math.floorDiv(millis, 1000L) : millis);
+            return true;
+        }
+
+        @Override
+        public Object parse(Object value, Class<?> type) {
+            if (seconds && value instanceof Number) {
+                return fromInstant(Instant.ofEpochSecond(((Number) value).longValue()), type);
+            }
+            return super.parse(value, type);
+        }
+
+        @Override
+        Object parseText(String text, Class<?> type) {
+            long epoch = Long.parseLong(text);
+            return fromInstant(seconds ? Instant.ofEpochSecond(epoch) : Instant.ofEpochMilli(epoch), type);
+        }
+    }
+
+    /**
+     * <code>"iso8601"</code>.
+     */
+    static final class IsoFormat extends TemporalFormat {
+
+        private final static DateTimeFormatter PARSER = new DateTimeFormatterBuilder()
+                .append(DateTimeFormatter.ISO_LOCAL_DATE)
+                .optionalStart()
+                .appendLiteral('T')
+                .append(DateTimeFormatter.ISO_LOCAL_TIME)
+                .optionalStart()
+                .appendOffsetId()
+                .optionalEnd()
+                .optionalEnd()
+                .toFormatter();
+
+        /**
+         * Writes <code>yyyy-MM-ddTHH:mm:ss.SSSZ</code>.
+         */
+        private final static DateWriter INSTANT = new DateWriter() {
+            public void write(SerializeWriter out, int year, int month, int day, int hour, int minute, int second, int nano) {
+                int count = out.reserve(36);
+                final byte[] buf = out.buf;
+                buf[count++] = '"';
+                count = putDate(buf, count, year, month, day);
+                buf[count++] = 'T';
+                count = putTime(buf, count, hour, minute, second, nano);
+                buf[count++] = 'Z';
+                buf[count++] = '"';
+                out.count = count;
+            }
+        };
+
+        IsoFormat(String pattern) {
+            super(pattern);
+        }
+
+        @Override
+        public boolean write(SerializeWriter out, Object value) {
+            long millis = epochMillis(value);
+            if (millis != Long.MIN_VALUE) {
+                writeInstant(out, Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1000000);
+                return true;
+            }
+
+            if (value instanceof Instant) {
+                Instant instant = (Instant) value;
+                writeInstant(out, instant.getEpochSecond(), instant.getNano());
+            } else if (value instanceof ZonedDateTime) {
+                Instant instant = ((ZonedDateTime) value).toInstant();
+                writeInstant(out, instant.getEpochSecond(), instant.getNano());
+            } else if (value instanceof OffsetDateTime) {
+                Instant instant = ((OffsetDateTime) value).toInstant();
+                writeInstant(out, instant.getEpochSecond(), instant.getNano());
+            } else if (value instanceof LocalDateTime) {
+                LocalDateTime dateTime = (LocalDateTime) value;
+                int year = dateTime.getYear();
+                if (year < 0 || year > 9999) {
+                    out.writeString(dateTime.toString());
+                    return true;
+                }
+                int count = out.reserve(32);
+                final byte[] buf = out.buf;
+                buf[count++] = '"';
+                count = putDate(buf, count, year, dateTime.getMonthValue(), dateTime.getDayOfMonth());
+                buf[count++] = 'T';
+                count = putTime(buf, count, dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano());
+                buf[count++] = '"';
+                out.count = count;
+            } else if (value instanceof LocalDate) {
+                LocalDate date = (LocalDate) value;
+                int year = date.getYear();
+                if (year < 0 || year > 9999) {
+                    out.writeString(date.toString());
+                    return true;
+                }
+                int count = out.reserve(12);
+                final byte[] buf = out.buf;
+                buf[count++] = '"';
+                count = putDate(buf, count, year, date.getMonthValue(), date.getDayOfMonth());
+                buf[count++] = '"';
+                out.count = count;
+            } else if (value instanceof LocalTime) {
+                LocalTime time = (LocalTime) value;
+                int count = out.reserve(21);
+                final byte[] buf = out.buf;
+                buf[count++] = '"';
+                count = putTime(buf, count, time.getHour(), time.getMinute(), time.getSecond(), time.getNano());
+                buf[count++] = '"';
+                out.count = count;
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private static void writeInstant(SerializeWriter out, long epochSecond, int nano) {
+            // years 0000 to 9999
+            if (epochSecond < -62167219200L || epochSecond >= 253402300800L) {
+                out.writeString(Instant.ofEpochSecond(epochSecond, nano).toString());
+                return;
+            }
+            writeLocal(out, epochSecond, nano, INSTANT);
+        }
+
+        private static int putDate(byte[] buf, int count, int year, int month, int day) {
+            SerializeWriter.putDigits(buf, count, year / 100);
+            SerializeWriter.putDigits(buf, count + 2, year % 100);
+            buf[count + 4] = '-';
+            SerializeWriter.putDigits(buf, count + 5, month);
+            buf[count + 7] = '-';
+            SerializeWriter.putDigits(buf, count + 8, day);
+            return count + 10;
+        }
+
+        /**
+         * Puts <code>HH:mm:ss</code> and the fraction of the second with 3, 6 or 9 digits.
+         */
+        private static int putTime(byte[] buf, int count, int hour, int minute, int second, int nano) {
+            SerializeWriter.putDigits(buf, count, hour);
+            buf[count + 2] = ':';
+            SerializeWriter.putDigits(buf, count + 3, minute);
+            buf[count + 5] = ':';
+            SerializeWriter.putDigits(buf, count + 6, second);
+            buf[count + 8] = '.';
+            count += 9;
+
+            int digits = nano % 1000000 == 0 ? 3 : nano % 1000 == 0 ? 6 : 9;
+            for (int i = 0, unit = 100000000; i < digits; ++i, unit /= 10) {
+                buf[count++] = (byte) ('0' + nano / unit % 10);
+            }
+            return count;
+        }
+
+        @Override
+        Object parseText(String text, Class<?> type) {
+            return fromTemporal(PARSER.parse(text), type);
+        }
+    }
+
+    /**
+     * A date pattern, compiled to a list of fields when it only uses the common letters.
+     */
+    static final class DatePattern extends TemporalFormat implements DateWriter {
+
+        private final static byte YEAR4 = 1, YEAR2 = 2, MONTH2 = 3, MONTH = 4, DAY2 = 5, DAY = 6, HOUR2 = 7,
+                HOUR = 8, MINUTE2 = 9, MINUTE = 10, SECOND2 = 11, SECOND = 12, MILLIS3 = 13, LITERAL = 14;
+
+        private final DateTimeFormatter formatter;
+
+        /**
+         * The fields and literals of the pattern, or null when it uses other letters.
+         */
+        private final byte[] fields;
+        private final byte[][] literals;
+
+        /**
+         * The largest number of bytes written, with the quotes.
+         */
+        private final int size;
+
+        DatePattern(String pattern) {
+            super(pattern);
+            this.formatter = DateTimeFormatter.ofPattern(pattern);
+
+            List<byte[]> literals = new ArrayList<byte[]>();
+            byte[] fields = compileFields(pattern, literals);
+            int size = 2;
+            if (fields != null) {
+                for (int i = 0, j = 0; i < fields.length; ++i) {
+                    byte field = fields[i];
+                    size += field == LITERAL ? literals.get(j++).length : field == YEAR4 ? 4 : field == MILLIS3 ? 3 : 2;
+                }
+            }
+            this.fields = fields;
+            this.literals = literals.toArray(new byte[literals.size()][]);
+            this.size = size;
+        }
+
+        private static byte[] compileFields(String pattern, List<byte[]> literals) {
+            byte[] fields = new byte[pattern.length()];
+            int n = 0;
+            for (int i = 0; i < pattern.length(); ) {
+                char c = pattern.charAt(i);
+                int run = 1;
+                while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                    ++run;
+                }
+
+                byte field;
+                if (c == 'y') {
+                    field = run == 4 ? YEAR4 : run == 2 ? YEAR2 : 0;
+                } else if (c == 'M') {
+                    field = run == 2 ? MONTH2 : run == 1 ? MONTH : 0;
+                } else if (c == 'd') {
+                    field = run == 2 ? DAY2 : run == 1 ? DAY : 0;
+                } else if (c == 'H') {
+                    field = run == 2 ? HOUR2 : run == 1 ? HOUR : 0;
+                } else if (c == 'm') {
+                    field = run == 2 ? MINUTE2 : run == 1 ? MINUTE : 0;
+                } else if (c == 's') {
+                    field = run == 2 ? SECOND2 : run == 1 ? SECOND : 0;
+                } else if (c == 'S') {
+                    field = run == 3 ? MILLIS3 : 0;
+                } else if (isSpecial(c)) {
+                    // other letters, quotes, optional sections and characters to escape are left to the
+                    // DateTimeFormatter
+                    return null;
+                } else {
+                    field = LITERAL;
+                    run = 1;
+                    while (i + run < pattern.length() && !isSpecial(pattern.charAt(i + run))) {
+                        ++run;
+                    }
+                    literals.add(pattern.substring(i, i + run).getBytes(UTF8));
+                }
+                if (field == 0) {
+                    return null;
+                }
+
+                fields[n++] = field;
+                i += run;
+            }
+
+            byte[] compiled = new byte[n];
+            System.arraycopy(fields, 0, compiled, 0, n);
+            return compiled;
+        }
+
+        private static boolean isSpecial(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '\'' || c == '[' || c == ']'
+                    || c == '{' || c == '}' || c == '#' || c < 0x20 || c == '"' || c == '\\';
+        }
+
+        @Override
+        public boolean write(SerializeWriter out, Object value) {
+            long millis = epochMillis(value);
+            if (fields != null) {
+                if (millis != Long.MIN_VALUE) {
+                    writeMillis(out, millis, this);
+                    return true;
+                }
+                if (value instanceof LocalDateTime) {
+                    LocalDateTime dateTime = (LocalDateTime) value;
+                    write(out, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                            dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano());
+                    return true;
+                }
+                if (value instanceof ZonedDateTime) {
+                    ZonedDateTime dateTime = (ZonedDateTime) value;
+                    write(out, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                            dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano());
+                    return true;
+                }
+                if (value instanceof OffsetDateTime) {
+                    OffsetDateTime dateTime = (OffsetDateTime) value;
+                    write(out, dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                            dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano());
+                    return true;
+                }
+                if (value instanceof Instant) {
+                    Instant instant = (Instant) value;
+                    long offset = timeZone.getOffset(instant.toEpochMilli()) / 1000;
+                    writeLocal(out, instant.getEpochSecond() + offset, instant.getNano(), this);
+                    return true;
+                }
+            }
+
+            TemporalAccessor temporal;
+            if (millis != Long.MIN_VALUE) {
+                temporal = Instant.ofEpochMilli(millis).atZone(zone);
+            } else if (value instanceof Instant) {
+                temporal = ((Instant) value).atZone(zone);
+            } else if (value instanceof TemporalAccessor) {
+                temporal = (TemporalAccessor) value;
+            } else {
+                return false;
+            }
+            try {
+                out.writeString(formatter.format(temporal));
+            } catch (DateTimeException e) {
+                throw new JSONException("can not format " + value + " with format " + pattern, e);
+            }
+            return true;
+        }
+
+        public void write(SerializeWriter out, int year, int month, int day, int hour, int minute, int second, int nano) {
+            if (year < 0 || year > 9999) {
+                out.writeString(formatter.format(LocalDateTime.of(year, month, day, hour, minute, second, nano)));
+                return;
+            }
+
+            int count = out.reserve(size);
+            final byte[] buf = out.buf;
+            buf[count++] = '"';
+            for (int i = 0, j = 0; i < fields.length; ++i) {
+                switch (fields[i]) {
+                    case YEAR4:
+                        SerializeWriter.putDigits(buf, count, year / 100);
+                        SerializeWriter.putDigits(buf, count + 2, year % 100);
+                        count += 4;
+                        break;
+                    case YEAR2:
+                        count = put2(buf, count, year % 100);
+                        break;
+                    case MONTH2:
+                        count = put2(buf, count, month);
+                        break;
+                    case MONTH:
+                        count = put(buf, count, month);
+                        break;
+                    case DAY2:
+                        count = put2(buf, count, day);
+                        break;
+                    case DAY:
+                        count = put(buf, count, day);
+                        break;
+                    case HOUR2:
+                        count = put2(buf, count, hour);
+                        break;
+                    case HOUR:
+                        count = put(buf, count, hour);
+                        break;
+                    case MINUTE2:
+                        count = put2(buf, count, minute);
+                        break;
+                    case MINUTE:
+                        count = put(buf, count, minute);
+                        break;
+                    case SECOND2:
+                        count = put2(buf, count, second);
+                        break;
+                    case SECOND:
+                        count = put(buf, count, second);
+                        break;
+                    case MILLIS3:
+                        int millis = nano / 1000000;
+                        buf[count] = (byte) ('0' + millis / 100);
+                        SerializeWriter.putDigits(buf, count + 1, millis % 100);
+                        count += 3;
+                        break;
+                    default:
+                        byte[] literal = literals[j++];
+                        System.arraycopy(literal, 0, buf, count, literal.length);
+                        count += literal.length;
+                        break;
+                }
+            }
+            buf[count++] = '"';
+            out.count = count;
+        }
+
+        private static int put2(byte[] buf, int count, int value) {
+            SerializeWriter.putDigits(buf, count, value);
+            return count + 2;
+        }
+
+        private static int put(byte[] buf, int count, int value) {
+            if (value < 10) {
+                buf[count] = (byte) ('0' + value);
+                return count + 1;
+            }
+            SerializeWriter.putDigits(buf, count, value);
+            return count + 2;
+        }
+
+        @Override
+        Object parseText(String text, Class<?> type) {
+            return fromTemporal(formatter.parse(text), type);
+        }
+    }
+
+    /**
+     * A number pattern.
+     */
+    static final class DecimalPattern extends FieldFormat {
+
+        /**
+         * The least and the largest number of fraction digits of a plain pattern, else -1.
+         */
+        private final int minFraction;
+        private final int maxFraction;
+
+        private final ThreadLocal<DecimalFormat> decimalFormat;
+
+        DecimalPattern(final String pattern) {
+            super(pattern);
+
+            // a plain pattern: #*0?(.0*#*)?
+            int i = 0, length = pattern.length();
+            while (i < length && pattern.charAt(i) == '#') {
+                ++i;
+            }
+            if (i < length && pattern.charAt(i) == '0') {
+                ++i;
+            }
+            int minFraction = 0, maxFraction = 0;
+            if (i < length && pattern.charAt(i) == '.') {
+                ++i;
+                while (i < length && pattern.charAt(i) == '0') {
+                    ++i;
+                    ++minFraction;
+                }
+                maxFraction = minFraction;
+                while (i < length && pattern.charAt(i) == '#') {
+                    ++i;
+                    ++maxFraction;
+                }
+            }
+
+            if (i == length) {
+                this.minFraction = minFraction;
+                this.maxFraction = maxFraction;
+                this.decimalFormat = null;
+            } else {
+                // checks the pattern now, a DecimalFormat is not thread safe
+                new DecimalFormat(pattern);
+                this.minFraction = -1;
+                this.maxFraction = -1;
+                this.decimalFormat = new ThreadLocal<DecimalFormat>() {
+                    @Override
+                    protected DecimalFormat initialValue() {
+                        DecimalFormat decimalFormat = new DecimalFormat(pattern);
+                        decimalFormat.setParseBigDecimal(true);
+                        return decimalFormat;
+                    }
+                };
+            }
+        }
+
+        @Override
+        public boolean write(SerializeWriter out, Object value) {
+            if (!(value instanceof Number)) {
+                return false;
+            }
+
+            if (decimalFormat != null) {
+                out.writeString(decimalFormat.get().format(value));
+                return true;
+            }
+
+            if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                    || value instanceof AtomicInteger || value instanceof AtomicLong) {
+                out.writeLong(((Number) value).longValue());
+                if (minFraction > 0) {
+                    int count = out.reserve(minFraction + 1);
+                    final byte[] buf = out.buf;
+                    buf[count++] = '.';
+                    for (int i = 0; i < minFraction; ++i) {
+                        buf[count++] = '0';
+                    }
+                    out.count = count;
+                }
+                return true;
+            }
+
+            BigDecimal decimal;
+            if (value instanceof BigDecimal) {
+                decimal = (BigDecimal) value;
+            } else if (value instanceof BigInteger) {
+                decimal = new BigDecimal((BigInteger) value);
+            } else {
+                double doubleValue = ((Number) value).doubleValue();
+                if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                    out.writeNull();
+                    return true;
+                }
+                // rounds the exact binary value, as DecimalFormat does
+                decimal = new BigDecimal(doubleValue);
+            }
+
+            decimal = decimal.setScale(maxFraction, RoundingMode.HALF_EVEN);
+            if (maxFraction > minFraction) {
+                decimal = decimal.stripTrailingZeros();
+                if (decimal.scale() < minFraction) {
+                    decimal = decimal.setScale(minFraction);
+                }
+            }
+            out.writeAscii(decimal.toPlainString());
+            return true;
+        }
+
+        /**
+         * Only the strings written by a {@link DecimalFormat} need parsing, plain patterns write numbers.
+         */
+        @Override
+        public boolean parses(Class<?> type) {
+            return decimalFormat != null
+                    && (Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class && type != char.class));
+        }
+
+        @Override
+        public Object parse(Object value, Class<?> type) {
+            if (value == null) {
+                return type.isPrimitive() ? TypeUtils.cast(0, type) : null;
+            }
+
+            if (value instanceof String) {
+                String text = ((String) value).trim();
+                ParsePosition position = new ParsePosition(0);
+                value = decimalFormat.get().parse(text, position);
+                if (position.getIndex() != text.length()) {
+                    throw new JSONException("can not parse " + text + " with format " + pattern);
+                }
+            }
+            return TypeUtils.cast(value, type);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package serializer;
+
+import annotation.JSONField;
+import annotation.JSONType;
+import util.FieldInfo;
+import util.JSONException;
+import util.TypeUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * Reads one property of a bean and writes it, used by {@link JavaBeanSerializer}.
+ */
+public class FieldSerializer implements Comparable<FieldSerializer> {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    public final FieldInfo fieldInfo;
+
+    /**
+     * The quoted property name followed by a colon, UTF-8 encoded.
+     */
+    protected final byte[] nameBytes;
+
+    protected final int features;
+
+    /**
+     * The compiled <code>format</code> of the property, or null.
+     */
+    protected final FieldFormat format;
+
+    /**
+     * The serializer of {@link JSONField#serializeUsing()}, or the {@link JSONType#serializer()} of the class of the
+     * property, resolved once; null when there is neither.
+     */
+    public final ObjectSerializer customSerializer;
+
+    /**
+     * The class of the values written by {@link #customSerializer}: null for all, the class of the property for the
+     * serializer of the class, which a subclass does not inherit.
+     */
+    public final Class<?> customClass;
+
+    private RuntimeSerializerInfo runtimeInfo;
+
+    public FieldSerializer(Class<?> beanType, FieldInfo fieldInfo) {
+        this.fieldInfo = fieldInfo;
+        this.features = fieldInfo.serialzeFeatures;
+        this.nameBytes = ('"' + fieldInfo.name + "\":").getBytes(UTF8);
+        this.format = fieldInfo.format == null ? null : FieldFormat.of(fieldInfo.format);
+
+        Class<?> serializerClass = getCustomSerializerClass(fieldInfo);
+        this.customSerializer = serializerClass == null
+                ? null
+                : TypeUtils.getCodec(serializerClass, ObjectSerializer.class);
+        this.customClass = serializerClass == null || isCustomForAll(fieldInfo) ? null : fieldInfo.fieldClass;
+
+        fieldInfo.setAccessible();
+    }
+
+    /**
+     * Returns the class of the custom serializer of the property, see {@link #customSerializer}, or null.
+     */
+    static Class<?> getCustomSerializerClass(FieldInfo fieldInfo) {
+        if (fieldInfo.serializeUsing != null) {
+            return fieldInfo.serializeUsing;
+        }
+        JSONType jsonType = fieldInfo.fieldClass.getAnnotation(JSONType.class);
+        return jsonType == null || jsonType.serializer() == Void.class ? null : jsonType.serializer();
+    }
+
+    /**
+     * Whether the custom serializer of the property writes all its values, not only those of its declared class.
+     */
+    static boolean isCustomForAll(FieldInfo fieldInfo) {
+        return fieldInfo.serializeUsing != null || Modifier.isFinal(fieldInfo.fieldClass.getModifiers());
+    }
+
+    public int compareTo(FieldSerializer o) {
+        return this.fieldInfo.compareTo(o.fieldInfo);
+    }
+
+    public Object getPropertyValue(Object object) {
+        try {
+            return fieldInfo.get(object);
+        } catch (InvocationTargetException e) {
+            throw new JSONException("get property error. " + fieldInfo.getMember(), e.getTargetException());
+        } catch (IllegalAccessException e) {
+            throw new JSONException("get property error. " + fieldInfo.getMember(), e);
+        }
+    }
+
+    public void writePrefix(JSONSerializer serializer, int seperator) {
+        serializer.out.writeFieldName(seperator, nameBytes);
+    }
+
+    public void writeValue(JSONSerializer serializer, Object propertyValue) {
+        if (propertyValue == null) {
+            serializer.out.writeNull();
+            return;
+        }
+
+        if (customSerializer != null && (customClass == null || propertyValue.getClass() == customClass)) {
+            customSerializer.write(serializer, propertyValue, fieldInfo.name, fieldInfo.fieldType, features);
+            return;
+        }
+
+        if (fieldInfo.jsonDirect) {
+            // JSON text, copied as it is
+            if (propertyValue instanceof byte[]) {
+                serializer.out.write((byte[]) propertyValue);
+            } else {
+                serializer.out.writeRaw((String) propertyValue);
+            }
+            return;
+        }
+
+        if (format != null && format.write(serializer.out, propertyValue)) {
+            return;
+        }
+
+        ObjectSerializer fieldSerializer = getRuntimeSerializer(serializer, propertyValue.getClass());
+        fieldSerializer.write(serializer, propertyValue, fieldInfo.name, fieldInfo.fieldType, features);
+    }
+
+    /**
+     * Writes the properties of the value of an unwrapped property as properties of the bean holding it, the first
+     * after the given separator, and returns the separator of the next property. A value which is neither a bean nor
+     * a map is written as the property itself.
+     */
+    public int writeUnwrapped(JSONSerializer serializer, Object propertyValue, int seperator) {
+        if (propertyValue instanceof Map) {
+            return MapSerializer.instance.writeEntries(serializer, (Map<?, ?>) propertyValue, seperator, features);
+        }
+
+        ObjectSerializer fieldSerializer = getRuntimeSerializer(serializer, propertyValue.getClass());
+        if (fieldSerializer instanceof JavaBeanSerializer) {
+            return ((JavaBeanSerializer) fieldSerializer).writeProperties(serializer, propertyValue, seperator);
+        }
+
+        writePrefix(serializer, seperator);
+        writeValue(serializer, propertyValue);
+        return ',';
+    }
+
+    private ObjectSerializer getRuntimeSerializer(JSONSerializer serializer, Class<?> runtimeFieldClass) {
+        RuntimeSerializerInfo runtimeInfo = this.runtimeInfo;
+        if (runtimeInfo != null && runtimeInfo.runtimeFieldClass == runtimeFieldClass) {
+            return runtimeInfo.fieldSerializer;
+        }
+        ObjectSerializer fieldSerializer = serializer.getObjectWriter(runtimeFieldClass);
+        this.runtimeInfo = new RuntimeSerializerInfo(runtimeFieldClass, fieldSerializer);
+        return fieldSerializer;
+    }
+
+    static class RuntimeSerializerInfo {
+        final Class<?> runtimeFieldClass;
+        final ObjectSerializer fieldSerializer;
+
+        public RuntimeSerializerInfo(Class<?> runtimeFieldClass, ObjectSerializer fieldSerializer) {
+            this.runtimeFieldClass = runtimeFieldClass;
+            this.fieldSerializer = fieldSerializer;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+
+public class FloatCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public static FloatCodec instance = new FloatCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        out.writeFloat(((Float) object).floatValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        return (T) TypeUtils.castToFloat(parser.parse(fieldName));
+    }
+}
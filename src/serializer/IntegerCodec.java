@@ -0,0 +1,47 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads and writes {@link Integer}, {@link Short}, {@link Byte} and {@link AtomicInteger}.
+ */
+public class IntegerCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public static IntegerCodec instance = new IntegerCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        out.writeInt(((Number) object).intValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        Object value = parser.parse(fieldName);
+
+        if (clazz == AtomicInteger.class) {
+            Integer intValue = TypeUtils.castToInt(value);
+            return intValue == null ? null : (T) new AtomicInteger(intValue);
+        }
+
+        if (clazz == short.class || clazz == Short.class) {
+            return (T) TypeUtils.castToShort(value);
+        }
+
+        if (clazz == byte.class || clazz == Byte.class) {
+            return (T) TypeUtils.castToByte(value);
+        }
+
+        return (T) TypeUtils.castToInt(value);
+    }
+}
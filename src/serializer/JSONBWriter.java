@@ -0,0 +1,306 @@
+package serializer;
+
+import asm.ByteVector;
+import parser.JSONNode;
+import util.FieldInfo;
+import util.JSONException;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes values in JSONB, a binary form of JSON for the same beans and the same annotations: property names,
+ * ordinals, <code>serialize = false</code> and <code>unwrapped</code> properties apply as they do to the text, and
+ * {@link parser.JSONBReader} reads it back. Every value starts with a tag byte:
+ * <pre>
+ * 0x00 null          0x01 false          0x02 true
+ * 0x03 integer       a zigzag varint of the long value
+ * 0x04 float         4 bytes, big endian IEEE 754
+ * 0x05 double        8 bytes, big endian IEEE 754
+ * 0x06 string        a varint byte length, then UTF-8
+ * 0x07 binary        a varint length, then the bytes of a byte[]
+ * 0x08 array         a varint count, then the elements
+ * 0x09 object        properties, each a name then a value, then a varint 0
+ * 0x0A decimal       a varint length, then the ASCII digits of a BigDecimal or a BigInteger
+ * 0x0B JSON text     a varint length, then UTF-8 JSON, for the values of custom serializers, of the
+ *                    properties with one, and of <code>jsonDirect</code> properties
+ * </pre>
+ * Property names are written once per stream: the first time as a varint <code>2 length + 1</code> followed by the
+ * UTF-8 name, which gets the next id from 0, and then as the varint <code>2 id + 2</code>. Nothing is escaped and
+ * no number is formatted. Dates are written as their epoch milliseconds, enums by name.
+ * <p>
+ * A writer keeps its name dictionary, so that a stream of values written by one writer is read by one reader.
+ */
+public final class JSONBWriter {
+
+    public static final int NULL = 0x00;
+    public static final int FALSE = 0x01;
+    public static final int TRUE = 0x02;
+    public static final int INTEGER = 0x03;
+    public static final int FLOAT = 0x04;
+    public static final int DOUBLE = 0x05;
+    public static final int STRING = 0x06;
+    public static final int BINARY = 0x07;
+    public static final int ARRAY = 0x08;
+    public static final int OBJECT = 0x09;
+    public static final int DECIMAL = 0x0A;
+    public static final int TEXT = 0x0B;
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    private final ByteVector out;
+    private final SerializeConfig config;
+    private final int features;
+
+    private final Map<String, Integer> names = new HashMap<String, Integer>();
+
+    public JSONBWriter() {
+        this(SerializeConfig.getGlobalInstance(), 0);
+    }
+
+    public JSONBWriter(SerializeConfig config, int features) {
+        this.out = new ByteVector(256);
+        this.config = config;
+        this.features = features;
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[out.length];
+        System.arraycopy(out.data, 0, bytes, 0, out.length);
+        return bytes;
+    }
+
+    public int size() {
+        return out.length;
+    }
+
+    public void write(Object value) {
+        if (value == null) {
+            out.putByte(NULL);
+            return;
+        }
+
+        Class<?> clazz = value.getClass();
+        if (clazz == String.class) {
+            writeString((String) value);
+        } else if (clazz == Integer.class || clazz == Long.class || clazz == Short.class || clazz == Byte.class) {
+            writeLong(((Number) value).longValue());
+        } else if (clazz == Boolean.class) {
+            out.putByte((Boolean) value ? TRUE : FALSE);
+        } else if (clazz == Double.class) {
+            out.putByte(DOUBLE).putLong(Double.doubleToRawLongBits((Double) value));
+        } else if (clazz == Float.class) {
+            out.putByte(FLOAT).putInt(Float.floatToRawIntBits((Float) value));
+        } else if (clazz == Character.class) {
+            writeString(value.toString());
+        } else if (clazz == BigDecimal.class || clazz == BigInteger.class) {
+            byte[] digits = value.toString().getBytes();
+            out.putByte(DECIMAL);
+            putVarint(digits.length);
+            out.putByteArray(digits, 0, digits.length);
+        } else if (clazz == byte[].class) {
+            byte[] bytes = (byte[]) value;
+            out.putByte(BINARY);
+            putVarint(bytes.length);
+            out.putByteArray(bytes, 0, bytes.length);
+        } else if (clazz.isEnum() || (clazz.getSuperclass() != null && clazz.getSuperclass().isEnum())) {
+            writeString(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            writeLong(((Date) value).getTime());
+        } else if (value instanceof Calendar) {
+            writeLong(((Calendar) value).getTimeInMillis());
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            out.putByte(ARRAY);
+            putVarint(collection.size());
+            for (Object item : collection) {
+                write(item);
+            }
+        } else if (clazz.isArray()) {
+            int length = Array.getLength(value);
+            out.putByte(ARRAY);
+            putVarint(length);
+            for (int i = 0; i < length; ++i) {
+                write(Array.get(value, i));
+            }
+        } else if (value instanceof Map) {
+            out.putByte(OBJECT);
+            writeProperties((Map<?, ?>) value);
+            putVarint(0);
+        } else {
+            ObjectSerializer serializer = config.getObjectWriter(clazz);
+            if (serializer instanceof JavaBeanSerializer) {
+                out.putByte(OBJECT);
+                writeProperties((JavaBeanSerializer) serializer, value);
+                putVarint(0);
+            } else {
+                writeText(value);
+            }
+        }
+    }
+
+    private void writeProperties(Map<?, ?> map) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null && !SerializerFeature.isEnabled(features, SerializerFeature.WriteMapNullValue)) {
+                continue;
+            }
+            writeName(String.valueOf(entry.getKey()));
+            write(value);
+        }
+    }
+
+    private void writeProperties(JavaBeanSerializer serializer, Object bean) {
+        for (FieldSerializer getter : serializer.getters) {
+            FieldInfo fieldInfo = getter.fieldInfo;
+            Object value = getter.getPropertyValue(bean);
+            if (value == null) {
+                if (fieldInfo.unwrapped
+                        || !SerializerFeature.isEnabled(features | getter.features, SerializerFeature.WriteMapNullValue)) {
+                    continue;
+                }
+            } else if (fieldInfo.unwrapped) {
+                // the properties of the value are written as those of the bean
+                if (value instanceof Map) {
+                    writeProperties((Map<?, ?>) value);
+                    continue;
+                }
+                ObjectSerializer valueSerializer = config.getObjectWriter(value.getClass());
+                if (valueSerializer instanceof JavaBeanSerializer) {
+                    writeProperties((JavaBeanSerializer) valueSerializer, value);
+                    continue;
+                }
+            }
+            writeName(fieldInfo.name);
+            if (getter.customSerializer != null && value != null) {
+                writeText(getter, value);
+            } else if (fieldInfo.jsonDirect && value != null) {
+                writeText(value instanceof byte[] ? (byte[]) value : ((String) value).getBytes(UTF8));
+            } else {
+                write(value);
+            }
+        }
+    }
+
+    /**
+     * Writes the value as JSON text, with the serializer which the value has for the text.
+     */
+    private void writeText(Object value) {
+        if (value instanceof JSONNode) {
+            writeText(((JSONNode) value).toBytes());
+            return;
+        }
+
+        SerializeWriter writer = new SerializeWriter(features);
+        try {
+            new JSONSerializer(writer, config).write(value);
+            writeText(writer.toBytes());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes the value of a property with a custom serializer as the JSON text which that serializer writes.
+     */
+    private void writeText(FieldSerializer getter, Object value) {
+        SerializeWriter writer = new SerializeWriter(features);
+        try {
+            getter.writeValue(new JSONSerializer(writer, config), value);
+            writeText(writer.toBytes());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeText(byte[] text) {
+        out.putByte(TEXT);
+        putVarint(text.length);
+        out.putByteArray(text, 0, text.length);
+    }
+
+    private void writeName(String name) {
+        Integer id = names.get(name);
+        if (id != null) {
+            putVarint(2L * id + 2);
+            return;
+        }
+        names.put(name, names.size());
+        putVarint(2L * utf8Length(name) + 1);
+        putUTF8(name);
+    }
+
+    private void writeLong(long value) {
+        out.putByte(INTEGER);
+        putVarint(value << 1 ^ value >> 63);
+    }
+
+    private void writeString(String s) {
+        out.putByte(STRING);
+        putVarint(utf8Length(s));
+        putUTF8(s);
+    }
+
+    /**
+     * Puts an unsigned LEB128 varint: 7 bits a byte, low bits first, the high bit set on all bytes but the last.
+     */
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.putByte((int) value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.putByte((int) value);
+    }
+
+    private static int utf8Length(String s) {
+        int len = s.length();
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+            if (c >= 0x800) {
+                // a surrogate pair is 4 bytes for 2 chars
+                len += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                len += 1;
+            }
+        }
+        return len;
+    }
+
+    private void putUTF8(String s) {
+        final int charLength = s.length();
+        int len = out.length;
+        // reserve the room of the worst case, then encode in place
+        out.putByteArray(null, 0, 3 * charLength);
+        final byte[] data = out.data;
+        for (int i = 0; i < charLength; ++i) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                data[len++] = (byte) c;
+            } else if (c < 0x800) {
+                data[len++] = (byte) (0xC0 | c >> 6);
+                data[len++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < charLength
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                data[len++] = (byte) (0xF0 | cp >> 18);
+                data[len++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                data[len++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                data[len++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                throw new JSONException("illegal surrogate in string, index " + i);
+            } else {
+                data[len++] = (byte) (0xE0 | c >> 12);
+                data[len++] = (byte) (0x80 | c >> 6 & 0x3F);
+                data[len++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        out.length = len;
+    }
+}
@@ -0,0 +1,86 @@
+package serializer;
+
+import util.JSONException;
+
+import java.lang.reflect.Type;
+
+/**
+ * Walks an object graph and writes it as JSON to a {@link SerializeWriter}, looking up the {@link ObjectSerializer}
+ * of each value in a {@link SerializeConfig}.
+ */
+public class JSONSerializer {
+
+    protected final SerializeConfig config;
+    public final SerializeWriter out;
+
+    public JSONSerializer() {
+        this(new SerializeWriter(), SerializeConfig.getGlobalInstance());
+    }
+
+    public JSONSerializer(SerializeWriter out) {
+        this(out, SerializeConfig.getGlobalInstance());
+    }
+
+    public JSONSerializer(SerializeWriter out, SerializeConfig config) {
+        this.out = out;
+        this.config = config;
+    }
+
+    public SerializeConfig getMapping() {
+        return config;
+    }
+
+    public SerializeWriter getWriter() {
+        return out;
+    }
+
+    public boolean isEnabled(SerializerFeature feature) {
+        return out.isEnabled(feature);
+    }
+
+    public final void writeNull() {
+        this.out.writeNull();
+    }
+
+    public final void write(Object object) {
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        Class<?> clazz = object.getClass();
+        ObjectSerializer writer = getObjectWriter(clazz);
+
+        try {
+            writer.write(this, object, null, null, 0);
+        } catch (JSONException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new JSONException(e.getMessage(), e);
+        }
+    }
+
+    public final void writeWithFieldName(Object object, Object fieldName, Type fieldType, int fieldFeatures) {
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        Class<?> clazz = object.getClass();
+        ObjectSerializer writer = getObjectWriter(clazz);
+        writer.write(this, object, fieldName, fieldType, fieldFeatures);
+    }
+
+    public ObjectSerializer getObjectWriter(Class<?> clazz) {
+        return config.getObjectWriter(clazz);
+    }
+
+    public static void write(SerializeWriter out, Object object) {
+        JSONSerializer serializer = new JSONSerializer(out);
+        serializer.write(object);
+    }
+
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,237 @@
+package serializer;
+
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+
+/**
+ * Reflection based serializer for java beans. It is used for types annotated with <code>@JSONType(asm = false)</code>
+ * and whenever a serializer cannot be generated by {@link ASMSerializerFactory}. Generated serializers extend this
+ * class and override {@link #write}.
+ */
+public class JavaBeanSerializer implements ObjectSerializer {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    protected final FieldSerializer[] getters;
+
+    protected final SerializeBeanInfo beanInfo;
+
+    /**
+     * The quoted type key, a colon and the quoted type name, UTF-8 encoded, written first for a subtype of a type
+     * annotated with {@link annotation.JSONType#seeAlso()}; null otherwise.
+     */
+    protected final byte[] typeBytes;
+
+    public JavaBeanSerializer(Class<?> beanType) {
+        this(TypeUtils.buildBeanInfo(beanType));
+    }
+
+    public JavaBeanSerializer(SerializeBeanInfo beanInfo) {
+        this.beanInfo = beanInfo;
+        this.typeBytes = beanInfo.typeName == null
+                ? null
+                : ('"' + beanInfo.typeKey + "\":\"" + beanInfo.typeName + '"').getBytes(UTF8);
+
+        getters = new FieldSerializer[beanInfo.fields.length];
+        for (int i = 0; i < getters.length; ++i) {
+            getters[i] = new FieldSerializer(beanInfo.beanType, beanInfo.fields[i]);
+        }
+    }
+
+    public Class<?> getType() {
+        return beanInfo.beanType;
+    }
+
+    /**
+     * Returns the pre-encoded name of the i-th property, used by the constructors of generated serializers.
+     */
+    public byte[] getNameBytes(int i) {
+        return getters[i].nameBytes;
+    }
+
+    /**
+     * Returns the custom serializer of the i-th property, see {@link FieldSerializer#customSerializer}, used by the
+     * constructors of generated serializers.
+     */
+    public ObjectSerializer getCustomSerializer(int i) {
+        return getters[i].customSerializer;
+    }
+
+    /**
+     * Returns the declared type of the i-th property, used by the constructors of generated serializers.
+     */
+    public Type getFieldType(int i) {
+        return getters[i].fieldInfo.fieldType;
+    }
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        if (isBeanToArray(out)) {
+            writeAsArray(serializer, object);
+            return;
+        }
+
+        int seperator = '{';
+        if (typeBytes != null) {
+            out.writeFieldName(seperator, typeBytes);
+            seperator = ',';
+        }
+        if (writeProperties(serializer, object, seperator) == '{') {
+            out.write('{');
+        }
+        out.write('}');
+    }
+
+    /**
+     * Writes the properties of the bean, the first after the given separator, and returns the separator of the next
+     * property: the given one when no property was written. The properties of the values of unwrapped properties are
+     * written in place of these, so that a bean is written in the object of the bean holding it.
+     */
+    public int writeProperties(JSONSerializer serializer, Object object, int seperator) {
+        for (int i = 0; i < getters.length; ++i) {
+            seperator = writeProperty(i, serializer, object, getters[i].getPropertyValue(object), seperator);
+        }
+        return seperator;
+    }
+
+    /**
+     * Writes the i-th property of the bean, whose value is given, after the separator, and returns the separator of
+     * the next property: the given one when the property is not written. The filters of the bean are applied here,
+     * so generated serializers of beans with filters call this for each property, with the value they read.
+     */
+    public int writeProperty(int i, JSONSerializer serializer, Object object, Object propertyValue, int seperator) {
+        FieldSerializer fieldSerializer = getters[i];
+        SerializeWriter out = serializer.out;
+
+        String name = null;
+        SerializeFilter[] filters = beanInfo.filters;
+        if (filters != null) {
+            name = fieldSerializer.fieldInfo.name;
+            if (!apply(filters, object, name, propertyValue)) {
+                return seperator;
+            }
+            propertyValue = processValue(filters, object, name, propertyValue);
+            name = processName(filters, object, name, propertyValue);
+        }
+
+        if (fieldSerializer.fieldInfo.unwrapped) {
+            if (propertyValue != null) {
+                seperator = fieldSerializer.writeUnwrapped(serializer, propertyValue, seperator);
+            }
+            return seperator;
+        }
+
+        if (propertyValue == null
+                && !out.isEnabled(SerializerFeature.WriteMapNullValue)
+                && !SerializerFeature.isEnabled(fieldSerializer.features, SerializerFeature.WriteMapNullValue)) {
+            return seperator;
+        }
+
+        if (name != null && !name.equals(fieldSerializer.fieldInfo.name)) {
+            out.write(seperator);
+            out.writeString(name);
+            out.write(':');
+        } else {
+            fieldSerializer.writePrefix(serializer, seperator);
+        }
+        fieldSerializer.writeValue(serializer, propertyValue);
+        return ',';
+    }
+
+    /**
+     * Whether the bean is written as an array, with {@link SerializerFeature#BeanToArray}.
+     */
+    public boolean isBeanToArray(SerializeWriter out) {
+        return out.isEnabled(SerializerFeature.BeanToArray)
+                || SerializerFeature.isEnabled(beanInfo.features, SerializerFeature.BeanToArray);
+    }
+
+    /**
+     * Writes the values of the properties as an array, in order, after the {@link annotation.JSONType#version()}
+     * of the bean when it has one.
+     */
+    protected void writeAsArray(JSONSerializer serializer, Object object) {
+        SerializeWriter out = serializer.out;
+
+        int seperator = '[';
+        if (beanInfo.version > 0) {
+            out.write('[');
+            out.writeInt(beanInfo.version);
+            seperator = ',';
+        }
+        for (int i = 0; i < getters.length; ++i) {
+            Object propertyValue = filterValue(i, object, getters[i].getPropertyValue(object));
+            out.write(seperator);
+            getters[i].writeValue(serializer, propertyValue);
+            seperator = ',';
+        }
+
+        if (seperator == '[') {
+            out.write('[');
+        }
+        out.write(']');
+    }
+
+    /**
+     * Returns the value of the i-th property as the filters of the bean change it, for the bean written as an array:
+     * the names are not written and every position is kept, so only the values are filtered. Called by generated
+     * serializers of beans with filters.
+     */
+    public Object filterValue(int i, Object object, Object propertyValue) {
+        if (beanInfo.filters == null) {
+            return propertyValue;
+        }
+        return processValue(beanInfo.filters, object, getters[i].fieldInfo.name, propertyValue);
+    }
+
+    private static boolean apply(SerializeFilter[] filters, Object object, String name, Object value) {
+        for (SerializeFilter filter : filters) {
+            if (filter instanceof PropertyFilter && !((PropertyFilter) filter).apply(object, name, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object processValue(SerializeFilter[] filters, Object object, String name, Object value) {
+        for (SerializeFilter filter : filters) {
+            if (filter instanceof ValueFilter) {
+                value = ((ValueFilter) filter).process(object, name, value);
+            }
+        }
+        return value;
+    }
+
+    private static String processName(SerializeFilter[] filters, Object object, String name, Object value) {
+        for (SerializeFilter filter : filters) {
+            if (filter instanceof NameFilter) {
+                name = ((NameFilter) filter).process(object, name, value);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Writes the value of the i-th property, resolving its serializer from the runtime class of the value. Called
+     * by generated serializers for properties that are not primitives, strings or enums.
+     */
+    public void writeFieldValue(int i, JSONSerializer serializer, Object propertyValue) {
+        getters[i].writeValue(serializer, propertyValue);
+    }
+
+    /**
+     * Writes the properties of the value of the i-th property, an unwrapped one, see
+     * {@link FieldSerializer#writeUnwrapped}. Called by generated serializers.
+     */
+    public int writeUnwrapped(int i, JSONSerializer serializer, Object propertyValue, int seperator) {
+        return getters[i].writeUnwrapped(serializer, propertyValue, seperator);
+    }
+}
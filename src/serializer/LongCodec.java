@@ -0,0 +1,38 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads and writes {@link Long} and {@link AtomicLong}.
+ */
+public class LongCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public static LongCodec instance = new LongCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        out.writeLong(((Number) object).longValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        Long longValue = TypeUtils.castToLong(parser.parse(fieldName));
+
+        if (clazz == AtomicLong.class) {
+            return longValue == null ? null : (T) new AtomicLong(longValue);
+        }
+
+        return (T) longValue;
+    }
+}
@@ -0,0 +1,66 @@
+package serializer;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Writes a {@link Map} as a JSON object, using the string form of its keys as property names.
+ */
+public class MapSerializer implements ObjectSerializer {
+
+    public static MapSerializer instance = new MapSerializer();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        if (writeEntries(serializer, (Map<?, ?>) object, '{', features) == '{') {
+            out.write('{');
+        }
+        out.write('}');
+    }
+
+    /**
+     * Writes the entries of the map as properties, the first after the given separator, and returns the separator
+     * of the next property: the given one when no entry was written.
+     */
+    public int writeEntries(JSONSerializer serializer, Map<?, ?> map, int seperator, int features) {
+        SerializeWriter out = serializer.out;
+        boolean writeMapNullValue = out.isEnabled(SerializerFeature.WriteMapNullValue)
+                || SerializerFeature.isEnabled(features, SerializerFeature.WriteMapNullValue);
+
+        Class<?> preClazz = null;
+        ObjectSerializer preWriter = null;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null && !writeMapNullValue) {
+                continue;
+            }
+
+            out.write(seperator);
+            seperator = ',';
+
+            Object entryKey = entry.getKey();
+            String key = entryKey == null ? "null" : entryKey.toString();
+            out.writeString(key);
+            out.write(':');
+
+            if (value == null) {
+                out.writeNull();
+                continue;
+            }
+
+            Class<?> clazz = value.getClass();
+            if (clazz != preClazz) {
+                preClazz = clazz;
+                preWriter = serializer.getObjectWriter(clazz);
+            }
+            preWriter.write(serializer, value, entryKey, null, features);
+        }
+        return seperator;
+    }
+}
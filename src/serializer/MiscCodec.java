@@ -0,0 +1,105 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONNode;
+import parser.deserializer.ObjectDeserializer;
+import util.JSONException;
+
+import java.io.File;
+import java.lang.reflect.Type;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes value types such as {@link UUID}, {@link URI} or {@link Locale} as their string form. Also
+ * writes {@link Class} as its name, and a {@link JSONNode} as its original bytes.
+ */
+public class MiscCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public final static MiscCodec instance = new MiscCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        if (object instanceof Class) {
+            out.writeString(((Class<?>) object).getName());
+            return;
+        }
+
+        if (object instanceof JSONNode) {
+            ((JSONNode) object).writeTo(out);
+            return;
+        }
+
+        out.writeString(object.toString());
+    }
+
+    /**
+     * Reads the value types from their string form. {@link Class} is not read, a class name in the input must not
+     * load arbitrary classes.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        Object parsed = parser.parse(fieldName);
+        if (parsed == null) {
+            return null;
+        }
+
+        String strVal = parsed.toString();
+        if (clazz == UUID.class) {
+            return strVal.length() == 0 ? null : (T) UUID.fromString(strVal);
+        }
+
+        if (clazz == URI.class) {
+            return (T) URI.create(strVal);
+        }
+
+        if (clazz == URL.class) {
+            try {
+                return (T) new URL(strVal);
+            } catch (MalformedURLException e) {
+                throw new JSONException("create url error", e);
+            }
+        }
+
+        if (clazz == Locale.class) {
+            String[] items = strVal.split("_");
+            if (items.length == 1) {
+                return (T) new Locale(items[0]);
+            }
+            if (items.length == 2) {
+                return (T) new Locale(items[0], items[1]);
+            }
+            return (T) new Locale(items[0], items[1], items[2]);
+        }
+
+        if (clazz == Currency.class) {
+            return (T) Currency.getInstance(strVal);
+        }
+
+        if (clazz == Pattern.class) {
+            return (T) Pattern.compile(strVal);
+        }
+
+        if (clazz == File.class) {
+            return (T) new File(strVal);
+        }
+
+        if (clazz == Charset.class) {
+            return (T) Charset.forName(strVal);
+        }
+
+        throw new JSONException("not support type : " + clazz);
+    }
+}
@@ -0,0 +1,13 @@
+package serializer;
+
+/**
+ * Renames a property of a bean as it is written.
+ */
+public interface NameFilter extends SerializeFilter {
+
+    /**
+     * Returns the name to write for the property <code>name</code> of <code>object</code>, whose value is
+     * <code>value</code>.
+     */
+    String process(Object object, String name, Object value);
+}
@@ -0,0 +1,78 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONToken;
+import parser.deserializer.ObjectDeserializer;
+import util.TypeUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ObjectArrayCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public static final ObjectArrayCodec instance = new ObjectArrayCodec();
+
+    public final void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        Object[] array = (Object[]) object;
+        Class<?> componentType = array.getClass().getComponentType();
+
+        out.write('[');
+        Class<?> preClazz = null;
+        ObjectSerializer preWriter = null;
+        for (int i = 0; i < array.length; ++i) {
+            if (i != 0) {
+                out.write(',');
+            }
+
+            Object item = array[i];
+            if (item == null) {
+                out.writeNull();
+                continue;
+            }
+
+            Class<?> clazz = item.getClass();
+            if (clazz != preClazz) {
+                preClazz = clazz;
+                preWriter = serializer.getObjectWriter(clazz);
+            }
+            preWriter.write(serializer, item, i, componentType, features);
+        }
+        out.write(']');
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        if (parser.lexer.token() == JSONToken.NULL) {
+            parser.lexer.nextToken();
+            return null;
+        }
+
+        Type componentType = type instanceof GenericArrayType
+                ? ((GenericArrayType) type).getGenericComponentType()
+                : ((Class<?>) type).getComponentType();
+        Class<?> componentClass = TypeUtils.getClass(componentType);
+
+        List<Object> list = new ArrayList<Object>();
+        parser.parseArray(componentType, list, fieldName);
+
+        Object array = Array.newInstance(componentClass, list.size());
+        for (int i = 0; i < list.size(); ++i) {
+            Object item = list.get(i);
+            if (item == null && componentClass.isPrimitive()) {
+                continue;
+            }
+            Array.set(array, i, item);
+        }
+        return (T) array;
+    }
+}
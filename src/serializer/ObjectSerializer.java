@@ -0,0 +1,21 @@
+package serializer;
+
+import java.lang.reflect.Type;
+
+/**
+ * Interface representing a custom serializer for JSON. It is also implemented by the serializers generated by
+ * {@link ASMSerializerFactory}.
+ */
+public interface ObjectSerializer {
+
+    /**
+     * Writes <code>object</code> to the output of <code>serializer</code>.
+     *
+     * @param serializer the serializer whose {@link JSONSerializer#out} receives the JSON text
+     * @param object     the value to write, may be null
+     * @param fieldName  the name of the property or the index of the element holding the value, null at the root
+     * @param fieldType  the declared type of the property holding the value, null at the root
+     * @param features   the {@link SerializerFeature} mask of the property holding the value
+     */
+    void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features);
+}
@@ -0,0 +1,105 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.deserializer.ObjectDeserializer;
+import util.JSONException;
+
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes arrays of primitives element by element, without boxing. <code>byte[]</code> is written as a
+ * base64 string and read from one or from an array of numbers, <code>char[]</code> is written as a string. The
+ * arrays of numbers are read by the lexer into primitive buffers, see {@link JSONLexer#intArrayValue()}.
+ */
+public class PrimitiveArrayCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public static PrimitiveArrayCodec instance = new PrimitiveArrayCodec();
+
+    public final void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        SerializeWriter out = serializer.out;
+
+        if (object == null) {
+            out.writeNull();
+            return;
+        }
+
+        if (object instanceof int[]) {
+            out.writeIntArray((int[]) object);
+        } else if (object instanceof long[]) {
+            out.writeLongArray((long[]) object);
+        } else if (object instanceof double[]) {
+            out.writeDoubleArray((double[]) object);
+        } else if (object instanceof float[]) {
+            out.writeFloatArray((float[]) object);
+        } else if (object instanceof byte[]) {
+            out.writeByteArray((byte[]) object);
+        } else if (object instanceof char[]) {
+            out.writeString(new String((char[]) object));
+        } else if (object instanceof short[]) {
+            short[] array = (short[]) object;
+            out.write('[');
+            for (int i = 0; i < array.length; ++i) {
+                if (i != 0) {
+                    out.write(',');
+                }
+                out.writeInt(array[i]);
+            }
+            out.write(']');
+        } else {
+            boolean[] array = (boolean[]) object;
+            out.write('[');
+            for (int i = 0; i < array.length; ++i) {
+                if (i != 0) {
+                    out.write(',');
+                }
+                out.writeBoolean(array[i]);
+            }
+            out.write(']');
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+
+        if (type == int[].class) {
+            return (T) lexer.intArrayValue();
+        }
+        if (type == long[].class) {
+            return (T) lexer.longArrayValue();
+        }
+        if (type == double[].class) {
+            return (T) lexer.doubleArrayValue();
+        }
+        if (type == float[].class) {
+            return (T) lexer.floatArrayValue();
+        }
+        if (type == byte[].class) {
+            return (T) lexer.bytesValue();
+        }
+
+        if (type == short[].class) {
+            int[] ints = lexer.intArrayValue();
+            if (ints == null) {
+                return null;
+            }
+            short[] array = new short[ints.length];
+            for (int i = 0; i < ints.length; ++i) {
+                if (ints[i] < Short.MIN_VALUE || ints[i] > Short.MAX_VALUE) {
+                    throw new JSONException("short overflow, value " + ints[i]);
+                }
+                array[i] = (short) ints[i];
+            }
+            return (T) array;
+        }
+
+        if (type == char[].class && lexer.token() != JSONToken.LBRACKET) {
+            String text = parser.parseObject(String.class, fieldName);
+            return text == null ? null : (T) text.toCharArray();
+        }
+
+        return ObjectArrayCodec.instance.deserialze(parser, type, fieldName);
+    }
+}
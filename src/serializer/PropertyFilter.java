@@ -0,0 +1,12 @@
+package serializer;
+
+/**
+ * Decides whether a property of a bean is written.
+ */
+public interface PropertyFilter extends SerializeFilter {
+
+    /**
+     * Returns false to skip the property <code>name</code> of <code>object</code>, whose value is <code>value</code>.
+     */
+    boolean apply(Object object, String name, Object value);
+}
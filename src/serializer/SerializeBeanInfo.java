@@ -0,0 +1,65 @@
+package serializer;
+
+import annotation.JSONType;
+import util.FieldInfo;
+import util.JSONException;
+
+/**
+ * The serialization view of a java bean: its readable properties in output order and its {@link JSONType} settings.
+ */
+public class SerializeBeanInfo {
+
+    protected final Class<?> beanType;
+    protected final String typeName;
+    protected final String typeKey;
+    protected final JSONType jsonType;
+
+    protected final FieldInfo[] fields;
+
+    protected int features;
+
+    /**
+     * The version of the schema of the bean written as an array, from {@link JSONType#version()}.
+     */
+    protected final int version;
+
+    /**
+     * The instances of {@link JSONType#serializeFilters()}, or null when there are none.
+     */
+    protected final SerializeFilter[] filters;
+
+    public SerializeBeanInfo(Class<?> beanType, JSONType jsonType, String typeName, String typeKey, int features, FieldInfo[] fields) {
+        this.beanType = beanType;
+        this.jsonType = jsonType;
+        this.typeName = typeName;
+        this.typeKey = typeKey;
+        this.features = features;
+        this.fields = fields;
+        this.version = jsonType == null ? 0 : jsonType.version();
+        this.filters = jsonType == null ? null : createFilters(jsonType.serializeFilters());
+    }
+
+    private static SerializeFilter[] createFilters(Class<? extends SerializeFilter>[] filterClasses) {
+        if (filterClasses.length == 0) {
+            return null;
+        }
+
+        SerializeFilter[] filters = new SerializeFilter[filterClasses.length];
+        for (int i = 0; i < filterClasses.length; ++i) {
+            try {
+                filters[i] = filterClasses[i].newInstance();
+            } catch (Exception e) {
+                throw new JSONException("create filter error, class " + filterClasses[i].getName(), e);
+            }
+        }
+        return filters;
+    }
+
+    public Class<?> getBeanType() {
+        return beanType;
+    }
+
+    public FieldInfo[] getFields() {
+        return fields;
+    }
+}
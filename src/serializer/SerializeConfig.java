@@ -0,0 +1,261 @@
+package serializer;
+
+import annotation.JSONType;
+import parser.JSONNode;
+import util.ASMUtils;
+import util.CodecCache;
+import util.IdentityHashMap;
+import util.TypeUtils;
+
+import java.io.File;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Maps types to their {@link ObjectSerializer}. Java beans get a serializer generated by
+ * {@link ASMSerializerFactory} unless asm is disabled globally, for the bean with
+ * <code>@JSONType(asm = false)</code>, or the bean cannot be accessed from generated code; in that case the
+ * reflection based {@link JavaBeanSerializer} is used. A type annotated with {@link JSONType#serializer()} is
+ * written by that serializer, created once.
+ */
+public class SerializeConfig {
+
+    public final static SerializeConfig globalInstance = new SerializeConfig();
+
+    private boolean asm = !ASMUtils.IS_ANDROID;
+    private ASMSerializerFactory asmFactory;
+
+    private final IdentityHashMap<Type, ObjectSerializer> serializers;
+
+    /**
+     * The bean serializers, created once per class even when many threads ask for a class at the same time. The
+     * generated code checks the serializer features at runtime, so they are not part of the key.
+     */
+    private final CodecCache<ObjectSerializer> beanSerializers = new CodecCache<ObjectSerializer>();
+
+    private final CodecCache.Generator<ObjectSerializer> beanSerializerGenerator = new CodecCache.Generator<ObjectSerializer>() {
+
+        public ObjectSerializer generate(Type type, int features) {
+            return createJavaBeanSerializer((Class<?>) type);
+        }
+    };
+
+    public static SerializeConfig getGlobalInstance() {
+        return globalInstance;
+    }
+
+    public SerializeConfig() {
+        this(IdentityHashMap.DEFAULT_SIZE);
+    }
+
+    public SerializeConfig(int tableSize) {
+        serializers = new IdentityHashMap<Type, ObjectSerializer>(tableSize);
+
+        if (asm) {
+            asmFactory = new ASMSerializerFactory();
+        }
+
+        put(Boolean.class, BooleanCodec.instance);
+        put(Character.class, CharacterCodec.instance);
+        put(Byte.class, IntegerCodec.instance);
+        put(Short.class, IntegerCodec.instance);
+        put(Integer.class, IntegerCodec.instance);
+        put(Long.class, LongCodec.instance);
+        put(Float.class, FloatCodec.instance);
+        put(Double.class, DoubleSerializer.instance);
+        put(BigDecimal.class, BigDecimalCodec.instance);
+        put(BigInteger.class, BigDecimalCodec.instance);
+        put(String.class, StringCodec.instance);
+        put(StringBuffer.class, StringCodec.instance);
+        put(StringBuilder.class, StringCodec.instance);
+
+        put(byte[].class, PrimitiveArrayCodec.instance);
+        put(short[].class, PrimitiveArrayCodec.instance);
+        put(int[].class, PrimitiveArrayCodec.instance);
+        put(long[].class, PrimitiveArrayCodec.instance);
+        put(float[].class, PrimitiveArrayCodec.instance);
+        put(double[].class, PrimitiveArrayCodec.instance);
+        put(boolean[].class, PrimitiveArrayCodec.instance);
+        put(char[].class, PrimitiveArrayCodec.instance);
+        put(Object[].class, ObjectArrayCodec.instance);
+
+        put(AtomicBoolean.class, BooleanCodec.instance);
+        put(AtomicInteger.class, IntegerCodec.instance);
+        put(AtomicLong.class, LongCodec.instance);
+
+        put(Class.class, MiscCodec.instance);
+        put(UUID.class, MiscCodec.instance);
+        put(URI.class, MiscCodec.instance);
+        put(URL.class, MiscCodec.instance);
+        put(Locale.class, MiscCodec.instance);
+        put(Currency.class, MiscCodec.instance);
+        put(Pattern.class, MiscCodec.instance);
+        put(File.class, MiscCodec.instance);
+        put(JSONNode.class, MiscCodec.instance);
+    }
+
+    public boolean isAsmEnable() {
+        return asm;
+    }
+
+    public void setAsmEnable(boolean asmEnable) {
+        if (ASMUtils.IS_ANDROID) {
+            return;
+        }
+        this.asm = asmEnable;
+        if (asmEnable && asmFactory == null) {
+            asmFactory = new ASMSerializerFactory();
+        }
+    }
+
+    public boolean put(Type type, ObjectSerializer value) {
+        return this.serializers.put(type, value);
+    }
+
+    public ObjectSerializer get(Type type) {
+        return this.serializers.get(type);
+    }
+
+    public final ObjectSerializer createJavaBeanSerializer(Class<?> clazz) {
+        SerializeBeanInfo beanInfo = TypeUtils.buildBeanInfo(clazz);
+        return createJavaBeanSerializer(beanInfo);
+    }
+
+    public ObjectSerializer createJavaBeanSerializer(SerializeBeanInfo beanInfo) {
+        JSONType jsonType = beanInfo.jsonType;
+
+        boolean asm = this.asm;
+        if (jsonType != null && !jsonType.asm()) {
+            asm = false;
+        }
+
+        if (asm && !asmFactory.isSupported(beanInfo)) {
+            asm = false;
+        }
+
+        if (asm) {
+            try {
+                return asmFactory.createJavaBeanSerializer(beanInfo);
+            } catch (Exception e) {
+                // fall back to reflection
+            } catch (LinkageError e) {
+                // fall back to reflection, e.g. the generated class failed verification
+            }
+        }
+
+        return new JavaBeanSerializer(beanInfo);
+    }
+
+    /**
+     * Builds the serializer of the class ahead of its first use, and, transitively, those of the declared classes of
+     * its properties, of the elements of its collections and arrays and of the values of its maps, so that the first
+     * value written does not generate them. Interfaces and abstract classes are skipped: a value is written by the
+     * serializer of its runtime class.
+     */
+    public void warmup(Class<?> clazz) {
+        warmup(clazz, new HashSet<Type>());
+    }
+
+    private void warmup(Type type, Set<Type> visited) {
+        if (!visited.add(type)) {
+            return;
+        }
+
+        Type itemType = null;
+        Class<?> clazz = null;
+        if (type instanceof GenericArrayType) {
+            itemType = ((GenericArrayType) type).getGenericComponentType();
+        } else if (type instanceof Class<?> || type instanceof ParameterizedType) {
+            clazz = TypeUtils.getClass(type);
+            if (clazz.isArray()) {
+                itemType = clazz.getComponentType();
+            } else if (Collection.class.isAssignableFrom(clazz)) {
+                itemType = TypeUtils.getCollectionItemType(type);
+            } else if (Map.class.isAssignableFrom(clazz) && type instanceof ParameterizedType) {
+                itemType = ((ParameterizedType) type).getActualTypeArguments()[1];
+            }
+        }
+        if (itemType != null) {
+            warmup(itemType, visited);
+        }
+
+        if (clazz == null || clazz.isPrimitive() || clazz == Object.class || clazz.isInterface()
+                || (Modifier.isAbstract(clazz.getModifiers()) && !clazz.isArray())) {
+            return;
+        }
+
+        ObjectSerializer writer = getObjectWriter(clazz);
+        if (writer instanceof JavaBeanSerializer) {
+            for (FieldSerializer getter : ((JavaBeanSerializer) writer).getters) {
+                if (getter.customSerializer == null) {
+                    warmup(getter.fieldInfo.fieldType, visited);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the classes whose bean serializers have been built, in no particular order.
+     */
+    public Set<Class<?>> getResolvedClasses() {
+        Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        for (Type type : beanSerializers.getTypes()) {
+            classes.add((Class<?>) type);
+        }
+        return classes;
+    }
+
+    public ObjectSerializer getObjectWriter(Class<?> clazz) {
+        ObjectSerializer writer = serializers.get(clazz);
+        if (writer != null) {
+            return writer;
+        }
+
+        JSONType jsonType = clazz.getAnnotation(JSONType.class);
+        if (jsonType != null && jsonType.serializer() != Void.class) {
+            writer = TypeUtils.getCodec(jsonType.serializer(), ObjectSerializer.class);
+        } else if (Map.class.isAssignableFrom(clazz)) {
+            writer = MapSerializer.instance;
+        } else if (Collection.class.isAssignableFrom(clazz)) {
+            writer = CollectionCodec.instance;
+        } else if (Date.class.isAssignableFrom(clazz) || Calendar.class.isAssignableFrom(clazz)) {
+            writer = DateCodec.instance;
+        } else if (clazz.isEnum() || (clazz.getSuperclass() != null && clazz.getSuperclass().isEnum())) {
+            writer = EnumSerializer.instance;
+        } else if (clazz.isArray()) {
+            writer = clazz.getComponentType().isPrimitive()
+                    ? PrimitiveArrayCodec.instance
+                    : ObjectArrayCodec.instance;
+        } else if (CharSequence.class.isAssignableFrom(clazz)) {
+            writer = StringCodec.instance;
+        } else if (Charset.class.isAssignableFrom(clazz)) {
+            writer = MiscCodec.instance;
+        } else {
+            writer = beanSerializers.get(clazz, 0, beanSerializerGenerator);
+        }
+
+        put(clazz, writer);
+        return writer;
+    }
+}
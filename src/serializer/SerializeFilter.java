@@ -0,0 +1,11 @@
+package serializer;
+
+/**
+ * Marker interface for filters applied while a bean is serialized: {@link PropertyFilter}, {@link ValueFilter} and
+ * {@link NameFilter}, in that order. The filters of a bean, {@link annotation.JSONType#serializeFilters()}, are
+ * called for each property on each write, through {@link JavaBeanSerializer#writeProperty}, which generated
+ * serializers call too; what does not depend on the values, like {@link annotation.JSONType#naming()} or
+ * {@link annotation.JSONType#ignores()}, is settled once when the serializer is created.
+ */
+public interface SerializeFilter {
+}
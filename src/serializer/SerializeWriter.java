@@ -0,0 +1,728 @@
+package serializer;
+
+import util.BufferPool;
+import util.IOUtils;
+import util.JSONException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A growable buffer of UTF-8 encoded JSON text, in the style of {@link asm.ByteVector}: every value is encoded
+ * straight into the byte array, strings are escaped with a lookup table and numbers are formatted without
+ * allocating. The buffer comes from the {@link BufferPool}; {@link #close()} gives it back, so a writer must not
+ * be used once closed.
+ * <p>
+ * A writer created over an {@link OutputStream}, a {@link WritableByteChannel} or a {@link ByteBuffer} does not
+ * grow: whenever the buffer is full its content is flushed to the target, so a document of any size is written with
+ * one buffer of memory. Call {@link #flush()} once the value is written. {@link IOException}s are rethrown as
+ * {@link JSONException}s.
+ */
+public final class SerializeWriter implements Closeable {
+
+    private final static Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Escape of each ASCII character in a string: 0 when written as is, <code>'u'</code> when written as a backslash,
+     * <code>u</code> and four hex digits, else the character written after the backslash.
+     */
+    private final static byte[] ESCAPES = new byte[128];
+
+    private final static byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    /**
+     * The two digits of every number below 100, as in {@link Integer#toString(int)}.
+     */
+    private final static byte[] DIGIT_TENS = new byte[100];
+    private final static byte[] DIGIT_ONES = new byte[100];
+
+    /**
+     * Number of chars of a string encoded between two capacity checks.
+     */
+    private final static int STRING_CHUNK = 512;
+
+    private final static byte[] MIN_INT = "-2147483648".getBytes(UTF8);
+    private final static byte[] MIN_LONG = "-9223372036854775808".getBytes(UTF8);
+
+    static {
+        for (int i = 0; i < 0x20; ++i) {
+            ESCAPES[i] = 'u';
+        }
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\r'] = 'r';
+        ESCAPES['\t'] = 't';
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+
+        for (int i = 0; i < 100; ++i) {
+            DIGIT_TENS[i] = (byte) ('0' + i / 10);
+            DIGIT_ONES[i] = (byte) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * The content of this writer.
+     */
+    protected byte[] buf;
+
+    /**
+     * Actual number of bytes in this writer.
+     */
+    protected int count;
+
+    protected int features;
+
+    private final OutputStream os;
+    private final WritableByteChannel channel;
+    private final ByteBuffer target;
+
+    /**
+     * Number of bytes flushed to the target so far.
+     */
+    private long flushed;
+
+    public SerializeWriter() {
+        this(0);
+    }
+
+    public SerializeWriter(SerializerFeature... features) {
+        this(SerializerFeature.of(features));
+    }
+
+    public SerializeWriter(int features) {
+        this(null, null, null, features);
+    }
+
+    public SerializeWriter(OutputStream os, int features) {
+        this(os, null, null, features);
+    }
+
+    public SerializeWriter(WritableByteChannel channel, int features) {
+        this(null, channel, null, features);
+    }
+
+    /**
+     * Creates a writer which puts its output into a heap or direct buffer, from its position on; a document which
+     * does not fit the remaining space fails with a {@link JSONException}.
+     */
+    public SerializeWriter(ByteBuffer target, int features) {
+        this(null, null, target, features);
+    }
+
+    private SerializeWriter(OutputStream os, WritableByteChannel channel, ByteBuffer target, int features) {
+        this.os = os;
+        this.channel = channel;
+        this.target = target;
+        this.features = features;
+        buf = BufferPool.acquireBytes();
+    }
+
+    public int getFeatures() {
+        return features;
+    }
+
+    public void config(SerializerFeature feature, boolean state) {
+        features = SerializerFeature.config(features, feature, state);
+    }
+
+    public boolean isEnabled(SerializerFeature feature) {
+        return (this.features & feature.mask) != 0;
+    }
+
+    public boolean isEnabled(int feature) {
+        return (this.features & feature) != 0;
+    }
+
+    /**
+     * Writes a single ASCII character.
+     */
+    public void write(int c) {
+        if (count + 1 > buf.length) {
+            enlarge(1);
+        }
+        buf[count++] = (byte) c;
+    }
+
+    public void write(byte[] bytes, int off, int len) {
+        if (count + len > buf.length) {
+            if (isFlushing() && len > buf.length) {
+                // too large to buffer, bypass it
+                flush();
+                flushTo(bytes, off, len);
+                return;
+            }
+            enlarge(len);
+        }
+        System.arraycopy(bytes, off, buf, count, len);
+        count += len;
+    }
+
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes the separator (<code>'{'</code> or <code>','</code>) followed by a pre-encoded property name, i.e. the
+     * quoted name and the colon.
+     */
+    public void writeFieldName(int seperator, byte[] nameBytes) {
+        int len = nameBytes.length;
+        if (this.count + len + 1 > buf.length) {
+            enlarge(len + 1);
+        }
+        final int count = this.count;
+        final byte[] buf = this.buf;
+        buf[count] = (byte) seperator;
+        System.arraycopy(nameBytes, 0, buf, count + 1, len);
+        this.count = count + len + 1;
+    }
+
+    public void writeNull() {
+        if (this.count + 4 > buf.length) {
+            enlarge(4);
+        }
+        final int count = this.count;
+        final byte[] buf = this.buf;
+        buf[count] = 'n';
+        buf[count + 1] = 'u';
+        buf[count + 2] = 'l';
+        buf[count + 3] = 'l';
+        this.count = count + 4;
+    }
+
+    public void writeBoolean(boolean value) {
+        if (this.count + 5 > buf.length) {
+            enlarge(5);
+        }
+        final int count = this.count;
+        final byte[] buf = this.buf;
+        if (value) {
+            buf[count] = 't';
+            buf[count + 1] = 'r';
+            buf[count + 2] = 'u';
+            buf[count + 3] = 'e';
+            this.count = count + 4;
+        } else {
+            buf[count] = 'f';
+            buf[count + 1] = 'a';
+            buf[count + 2] = 'l';
+            buf[count + 3] = 's';
+            buf[count + 4] = 'e';
+            this.count = count + 5;
+        }
+    }
+
+    public void writeInt(int i) {
+        if (i == Integer.MIN_VALUE) {
+            write(MIN_INT);
+            return;
+        }
+
+        int size = (i < 0) ? stringSize(-i) + 1 : stringSize(i);
+        if (count + size > buf.length) {
+            enlarge(size);
+        }
+        count += size;
+        getChars(i, count, buf);
+    }
+
+    public void writeLong(long i) {
+        if (i == Long.MIN_VALUE) {
+            write(MIN_LONG);
+            return;
+        }
+
+        int size = (i < 0) ? stringSize(-i) + 1 : stringSize(i);
+        if (count + size > buf.length) {
+            enlarge(size);
+        }
+        count += size;
+        getChars(i, count, buf);
+    }
+
+    /**
+     * Writes the shortest decimal which reads back as the same float, see {@link DoubleToDecimal}. NaN and the
+     * infinities are written as <code>null</code>.
+     */
+    public void writeFloat(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeNull();
+            return;
+        }
+
+        if (count + DoubleToDecimal.MAX_CHARS > buf.length) {
+            enlarge(DoubleToDecimal.MAX_CHARS);
+        }
+        count = DoubleToDecimal.write(buf, count, value);
+    }
+
+    /**
+     * Writes the shortest decimal which reads back as the same double, see {@link DoubleToDecimal}. NaN and the
+     * infinities are written as <code>null</code>.
+     */
+    public void writeDouble(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeNull();
+            return;
+        }
+
+        if (count + DoubleToDecimal.MAX_CHARS > buf.length) {
+            enlarge(DoubleToDecimal.MAX_CHARS);
+        }
+        count = DoubleToDecimal.write(buf, count, value);
+    }
+
+    public void writeIntArray(int[] array) {
+        if (array == null) {
+            writeNull();
+            return;
+        }
+
+        write('[');
+        for (int i = 0; i < array.length; ++i) {
+            if (i != 0) {
+                write(',');
+            }
+            writeInt(array[i]);
+        }
+        write(']');
+    }
+
+    public void writeLongArray(long[] array) {
+        if (array == null) {
+            writeNull();
+            return;
+        }
+
+        write('[');
+        for (int i = 0; i < array.length; ++i) {
+            if (i != 0) {
+                write(',');
+            }
+            writeLong(array[i]);
+        }
+        write(']');
+    }
+
+    public void writeFloatArray(float[] array) {
+        if (array == null) {
+            writeNull();
+            return;
+        }
+
+        write('[');
+        for (int i = 0; i < array.length; ++i) {
+            if (i != 0) {
+                write(',');
+            }
+            writeFloat(array[i]);
+        }
+        write(']');
+    }
+
+    public void writeDoubleArray(double[] array) {
+        if (array == null) {
+            writeNull();
+            return;
+        }
+
+        write('[');
+        for (int i = 0; i < array.length; ++i) {
+            if (i != 0) {
+                write(',');
+            }
+            writeDouble(array[i]);
+        }
+        write(']');
+    }
+
+    /**
+     * Writes the bytes as a base64 string, see {@link IOUtils#CA}. They are encoded in chunks, so that a flushing
+     * writer does not grow its buffer to the size of the whole array.
+     */
+    public void writeByteArray(byte[] bytes) {
+        if (bytes == null) {
+            writeNull();
+            return;
+        }
+
+        final byte[] ca = IOUtils.CA;
+        final int len = bytes.length;
+        final int whole = len - len % 3;
+
+        write('"');
+        int i = 0;
+        while (i < whole) {
+            int chunk = Math.min(whole - i, 3 * 1024);
+            int count = reserve(chunk / 3 * 4);
+            final byte[] buf = this.buf;
+            for (int end = i + chunk; i < end; i += 3) {
+                int bits = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+                buf[count] = ca[bits >>> 18];
+                buf[count + 1] = ca[(bits >>> 12) & 0x3F];
+                buf[count + 2] = ca[(bits >>> 6) & 0x3F];
+                buf[count + 3] = ca[bits & 0x3F];
+                count += 4;
+            }
+            this.count = count;
+        }
+
+        if (whole < len) {
+            int count = reserve(4);
+            int bits = (bytes[whole] & 0xFF) << 16;
+            if (whole + 1 < len) {
+                bits |= (bytes[whole + 1] & 0xFF) << 8;
+            }
+            buf[count] = ca[bits >>> 18];
+            buf[count + 1] = ca[(bits >>> 12) & 0x3F];
+            buf[count + 2] = whole + 1 < len ? ca[(bits >>> 6) & 0x3F] : (byte) '=';
+            buf[count + 3] = '=';
+            this.count = count + 4;
+        }
+        write('"');
+    }
+
+    public void writeChar(char c) {
+        if (this.count + 8 > buf.length) {
+            enlarge(8);
+        }
+        int count = this.count;
+        final byte[] buf = this.buf;
+        buf[count++] = '"';
+        count = putChar(buf, count, c);
+        buf[count++] = '"';
+        this.count = count;
+    }
+
+    /**
+     * Writes a string of ASCII characters which do not need escaping, such as a number.
+     */
+    void writeAscii(String text) {
+        int len = text.length();
+        if (this.count + len > buf.length) {
+            enlarge(len);
+        }
+        int count = this.count;
+        final byte[] buf = this.buf;
+        for (int i = 0; i < len; ++i) {
+            buf[count++] = (byte) text.charAt(i);
+        }
+        this.count = count;
+    }
+
+    /**
+     * Writes a quoted and escaped string, or <code>null</code>.
+     */
+    public void writeString(String text) {
+        if (text == null) {
+            writeNull();
+            return;
+        }
+
+        write('"');
+        final byte[] escapes = ESCAPES;
+        final int len = text.length();
+        for (int i = 0; i < len; ) {
+            // a char takes at most 6 bytes, as an escape, and a surrogate pair 4; room is reserved chunk by chunk
+            // so that a long string does not grow the buffer of a flushing writer
+            int end = Math.min(len, i + STRING_CHUNK);
+            if (this.count + (end - i) * 6 > buf.length) {
+                enlarge((end - i) * 6);
+            }
+            final byte[] buf = this.buf;
+            int count = this.count;
+            for (; i < end; ++i) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    if (escapes[c] == 0) {
+                        buf[count++] = (byte) c;
+                    } else {
+                        count = putEscaped(buf, count, c);
+                    }
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, text.charAt(++i));
+                    buf[count++] = (byte) (0xf0 | (cp >> 18));
+                    buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    buf[count++] = (byte) (0x80 | (cp & 0x3f));
+                } else {
+                    count = putChar(buf, count, c);
+                }
+            }
+            this.count = count;
+        }
+        write('"');
+    }
+
+    /**
+     * Writes JSON text as it is, UTF-8 encoded, neither quoted nor escaped. The text must be valid JSON.
+     */
+    public void writeRaw(String json) {
+        final int len = json.length();
+        for (int i = 0; i < len; ) {
+            // 3 bytes a char at most, a surrogate pair taking 4 for 2 chars
+            int end = Math.min(len, i + STRING_CHUNK);
+            if (this.count + (end - i + 1) * 3 > buf.length) {
+                enlarge((end - i + 1) * 3);
+            }
+            final byte[] buf = this.buf;
+            int count = this.count;
+            for (; i < end; ++i) {
+                char c = json.charAt(i);
+                if (c < 0x80) {
+                    buf[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    buf[count++] = (byte) (0xc0 | (c >> 6));
+                    buf[count++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(json.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, json.charAt(++i));
+                    buf[count++] = (byte) (0xf0 | (cp >> 18));
+                    buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    buf[count++] = (byte) (0x80 | (cp & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogate, not representable in UTF-8
+                    buf[count++] = '?';
+                } else {
+                    buf[count++] = (byte) (0xe0 | (c >> 12));
+                    buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buf[count++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            this.count = count;
+        }
+    }
+
+    /**
+     * Encodes a char which is not part of a surrogate pair; the buffer must have room for 6 bytes.
+     */
+    private static int putChar(byte[] buf, int count, char c) {
+        if (c < 0x80) {
+            if (ESCAPES[c] != 0) {
+                return putEscaped(buf, count, c);
+            }
+            buf[count++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[count++] = (byte) (0xc0 | (c >> 6));
+            buf[count++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isSurrogate(c)) {
+            // unpaired surrogate, not representable in UTF-8
+            count = putEscaped(buf, count, c);
+        } else {
+            buf[count++] = (byte) (0xe0 | (c >> 12));
+            buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            buf[count++] = (byte) (0x80 | (c & 0x3f));
+        }
+        return count;
+    }
+
+    private static int putEscaped(byte[] buf, int count, char c) {
+        buf[count++] = '\\';
+        byte escape = c < 0x80 ? ESCAPES[c] : (byte) 'u';
+        buf[count++] = escape;
+        if (escape == 'u') {
+            buf[count++] = HEX_DIGITS[(c >> 12) & 0xf];
+            buf[count++] = HEX_DIGITS[(c >> 8) & 0xf];
+            buf[count++] = HEX_DIGITS[(c >> 4) & 0xf];
+            buf[count++] = HEX_DIGITS[c & 0xf];
+        }
+        return count;
+    }
+
+    /**
+     * Places the digits of <code>i</code> backwards, ending at <code>index</code>.
+     * <code>i</code> must not be {@link Integer#MIN_VALUE}.
+     */
+    static void getChars(int i, int index, byte[] buf) {
+        int q, r;
+        int charPos = index;
+        boolean negative = i < 0;
+        if (negative) {
+            i = -i;
+        }
+
+        // two digits per iteration
+        while (i >= 100) {
+            q = i / 100;
+            r = i - q * 100;
+            i = q;
+            buf[--charPos] = DIGIT_ONES[r];
+            buf[--charPos] = DIGIT_TENS[r];
+        }
+
+        if (i >= 10) {
+            buf[--charPos] = DIGIT_ONES[i];
+            buf[--charPos] = DIGIT_TENS[i];
+        } else {
+            buf[--charPos] = (byte) ('0' + i);
+        }
+
+        if (negative) {
+            buf[--charPos] = '-';
+        }
+    }
+
+    /**
+     * Places the digits of <code>i</code> backwards, ending at <code>index</code>.
+     * <code>i</code> must not be {@link Long#MIN_VALUE}.
+     */
+    static void getChars(long i, int index, byte[] buf) {
+        long q;
+        int r;
+        int charPos = index;
+        boolean negative = i < 0;
+        if (negative) {
+            i = -i;
+        }
+
+        // two digits per iteration while the value does not fit an int
+        while (i > Integer.MAX_VALUE) {
+            q = i / 100;
+            r = (int) (i - q * 100);
+            i = q;
+            buf[--charPos] = DIGIT_ONES[r];
+            buf[--charPos] = DIGIT_TENS[r];
+        }
+
+        getChars((int) i, charPos, buf);
+
+        if (negative) {
+            buf[charPos - stringSize((int) i) - 1] = '-';
+        }
+    }
+
+    /**
+     * Puts the two digits of a number below 100.
+     */
+    static void putDigits(byte[] buf, int index, int value) {
+        buf[index] = DIGIT_TENS[value];
+        buf[index + 1] = DIGIT_ONES[value];
+    }
+
+    static int stringSize(int x) {
+        int p = 10;
+        for (int i = 1; i < 10; i++) {
+            if (x < p) {
+                return i;
+            }
+            p = 10 * p;
+        }
+        return 10;
+    }
+
+    static int stringSize(long x) {
+        long p = 10;
+        for (int i = 1; i < 19; i++) {
+            if (x < p) {
+                return i;
+            }
+            p = 10 * p;
+        }
+        return 19;
+    }
+
+    /**
+     * Enlarges the buffer so that it can receive <code>size</code> more bytes. A flushing writer flushes it first,
+     * and only grows it for a single value larger than the whole buffer.
+     */
+    private void enlarge(final int size) {
+        if (isFlushing()) {
+            flush();
+            if (size <= buf.length) {
+                return;
+            }
+        }
+        final int length1 = 2 * buf.length;
+        final int length2 = count + size;
+        buf = Arrays.copyOf(buf, length1 > length2 ? length1 : length2);
+    }
+
+    /**
+     * Makes room for <code>size</code> more bytes and returns the count, for the {@link FieldFormat}s which put
+     * their output straight into the buffer and then set the count.
+     */
+    int reserve(int size) {
+        if (count + size > buf.length) {
+            enlarge(size);
+        }
+        return count;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes written so far, flushed or not.
+     */
+    public long length() {
+        return flushed + count;
+    }
+
+    private boolean isFlushing() {
+        return os != null || channel != null || target != null;
+    }
+
+    /**
+     * Writes the buffered bytes to the target of this writer, if any, and empties the buffer.
+     */
+    public void flush() {
+        if (!isFlushing() || count == 0) {
+            return;
+        }
+        flushTo(buf, 0, count);
+        count = 0;
+    }
+
+    private void flushTo(byte[] bytes, int off, int len) {
+        try {
+            if (os != null) {
+                os.write(bytes, off, len);
+            } else if (channel != null) {
+                ByteBuffer src = ByteBuffer.wrap(bytes, off, len);
+                while (src.hasRemaining()) {
+                    channel.write(src);
+                }
+            } else {
+                target.put(bytes, off, len);
+            }
+        } catch (IOException e) {
+            throw new JSONException("write error", e);
+        } catch (BufferOverflowException e) {
+            throw new JSONException("write error, buffer overflow, remaining " + target.remaining(), e);
+        }
+        flushed += len;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    public byte[] toBytes() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    public String toString() {
+        return new String(buf, 0, count, UTF8);
+    }
+
+    /**
+     * Returns the buffer to the pool.
+     */
+    public void close() {
+        byte[] buf = this.buf;
+        if (buf != null) {
+            this.buf = null;
+            count = 0;
+            BufferPool.releaseBytes(buf);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package serializer;
+
+public enum SerializerFeature {
+    /**
+     * Write properties whose value is null instead of skipping them.
+     */
+    WriteMapNullValue,
+    /**
+     * Write enums with {@link Enum#toString()} instead of {@link Enum#name()}.
+     */
+    WriteEnumUsingToString,
+    /**
+     * Write {@link java.math.BigDecimal} with {@link java.math.BigDecimal#toPlainString()}.
+     */
+    WriteBigDecimalAsPlain,
+    /**
+     * Skip transient fields and getters marked {@link java.beans.Transient}.
+     */
+    SkipTransientField,
+    /**
+     * Write beans as arrays of their property values, in property order, without the names: <code>[1,"x",3.5]</code>.
+     * Null values are written, so that each property keeps its position. Read back with
+     * {@link parser.Feature#SupportArrayToBean}.
+     */
+    BeanToArray;
+
+    SerializerFeature() {
+        mask = (1 << ordinal());
+    }
+
+    public final int mask;
+
+    public final int getMask() {
+        return mask;
+    }
+
+    public static boolean isEnabled(int features, SerializerFeature feature) {
+        return (features & feature.mask) != 0;
+    }
+
+    public static boolean isEnabled(int features, int featuresB, SerializerFeature feature) {
+        int mask = feature.mask;
+        return (features & mask) != 0 || (featuresB & mask) != 0;
+    }
+
+    public static int config(int features, SerializerFeature feature, boolean state) {
+        if (state) {
+            features |= feature.mask;
+        } else {
+            features &= ~feature.mask;
+        }
+        return features;
+    }
+
+    public static int of(SerializerFeature[] features) {
+        if (features == null) {
+            return 0;
+        }
+
+        int value = 0;
+        for (SerializerFeature feature : features) {
+            value |= feature.mask;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,45 @@
+package serializer;
+
+import parser.DefaultJSONParser;
+import parser.JSONLexer;
+import parser.JSONToken;
+import parser.deserializer.ObjectDeserializer;
+
+import java.lang.reflect.Type;
+
+public class StringCodec implements ObjectSerializer, ObjectDeserializer {
+
+    public static StringCodec instance = new StringCodec();
+
+    public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+        serializer.out.writeString(object == null ? null : object.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T deserialze(DefaultJSONParser parser, Type clazz, Object fieldName) {
+        JSONLexer lexer = parser.lexer;
+
+        String value;
+        if (lexer.token() == JSONToken.LITERAL_STRING) {
+            value = lexer.stringVal();
+            lexer.nextToken();
+        } else {
+            Object parsed = parser.parse(fieldName);
+            value = parsed == null ? null : parsed.toString();
+        }
+
+        if (value == null) {
+            return null;
+        }
+
+        if (clazz == StringBuffer.class) {
+            return (T) new StringBuffer(value);
+        }
+
+        if (clazz == StringBuilder.class) {
+            return (T) new StringBuilder(value);
+        }
+
+        return (T) value;
+    }
+}
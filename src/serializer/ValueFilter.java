@@ -0,0 +1,13 @@
+package serializer;
+
+/**
+ * Replaces the value of a property of a bean as it is written.
+ */
+public interface ValueFilter extends SerializeFilter {
+
+    /**
+     * Returns the value to write for the property <code>name</code> of <code>object</code>, whose value is
+     * <code>value</code>.
+     */
+    Object process(Object object, String name, Object value);
+}
@@ -0,0 +1,121 @@
+package util;
+
+import java.lang.ref.WeakReference;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.security.ProtectionDomain;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The class loader that defines the serializers and deserializers generated by the asm factories.
+ * <p>
+ * There is one loader per class loader of the beans, see {@link #getInstance(Class)}: its parent is the loader of
+ * the bean, so that the generated code links against the bean and the types of its properties, and it falls back to
+ * the loader of this library for the base classes of the generated code.
+ */
+public class ASMClassLoader extends ClassLoader {
+
+    private static final ProtectionDomain DOMAIN;
+
+    /**
+     * The loaders by the class loader of the beans. The values are weak so that an entry does not keep its key
+     * alive: a loader lives as long as a class it defined, which the codec caches hold.
+     */
+    private static final Map<ClassLoader, WeakReference<ASMClassLoader>> instances = new WeakHashMap<ClassLoader, WeakReference<ASMClassLoader>>();
+
+    static {
+        DOMAIN = AccessController.doPrivileged(new PrivilegedAction<ProtectionDomain>() {
+
+            public ProtectionDomain run() {
+                return ASMClassLoader.class.getProtectionDomain();
+            }
+        });
+    }
+
+    public ASMClassLoader() {
+        this(getParentClassLoader());
+    }
+
+    public ASMClassLoader(ClassLoader parent) {
+        super(parent);
+    }
+
+    /**
+     * Returns the loader which defines the generated codecs of the given bean class.
+     */
+    public static ASMClassLoader getInstance(Class<?> beanClass) {
+        ClassLoader parent = beanClass.getClassLoader();
+        if (parent == null) {
+            parent = getParentClassLoader();
+        }
+
+        synchronized (instances) {
+            WeakReference<ASMClassLoader> ref = instances.get(parent);
+            ASMClassLoader classLoader = ref == null ? null : ref.get();
+            if (classLoader == null) {
+                classLoader = new ASMClassLoader(parent);
+                instances.put(parent, new WeakReference<ASMClassLoader>(classLoader));
+            }
+            return classLoader;
+        }
+    }
+
+    /**
+     * Resolves the classes that the loader of the beans does not see, such as the base classes of the generated
+     * code when this library is loaded by a child of the loader of the beans.
+     */
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        ClassLoader libraryClassLoader = ASMClassLoader.class.getClassLoader();
+        if (libraryClassLoader == null || libraryClassLoader == getParent()) {
+            throw new ClassNotFoundException(name);
+        }
+        return libraryClassLoader.loadClass(name);
+    }
+
+    static ClassLoader getParentClassLoader() {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        if (contextClassLoader != null) {
+            try {
+                contextClassLoader.loadClass(ASMClassLoader.class.getName());
+                return contextClassLoader;
+            } catch (ClassNotFoundException e) {
+                // skip
+            }
+        }
+        return ASMClassLoader.class.getClassLoader();
+    }
+
+    public Class<?> defineClassPublic(String name, byte[] b, int off, int len) throws ClassFormatError {
+        Class<?> clazz = defineClass(name, b, off, len, DOMAIN);
+
+        return clazz;
+    }
+
+    /**
+     * Returns true when a generated class defined by this loader could not link against the given class, because
+     * it resolves to a different class (or to none) through this loader.
+     */
+    public boolean isExternalClass(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+
+        if (classLoader == null) {
+            return false;
+        }
+
+        return !isAncestor(getParent(), classLoader) && !isAncestor(ASMClassLoader.class.getClassLoader(), classLoader);
+    }
+
+    private static boolean isAncestor(ClassLoader current, ClassLoader classLoader) {
+        while (current != null) {
+            if (current == classLoader) {
+                return true;
+            }
+
+            current = current.getParent();
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,174 @@
+package util;
+
+import asm.ClassReader;
+import asm.TypeCollector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+
+public class ASMUtils {
+
+    public static final String JAVA_VM_NAME = System.getProperty("java.vm.name");
+
+    public static final boolean IS_ANDROID = isAndroid(JAVA_VM_NAME);
+
+    /**
+     * Parameter names of the constructors and static methods of each class, read once from its class file, and held
+     * by the class itself so that it can still be unloaded.
+     */
+    private static final ClassValue<Map<String, String[]>> parameterNamesCache
+            = new ClassValue<Map<String, String[]>>() {
+                @Override
+                protected Map<String, String[]> computeValue(Class<?> clazz) {
+                    return readParameterNames(clazz);
+                }
+            };
+
+    public static boolean isAndroid(String vmName) {
+        if (vmName == null) { // default is false
+            return false;
+        }
+
+        String lowerVMName = vmName.toLowerCase();
+
+        return lowerVMName.contains("dalvik") //
+                || lowerVMName.contains("lemur") // aliyun-vm name
+                ;
+    }
+
+    public static String desc(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        StringBuilder buf = new StringBuilder((types.length + 1) << 4);
+        buf.append('(');
+        for (int i = 0; i < types.length; ++i) {
+            buf.append(desc(types[i]));
+        }
+        buf.append(')');
+        buf.append(desc(method.getReturnType()));
+        return buf.toString();
+    }
+
+    public static String desc(Class<?> returnType) {
+        if (returnType.isPrimitive()) {
+            return getPrimitiveLetter(returnType);
+        } else if (returnType.isArray()) {
+            return "[" + desc(returnType.getComponentType());
+        } else {
+            return "L" + type(returnType) + ";";
+        }
+    }
+
+    public static String type(Class<?> parameterType) {
+        if (parameterType.isArray()) {
+            return "[" + desc(parameterType.getComponentType());
+        } else {
+            if (!parameterType.isPrimitive()) {
+                String clsName = parameterType.getName();
+                return clsName.replace('.', '/');
+            } else {
+                return getPrimitiveLetter(parameterType);
+            }
+        }
+    }
+
+    public static String getPrimitiveLetter(Class<?> type) {
+        if (Integer.TYPE == type) {
+            return "I";
+        } else if (Void.TYPE == type) {
+            return "V";
+        } else if (Boolean.TYPE == type) {
+            return "Z";
+        } else if (Character.TYPE == type) {
+            return "C";
+        } else if (Byte.TYPE == type) {
+            return "B";
+        } else if (Short.TYPE == type) {
+            return "S";
+        } else if (Float.TYPE == type) {
+            return "F";
+        } else if (Long.TYPE == type) {
+            return "J";
+        } else if (Double.TYPE == type) {
+            return "D";
+        }
+
+        throw new IllegalStateException("Type: " + type.getCanonicalName() + " is not a primitive type");
+    }
+
+    /**
+     * Generated classes put names in the constant pool with {@link asm.ByteVector#putUTF8(String)}, which only
+     * handles ASCII.
+     */
+    public static boolean checkName(String name) {
+        for (int i = 0; i < name.length(); ++i) {
+            char c = name.charAt(i);
+            if (c < '\001' || c > '\177' || c == '.') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the parameter names of a constructor or static method from the <code>LocalVariableTable</code> of
+     * its class file, for classes compiled with debug information but without <code>-parameters</code>. Returns an
+     * empty array when the names are not available.
+     * <p>
+     * The class file of the declaring class is read and parsed once, for all its constructors and static methods,
+     * and the result is cached by class, so a class of the same name in another class loader is read again.
+     */
+    public static String[] lookupParameterNames(AccessibleObject methodOrCtor) {
+        if (IS_ANDROID) {
+            return new String[0];
+        }
+
+        final Class<?> declaringClass;
+        final String key;
+        if (methodOrCtor instanceof Method) {
+            Method method = (Method) methodOrCtor;
+            declaringClass = method.getDeclaringClass();
+            key = method.getName() + desc(method);
+        } else {
+            Constructor<?> constructor = (Constructor<?>) methodOrCtor;
+            declaringClass = constructor.getDeclaringClass();
+            StringBuilder buf = new StringBuilder("<init>(");
+            for (Class<?> parameterType : constructor.getParameterTypes()) {
+                buf.append(desc(parameterType));
+            }
+            key = buf.append(")V").toString();
+        }
+
+        String[] names = parameterNamesCache.get(declaringClass).get(key);
+        return names == null ? new String[0] : names.clone();
+    }
+
+    private static Map<String, String[]> readParameterNames(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null) {
+            classLoader = ClassLoader.getSystemClassLoader();
+        }
+
+        InputStream is = classLoader.getResourceAsStream(clazz.getName().replace('.', '/') + ".class");
+        if (is == null) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            ClassReader reader = new ClassReader(is, false);
+            TypeCollector visitor = new TypeCollector();
+            reader.accept(visitor);
+            return visitor.getParameterNames();
+        } catch (IOException e) {
+            return Collections.emptyMap();
+        } catch (RuntimeException e) {
+            // malformed or unsupported class file
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock free pool of the byte buffers used by {@link serializer.SerializeWriter}, so that steady state
+ * serialization allocates no buffer at all.
+ * <p>
+ * The pool is not thread local: buffers live in a small array of slots, and a thread takes or returns one with a
+ * single atomic exchange on the slot picked by its thread id. A buffer is therefore never pinned to a carrier or
+ * to a dead thread, which makes the pool safe for virtual threads and thread pools of any size. A thread which
+ * finds its slot empty allocates a new buffer; a buffer returned to an occupied slot replaces the one in it.
+ */
+public final class BufferPool {
+
+    /**
+     * Size of the buffers allocated by the pool.
+     */
+    public static final int BUFFER_SIZE = 1024 * 8;
+
+    /**
+     * Buffers which grew larger than this are dropped instead of being pooled, so that one huge document does not
+     * keep its memory alive.
+     */
+    public static final int MAX_POOLED_SIZE = 1024 * 1024;
+
+    private static final int SLOTS;
+    private static final AtomicReferenceArray<byte[]> buffers;
+
+    static {
+        int n = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1) << 1;
+        SLOTS = Math.min(n, 256);
+        buffers = new AtomicReferenceArray<byte[]>(SLOTS);
+    }
+
+    private BufferPool() {
+    }
+
+    private static int slot() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (SLOTS - 1);
+    }
+
+    /**
+     * Takes a buffer of at least {@link #BUFFER_SIZE} bytes from the pool, or allocates one.
+     */
+    public static byte[] acquireBytes() {
+        byte[] buf = buffers.getAndSet(slot(), null);
+        if (buf == null) {
+            buf = new byte[BUFFER_SIZE];
+        }
+        return buf;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #acquireBytes()}. The caller must not use it afterwards.
+     */
+    public static void releaseBytes(byte[] buf) {
+        if (buf == null || buf.length < BUFFER_SIZE || buf.length > MAX_POOLED_SIZE) {
+            return;
+        }
+        buffers.lazySet(slot(), buf);
+    }
+}
@@ -0,0 +1,158 @@
+package util;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A cache of the codecs generated for a type and a set of features, which generates each codec exactly once: the
+ * first thread to ask for a key generates it, and the threads which ask for the same key meanwhile wait for its
+ * result instead of generating and defining a class of their own. Keys being generated do not block the others.
+ * <p>
+ * Waiting threads park on a latch rather than on a monitor, so virtual threads do not pin their carrier. A thread
+ * which asks again for the key it is generating, through a self referencing type, gets an uncached codec instead of
+ * waiting on itself. When generation fails the key is removed, so a later call tries again.
+ */
+public class CodecCache<V> {
+
+    public interface Generator<V> {
+        V generate(Type type, int features);
+    }
+
+    private final ConcurrentMap<Key, Entry<V>> entries = new ConcurrentHashMap<Key, Entry<V>>();
+
+    public V get(Type type, int features, Generator<V> generator) {
+        Key key = new Key(type, features);
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.value != null) {
+            return entry.value;
+        }
+
+        if (entry == null) {
+            Entry<V> created = new Entry<V>(Thread.currentThread());
+            entry = entries.putIfAbsent(key, created);
+            if (entry == null) {
+                return created.generate(key, generator, this);
+            }
+        }
+
+        if (entry.owner == Thread.currentThread()) {
+            return generator.generate(type, features);
+        }
+        return entry.await(type);
+    }
+
+    /**
+     * Returns the codec cached for the key, without generating it.
+     */
+    public V getIfPresent(Type type, int features) {
+        Entry<V> entry = entries.get(new Key(type, features));
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Returns the types whose codecs have been generated, in no particular order.
+     */
+    public List<Type> getTypes() {
+        List<Type> types = new ArrayList<Type>(entries.size());
+        for (Map.Entry<Key, Entry<V>> entry : entries.entrySet()) {
+            if (entry.getValue().value != null) {
+                types.add(entry.getKey().type);
+            }
+        }
+        return types;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry<V> {
+
+        final Thread owner;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile V value;
+        volatile Throwable error;
+
+        Entry(Thread owner) {
+            this.owner = owner;
+        }
+
+        V generate(Key key, Generator<V> generator, CodecCache<V> cache) {
+            try {
+                V value = generator.generate(key.type, key.features);
+                if (value == null) {
+                    throw new JSONException("no codec generated for " + key.type);
+                }
+                this.value = value;
+                return value;
+            } catch (RuntimeException e) {
+                error = e;
+                cache.entries.remove(key, this);
+                throw e;
+            } catch (Error e) {
+                error = e;
+                cache.entries.remove(key, this);
+                throw e;
+            } finally {
+                done.countDown();
+            }
+        }
+
+        V await(Type type) {
+            boolean interrupted = false;
+            for (; ; ) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (value == null) {
+                throw new JSONException("generate codec error, " + type, error);
+            }
+            return value;
+        }
+    }
+
+    private static final class Key {
+
+        final Type type;
+        final int features;
+
+        Key(Type type, int features) {
+            this.type = type;
+            this.features = features;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return features == other.features && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode() * 31 + features;
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package util;
+
+import annotation.JSONField;
+import parser.Feature;
+import serializer.SerializerFeature;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+
+/**
+ * A property of a java bean as seen by the serializers and deserializers: its JSON name, how it is accessed
+ * (getter, setter or field) and the settings of its {@link JSONField} annotation.
+ */
+public class FieldInfo implements Comparable<FieldInfo> {
+
+    public final String name;
+    public final Method method;
+    public final Field field;
+
+    private int ordinal = 0;
+    public final Class<?> fieldClass;
+    public final Type fieldType;
+    public final Class<?> declaringClass;
+    public final boolean getOnly;
+    public final int serialzeFeatures;
+    public final int parserFeatures;
+    public final String label;
+
+    private final JSONField fieldAnnotation;
+    private final JSONField methodAnnotation;
+
+    public final boolean fieldAccess;
+    public final boolean fieldTransient;
+
+    public final boolean isEnum;
+    public final boolean jsonDirect;
+    public final boolean unwrapped;
+
+    public final String format;
+
+    /**
+     * The codec classes of {@link JSONField#serializeUsing()} and {@link JSONField#deserializeUsing()}, or null.
+     */
+    public final Class<?> serializeUsing;
+    public final Class<?> deserializeUsing;
+
+    public final String[] alternateNames;
+
+    /**
+     * FNV-1a hash of {@link #name}, as computed by {@link TypeUtils#fnv1a_64(String)}.
+     */
+    public final long nameHashCode;
+
+    public FieldInfo(String name, Class<?> declaringClass, Class<?> fieldClass, Type fieldType, Field field, int ordinal, int serialzeFeatures, int parserFeatures) {
+        this(name, declaringClass, fieldClass, fieldType, field, ordinal, serialzeFeatures, parserFeatures, null);
+    }
+
+    /**
+     * Creates the property bound to a parameter of a <code>@JSONCreator</code> constructor or factory method, with
+     * the annotation of that parameter.
+     */
+    public FieldInfo(String name, Class<?> declaringClass, Class<?> fieldClass, Type fieldType, Field field, int ordinal, int serialzeFeatures, int parserFeatures, JSONField fieldAnnotation) {
+        if (ordinal < 0) {
+            ordinal = 0;
+        }
+
+        this.name = name;
+        this.declaringClass = declaringClass;
+        this.fieldClass = fieldClass;
+        this.fieldType = fieldType;
+        this.method = null;
+        this.field = field;
+        this.ordinal = ordinal;
+        this.serialzeFeatures = serialzeFeatures;
+        this.parserFeatures = parserFeatures;
+
+        isEnum = fieldClass.isEnum();
+
+        if (field != null) {
+            int modifiers = field.getModifiers();
+            fieldAccess = (modifiers & Modifier.PUBLIC) != 0 || method == null;
+            fieldTransient = Modifier.isTransient(modifiers);
+        } else {
+            fieldTransient = false;
+            fieldAccess = false;
+        }
+
+        getOnly = false;
+        this.fieldAnnotation = fieldAnnotation;
+        this.methodAnnotation = null;
+        this.label = "";
+        this.jsonDirect = fieldAnnotation != null && fieldAnnotation.jsonDirect()
+                && (fieldClass == String.class || fieldClass == byte[].class);
+        this.unwrapped = fieldAnnotation != null && fieldAnnotation.unwrapped();
+
+        String format = null;
+        String[] alternateNames = new String[0];
+        if (fieldAnnotation != null) {
+            format = fieldAnnotation.format();
+            if (format.trim().length() == 0) {
+                format = null;
+            }
+            alternateNames = fieldAnnotation.alternateNames();
+        }
+        this.format = format;
+        this.serializeUsing = codecClass(fieldAnnotation == null ? null : fieldAnnotation.serializeUsing());
+        this.deserializeUsing = codecClass(fieldAnnotation == null ? null : fieldAnnotation.deserializeUsing());
+        this.alternateNames = alternateNames;
+        this.nameHashCode = TypeUtils.fnv1a_64(name);
+    }
+
+    public FieldInfo(String name,
+                     Method method,
+                     Field field,
+                     Class<?> clazz,
+                     Type type,
+                     int ordinal,
+                     int serialzeFeatures,
+                     int parserFeatures,
+                     JSONField fieldAnnotation,
+                     JSONField methodAnnotation,
+                     String label) {
+        if (field != null) {
+            String fieldName = field.getName();
+            if (fieldName.equals(name)) {
+                name = fieldName;
+            }
+        }
+
+        if (ordinal < 0) {
+            ordinal = 0;
+        }
+
+        this.name = name;
+        this.method = method;
+        this.field = field;
+        this.ordinal = ordinal;
+        this.serialzeFeatures = serialzeFeatures;
+        this.parserFeatures = parserFeatures;
+        this.fieldAnnotation = fieldAnnotation;
+        this.methodAnnotation = methodAnnotation;
+
+        if (field != null) {
+            int modifiers = field.getModifiers();
+            fieldAccess = method == null || ((modifiers & Modifier.PUBLIC) != 0 && method.getReturnType() == field.getType());
+            fieldTransient = (modifiers & Modifier.TRANSIENT) != 0;
+        } else {
+            fieldAccess = false;
+            fieldTransient = false;
+        }
+
+        this.label = label != null && label.length() > 0 ? label : "";
+
+        JSONField annotation = getAnnotation();
+        String format = null;
+        boolean jsonDirect = false;
+        boolean unwrapped = false;
+        String[] alternateNames = new String[0];
+        if (annotation != null) {
+            format = annotation.format();
+            if (format.trim().length() == 0) {
+                format = null;
+            }
+            jsonDirect = annotation.jsonDirect();
+            unwrapped = annotation.unwrapped();
+            alternateNames = annotation.alternateNames();
+        }
+        this.format = format;
+        this.unwrapped = unwrapped;
+        this.serializeUsing = codecClass(annotation == null ? null : annotation.serializeUsing());
+        this.deserializeUsing = codecClass(annotation == null ? null : annotation.deserializeUsing());
+        this.alternateNames = alternateNames;
+
+        Class<?> fieldClass;
+        Type fieldType;
+        if (method != null) {
+            Class<?>[] types;
+            if ((types = method.getParameterTypes()).length == 1) {
+                fieldClass = types[0];
+                fieldType = method.getGenericParameterTypes()[0];
+            } else if (types.length == 2 && types[0] == String.class && types[1] == Object.class) {
+                fieldType = fieldClass = types[0];
+            } else {
+                fieldClass = method.getReturnType();
+                fieldType = method.getGenericReturnType();
+            }
+            this.declaringClass = method.getDeclaringClass();
+            getOnly = method.getParameterTypes().length == 0;
+        } else {
+            fieldClass = field.getType();
+            fieldType = field.getGenericType();
+            this.declaringClass = field.getDeclaringClass();
+            getOnly = Modifier.isFinal(field.getModifiers());
+        }
+        this.jsonDirect = jsonDirect && (fieldClass == String.class || fieldClass == byte[].class);
+
+        if (clazz != null && fieldClass == Object.class && fieldType instanceof TypeVariable) {
+            TypeVariable<?> tv = (TypeVariable<?>) fieldType;
+            Type genericFieldType = getInheritGenericType(clazz, type, tv);
+            if (genericFieldType != null) {
+                this.fieldClass = TypeUtils.getClass(genericFieldType);
+                this.fieldType = genericFieldType;
+
+                isEnum = this.fieldClass.isEnum();
+                this.nameHashCode = TypeUtils.fnv1a_64(this.name);
+                return;
+            }
+        }
+
+        Type genericFieldType = fieldType;
+
+        if (!(fieldType instanceof Class)) {
+            genericFieldType = getFieldType(clazz, type != null ? type : clazz, fieldType);
+
+            if (genericFieldType != fieldType) {
+                if (genericFieldType instanceof ParameterizedType) {
+                    fieldClass = TypeUtils.getClass(genericFieldType);
+                } else if (genericFieldType instanceof Class) {
+                    fieldClass = TypeUtils.getClass(genericFieldType);
+                }
+            }
+        }
+
+        this.fieldType = genericFieldType;
+        this.fieldClass = fieldClass;
+
+        isEnum = fieldClass.isEnum();
+        this.nameHashCode = TypeUtils.fnv1a_64(this.name);
+    }
+
+    /**
+     * Resolves type variables and generic arrays in the declared type of a property against the actual bean type.
+     */
+    public static Type getFieldType(final Class<?> clazz, final Type type, Type fieldType) {
+        if (clazz == null || type == null) {
+            return fieldType;
+        }
+
+        if (fieldType instanceof GenericArrayType) {
+            GenericArrayType genericArrayType = (GenericArrayType) fieldType;
+            Type componentType = genericArrayType.getGenericComponentType();
+            Type componentTypeX = getFieldType(clazz, type, componentType);
+            if (componentType != componentTypeX) {
+                return java.lang.reflect.Array.newInstance(TypeUtils.getClass(componentTypeX), 0).getClass();
+            }
+
+            return fieldType;
+        }
+
+        if (!TypeUtils.isGenericParamType(type)) {
+            return fieldType;
+        }
+
+        if (fieldType instanceof TypeVariable) {
+            ParameterizedType paramType = (ParameterizedType) TypeUtils.getGenericParamType(type);
+            Class<?> parameterizedClass = TypeUtils.getClass(paramType);
+            final TypeVariable<?> typeVar = (TypeVariable<?>) fieldType;
+
+            TypeVariable<?>[] typeVariables = parameterizedClass.getTypeParameters();
+            for (int i = 0; i < typeVariables.length; ++i) {
+                if (typeVariables[i].getName().equals(typeVar.getName())) {
+                    fieldType = paramType.getActualTypeArguments()[i];
+                    return fieldType;
+                }
+            }
+        }
+
+        if (fieldType instanceof ParameterizedType) {
+            ParameterizedType parameterizedFieldType = (ParameterizedType) fieldType;
+
+            Type[] arguments = parameterizedFieldType.getActualTypeArguments();
+            boolean changed = false;
+            ParameterizedType paramType = (ParameterizedType) TypeUtils.getGenericParamType(type);
+            TypeVariable<?>[] typeVariables = TypeUtils.getClass(paramType).getTypeParameters();
+            Type[] actualTypes = paramType.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; ++i) {
+                Type fieldTypeArgument = arguments[i];
+                if (fieldTypeArgument instanceof TypeVariable) {
+                    TypeVariable<?> typeVar = (TypeVariable<?>) fieldTypeArgument;
+                    for (int j = 0; j < typeVariables.length; ++j) {
+                        if (typeVariables[j].getName().equals(typeVar.getName())) {
+                            arguments[i] = actualTypes[j];
+                            changed = true;
+                        }
+                    }
+                }
+            }
+            if (changed) {
+                fieldType = new ParameterizedTypeImpl(arguments, parameterizedFieldType.getOwnerType(),
+                        parameterizedFieldType.getRawType());
+                return fieldType;
+            }
+        }
+
+        return fieldType;
+    }
+
+    private static Type getInheritGenericType(Class<?> clazz, Type type, TypeVariable<?> tv) {
+        Type[] arguments = null;
+        if (type instanceof ParameterizedType) {
+            ParameterizedType ptype = (ParameterizedType) type;
+            if (ptype.getRawType() == clazz) {
+                arguments = ptype.getActualTypeArguments();
+            }
+        }
+
+        Class<?> c = clazz;
+        Type genericSuperclass = null;
+        while (arguments == null && c != null && c != Object.class) {
+            genericSuperclass = c.getGenericSuperclass();
+            if (genericSuperclass instanceof ParameterizedType) {
+                ParameterizedType ptype = (ParameterizedType) genericSuperclass;
+                if (ptype.getRawType() == tv.getGenericDeclaration()) {
+                    arguments = ptype.getActualTypeArguments();
+                }
+            }
+            c = TypeUtils.getClass(genericSuperclass);
+        }
+
+        if (arguments == null) {
+            return null;
+        }
+
+        TypeVariable<?>[] typeVariables = ((Class<?>) tv.getGenericDeclaration()).getTypeParameters();
+        for (int i = 0; i < typeVariables.length; ++i) {
+            if (tv.equals(typeVariables[i])) {
+                Type actualType = arguments[i];
+                return actualType instanceof TypeVariable ? null : actualType;
+            }
+        }
+
+        return null;
+    }
+
+    private static Class<?> codecClass(Class<?> annotationValue) {
+        return annotationValue == Void.class ? null : annotationValue;
+    }
+
+    public String toString() {
+        return this.name;
+    }
+
+    public Member getMember() {
+        if (method != null) {
+            return method;
+        } else {
+            return field;
+        }
+    }
+
+    protected Class<?> getDeclaredClass() {
+        if (this.method != null) {
+            return this.method.getDeclaringClass();
+        }
+
+        if (this.field != null) {
+            return this.field.getDeclaringClass();
+        }
+
+        return null;
+    }
+
+    public int compareTo(FieldInfo o) {
+        if (this.ordinal < o.ordinal) {
+            return -1;
+        }
+
+        if (this.ordinal > o.ordinal) {
+            return 1;
+        }
+
+        int result = this.name.compareTo(o.name);
+
+        if (result != 0) {
+            return result;
+        }
+
+        Class<?> thisDeclaringClass = this.getDeclaredClass();
+        Class<?> otherDeclaringClass = o.getDeclaredClass();
+
+        if (thisDeclaringClass != null && otherDeclaringClass != null && thisDeclaringClass != otherDeclaringClass) {
+            if (thisDeclaringClass.isAssignableFrom(otherDeclaringClass)) {
+                return -1;
+            }
+
+            if (otherDeclaringClass.isAssignableFrom(thisDeclaringClass)) {
+                return 1;
+            }
+        }
+
+        boolean isSameType = this.field != null && this.field.getType() == this.fieldClass;
+        boolean oSameType = o.field != null && o.field.getType() == o.fieldClass;
+
+        if (isSameType && !oSameType) {
+            return 1;
+        }
+
+        if (oSameType && !isSameType) {
+            return -1;
+        }
+
+        if (o.fieldClass.isPrimitive() && !this.fieldClass.isPrimitive()) {
+            return 1;
+        }
+
+        if (this.fieldClass.isPrimitive() && !o.fieldClass.isPrimitive()) {
+            return -1;
+        }
+
+        if (o.fieldClass.getName().startsWith("java.") && !this.fieldClass.getName().startsWith("java.")) {
+            return 1;
+        }
+
+        if (this.fieldClass.getName().startsWith("java.") && !o.fieldClass.getName().startsWith("java.")) {
+            return -1;
+        }
+
+        return this.fieldClass.getName().compareTo(o.fieldClass.getName());
+    }
+
+    public JSONField getAnnotation() {
+        if (this.fieldAnnotation != null) {
+            return this.fieldAnnotation;
+        }
+
+        return this.methodAnnotation;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public boolean isEnabled(SerializerFeature feature) {
+        return SerializerFeature.isEnabled(serialzeFeatures, feature);
+    }
+
+    public boolean isEnabled(Feature feature) {
+        return Feature.isEnabled(parserFeatures, feature);
+    }
+
+    public Object get(Object javaObject) throws IllegalAccessException, InvocationTargetException {
+        return method != null
+                ? method.invoke(javaObject)
+                : field.get(javaObject);
+    }
+
+    public void set(Object javaObject, Object value) throws IllegalAccessException, InvocationTargetException {
+        if (method != null) {
+            method.invoke(javaObject, new Object[]{value});
+            return;
+        }
+
+        field.set(javaObject, value);
+    }
+
+    public void setAccessible() throws SecurityException {
+        if (method != null) {
+            TypeUtils.setAccessible(method);
+            return;
+        }
+
+        TypeUtils.setAccessible(field);
+    }
+}
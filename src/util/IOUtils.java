@@ -0,0 +1,69 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * The base64 alphabet of RFC 4648, in which <code>byte[]</code> values are written, and its decoder. The decoder also
+ * accepts the URL safe alphabet, and a missing padding.
+ */
+public class IOUtils {
+
+    public static final byte[] CA = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes();
+
+    /**
+     * The value of each base64 character, -1 for the others.
+     */
+    public static final int[] IA = new int[256];
+
+    static {
+        Arrays.fill(IA, -1);
+        for (int i = 0; i < CA.length; i++) {
+            IA[CA[i]] = i;
+        }
+        IA['-'] = 62;
+        IA['_'] = 63;
+    }
+
+    /**
+     * Decodes the base64 text in <code>len</code> bytes of <code>src</code> from <code>off</code>.
+     */
+    public static byte[] decodeBase64(byte[] src, int off, int len) {
+        int end = off + len;
+        while (end > off && src[end - 1] == '=') {
+            end--;
+        }
+        int n = end - off;
+        if (n % 4 == 1) {
+            throw new JSONException("illegal base64 length " + len);
+        }
+
+        byte[] dst = new byte[n / 4 * 3 + (n % 4 == 0 ? 0 : n % 4 - 1)];
+        int di = 0;
+        int si = off;
+        for (int whole = end - n % 4; si < whole; si += 4) {
+            int bits = decode(src[si]) << 18 | decode(src[si + 1]) << 12 | decode(src[si + 2]) << 6 | decode(src[si + 3]);
+            dst[di++] = (byte) (bits >> 16);
+            dst[di++] = (byte) (bits >> 8);
+            dst[di++] = (byte) bits;
+        }
+        if (si < end) {
+            int bits = decode(src[si]) << 18 | decode(src[si + 1]) << 12;
+            if (si + 2 < end) {
+                bits |= decode(src[si + 2]) << 6;
+            }
+            dst[di++] = (byte) (bits >> 16);
+            if (di < dst.length) {
+                dst[di] = (byte) (bits >> 8);
+            }
+        }
+        return dst;
+    }
+
+    private static int decode(byte b) {
+        int value = IA[b & 0xFF];
+        if (value < 0) {
+            throw new JSONException("illegal base64 character '" + (char) (b & 0xFF) + "'");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,71 @@
+package util;
+
+/**
+ * An identity hash map with lock free reads, used to cache serializers and
+ * deserializers by type. Writes replace whole bucket heads so that a reader
+ * racing with a writer sees either the old or the new chain.
+ */
+@SuppressWarnings("unchecked")
+public class IdentityHashMap<K, V> {
+    private final Entry<K, V>[] buckets;
+    private final int indexMask;
+    public final static int DEFAULT_SIZE = 8192;
+
+    public IdentityHashMap() {
+        this(DEFAULT_SIZE);
+    }
+
+    public IdentityHashMap(int tableSize) {
+        this.indexMask = tableSize - 1;
+        this.buckets = new Entry[tableSize];
+    }
+
+    public final V get(K key) {
+        final int hash = System.identityHashCode(key);
+        final int bucket = hash & indexMask;
+
+        for (Entry<K, V> entry = buckets[bucket]; entry != null; entry = entry.next) {
+            if (key == entry.key) {
+                return (V) entry.value;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean put(K key, V value) {
+        final int hash = System.identityHashCode(key);
+        final int bucket = hash & indexMask;
+
+        for (Entry<K, V> entry = buckets[bucket]; entry != null; entry = entry.next) {
+            if (key == entry.key) {
+                entry.value = value;
+                return true;
+            }
+        }
+
+        Entry<K, V> entry = new Entry<K, V>(key, value, hash, buckets[bucket]);
+        buckets[bucket] = entry; // a racing put may be lost, which only costs a cache miss
+
+        return false;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(this.buckets, null);
+    }
+
+    protected static final class Entry<K, V> {
+        public final int hashCode;
+        public final K key;
+        public volatile V value;
+
+        public final Entry<K, V> next;
+
+        public Entry(K key, V value, int hash, Entry<K, V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+            this.hashCode = hash;
+        }
+    }
+}
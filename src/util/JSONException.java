@@ -0,0 +1,16 @@
+package util;
+
+public class JSONException extends RuntimeException {
+
+    public JSONException() {
+        super();
+    }
+
+    public JSONException(String message) {
+        super(message);
+    }
+
+    public JSONException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,509 @@
+package util;
+
+import annotation.JSONCreator;
+import annotation.JSONField;
+import annotation.JSONPOJOBuilder;
+import annotation.JSONType;
+import parser.Feature;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The writable properties of a java bean and how an instance is created, as seen by the deserializers. A bean is
+ * created in one of three ways:
+ * <ul>
+ * <li>with the builder named by {@link JSONType#builder()}: the builder is created with its default constructor,
+ * properties are set through its "with" methods, see {@link JSONPOJOBuilder}, and the bean is returned by its build
+ * method;</li>
+ * <li>with a constructor or static factory method annotated with {@link JSONCreator}, whose parameters are the
+ * properties, in parameter order;</li>
+ * <li>otherwise with its default constructor, then properties are set through setters and public fields.</li>
+ * </ul>
+ */
+public class JavaBeanInfo {
+
+    public final Class<?> clazz;
+    public final Class<?> builderClass;
+    public final Constructor<?> defaultConstructor;
+    public final Constructor<?> creatorConstructor;
+    public final Method factoryMethod;
+    public final Method buildMethod;
+
+    public final int parserFeatures;
+
+    public final JSONType jsonType;
+
+    /**
+     * The properties, in parameter order for a creator.
+     */
+    public final FieldInfo[] fields;
+
+    /**
+     * The version of the schema of the bean written as an array, from {@link JSONType#version()}.
+     */
+    public final int version;
+
+    private int[] positions;
+
+    private Unwrapped[] unwrapped;
+
+    public JavaBeanInfo(Class<?> clazz,
+                        Class<?> builderClass,
+                        Constructor<?> defaultConstructor,
+                        Constructor<?> creatorConstructor,
+                        Method factoryMethod,
+                        Method buildMethod,
+                        JSONType jsonType,
+                        List<FieldInfo> fieldList) {
+        this.clazz = clazz;
+        this.builderClass = builderClass;
+        this.defaultConstructor = defaultConstructor;
+        this.creatorConstructor = creatorConstructor;
+        this.factoryMethod = factoryMethod;
+        this.buildMethod = buildMethod;
+        this.jsonType = jsonType;
+        this.parserFeatures = jsonType == null ? 0 : Feature.of(jsonType.parseFeatures());
+        this.version = jsonType == null ? 0 : jsonType.version();
+
+        fields = new FieldInfo[fieldList.size()];
+        fieldList.toArray(fields);
+    }
+
+    public boolean isCreator() {
+        return creatorConstructor != null || factoryMethod != null;
+    }
+
+    /**
+     * Returns, for each element of the bean written as an array, the index in {@link #fields} of its property, or
+     * -1 when the property cannot be set. The elements are the properties in the order the serializer writes them,
+     * see {@link TypeUtils#computeGetters}.
+     */
+    public int[] getPositions() {
+        int[] positions = this.positions;
+        if (positions == null) {
+            List<FieldInfo> getters = TypeUtils.computeGetters(clazz, jsonType);
+            positions = new int[getters.size()];
+            for (int p = 0; p < positions.length; ++p) {
+                positions[p] = -1;
+                for (int i = 0; i < fields.length; ++i) {
+                    if (fields[i].nameHashCode == getters.get(p).nameHashCode) {
+                        positions[p] = i;
+                        break;
+                    }
+                }
+            }
+            this.positions = positions;
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the beans of the unwrapped properties, see {@link JSONField#unwrapped()}, and the beans of their own
+     * unwrapped properties, in preorder, so that the bean holding a property comes before it. The properties of these
+     * beans are read as those of this bean. Maps and values which are not beans are left out.
+     */
+    public Unwrapped[] getUnwrapped() {
+        Unwrapped[] unwrapped = this.unwrapped;
+        if (unwrapped == null) {
+            List<Unwrapped> list = new ArrayList<Unwrapped>();
+            List<Class<?>> path = new ArrayList<Class<?>>();
+            path.add(clazz);
+            collectUnwrapped(list, -1, this, path);
+            unwrapped = list.toArray(new Unwrapped[list.size()]);
+            this.unwrapped = unwrapped;
+        }
+        return unwrapped;
+    }
+
+    private static void collectUnwrapped(List<Unwrapped> list, int parent, JavaBeanInfo beanInfo, List<Class<?>> path) {
+        FieldInfo[] fields = beanInfo.fields;
+        for (int i = 0; i < fields.length; ++i) {
+            FieldInfo fieldInfo = fields[i];
+            if (!fieldInfo.unwrapped || !isUnwrappedBean(fieldInfo.fieldClass)) {
+                continue;
+            }
+            if (path.contains(fieldInfo.fieldClass)) {
+                throw new JSONException("unwrapped property " + fieldInfo.getMember() + " holds "
+                        + fieldInfo.fieldClass.getName() + " in itself");
+            }
+
+            JavaBeanInfo childInfo = build(fieldInfo.fieldClass, fieldInfo.fieldType);
+            list.add(new Unwrapped(parent, i, childInfo));
+            path.add(fieldInfo.fieldClass);
+            collectUnwrapped(list, list.size() - 1, childInfo, path);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    private static boolean isUnwrappedBean(Class<?> clazz) {
+        return !clazz.isPrimitive() && !clazz.isArray() && !clazz.isEnum()
+                && !Map.class.isAssignableFrom(clazz) && !Collection.class.isAssignableFrom(clazz)
+                && !clazz.getName().startsWith("java.");
+    }
+
+    public static JavaBeanInfo build(Class<?> clazz, Type type) {
+        JSONType jsonType = clazz.getAnnotation(JSONType.class);
+
+        Class<?> builderClass = getBuilderClass(jsonType);
+        if (builderClass != null) {
+            return buildWithBuilder(clazz, type, jsonType, builderClass);
+        }
+
+        if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+            throw new JSONException("can not create instance of abstract type " + clazz.getName());
+        }
+
+        Constructor<?> defaultConstructor = null;
+        Method factoryMethod = null;
+        Constructor<?> creatorConstructor = getCreatorConstructor(clazz);
+        if (creatorConstructor == null) {
+            factoryMethod = getFactoryMethod(clazz);
+        }
+
+        if (creatorConstructor == null && factoryMethod == null) {
+            defaultConstructor = getDefaultConstructor(clazz);
+            if (defaultConstructor == null) {
+                throw new JSONException("default constructor not found. " + clazz);
+            }
+        }
+
+        PropertyNamingStrategy naming = jsonType != null ? jsonType.naming() : null;
+        List<FieldInfo> fieldList;
+        if (creatorConstructor != null) {
+            fieldList = creatorParameters(clazz, type, naming, creatorConstructor, creatorConstructor.getParameterTypes(),
+                    creatorConstructor.getGenericParameterTypes(), creatorConstructor.getParameterAnnotations(),
+                    creatorConstructor.getParameters());
+        } else if (factoryMethod != null) {
+            fieldList = creatorParameters(clazz, type, naming, factoryMethod, factoryMethod.getParameterTypes(),
+                    factoryMethod.getGenericParameterTypes(), factoryMethod.getParameterAnnotations(),
+                    factoryMethod.getParameters());
+        } else {
+            fieldList = computeSetters(clazz, type, clazz, "set", naming);
+            Collections.sort(fieldList);
+        }
+
+        return new JavaBeanInfo(clazz, null, defaultConstructor, creatorConstructor, factoryMethod, null, jsonType,
+                fieldList);
+    }
+
+    private static JavaBeanInfo buildWithBuilder(Class<?> clazz, Type type, JSONType jsonType, Class<?> builderClass) {
+        JSONPOJOBuilder builderAnnotation = builderClass.getAnnotation(JSONPOJOBuilder.class);
+        String withPrefix = builderAnnotation == null ? "with" : builderAnnotation.withPrefix();
+        String buildMethodName = builderAnnotation == null ? "build" : builderAnnotation.buildMethod();
+        if (buildMethodName.length() == 0) {
+            buildMethodName = "build";
+        }
+
+        Constructor<?> builderConstructor = getDefaultConstructor(builderClass);
+        if (builderConstructor == null) {
+            throw new JSONException("default constructor not found. " + builderClass);
+        }
+
+        Method buildMethod;
+        try {
+            buildMethod = builderClass.getMethod(buildMethodName);
+        } catch (NoSuchMethodException e) {
+            throw new JSONException("build method not found. " + builderClass.getName() + "." + buildMethodName);
+        }
+        if (!clazz.isAssignableFrom(buildMethod.getReturnType())) {
+            throw new JSONException("illegal build method " + buildMethod + ", expect return type " + clazz.getName());
+        }
+
+        List<FieldInfo> fieldList = computeSetters(builderClass, builderClass, clazz, withPrefix,
+                jsonType != null ? jsonType.naming() : null);
+        Collections.sort(fieldList);
+
+        return new JavaBeanInfo(clazz, builderClass, builderConstructor, null, null, buildMethod, jsonType, fieldList);
+    }
+
+    /**
+     * Collects the one argument methods of <code>clazz</code> named <code>prefix</code> followed by the property
+     * name, or annotated with {@link JSONField}, and the public fields of <code>fieldsClass</code>. For builders,
+     * <code>clazz</code> is the builder and the fields of the built bean supply the annotations. The names which
+     * are not given by {@link JSONField#name()} are translated by the naming strategy, as they are when written.
+     */
+    private static List<FieldInfo> computeSetters(Class<?> clazz, Type type, Class<?> fieldsClass, String prefix,
+                                                  PropertyNamingStrategy naming) {
+        List<FieldInfo> fieldList = new ArrayList<FieldInfo>();
+        Field[] declaredFields = fieldsClass.getDeclaredFields();
+        boolean builder = fieldsClass != clazz;
+
+        for (Method method : clazz.getMethods()) {
+            String methodName = method.getName();
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+
+            if (method.getParameterTypes().length != 1) {
+                continue;
+            }
+
+            Class<?> returnType = method.getReturnType();
+            if (!(returnType == Void.TYPE || returnType == clazz || (builder && clazz.isAssignableFrom(returnType)))) {
+                continue;
+            }
+
+            JSONField annotation = method.getAnnotation(JSONField.class);
+            if (annotation != null && !annotation.deserialize()) {
+                continue;
+            }
+
+            String propertyName;
+            boolean named = false;
+            if (annotation != null && annotation.name().length() != 0) {
+                propertyName = annotation.name();
+                named = true;
+            } else if (prefix.length() == 0) {
+                propertyName = methodName;
+            } else if (methodName.startsWith(prefix) && methodName.length() > prefix.length()) {
+                char c = methodName.charAt(prefix.length());
+                if (!Character.isUpperCase(c) && c != '_') {
+                    continue;
+                }
+                propertyName = TypeUtils.decapitalize(methodName.substring(prefix.length()));
+            } else if (builder && methodName.startsWith("set") && methodName.length() > 3
+                    && Character.isUpperCase(methodName.charAt(3))) {
+                propertyName = TypeUtils.decapitalize(methodName.substring(3));
+            } else {
+                continue;
+            }
+
+            Field field = TypeUtils.getField(fieldsClass, propertyName, declaredFields);
+            JSONField fieldAnnotation = field != null ? field.getAnnotation(JSONField.class) : null;
+            if (fieldAnnotation != null) {
+                if (!fieldAnnotation.deserialize()) {
+                    continue;
+                }
+
+                if (fieldAnnotation.name().length() != 0 && (annotation == null || annotation.name().length() == 0)) {
+                    propertyName = fieldAnnotation.name();
+                    named = true;
+                }
+            }
+            if (!named && naming != null) {
+                propertyName = naming.translate(propertyName);
+            }
+
+            if (getField(fieldList, propertyName) != null) {
+                continue;
+            }
+
+            JSONField effective = fieldAnnotation != null ? fieldAnnotation : annotation;
+            int ordinal = effective != null ? effective.ordinal() : 0;
+            int parserFeatures = effective != null ? Feature.of(effective.parseFeatures()) : 0;
+
+            fieldList.add(new FieldInfo(propertyName, method, builder ? null : field, clazz, type, ordinal, 0,
+                    parserFeatures, fieldAnnotation, annotation, null));
+        }
+
+        if (builder) {
+            return fieldList;
+        }
+
+        for (Field field : clazz.getFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)) {
+                continue;
+            }
+
+            JSONField fieldAnnotation = field.getAnnotation(JSONField.class);
+            String propertyName = field.getName();
+            int ordinal = 0, parserFeatures = 0;
+            if (fieldAnnotation != null) {
+                if (!fieldAnnotation.deserialize()) {
+                    continue;
+                }
+
+                ordinal = fieldAnnotation.ordinal();
+                parserFeatures = Feature.of(fieldAnnotation.parseFeatures());
+                if (fieldAnnotation.name().length() != 0) {
+                    propertyName = fieldAnnotation.name();
+                }
+            }
+            if ((fieldAnnotation == null || fieldAnnotation.name().length() == 0) && naming != null) {
+                propertyName = naming.translate(propertyName);
+            }
+
+            if (getField(fieldList, propertyName) != null) {
+                continue;
+            }
+
+            fieldList.add(new FieldInfo(propertyName, null, field, clazz, type, ordinal, 0, parserFeatures,
+                    fieldAnnotation, null, null));
+        }
+
+        return fieldList;
+    }
+
+    /**
+     * Names the parameters of a creator by their {@link JSONField#name()}, else by their declared names, taken from
+     * the <code>MethodParameters</code> attribute of classes compiled with <code>-parameters</code> or from the
+     * <code>LocalVariableTable</code>, see {@link ASMUtils#lookupParameterNames}.
+     */
+    private static List<FieldInfo> creatorParameters(Class<?> clazz,
+                                                     Type type,
+                                                     PropertyNamingStrategy naming,
+                                                     AccessibleObject creator,
+                                                     Class<?>[] parameterTypes,
+                                                     Type[] genericParameterTypes,
+                                                     Annotation[][] parameterAnnotations,
+                                                     Parameter[] parameters) {
+        List<FieldInfo> fieldList = new ArrayList<FieldInfo>(parameterTypes.length);
+        Field[] declaredFields = clazz.getDeclaredFields();
+        String[] lookupParameterNames = null;
+
+        for (int i = 0; i < parameterTypes.length; ++i) {
+            JSONField fieldAnnotation = null;
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof JSONField) {
+                    fieldAnnotation = (JSONField) annotation;
+                    break;
+                }
+            }
+
+            String name;
+            if (fieldAnnotation != null && fieldAnnotation.name().length() != 0) {
+                name = fieldAnnotation.name();
+            } else if (parameters[i].isNamePresent()) {
+                name = parameters[i].getName();
+            } else {
+                if (lookupParameterNames == null) {
+                    lookupParameterNames = ASMUtils.lookupParameterNames(creator);
+                }
+                name = i < lookupParameterNames.length ? lookupParameterNames[i] : null;
+            }
+
+            if (name == null) {
+                throw new JSONException("illegal json creator " + creator + ", the name of parameter " + i
+                        + " is not available, annotate it with @JSONField(name = ...)");
+            }
+
+            Field field = TypeUtils.getField(clazz, name, declaredFields);
+            if ((fieldAnnotation == null || fieldAnnotation.name().length() == 0) && naming != null) {
+                name = naming.translate(name);
+            }
+            int ordinal = fieldAnnotation != null ? fieldAnnotation.ordinal() : 0;
+            int parserFeatures = fieldAnnotation != null ? Feature.of(fieldAnnotation.parseFeatures()) : 0;
+
+            Class<?> fieldClass = parameterTypes[i];
+            Type fieldType = FieldInfo.getFieldType(clazz, type, genericParameterTypes[i]);
+            if (fieldType != genericParameterTypes[i]) {
+                fieldClass = TypeUtils.getClass(fieldType);
+            }
+
+            fieldList.add(new FieldInfo(name, clazz, fieldClass, fieldType, field, ordinal, 0, parserFeatures,
+                    fieldAnnotation));
+        }
+
+        return fieldList;
+    }
+
+    private static FieldInfo getField(List<FieldInfo> fieldList, String propertyName) {
+        for (FieldInfo item : fieldList) {
+            if (item.name.equals(propertyName)) {
+                return item;
+            }
+        }
+
+        return null;
+    }
+
+    static Class<?> getBuilderClass(JSONType jsonType) {
+        if (jsonType == null) {
+            return null;
+        }
+
+        Class<?> builderClass = jsonType.builder();
+        if (builderClass == Void.class) {
+            return null;
+        }
+
+        return builderClass;
+    }
+
+    static Constructor<?> getDefaultConstructor(Class<?> clazz) {
+        if (clazz.isMemberClass() && !Modifier.isStatic(clazz.getModifiers())) {
+            return null;
+        }
+
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.getParameterTypes().length == 0) {
+                return constructor;
+            }
+        }
+
+        return null;
+    }
+
+    static Constructor<?> getCreatorConstructor(Class<?> clazz) {
+        Constructor<?> creatorConstructor = null;
+        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
+            if (constructor.getAnnotation(JSONCreator.class) != null) {
+                if (creatorConstructor != null) {
+                    throw new JSONException("multi-JSONCreator in " + clazz.getName());
+                }
+                creatorConstructor = constructor;
+            }
+        }
+
+        return creatorConstructor;
+    }
+
+    static Method getFactoryMethod(Class<?> clazz) {
+        Method factoryMethod = null;
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) || !clazz.isAssignableFrom(method.getReturnType())) {
+                continue;
+            }
+
+            if (method.getAnnotation(JSONCreator.class) != null) {
+                if (factoryMethod != null) {
+                    throw new JSONException("multi-JSONCreator in " + clazz.getName());
+                }
+                factoryMethod = method;
+            }
+        }
+
+        return factoryMethod;
+    }
+
+    /**
+     * A bean held by an unwrapped property, see {@link #getUnwrapped()}.
+     */
+    public static final class Unwrapped {
+
+        /**
+         * The index of the bean holding the property, or -1 for the bean itself.
+         */
+        public final int parent;
+
+        /**
+         * The index of the property in the fields of the bean holding it.
+         */
+        public final int index;
+
+        public final JavaBeanInfo beanInfo;
+
+        Unwrapped(int parent, int index, JavaBeanInfo beanInfo) {
+            this.parent = parent;
+            this.index = index;
+            this.beanInfo = beanInfo;
+        }
+    }
+}
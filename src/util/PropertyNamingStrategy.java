@@ -0,0 +1,74 @@
+package util;
+
+/**
+ * How the names of the properties of a bean are written, from their java names, see
+ * {@link annotation.JSONType#naming()}. Names given with {@link annotation.JSONField#name()} are kept as they are.
+ */
+public enum PropertyNamingStrategy {
+    /**
+     * <code>personId</code>
+     */
+    CamelCase,
+    /**
+     * <code>PersonId</code>
+     */
+    PascalCase,
+    /**
+     * <code>person_id</code>
+     */
+    SnakeCase,
+    /**
+     * <code>person-id</code>
+     */
+    KebabCase,
+    NoChange,
+    NeverUseThisValueExceptDefaultValue;
+
+    public String translate(String propertyName) {
+        switch (this) {
+            case CamelCase: {
+                char c = propertyName.charAt(0);
+                if (c >= 'A' && c <= 'Z') {
+                    char[] chars = propertyName.toCharArray();
+                    chars[0] = (char) (c + 32);
+                    return new String(chars);
+                }
+                return propertyName;
+            }
+            case PascalCase: {
+                char c = propertyName.charAt(0);
+                if (c >= 'a' && c <= 'z') {
+                    char[] chars = propertyName.toCharArray();
+                    chars[0] = (char) (c - 32);
+                    return new String(chars);
+                }
+                return propertyName;
+            }
+            case SnakeCase:
+                return separate(propertyName, '_');
+            case KebabCase:
+                return separate(propertyName, '-');
+            default:
+                return propertyName;
+        }
+    }
+
+    /**
+     * Lower cases the upper case letters, each after the separator but the first one.
+     */
+    private static String separate(String propertyName, char separator) {
+        StringBuilder buf = new StringBuilder(propertyName.length() + 4);
+        for (int i = 0; i < propertyName.length(); ++i) {
+            char c = propertyName.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                if (i > 0) {
+                    buf.append(separator);
+                }
+                buf.append((char) (c + 32));
+            } else {
+                buf.append(c);
+            }
+        }
+        return buf.toString();
+    }
+}
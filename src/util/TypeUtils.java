@@ -0,0 +1,871 @@
+package util;
+
+import annotation.JSONField;
+import annotation.JSONType;
+import parser.Feature;
+import serializer.SerializeBeanInfo;
+import serializer.SerializerFeature;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TypeUtils {
+
+    public static final long fnv1a_64_magic_hashcode = 0xcbf29ce484222325L;
+    public static final long fnv1a_64_magic_prime = 0x100000001b3L;
+
+    /**
+     * The instances of the codec classes named by annotations, one per class, held by the class itself so that
+     * neither is kept from being unloaded.
+     */
+    private static final ClassValue<Object> codecs = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> codecClass) {
+            return createCodec(codecClass);
+        }
+    };
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-16 code units of the given key. The lexers compute the same hash incrementally
+     * while scanning a property name, so a name can be matched without materializing it as a String.
+     */
+    public static long fnv1a_64(String key) {
+        long hashCode = fnv1a_64_magic_hashcode;
+        for (int i = 0; i < key.length(); ++i) {
+            char ch = key.charAt(i);
+            hashCode ^= ch;
+            hashCode *= fnv1a_64_magic_prime;
+        }
+        return hashCode;
+    }
+
+    public static Class<?> getClass(Type type) {
+        if (type.getClass() == Class.class) {
+            return (Class<?>) type;
+        }
+
+        if (type instanceof ParameterizedType) {
+            return getClass(((ParameterizedType) type).getRawType());
+        }
+
+        if (type instanceof TypeVariable) {
+            Type boundType = ((TypeVariable<?>) type).getBounds()[0];
+            if (boundType instanceof Class) {
+                return (Class<?>) boundType;
+            }
+            return getClass(boundType);
+        }
+
+        if (type instanceof WildcardType) {
+            Type[] upperBounds = ((WildcardType) type).getUpperBounds();
+            if (upperBounds.length == 1) {
+                return getClass(upperBounds[0]);
+            }
+        }
+
+        if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            return Array.newInstance(getClass(componentType), 0).getClass();
+        }
+
+        return Object.class;
+    }
+
+    public static String castToString(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        return value.toString();
+    }
+
+    public static Integer castToInt(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+
+        if (value instanceof Number || value instanceof String) {
+            Long longValue = castToLong(value);
+            if (longValue == null) {
+                return null;
+            }
+            long l = longValue;
+            if (l < Integer.MIN_VALUE || l > Integer.MAX_VALUE) {
+                throw new JSONException("int overflow, value " + value);
+            }
+            return (int) l;
+        }
+
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue() ? 1 : 0;
+        }
+
+        throw new JSONException("can not cast to int, value : " + value);
+    }
+
+    public static Long castToLong(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+
+        if (value instanceof Number) {
+            return longValue((Number) value);
+        }
+
+        if (value instanceof String) {
+            String strVal = ((String) value).trim();
+            if (strVal.length() == 0 || "null".equals(strVal)) {
+                return null;
+            }
+            try {
+                if (strVal.indexOf('.') != -1 || strVal.indexOf('e') != -1 || strVal.indexOf('E') != -1) {
+                    return longValue(Double.parseDouble(strVal), strVal);
+                }
+                return Long.parseLong(strVal);
+            } catch (NumberFormatException e) {
+                throw new JSONException("can not cast to long, value : " + value, e);
+            }
+        }
+
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue() ? 1L : 0L;
+        }
+
+        throw new JSONException("can not cast to long, value : " + value);
+    }
+
+    /**
+     * Returns the value of a number, without its fraction, and throws when it does not fit in a long.
+     */
+    private static long longValue(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            return longValue(value.doubleValue(), value);
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            if (decimal.precision() - decimal.scale() > 19) {
+                throw new JSONException("long overflow, value " + value);
+            }
+            value = decimal.toBigInteger();
+        }
+        if (value instanceof BigInteger && ((BigInteger) value).bitLength() > 63) {
+            throw new JSONException("long overflow, value " + value);
+        }
+        return value.longValue();
+    }
+
+    private static long longValue(double value, Object source) {
+        // NaN fails both comparisons
+        if (!(value >= -0x1p63 && value < 0x1p63)) {
+            throw new JSONException("long overflow, value " + source);
+        }
+        return (long) value;
+    }
+
+    public static Short castToShort(Object value) {
+        Integer intValue = castToInt(value);
+        if (intValue == null) {
+            return null;
+        }
+        if (intValue < Short.MIN_VALUE || intValue > Short.MAX_VALUE) {
+            throw new JSONException("short overflow, value " + value);
+        }
+        return intValue.shortValue();
+    }
+
+    /**
+     * Casts to a byte, signed or unsigned, as the elements of a <code>byte[]</code> are read.
+     */
+    public static Byte castToByte(Object value) {
+        Integer intValue = castToInt(value);
+        if (intValue == null) {
+            return null;
+        }
+        if (intValue < Byte.MIN_VALUE || intValue > 0xFF) {
+            throw new JSONException("byte overflow, value " + value);
+        }
+        return intValue.byteValue();
+    }
+
+    public static Double castToDouble(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+
+        if (value instanceof String) {
+            String strVal = ((String) value).trim();
+            if (strVal.length() == 0 || "null".equals(strVal)) {
+                return null;
+            }
+            try {
+                return Double.parseDouble(strVal);
+            } catch (NumberFormatException e) {
+                throw new JSONException("can not cast to double, value : " + value, e);
+            }
+        }
+
+        if (value instanceof Boolean) {
+            return ((Boolean) value).booleanValue() ? 1D : 0D;
+        }
+
+        throw new JSONException("can not cast to double, value : " + value);
+    }
+
+    public static Float castToFloat(Object value) {
+        Double doubleValue = castToDouble(value);
+        return doubleValue == null ? null : Float.valueOf(doubleValue.floatValue());
+    }
+
+    public static BigDecimal castToBigDecimal(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+
+        String strVal = value.toString().trim();
+        if (strVal.length() == 0 || "null".equals(strVal)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(strVal);
+        } catch (NumberFormatException e) {
+            throw new JSONException("can not cast to BigDecimal, value : " + value, e);
+        }
+    }
+
+    public static BigInteger castToBigInteger(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof BigInteger) {
+            return (BigInteger) value;
+        }
+
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toBigInteger();
+        }
+
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return BigInteger.valueOf(((Number) value).longValue());
+        }
+
+        String strVal = value.toString().trim();
+        if (strVal.length() == 0 || "null".equals(strVal)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(strVal).toBigInteger();
+        } catch (NumberFormatException e) {
+            throw new JSONException("can not cast to BigInteger, value : " + value, e);
+        }
+    }
+
+    public static Boolean castToBoolean(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+
+        if (value instanceof Number) {
+            return ((Number) value).intValue() == 1;
+        }
+
+        if (value instanceof String) {
+            String strVal = ((String) value).trim();
+            if (strVal.length() == 0 || "null".equals(strVal)) {
+                return null;
+            }
+            if ("true".equalsIgnoreCase(strVal) || "1".equals(strVal)) {
+                return Boolean.TRUE;
+            }
+            if ("false".equalsIgnoreCase(strVal) || "0".equals(strVal)) {
+                return Boolean.FALSE;
+            }
+        }
+
+        throw new JSONException("can not cast to boolean, value : " + value);
+    }
+
+    public static Character castToChar(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+
+        if (value instanceof String) {
+            String strVal = (String) value;
+            if (strVal.length() == 0) {
+                return null;
+            }
+            if (strVal.length() != 1) {
+                throw new JSONException("can not cast to char, value : " + value);
+            }
+            return strVal.charAt(0);
+        }
+
+        throw new JSONException("can not cast to char, value : " + value);
+    }
+
+    /**
+     * Casts a number of epoch milliseconds, or a string of digits, to a date. Date patterns are not supported.
+     */
+    public static Date castToDate(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof Date) {
+            return (Date) value;
+        }
+
+        if (value instanceof Calendar) {
+            return ((Calendar) value).getTime();
+        }
+
+        if (value instanceof Number) {
+            return new Date(((Number) value).longValue());
+        }
+
+        if (value instanceof String) {
+            String strVal = ((String) value).trim();
+            if (strVal.length() == 0 || "null".equals(strVal)) {
+                return null;
+            }
+            try {
+                return new Date(Long.parseLong(strVal));
+            } catch (NumberFormatException e) {
+                throw new JSONException("can not cast to Date, value : " + value);
+            }
+        }
+
+        throw new JSONException("can not cast to Date, value : " + value);
+    }
+
+    /**
+     * Converts a parsed scalar, e.g. a map key or a value of a different JSON type than expected, to the given
+     * class.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> T cast(Object value, Class<T> clazz) {
+        if (value == null) {
+            return null;
+        }
+
+        if (clazz.isInstance(value)) {
+            return (T) value;
+        }
+
+        if (clazz == String.class) {
+            return (T) value.toString();
+        }
+
+        if (clazz == int.class || clazz == Integer.class) {
+            return (T) castToInt(value);
+        }
+
+        if (clazz == long.class || clazz == Long.class) {
+            return (T) castToLong(value);
+        }
+
+        if (clazz == short.class || clazz == Short.class) {
+            return (T) castToShort(value);
+        }
+
+        if (clazz == byte.class || clazz == Byte.class) {
+            return (T) castToByte(value);
+        }
+
+        if (clazz == double.class || clazz == Double.class) {
+            return (T) castToDouble(value);
+        }
+
+        if (clazz == float.class || clazz == Float.class) {
+            return (T) castToFloat(value);
+        }
+
+        if (clazz == boolean.class || clazz == Boolean.class) {
+            return (T) castToBoolean(value);
+        }
+
+        if (clazz == char.class || clazz == Character.class) {
+            return (T) castToChar(value);
+        }
+
+        if (clazz == BigDecimal.class) {
+            return (T) castToBigDecimal(value);
+        }
+
+        if (clazz == BigInteger.class) {
+            return (T) castToBigInteger(value);
+        }
+
+        if (clazz == Date.class) {
+            return (T) castToDate(value);
+        }
+
+        if (clazz.isEnum() && value instanceof String) {
+            String name = (String) value;
+            if (name.length() == 0) {
+                return null;
+            }
+            return (T) Enum.valueOf((Class<? extends Enum>) clazz, name);
+        }
+
+        throw new JSONException("can not cast to : " + clazz.getName() + ", value : " + value);
+    }
+
+    public static boolean isGenericParamType(Type type) {
+        if (type instanceof ParameterizedType) {
+            return true;
+        }
+
+        if (type instanceof Class) {
+            Type superType = ((Class<?>) type).getGenericSuperclass();
+            return superType != Object.class && isGenericParamType(superType);
+        }
+
+        return false;
+    }
+
+    public static Type getGenericParamType(Type type) {
+        if (type instanceof ParameterizedType) {
+            return type;
+        }
+
+        if (type instanceof Class) {
+            return getGenericParamType(((Class<?>) type).getGenericSuperclass());
+        }
+
+        return type;
+    }
+
+    /**
+     * Returns the element type of a collection type, or <tt>Object.class</tt> when it is not known.
+     */
+    public static Type getCollectionItemType(Type fieldType) {
+        if (fieldType instanceof ParameterizedType) {
+            Type actualTypeArgument = ((ParameterizedType) fieldType).getActualTypeArguments()[0];
+            if (actualTypeArgument instanceof WildcardType) {
+                WildcardType wildcardType = (WildcardType) actualTypeArgument;
+                Type[] upperBounds = wildcardType.getUpperBounds();
+                if (upperBounds.length == 1) {
+                    actualTypeArgument = upperBounds[0];
+                }
+            }
+            return actualTypeArgument;
+        }
+
+        if (fieldType instanceof Class<?> && !((Class<?>) fieldType).getName().startsWith("java.")) {
+            Type superClass = ((Class<?>) fieldType).getGenericSuperclass();
+            if (superClass != null && superClass != Object.class) {
+                return getCollectionItemType(superClass);
+            }
+        }
+
+        return Object.class;
+    }
+
+    public static void setAccessible(AccessibleObject obj) {
+        if (obj.isAccessible()) {
+            return;
+        }
+
+        try {
+            obj.setAccessible(true);
+        } catch (SecurityException error) {
+            // not accessible, the caller falls back to public members only
+        }
+    }
+
+    public static Field getField(Class<?> clazz, String fieldName, Field[] declaredFields) {
+        for (Field field : declaredFields) {
+            String itemName = field.getName();
+            if (fieldName.equals(itemName)) {
+                return field;
+            }
+
+            char c0, c1;
+            if (fieldName.length() > 2
+                    && (c0 = fieldName.charAt(0)) >= 'a' && c0 <= 'z'
+                    && (c1 = fieldName.charAt(1)) >= 'A' && c1 <= 'Z'
+                    && fieldName.equalsIgnoreCase(itemName)) {
+                return field;
+            }
+        }
+
+        Class<?> superClass = clazz.getSuperclass();
+        if (superClass != null && superClass != Object.class) {
+            return getField(superClass, fieldName, superClass.getDeclaredFields());
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the property name for a getter or setter name without its prefix, following the rules of
+     * {@code java.beans.Introspector#decapitalize}.
+     */
+    public static String decapitalize(String name) {
+        if (name == null || name.length() == 0) {
+            return name;
+        }
+
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+
+        char[] chars = name.toCharArray();
+        chars[0] = Character.toLowerCase(chars[0]);
+        return new String(chars);
+    }
+
+    /**
+     * Returns the name which tells the class from the other subtypes of a type annotated with
+     * {@link JSONType#seeAlso()}: its {@link JSONType#typeName()}, or its class name when it has none but is listed in
+     * the <code>seeAlso</code> of one of its supertypes. Returns null for a class which is not such a subtype.
+     */
+    public static String getTypeName(Class<?> clazz) {
+        JSONType jsonType = clazz.getAnnotation(JSONType.class);
+        if (jsonType != null && jsonType.typeName().length() != 0) {
+            return jsonType.typeName();
+        }
+        return isSeeAlso(clazz, clazz) ? clazz.getName() : null;
+    }
+
+    private static boolean isSeeAlso(Class<?> clazz, Class<?> subtype) {
+        List<Class<?>> supertypes = new ArrayList<Class<?>>(Arrays.asList(clazz.getInterfaces()));
+        if (clazz.getSuperclass() != null) {
+            supertypes.add(clazz.getSuperclass());
+        }
+        for (Class<?> supertype : supertypes) {
+            JSONType jsonType = supertype.getAnnotation(JSONType.class);
+            if (jsonType != null && Arrays.asList(jsonType.seeAlso()).contains(subtype)) {
+                return true;
+            }
+            if (isSeeAlso(supertype, subtype)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the name of the property which holds the {@link #getTypeName type name}: the
+     * {@link JSONType#typeKey()} of the class or of the nearest of its supertypes which has one, or "@type".
+     */
+    public static String getTypeKey(Class<?> clazz) {
+        String typeKey = findTypeKey(clazz);
+        return typeKey != null ? typeKey : "@type";
+    }
+
+    private static String findTypeKey(Class<?> clazz) {
+        JSONType jsonType = clazz.getAnnotation(JSONType.class);
+        if (jsonType != null && jsonType.typeKey().length() != 0) {
+            return jsonType.typeKey();
+        }
+
+        String typeKey = clazz.getSuperclass() == null ? null : findTypeKey(clazz.getSuperclass());
+        for (int i = 0; typeKey == null && i < clazz.getInterfaces().length; ++i) {
+            typeKey = findTypeKey(clazz.getInterfaces()[i]);
+        }
+        return typeKey;
+    }
+
+    /**
+     * Returns the instance of a codec class named by {@link JSONField#serializeUsing()},
+     * {@link JSONField#deserializeUsing()}, {@link JSONType#serializer()} or {@link JSONType#deserializer()}, the
+     * same for every property and type naming it: the value of its public static <code>instance</code> field, like
+     * the codecs of this library have, else one created with its no-arg constructor.
+     */
+    public static <T> T getCodec(Class<?> codecClass, Class<T> codecType) {
+        if (!codecType.isAssignableFrom(codecClass)) {
+            throw new JSONException(codecClass.getName() + " is not a " + codecType.getName());
+        }
+
+        return codecType.cast(codecs.get(codecClass));
+    }
+
+    private static Object createCodec(Class<?> codecClass) {
+        try {
+            Object codec = getInstanceField(codecClass);
+            if (codec == null) {
+                Constructor<?> constructor = codecClass.getDeclaredConstructor();
+                setAccessible(constructor);
+                codec = constructor.newInstance();
+            }
+            return codec;
+        } catch (Exception e) {
+            throw new JSONException("create codec error, class " + codecClass.getName(), e);
+        }
+    }
+
+    private static Object getInstanceField(Class<?> codecClass) throws IllegalAccessException {
+        Field field;
+        try {
+            field = codecClass.getField("instance");
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+        Object instance = Modifier.isStatic(field.getModifiers()) ? field.get(null) : null;
+        return codecClass.isInstance(instance) ? instance : null;
+    }
+
+    public static SerializeBeanInfo buildBeanInfo(Class<?> beanType) {
+        JSONType jsonType = beanType.getAnnotation(JSONType.class);
+
+        int features = 0;
+        if (jsonType != null) {
+            features = SerializerFeature.of(jsonType.serializeFeatures());
+        }
+        String typeName = getTypeName(beanType);
+        String typeKey = typeName == null ? null : getTypeKey(beanType);
+
+        List<FieldInfo> fieldInfoList = computeGetters(beanType, jsonType);
+        FieldInfo[] fields = new FieldInfo[fieldInfoList.size()];
+        fieldInfoList.toArray(fields);
+
+        return new SerializeBeanInfo(beanType, jsonType, typeName, typeKey, features, fields);
+    }
+
+    /**
+     * Collects the readable properties of a bean, from its public getters and public fields, in serialization
+     * order: first those of {@link JSONType#orders()}, then by {@link JSONField#ordinal()} and then by name, unless
+     * {@link JSONType#alphabetic()} is turned off. The properties are filtered by {@link JSONType#includes()} and
+     * {@link JSONType#ignores()} and named by {@link JSONType#naming()}, once, so that the serializers write the
+     * names they are given.
+     */
+    public static List<FieldInfo> computeGetters(Class<?> clazz, JSONType jsonType) {
+        // by the name before the naming strategy, which the includes, ignores and orders refer to
+        Map<String, FieldInfo> fieldInfoMap = new LinkedHashMap<String, FieldInfo>();
+        Field[] declaredFields = clazz.getDeclaredFields();
+        PropertyNamingStrategy naming = jsonType != null ? jsonType.naming() : null;
+
+        for (Method method : clazz.getMethods()) {
+            String methodName = method.getName();
+            int ordinal = 0, serialzeFeatures = 0, parserFeatures = 0;
+            String label = null;
+
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+
+            if (method.getReturnType().equals(Void.TYPE)) {
+                continue;
+            }
+
+            if (method.getParameterTypes().length != 0) {
+                continue;
+            }
+
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+
+            if (method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+
+            JSONField annotation = method.getAnnotation(JSONField.class);
+
+            String propertyName;
+            if (methodName.startsWith("get") && methodName.length() > 3) {
+                char c3 = methodName.charAt(3);
+                if (!Character.isUpperCase(c3) && c3 != '_') {
+                    continue;
+                }
+                propertyName = decapitalize(methodName.substring(3));
+            } else if (methodName.startsWith("is") && methodName.length() > 2) {
+                Class<?> returnType = method.getReturnType();
+                if (returnType != Boolean.TYPE && returnType != Boolean.class) {
+                    continue;
+                }
+                char c2 = methodName.charAt(2);
+                if (!Character.isUpperCase(c2) && c2 != '_') {
+                    continue;
+                }
+                propertyName = decapitalize(methodName.substring(2));
+            } else {
+                continue;
+            }
+
+            Field field = getField(clazz, propertyName, declaredFields);
+            JSONField fieldAnnotation = field != null ? field.getAnnotation(JSONField.class) : null;
+            JSONField effective = fieldAnnotation != null ? fieldAnnotation : annotation;
+            String name = null;
+
+            if (effective != null) {
+                if (!effective.serialize()) {
+                    continue;
+                }
+
+                ordinal = effective.ordinal();
+                serialzeFeatures = SerializerFeature.of(effective.serializeFeatures());
+                parserFeatures = Feature.of(effective.parseFeatures());
+
+                if (effective.name().length() != 0) {
+                    propertyName = name = effective.name();
+                }
+
+                if (effective.label().length() != 0) {
+                    label = effective.label();
+                }
+            }
+
+            if (field != null && Modifier.isTransient(field.getModifiers()) && effective == null) {
+                continue;
+            }
+
+            if (fieldInfoMap.containsKey(propertyName) || !isIncluded(jsonType, propertyName)) {
+                continue;
+            }
+
+            if (name == null) {
+                name = naming != null ? naming.translate(propertyName) : propertyName;
+            }
+            FieldInfo fieldInfo = new FieldInfo(name, method, field, clazz, null, ordinal, serialzeFeatures, parserFeatures,
+                    fieldAnnotation, annotation, label);
+            fieldInfoMap.put(propertyName, fieldInfo);
+        }
+
+        for (Field field : clazz.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                continue;
+            }
+
+            JSONField fieldAnnotation = field.getAnnotation(JSONField.class);
+
+            int ordinal = 0, serialzeFeatures = 0, parserFeatures = 0;
+            String propertyName = field.getName();
+            String name = null;
+            String label = null;
+            if (fieldAnnotation != null) {
+                if (!fieldAnnotation.serialize()) {
+                    continue;
+                }
+
+                ordinal = fieldAnnotation.ordinal();
+                serialzeFeatures = SerializerFeature.of(fieldAnnotation.serializeFeatures());
+                parserFeatures = Feature.of(fieldAnnotation.parseFeatures());
+
+                if (fieldAnnotation.name().length() != 0) {
+                    propertyName = name = fieldAnnotation.name();
+                }
+
+                if (fieldAnnotation.label().length() != 0) {
+                    label = fieldAnnotation.label();
+                }
+            }
+
+            if (fieldInfoMap.containsKey(propertyName) || !isIncluded(jsonType, propertyName)) {
+                continue;
+            }
+
+            if (name == null) {
+                name = naming != null ? naming.translate(propertyName) : propertyName;
+            }
+            FieldInfo fieldInfo = new FieldInfo(name, null, field, clazz, null, ordinal, serialzeFeatures, parserFeatures,
+                    fieldAnnotation, null, label);
+            fieldInfoMap.put(propertyName, fieldInfo);
+        }
+
+        List<FieldInfo> fieldInfoList = new ArrayList<FieldInfo>(fieldInfoMap.values());
+
+        boolean alphabetic = jsonType == null || jsonType.alphabetic();
+        if (alphabetic) {
+            Collections.sort(fieldInfoList);
+        } else {
+            sortByOrdinal(fieldInfoList);
+        }
+
+        if (jsonType != null && jsonType.orders().length != 0) {
+            List<FieldInfo> ordered = new ArrayList<FieldInfo>(fieldInfoList.size());
+            for (String propertyName : jsonType.orders()) {
+                FieldInfo fieldInfo = fieldInfoMap.get(propertyName);
+                if (fieldInfo != null && !ordered.contains(fieldInfo)) {
+                    ordered.add(fieldInfo);
+                }
+            }
+            for (FieldInfo fieldInfo : fieldInfoList) {
+                if (!ordered.contains(fieldInfo)) {
+                    ordered.add(fieldInfo);
+                }
+            }
+            fieldInfoList = ordered;
+        }
+
+        return fieldInfoList;
+    }
+
+    private static boolean isIncluded(JSONType jsonType, String propertyName) {
+        if (jsonType == null) {
+            return true;
+        }
+
+        String[] includes = jsonType.includes();
+        if (includes.length != 0 && !Arrays.asList(includes).contains(propertyName)) {
+            return false;
+        }
+        return !Arrays.asList(jsonType.ignores()).contains(propertyName);
+    }
+
+    private static void sortByOrdinal(List<FieldInfo> fieldInfoList) {
+        FieldInfo[] array = fieldInfoList.toArray(new FieldInfo[fieldInfoList.size()]);
+        // a stable sort keeps the declaration order for properties of the same ordinal
+        Arrays.sort(array, new java.util.Comparator<FieldInfo>() {
+            public int compare(FieldInfo a, FieldInfo b) {
+                return a.getOrdinal() < b.getOrdinal() ? -1 : (a.getOrdinal() == b.getOrdinal() ? 0 : 1);
+            }
+        });
+        fieldInfoList.clear();
+        fieldInfoList.addAll(Arrays.asList(array));
+    }
+}
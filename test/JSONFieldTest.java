@@ -0,0 +1,228 @@
+import annotation.JSONField;
+import annotation.JSONType;
+import org.junit.Test;
+import parser.DefaultJSONParser;
+import parser.Feature;
+import parser.JSONLexer;
+import parser.deserializer.ObjectDeserializer;
+import serializer.JSONSerializer;
+import serializer.ObjectSerializer;
+import serializer.SerializerFeature;
+import util.JSONException;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Reads and writes the properties configured with {@link JSONField}, each with the generated codecs and the
+ * reflection based ones, which must agree.
+ */
+public class JSONFieldTest {
+
+    public static class Formatted {
+        @JSONField(format = "yyyy-MM-dd")
+        public LocalDate day;
+        @JSONField(format = "millis")
+        public Date at;
+        @JSONField(format = "0.00")
+        public double price;
+    }
+
+    @JSONType(asm = false)
+    public static class ReflectedFormatted extends Formatted {
+    }
+
+    public static class PrimitiveArrays {
+        public boolean[] booleans;
+        public byte[] bytes;
+        public short[] shorts;
+        public char[] chars;
+        public int[] ints;
+        public long[] longs;
+        public float[] floats;
+        public double[] doubles;
+    }
+
+    public static class Positional {
+        @JSONField(ordinal = 2)
+        public String name;
+        @JSONField(ordinal = 1)
+        public int id;
+        @JSONField(ordinal = 3)
+        public double[] values;
+        public Boolean flag;
+    }
+
+    @JSONType(asm = false)
+    public static class ReflectedPositional extends Positional {
+    }
+
+    public static class Direct {
+        public int id;
+        @JSONField(jsonDirect = true)
+        public String payload;
+        @JSONField(jsonDirect = true)
+        public byte[] raw;
+    }
+
+    @JSONType(asm = false)
+    public static class ReflectedDirect extends Direct {
+    }
+
+    public static class Address {
+        public String city;
+        public String zip;
+    }
+
+    public static class Person {
+        public String name;
+        @JSONField(unwrapped = true)
+        public Address address;
+        @JSONField(unwrapped = true)
+        public Map<String, Object> extra;
+    }
+
+    @JSONType(asm = false)
+    public static class ReflectedPerson extends Person {
+    }
+
+    /**
+     * Writes cents as a decimal string, and reads them back.
+     */
+    public static class CentsCodec implements ObjectSerializer, ObjectDeserializer {
+        public static final CentsCodec instance = new CentsCodec();
+
+        public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+            long cents = (Long) object;
+            serializer.out.writeString(cents / 100 + "." + (cents % 100 < 10 ? "0" : "") + cents % 100);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+            JSONLexer lexer = parser.getLexer();
+            String text = lexer.stringVal();
+            lexer.nextToken();
+            int dot = text.indexOf('.');
+            return (T) Long.valueOf(Long.parseLong(text.substring(0, dot)) * 100
+                    + Long.parseLong(text.substring(dot + 1)));
+        }
+    }
+
+    public static class Invoice {
+        @JSONField(serializeUsing = CentsCodec.class, deserializeUsing = CentsCodec.class)
+        public long total;
+        public int lines;
+    }
+
+    @JSONType(asm = false)
+    public static class ReflectedInvoice extends Invoice {
+    }
+
+    @Test
+    public void formats() {
+        for (Class<? extends Formatted> clazz : Arrays.asList(Formatted.class, ReflectedFormatted.class)) {
+            Formatted bean = JSON.parseObject("{\"at\":1500000000000,\"day\":\"2024-02-29\",\"price\":1.5}", clazz);
+            assertEquals(LocalDate.of(2024, 2, 29), bean.day);
+            assertEquals(1500000000000L, bean.at.getTime());
+            assertEquals("{\"at\":1500000000000,\"day\":\"2024-02-29\",\"price\":1.50}", JSON.toJSONString(bean));
+        }
+    }
+
+    @Test
+    public void primitiveArrays() {
+        PrimitiveArrays arrays = new PrimitiveArrays();
+        arrays.booleans = new boolean[]{true, false};
+        arrays.bytes = new byte[]{-1, 0, 1};
+        arrays.shorts = new short[]{Short.MIN_VALUE, Short.MAX_VALUE};
+        arrays.chars = new char[]{'a', '"'};
+        arrays.ints = new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE};
+        arrays.longs = new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
+        arrays.floats = new float[]{0.1f, -3.4028235e38f, Float.MIN_VALUE};
+        arrays.doubles = new double[]{0.1, 1e300, -Double.MIN_VALUE};
+
+        PrimitiveArrays read = JSON.parseObject(JSON.toJSONString(arrays), PrimitiveArrays.class);
+        assertArrayEquals(arrays.booleans, read.booleans);
+        assertArrayEquals(arrays.bytes, read.bytes);
+        assertArrayEquals(arrays.shorts, read.shorts);
+        assertArrayEquals(arrays.chars, read.chars);
+        assertArrayEquals(arrays.ints, read.ints);
+        assertArrayEquals(arrays.longs, read.longs);
+        assertArrayEquals(arrays.floats, read.floats, 0);
+        assertArrayEquals(arrays.doubles, read.doubles, 0);
+
+        String[] texts = {"{\"shorts\":[32768]}", "{\"ints\":[1,\"x\"]}", "{\"longs\":[1e19]}"};
+        for (String text : texts) {
+            try {
+                JSON.parseObject(text, PrimitiveArrays.class);
+                fail(text);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void ordinals() {
+        for (Class<? extends Positional> clazz : Arrays.asList(Positional.class, ReflectedPositional.class)) {
+            Positional bean = JSON.parseObject("{\"values\":[0.5,2],\"name\":\"a\",\"id\":3}", clazz);
+            // the property without an ordinal has 0, and comes first
+            assertEquals("{\"flag\":null,\"id\":3,\"name\":\"a\",\"values\":[0.5,2]}",
+                    JSON.toJSONString(bean, SerializerFeature.WriteMapNullValue));
+            String array = JSON.toJSONString(bean, SerializerFeature.BeanToArray);
+            assertEquals("[null,3,\"a\",[0.5,2]]", array);
+
+            Positional read = JSON.parseObject(array, clazz, Feature.SupportArrayToBean);
+            assertNull(read.flag);
+            assertEquals(3, read.id);
+            assertEquals("a", read.name);
+            assertArrayEquals(new double[]{0.5, 2}, read.values, 0);
+        }
+    }
+
+    @Test
+    public void jsonDirect() {
+        String text = "{\"id\":1,\"payload\":{\"a\":[1, 2,{\"b\":\"}\"}]},\"raw\":[true,null]}";
+        for (Class<? extends Direct> clazz : Arrays.asList(Direct.class, ReflectedDirect.class)) {
+            Direct bean = JSON.parseObject(text, clazz);
+            assertEquals("{\"a\":[1, 2,{\"b\":\"}\"}]}", bean.payload);
+            assertEquals("[true,null]", new String(bean.raw, StandardCharsets.UTF_8));
+            assertEquals(text, JSON.toJSONString(bean));
+        }
+    }
+
+    @Test
+    public void unwrapped() {
+        String text = "{\"city\":\"Paris\",\"zip\":\"75001\",\"age\":30,\"name\":\"Ann\"}";
+        for (Class<? extends Person> clazz : Arrays.asList(Person.class, ReflectedPerson.class)) {
+            Person person = JSON.parseObject(text, clazz);
+            assertEquals("Ann", person.name);
+            assertEquals("Paris", person.address.city);
+            assertEquals("75001", person.address.zip);
+            Map<String, Object> extra = new LinkedHashMap<String, Object>();
+            extra.put("age", 30);
+            assertEquals(extra, person.extra);
+            String written = JSON.toJSONString(person);
+            assertEquals(written, JSON.toJSONString(JSON.parseObject(written, clazz)));
+        }
+    }
+
+    @Test
+    public void customCodecs() {
+        for (Class<? extends Invoice> clazz : Arrays.asList(Invoice.class, ReflectedInvoice.class)) {
+            Invoice invoice = JSON.parseObject("{\"lines\":2,\"total\":\"12.05\"}", clazz);
+            assertEquals(1205, invoice.total);
+            assertEquals(2, invoice.lines);
+            assertEquals("{\"lines\":2,\"total\":\"12.05\"}", JSON.toJSONString(invoice));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import org.junit.Test;
+import parser.JSONToken;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Walks documents larger than the buffer of the reader, from each kind of input.
+ */
+public class JSONReaderTest {
+
+    public static class Item {
+        public int id;
+        public String name;
+    }
+
+    @Test
+    public void largeArray() throws Exception {
+        StringBuilder sb = new StringBuilder("{\"skip\":{\"a\":[1,2,{\"b\":\"]\"}]},\"items\":[");
+        for (int i = 0; i < 20000; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i).append(",\"name\":\"item").append(i).append("\"}");
+        }
+        sb.append("],\"total\":20000,\"rate\":0.25,\"ok\":false,\"note\":null}");
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (int input = 0; input < 3; ++input) {
+            JSONReader reader = input == 0 ? new JSONReader(new ByteArrayInputStream(bytes))
+                    : input == 1 ? new JSONReader(Channels.newChannel(new ByteArrayInputStream(bytes)))
+                    : new JSONReader(new StringReader(sb.toString()));
+            try {
+                reader.startObject();
+                assertEquals("skip", reader.nextName());
+                reader.skipValue();
+                assertEquals("items", reader.nextName());
+                reader.startArray();
+                int n = 0;
+                while (reader.hasNext()) {
+                    Item item = reader.readObject(Item.class);
+                    assertEquals(n, item.id);
+                    assertEquals("item" + n, item.name);
+                    n++;
+                }
+                reader.endArray();
+                assertEquals(20000, n);
+                assertEquals("total", reader.nextName());
+                assertEquals(Long.valueOf(20000), reader.readLong());
+                assertEquals("rate", reader.nextName());
+                assertEquals(new BigDecimal("0.25"), reader.readDecimal());
+                assertEquals("ok", reader.nextName());
+                assertFalse(reader.readBoolean());
+                assertEquals("note", reader.nextName());
+                assertNull(reader.readString());
+                assertFalse(reader.hasNext());
+                reader.endObject();
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    @Test
+    public void lines() throws Exception {
+        String text = "{\"id\":1}\n{\"id\":2,\"x\":[true]}\n\n\"three\"\n";
+        JSONReader reader = new JSONReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+        try {
+            assertTrue(reader.hasNext());
+            assertEquals(JSONToken.LBRACE, reader.peek());
+            assertEquals(1, reader.readObject(Item.class).id);
+            assertTrue(reader.hasNext());
+            assertEquals(2, ((Map<?, ?>) reader.readObject()).get("id"));
+            assertTrue(reader.hasNext());
+            assertEquals("three", reader.readString());
+            assertFalse(reader.hasNext());
+        } finally {
+            reader.close();
+        }
+    }
+}
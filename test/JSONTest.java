@@ -0,0 +1,345 @@
+import annotation.JSONCreator;
+import annotation.JSONPOJOBuilder;
+import annotation.JSONType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import parser.Feature;
+import util.JSONException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Reads and writes beans through the entry points of {@link JSON}, with the generated codecs and with the
+ * reflection based ones, to and from each kind of input and output.
+ */
+public class JSONTest {
+
+    private static final String ORDER = "{\"color\":\"GREEN\",\"counts\":[1,-2,3],\"id\":7,"
+            + "\"items\":[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\\\"c\"}],\"note\":\"é中\\n\","
+            + "\"paid\":true,\"rate\":0.1,\"tags\":{\"x\":1},\"total\":9007199254740993}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public enum Color {
+        RED, GREEN
+    }
+
+    public static class Item {
+        public int id;
+        public String name;
+    }
+
+    public static class Order {
+        public int id;
+        public long total;
+        public double rate;
+        public boolean paid;
+        public String note;
+        public Color color;
+        public int[] counts;
+        public List<Item> items;
+        public Map<String, Integer> tags;
+    }
+
+    @JSONType(asm = false)
+    public static class ReflectedOrder extends Order {
+    }
+
+    @JSONType(builder = Range.Builder.class)
+    public static class Range {
+        private final int from;
+        private final int to;
+
+        Range(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        @JSONPOJOBuilder
+        public static class Builder {
+            private int from;
+            private int to;
+
+            public Builder withFrom(int from) {
+                this.from = from;
+                return this;
+            }
+
+            public Builder withTo(int to) {
+                this.to = to;
+                return this;
+            }
+
+            public Range build() {
+                return new Range(from, to);
+            }
+        }
+    }
+
+    public static class Point {
+        private final int x;
+        private final int y;
+
+        @JSONCreator
+        public Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+    }
+
+    public static class Warm {
+        public int id;
+        public List<WarmItem> items;
+    }
+
+    public static class WarmItem {
+        public String name;
+    }
+
+    @Test
+    public void write() {
+        assertEquals(ORDER, JSON.toJSONString(order(new Order())));
+        assertEquals(ORDER, JSON.toJSONString(order(new ReflectedOrder())));
+    }
+
+    @Test
+    public void read() {
+        assertOrder(JSON.parseObject(ORDER, Order.class));
+        assertOrder(JSON.parseObject(ORDER, ReflectedOrder.class));
+        assertOrder(JSON.<Order>parseObject(ORDER, Order.class, Feature.DisableASM));
+    }
+
+    @Test
+    public void builder() {
+        Range range = JSON.parseObject("{\"from\":3,\"to\":5}", Range.class);
+        assertEquals(3, range.getFrom());
+        assertEquals(5, range.getTo());
+    }
+
+    @Test
+    public void outOfRangeNumbers() {
+        String[] texts = {
+                "{\"id\":3000000000}", "{\"total\":1e19}", "{\"total\":-9223372036854775809}",
+                "{\"counts\":[1,2147483648]}"
+        };
+        assertRejected(texts);
+    }
+
+    @Test
+    public void creator() {
+        // the parameter names are read from the class file, which is compiled without -parameters
+        Point point = JSON.parseObject("{\"y\":2,\"x\":1}", Point.class);
+        assertEquals(1, point.getX());
+        assertEquals(2, point.getY());
+        assertEquals("{\"x\":1,\"y\":2}", JSON.toJSONString(point));
+    }
+
+    @Test
+    public void bytes() {
+        assertEquals(ORDER, new String(JSON.toJSONBytes(order(new Order())), StandardCharsets.UTF_8));
+
+        // larger than a pooled buffer, then small again with the buffer returned to the pool
+        List<Order> orders = new ArrayList<Order>();
+        StringBuilder expected = new StringBuilder("[");
+        for (int i = 0; i < 2000; ++i) {
+            orders.add(order(new Order()));
+            expected.append(i == 0 ? "" : ",").append(ORDER);
+        }
+        assertEquals(expected.append(']').toString(), new String(JSON.toJSONBytes(orders), StandardCharsets.UTF_8));
+        assertEquals(ORDER, new String(JSON.toJSONBytes(order(new ReflectedOrder())), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void outputs() throws Exception {
+        Order order = order(new Order());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = JSON.writeJSONString(out, order);
+        assertEquals(ORDER, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(out.size(), written);
+
+        out.reset();
+        JSON.writeJSONString(Channels.newChannel(out), order);
+        assertEquals(ORDER, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        written = JSON.writeJSONString(buffer, order);
+        assertEquals(written, buffer.position());
+        assertEquals(ORDER, new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void files() throws Exception {
+        File file = folder.newFile("order.json");
+        Files.write(file.toPath(), ORDER.getBytes(StandardCharsets.UTF_8));
+
+        assertOrder(JSON.<Order>parseObject(file.toPath(), Order.class));
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            assertOrder(JSON.<Order>parseObject(channel, Order.class));
+            assertTrue(channel.isOpen());
+        } finally {
+            channel.close();
+        }
+        assertTrue(JSON.parse(file.toPath()) instanceof Map);
+    }
+
+    @Test
+    public void malformedNumbers() {
+        String[] texts = {"{\"total\":\"x\"}", "{\"id\":\"1.5.2\"}", "{\"rate\":\"-\"}"};
+        assertRejected(texts);
+    }
+
+    @Test
+    public void parallel() {
+        List<Item> items = new ArrayList<Item>();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            Item item = item(i, "item" + i);
+            items.add(item);
+            lines.append(JSON.toJSONString(item)).append('\n');
+        }
+        byte[] array = JSON.toJSONBytes(items);
+        byte[] text = lines.toString().getBytes(StandardCharsets.UTF_8);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertItems(JSON.<Item>parseArray(array, Item.class, pool));
+            assertItems(JSON.<Item>parseLines(text, Item.class, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertItems(JSON.<Item>streamLines(new ByteArrayInputStream(text), Item.class)
+                .collect(Collectors.<Item>toList()));
+
+        try {
+            JSON.parseArray("[{\"id\":1},{\"id\":}]".getBytes(StandardCharsets.UTF_8), Item.class,
+                    ForkJoinPool.commonPool());
+            fail();
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void jsonb() {
+        assertOrder(JSON.<Order>parseJSONB(JSON.toJSONB(order(new Order())), Order.class));
+        assertOrder(JSON.<Order>parseJSONB(JSON.toJSONB(order(new ReflectedOrder())), ReflectedOrder.class));
+        assertNull(JSON.parseJSONB(JSON.toJSONB(null), Order.class));
+    }
+
+    @Test
+    public void warmup() throws Exception {
+        JSON.warmup(Warm.class).get(10, TimeUnit.SECONDS);
+        List<String> types = JSON.getResolvedTypes();
+        assertTrue(types.toString(), types.contains(Warm.class.getName()));
+        assertTrue(types.toString(), types.contains(WarmItem.class.getName()));
+        assertEquals(new ArrayList<String>(new TreeSet<String>(types)), types);
+
+        JSON.warmup(ForkJoinPool.commonPool(), getClass().getClassLoader(),
+                Arrays.asList(Warm.class.getName(), "NoSuchClass")).get(10, TimeUnit.SECONDS);
+        assertEquals("x", JSON.parseObject("{\"items\":[{\"name\":\"x\"}]}", Warm.class).items.get(0).name);
+    }
+
+    private static <T extends Order> T order(T order) {
+        order.id = 7;
+        order.total = 9007199254740993L;
+        order.rate = 0.1;
+        order.paid = true;
+        order.note = "é中\n";
+        order.color = Color.GREEN;
+        order.counts = new int[]{1, -2, 3};
+        order.items = Arrays.asList(item(1, "a"), item(2, "b\"c"));
+        order.tags = new LinkedHashMap<String, Integer>();
+        order.tags.put("x", 1);
+        return order;
+    }
+
+    private static Item item(int id, String name) {
+        Item item = new Item();
+        item.id = id;
+        item.name = name;
+        return item;
+    }
+
+    private static void assertOrder(Order order) {
+        assertEquals(7, order.id);
+        assertEquals(9007199254740993L, order.total);
+        assertEquals(0.1, order.rate, 0);
+        assertTrue(order.paid);
+        assertEquals("é中\n", order.note);
+        assertEquals(Color.GREEN, order.color);
+        assertArrayEquals(new int[]{1, -2, 3}, order.counts);
+        assertEquals(2, order.items.size());
+        assertEquals(2, order.items.get(1).id);
+        assertEquals("b\"c", order.items.get(1).name);
+        Map<String, Integer> tags = new LinkedHashMap<String, Integer>();
+        tags.put("x", 1);
+        assertEquals(tags, order.tags);
+    }
+
+    /**
+     * Checks that both the generated and the reflection based deserializers reject each text.
+     */
+    private static void assertRejected(String[] texts) {
+        for (String text : texts) {
+            for (Class<?> clazz : new Class<?>[]{Order.class, ReflectedOrder.class}) {
+                try {
+                    JSON.parseObject(text, clazz);
+                    fail(text);
+                } catch (JSONException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    private static void assertItems(List<Item> items) {
+        assertEquals(1000, items.size());
+        for (int i = 0; i < items.size(); ++i) {
+            assertEquals(i, items.get(i).id);
+            assertEquals("item" + i, items.get(i).name);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+import annotation.JSONField;
+import annotation.JSONType;
+import org.junit.Test;
+import parser.DefaultJSONParser;
+import parser.Feature;
+import parser.JSONLexer;
+import parser.ParserConfig;
+import parser.deserializer.ObjectDeserializer;
+import serializer.JSONSerializer;
+import serializer.NameFilter;
+import serializer.ObjectSerializer;
+import serializer.PropertyFilter;
+import serializer.SerializerFeature;
+import serializer.ValueFilter;
+import util.JSONException;
+import util.PropertyNamingStrategy;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Reads and writes the types configured with {@link JSONType}, each with the generated codecs and the reflection
+ * based ones, which must agree.
+ */
+public class JSONTypeTest {
+
+    @JSONType(naming = PropertyNamingStrategy.SnakeCase, orders = {"userId", "createdAt"}, ignores = "password")
+    public static class Account {
+        public int userId;
+        public long createdAt;
+        public String displayName;
+        public String password;
+        @JSONField(name = "Mail")
+        public String email;
+    }
+
+    @JSONType(asm = false, naming = PropertyNamingStrategy.SnakeCase, orders = {"userId", "createdAt"},
+            ignores = "password")
+    public static class ReflectedAccount extends Account {
+    }
+
+    @JSONType(includes = {"b", "a"}, alphabetic = false)
+    public static class Included {
+        public int c = 3;
+        public int b = 2;
+        public int a = 1;
+    }
+
+    public static class HideSecret implements PropertyFilter {
+        public boolean apply(Object object, String name, Object value) {
+            return !name.equals("secret");
+        }
+    }
+
+    public static class UpperCase implements ValueFilter {
+        public Object process(Object object, String name, Object value) {
+            return value instanceof String ? ((String) value).toUpperCase() : value;
+        }
+    }
+
+    public static class Prefix implements NameFilter {
+        public String process(Object object, String name, Object value) {
+            return "_" + name;
+        }
+    }
+
+    @JSONType(serializeFilters = {HideSecret.class, UpperCase.class, Prefix.class})
+    public static class Filtered {
+        public int id = 1;
+        public String name = "ann";
+        public String secret = "s";
+        public String missing;
+        public double score = 2.5;
+    }
+
+    @JSONType(asm = false, serializeFilters = {HideSecret.class, UpperCase.class, Prefix.class})
+    public static class ReflectedFiltered extends Filtered {
+    }
+
+    @JSONType(seeAlso = {Dog.class, Cat.class}, typeKey = "kind", autoTypeCheckHandler = AllowWolf.class)
+    public interface Animal {
+    }
+
+    @JSONType(typeName = "dog")
+    public static class Dog implements Animal {
+        public String name;
+        public int bark;
+    }
+
+    @JSONType(typeName = "cat")
+    public static class Cat implements Animal {
+        public String name;
+        public boolean indoor;
+    }
+
+    public static class Wolf implements Animal {
+        public int pack;
+    }
+
+    public static class AllowWolf implements ParserConfig.AutoTypeCheckHandler {
+        public Class<?> handler(String typeName, Class<?> expectClass, int features) {
+            if (typeName.equals("wolf")) {
+                return Wolf.class;
+            }
+            return typeName.equals("dog") ? Dog.class : typeName.equals("cat") ? Cat.class : null;
+        }
+    }
+
+    public static class Zoo {
+        public List<Animal> animals;
+    }
+
+    /**
+     * Writes a temperature as its number of tenths of a degree.
+     */
+    public static class TenthsCodec implements ObjectSerializer, ObjectDeserializer {
+        public void write(JSONSerializer serializer, Object object, Object fieldName, Type fieldType, int features) {
+            serializer.out.writeInt(Math.round(((Temperature) object).celsius * 10));
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T deserialze(DefaultJSONParser parser, Type type, Object fieldName) {
+            JSONLexer lexer = parser.getLexer();
+            Temperature temperature = new Temperature();
+            temperature.celsius = lexer.intValue() / 10f;
+            lexer.nextToken();
+            return (T) temperature;
+        }
+    }
+
+    @JSONType(serializer = TenthsCodec.class, deserializer = TenthsCodec.class)
+    public static class Temperature {
+        public float celsius;
+    }
+
+    public static class Reading {
+        public Temperature low;
+        public Temperature high;
+    }
+
+    @JSONType(seeAlso = {StrictDog.class, ReflectedStrictDog.class}, typeKey = "kind")
+    public interface StrictAnimal {
+    }
+
+    @JSONType(typeName = "dog", parseFeatures = Feature.FailOnUnknownProperties)
+    public static class StrictDog implements StrictAnimal {
+        public String name;
+        public int bark;
+    }
+
+    @JSONType(typeName = "reflectedDog", asm = false, parseFeatures = Feature.FailOnUnknownProperties)
+    public static class ReflectedStrictDog extends StrictDog {
+    }
+
+    @Test
+    public void naming() {
+        String text = "{\"user_id\":1,\"created_at\":2,\"Mail\":\"x@y\",\"display_name\":\"X\"}";
+        for (Class<? extends Account> clazz : Arrays.asList(Account.class, ReflectedAccount.class)) {
+            Account account = JSON.parseObject(text, clazz);
+            assertEquals(1, account.userId);
+            assertEquals(2, account.createdAt);
+            assertEquals("X", account.displayName);
+            assertEquals("x@y", account.email);
+            account.password = "secret";
+            assertEquals(text, JSON.toJSONString(account));
+        }
+        assertEquals("{\"b\":2,\"a\":1}", JSON.toJSONString(new Included()));
+    }
+
+    @Test
+    public void serializeFilters() {
+        for (Filtered bean : Arrays.asList(new Filtered(), new ReflectedFiltered())) {
+            assertEquals("{\"_id\":1,\"_name\":\"ANN\",\"_score\":2.5}", JSON.toJSONString(bean));
+            assertEquals("{\"_id\":1,\"_missing\":null,\"_name\":\"ANN\",\"_score\":2.5}",
+                    JSON.toJSONString(bean, SerializerFeature.WriteMapNullValue));
+            // as an array every position is kept, and only the values are filtered
+            assertEquals("[1,null,\"ANN\",2.5,\"S\"]", JSON.toJSONString(bean, SerializerFeature.BeanToArray));
+        }
+    }
+
+    @Test
+    public void polymorphic() {
+        Dog dog = new Dog();
+        dog.name = "rex";
+        dog.bark = 3;
+        assertEquals("{\"kind\":\"dog\",\"bark\":3,\"name\":\"rex\"}", JSON.toJSONString(dog));
+
+        Zoo zoo = JSON.parseObject("{\"animals\":[{\"kind\":\"dog\",\"bark\":3,\"name\":\"rex\"},"
+                + "{\"name\":\"tom\",\"indoor\":true,\"kind\":\"cat\"},{\"kind\":\"\\u0064og\",\"bark\":1},"
+                + "{\"kind\":\"wolf\",\"pack\":5}]}", Zoo.class);
+        assertEquals(4, zoo.animals.size());
+        assertEquals("rex", ((Dog) zoo.animals.get(0)).name);
+        assertTrue(((Cat) zoo.animals.get(1)).indoor);
+        assertEquals(1, ((Dog) zoo.animals.get(2)).bark);
+        assertEquals(5, ((Wolf) zoo.animals.get(3)).pack);
+
+        // the type key is not an unknown property of a subtype which fails on those
+        String[] strict = {
+                "{\"kind\":\"dog\",\"bark\":2,\"name\":\"rex\"}", "{\"bark\":2,\"name\":\"rex\",\"kind\":\"dog\"}",
+                "{\"kind\":\"reflectedDog\",\"bark\":2,\"name\":\"rex\"}",
+                "{\"bark\":2,\"name\":\"rex\",\"kind\":\"reflectedDog\"}"
+        };
+        for (String text : strict) {
+            StrictAnimal animal = JSON.parseObject(text, StrictAnimal.class);
+            assertEquals(text, 2, ((StrictDog) animal).bark);
+            assertEquals(text, text.contains("reflected"), animal instanceof ReflectedStrictDog);
+            try {
+                JSON.parseObject(text.replace("\"bark\"", "\"meow\""), StrictAnimal.class);
+                fail(text);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+
+        String[] denied = {"{\"kind\":\"fox\"}", "{\"kind\":\"java.lang.Object\"}", "{\"kind\":\"Dog\"}"};
+        for (String text : denied) {
+            try {
+                JSON.parseObject(text, Animal.class);
+                fail(text);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void typeCodecs() {
+        Reading reading = JSON.parseObject("{\"high\":215,\"low\":-30}", Reading.class);
+        assertEquals(-3f, reading.low.celsius, 0);
+        assertEquals(21.5f, reading.high.celsius, 0);
+        assertEquals("{\"high\":215,\"low\":-30}", JSON.toJSONString(reading));
+    }
+}
@@ -0,0 +1,141 @@
+package parser;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the numbers the lexer reads, through {@link DecimalToDouble} or its fallback, against
+ * {@link Double#parseDouble(String)} and {@link Float#parseFloat(String)}, bit for bit.
+ */
+public class DecimalToDoubleTest {
+
+    @Test
+    public void shortestDecimals() {
+        Random random = new Random(1);
+        for (int n = 0; n < 100000; ++n) {
+            double v = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+                assertSameDouble(Double.toString(v));
+            }
+        }
+    }
+
+    @Test
+    public void seventeenDigits() {
+        Random random = new Random(2);
+        for (int n = 0; n < 100000; ++n) {
+            long mantissa = 10000000000000000L + (random.nextLong() & Long.MAX_VALUE) % 90000000000000000L;
+            int exponent = random.nextInt(680) - 360;
+            assertSameDouble(mantissa + "e" + exponent);
+            assertSameDouble("-" + mantissa / 10 + "." + mantissa % 10 + "E" + exponent);
+        }
+    }
+
+    @Test
+    public void nineteenDigits() {
+        Random random = new Random(3);
+        for (int n = 0; n < 100000; ++n) {
+            long mantissa = random.nextLong() & Long.MAX_VALUE;
+            assertSameDouble(mantissa + "e" + (random.nextInt(680) - 360));
+        }
+        assertSameDouble("9223372036854775807");
+        assertSameDouble("9999999999999999999");
+        assertSameDouble("18446744073709551615");
+    }
+
+    @Test
+    public void powersOfTen() {
+        for (int e = -345; e <= 310; ++e) {
+            assertSameDouble("1e" + e);
+            assertSameDouble("9.999999999999999e" + e);
+            assertSameDouble("1.0000000000000001e" + e);
+        }
+        for (int e = 0; e <= 22; ++e) {
+            assertSameDouble("123456789012345e" + e);
+            assertSameDouble("1e-" + e);
+        }
+    }
+
+    @Test
+    public void subnormals() {
+        String[] texts = {
+                "4.9e-324", "5e-324", "2.4703282292062327e-324", "2.4703282292062328e-324", "2.4703282292062329e-324",
+                "1e-330", "2.2250738585072011e-308", "2.2250738585072012e-308", "2.2250738585072014e-308",
+                "4.450147717014402e-308", "1.7976931348623157e308", "1.7976931348623158e308",
+                "1.7976931348623159e308", "1e309"
+        };
+        for (String text : texts) {
+            assertSameDouble(text);
+        }
+        Random random = new Random(4);
+        for (int n = 0; n < 50000; ++n) {
+            double v = Double.longBitsToDouble(random.nextLong() & ((1L << 52) - 1));
+            assertSameDouble(Double.toString(v));
+            assertSameDouble(new BigDecimal(v).round(new MathContext(17)).toString());
+        }
+    }
+
+    @Test
+    public void halfwayCases() {
+        Random random = new Random(5);
+        for (int n = 0; n < 50000; ++n) {
+            // an integral double of 54 to 62 bits, so that the halfway point has at most 19 digits
+            double v = (double) ((random.nextLong() >>> 2) | 1L << 53);
+            BigDecimal halfway = new BigDecimal(v).add(new BigDecimal(Math.nextUp(v))).divide(BigDecimal.valueOf(2));
+            assertSameDouble(halfway.toPlainString());
+            assertSameDouble(halfway.add(BigDecimal.ONE).toPlainString());
+            assertSameDouble(halfway.subtract(BigDecimal.ONE).toPlainString());
+            assertSameDouble(halfway.stripTrailingZeros().toString());
+
+            // and below 1, where the halfway point has more digits than the fast path takes
+            double w = random.nextDouble();
+            halfway = new BigDecimal(w).add(new BigDecimal(Math.nextUp(w))).divide(BigDecimal.valueOf(2));
+            assertSameDouble(halfway.toString());
+        }
+        assertSameDouble("9007199254740993");
+        assertSameDouble("9007199254740995");
+        assertSameDouble("1.00000000000000011102230246251565404236316680908203125");
+        assertSameDouble("1.00000000000000011102230246251565404236316680908203124");
+    }
+
+    @Test
+    public void floats() {
+        Random random = new Random(6);
+        for (int n = 0; n < 100000; ++n) {
+            float v = Float.intBitsToFloat(random.nextInt());
+            if (!Float.isNaN(v) && !Float.isInfinite(v)) {
+                assertSameFloat(Float.toString(v));
+            }
+            long mantissa = random.nextLong() & Long.MAX_VALUE;
+            assertSameFloat(mantissa + "e" + (random.nextInt(100) - 70));
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+                assertSameFloat(Double.toString(d));
+            }
+        }
+        assertSameFloat("1.00000017881393432617187499");
+        assertSameFloat("1.000000178813934326171875");
+        assertSameFloat("1.4e-45");
+        assertSameFloat("7e-46");
+        assertSameFloat("3.4028235e38");
+        assertSameFloat("3.4028236e38");
+    }
+
+    private static void assertSameDouble(String text) {
+        JSONLexer lexer = new JSONLexer(text);
+        lexer.nextToken();
+        assertEquals(text, Double.doubleToLongBits(Double.parseDouble(text)),
+                Double.doubleToLongBits(lexer.doubleValue()));
+    }
+
+    private static void assertSameFloat(String text) {
+        JSONLexer lexer = new JSONLexer(text);
+        lexer.nextToken();
+        assertEquals(text, Float.floatToIntBits(Float.parseFloat(text)), Float.floatToIntBits(lexer.floatValue()));
+    }
+}
@@ -0,0 +1,103 @@
+package parser;
+
+import org.junit.Test;
+import serializer.SerializeWriter;
+import util.JSONException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Navigates and decodes lazily parsed documents, indexed byte by byte and with {@link Feature#UseSWAR}.
+ */
+public class JSONNodeTest {
+
+    private static final String TEXT = "{\"id\":12,\"name\":\"a\\\"b\\u00e9\",\"price\":-1.5e2,\"ok\":true,"
+            + "\"none\":null,\"items\":[{\"id\":1},{\"id\":2,\"tags\":[\"x\",\"y\"]},[],{}],\"n\\u0061me2\":\"c\"}";
+
+    public static class Item {
+        public int id;
+        public List<String> tags;
+    }
+
+    @Test
+    public void navigate() {
+        for (int features : new int[]{0, Feature.UseSWAR.mask}) {
+            JSONNode root = parse(TEXT, features);
+            assertTrue(root.isObject());
+            assertEquals(Arrays.asList("id", "name", "price", "ok", "none", "items", "name2"), root.names());
+            assertEquals(12, root.get("id").asInt());
+            assertEquals(12L, root.get("id").asLong());
+            assertEquals("a\"bé", root.get("name").asString());
+            assertEquals(-150, root.get("price").asDouble(), 0);
+            assertTrue(root.get("ok").asBoolean());
+            assertTrue(root.get("none").isNull());
+            assertNull(root.get("missing"));
+            assertEquals("c", root.get("name2").asString());
+
+            JSONNode items = root.get("items");
+            assertTrue(items.isArray());
+            assertEquals(4, items.size());
+            assertNull(items.get(4));
+            assertNull(items.get("id"));
+            assertEquals(2, items.get(1).get("id").asInt());
+            assertEquals("y", items.get(1).get("tags").get(1).asString());
+            assertEquals(0, items.get(2).size());
+            assertFalse(items.get(3).isArray());
+
+            Item item = items.get(1).as(Item.class);
+            assertEquals(2, item.id);
+            assertEquals(Arrays.asList("x", "y"), item.tags);
+            assertEquals(1, ((Map<?, ?>) items.get(0).value()).get("id"));
+        }
+    }
+
+    @Test
+    public void rawText() throws Exception {
+        byte[] input = ("  " + TEXT + " ").getBytes(StandardCharsets.UTF_8);
+        JSONNode items = JSONNode.parse(input, 1, input.length - 1, ParserConfig.getGlobalInstance(), 0).get("items");
+        String expected = "[{\"id\":1},{\"id\":2,\"tags\":[\"x\",\"y\"]},[],{}]";
+        assertEquals(expected, items.toString());
+        assertEquals(expected, new String(items.toBytes(), StandardCharsets.UTF_8));
+        assertEquals(expected.length(), items.length());
+        assertEquals(new String(input, StandardCharsets.UTF_8).indexOf(expected), items.offset());
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        items.get(1).writeTo(os);
+        assertEquals("{\"id\":2,\"tags\":[\"x\",\"y\"]}", new String(os.toByteArray(), StandardCharsets.UTF_8));
+
+        SerializeWriter out = new SerializeWriter();
+        items.get(1).get("tags").writeTo(out);
+        assertEquals("[\"x\",\"y\"]", out.toString());
+        out.close();
+    }
+
+    @Test
+    public void malformed() {
+        String[] texts = {"{\"a\":1,}", "[1e]", "[-]", "[\"\\x\"]", "[\"\\u12\"]", "{\"a\" 1}", "[1] 2"};
+        for (String text : texts) {
+            for (int features : new int[]{0, Feature.UseSWAR.mask}) {
+                try {
+                    parse(text, features);
+                    fail(text);
+                } catch (JSONException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    private static JSONNode parse(String text, int features) {
+        byte[] input = text.getBytes(StandardCharsets.UTF_8);
+        return JSONNode.parse(input, 0, input.length, ParserConfig.getGlobalInstance(), features);
+    }
+}
@@ -0,0 +1,71 @@
+package parser;
+
+import org.junit.Test;
+import util.JSONException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Evaluates each kind of path segment against one document.
+ */
+public class JSONPathTest {
+
+    private static final String TEXT = "{\"store\":{\"book\":[{\"title\":\"A\",\"price\":8.95,\"tags\":[\"x\"]},"
+            + "{\"title\":\"B\",\"price\":12.99},{\"title\":\"C\",\"price\":8,\"tags\":[]}],"
+            + "\"bicycle\":{\"color\":\"red\",\"price\":19.95}},\"n\\u0061me\":\"s\",\"count\":3}";
+
+    @Test
+    public void definite() {
+        assertEquals("B", JSONPath.extract(TEXT, "$.store.book[1].title"));
+        assertEquals("red", JSONPath.extract(TEXT, "store['bicycle'].color"));
+        assertEquals(3, JSONPath.extract(TEXT, "$.count"));
+        assertEquals("s", JSONPath.extract(TEXT, "$.name"));
+        assertNull(JSONPath.extract(TEXT, "$.store.book[5].title"));
+        assertNull(JSONPath.extract(TEXT, "$.missing.title"));
+
+        JSONPath path = JSONPath.compile("$.store.book[0].tags[0]");
+        assertTrue(path.isDefinite());
+        assertSame(path, JSONPath.compile("$.store.book[0].tags[0]"));
+        assertEquals("x", path.extract(TEXT.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void wildcardsAndScans() {
+        assertEquals(Arrays.asList("A", "B", "C"), JSONPath.extract(TEXT, "$.store.book[*].title"));
+        assertEquals(Arrays.<Object>asList(8.95, 12.99, 8, 19.95), JSONPath.extract(TEXT, "$..price"));
+        assertEquals(2, ((List<?>) JSONPath.extract(TEXT, "$.store.*")).size());
+        assertFalse(JSONPath.compile("$..price").isDefinite());
+    }
+
+    @Test
+    public void filters() {
+        assertEquals(Arrays.asList("A", "C"), JSONPath.extract(TEXT, "$.store.book[?(@.price < 10)].title"));
+        assertEquals(Collections.singletonList("A"),
+                JSONPath.extract(TEXT, "$.store.book[?(@.price < 10 && @.tags[0])].title"));
+        assertEquals(Arrays.asList("B", "C"),
+                JSONPath.extract(TEXT, "$.store.book[?(@.title == 'B' || @.price == 8)].title"));
+    }
+
+    @Test
+    public void invalidPaths() {
+        String[] paths = {"$.", "$[", "$[abc]", "$[99999999999]", "$.a[?(@.b <)]"};
+        for (String path : paths) {
+            try {
+                JSONPath.compile(path);
+                fail(path);
+            } catch (JSONException e) {
+                // expected
+            }
+        }
+    }
+}
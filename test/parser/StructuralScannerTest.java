@@ -0,0 +1,340 @@
+package parser;
+
+import org.junit.Test;
+import util.JSONException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the SWAR scan agrees with a byte by byte one, and that {@link JSONIndex} builds the same tape, and
+ * rejects the same texts, both ways.
+ */
+public class StructuralScannerTest {
+
+    private static final int SWAR = Feature.UseSWAR.mask;
+    private static final int SCALAR = 0;
+
+    @Test
+    public void eqMatchesEachByte() {
+        Random random = new Random(1);
+        for (int c = 0; c < 128; ++c) {
+            for (int n = 0; n < 1000; ++n) {
+                long w = random.nextLong();
+                // plant c, and bytes next to it, in some lanes
+                for (int lane = 0; lane < 8; ++lane) {
+                    int r = random.nextInt(4);
+                    if (r < 3) {
+                        long b = (c + r - 1) & 0xFF;
+                        w = w & ~(0xFFL << 8 * lane) | b << 8 * lane;
+                    }
+                }
+                long expected = 0;
+                for (int lane = 0; lane < 8; ++lane) {
+                    if ((w >>> 8 * lane & 0xFF) == c) {
+                        expected |= 0x80L << 8 * lane;
+                    }
+                }
+                assertEquals(expected, StructuralScanner.eq(w, c));
+            }
+        }
+    }
+
+    @Test
+    public void scanMatchesScalar() {
+        Random random = new Random(3);
+        for (int n = 0; n < 5000; ++n) {
+            byte[] text = bytes(random, random.nextInt(300));
+            int off = random.nextInt(4);
+            int end = off + random.nextInt(text.length - off + 1);
+            assertArrayEquals(new String(text, off, end - off, StandardCharsets.ISO_8859_1),
+                    positions(text, off, end), trim(StructuralScanner.scan(text, off, end)));
+        }
+    }
+
+    @Test
+    public void escapesAcrossBlocks() {
+        // runs of backslashes before a quote, ending on every offset of the first 8 byte words of the scan
+        for (int run = 0; run < 6; ++run) {
+            for (int pad = 0; pad < 140; ++pad) {
+                StringBuilder sb = new StringBuilder("[");
+                for (int k = 0; k < pad; ++k) {
+                    sb.append(' ');
+                }
+                sb.append("\"a");
+                for (int k = 0; k < run; ++k) {
+                    sb.append('\\');
+                }
+                sb.append("\",\"b\",1]");
+                String text = sb.toString();
+                assertSameIndex(text);
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                assertArrayEquals(text, positions(bytes, 0, bytes.length),
+                        trim(StructuralScanner.scan(bytes, 0, bytes.length)));
+            }
+        }
+    }
+
+    @Test
+    public void escapesAtWordEdges() {
+        // runs of backslashes ending on offset 7 of a word, its last byte, or on offset 8 or 9, the first bytes of
+        // the next word, so that whether the quote after the run is escaped is carried from one word to the next
+        for (int word = 1; word < 4; ++word) {
+            for (int last = 8 * word + 7; last <= 8 * word + 9; ++last) {
+                int quote = last + 1;
+                for (int run = 0; run < 6; ++run) {
+                    StringBuilder sb = new StringBuilder("[");
+                    for (int k = 0; k < quote - 3 - run; ++k) {
+                        sb.append(' ');
+                    }
+                    sb.append("\"a");
+                    for (int k = 0; k < run; ++k) {
+                        sb.append('\\');
+                    }
+                    // an odd run escapes the quote, which the next one then closes
+                    boolean escaped = run % 2 == 1;
+                    sb.append(escaped ? "\"\"" : "\"").append(",1]");
+                    String text = sb.toString();
+                    assertEquals(text, '"', text.charAt(quote));
+
+                    int[] tape = assertSameIndex(text);
+                    assertNotNull(text, tape);
+                    // the string is the entry after the array
+                    assertEquals(text, escaped ? quote + 2 : quote + 1, tape[3]);
+                    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                    assertArrayEquals(text, positions(bytes, 0, bytes.length),
+                            trim(StructuralScanner.scan(bytes, 0, bytes.length)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void documents() {
+        Random random = new Random(4);
+        for (int n = 0; n < 3000; ++n) {
+            StringBuilder sb = new StringBuilder();
+            value(random, sb, 0);
+            String text = sb.toString();
+            int[] tape = assertSameIndex(text);
+            assertNotNull(text, tape);
+        }
+    }
+
+    @Test
+    public void invalidDocuments() {
+        Random random = new Random(5);
+        String noise = "{}[],:\"\\ \n-0123456789eE.truefalsné";
+        for (int n = 0; n < 20000; ++n) {
+            StringBuilder sb = new StringBuilder();
+            value(random, sb, 0);
+            int edits = 1 + random.nextInt(3);
+            for (int k = 0; k < edits && sb.length() > 0; ++k) {
+                int at = random.nextInt(sb.length());
+                switch (random.nextInt(3)) {
+                    case 0:
+                        sb.deleteCharAt(at);
+                        break;
+                    case 1:
+                        sb.insert(at, noise.charAt(random.nextInt(noise.length())));
+                        break;
+                    default:
+                        sb.setCharAt(at, noise.charAt(random.nextInt(noise.length())));
+                        break;
+                }
+            }
+            assertSameIndex(sb.toString());
+        }
+    }
+
+    @Test
+    public void errors() {
+        String[] texts = {
+                "", " ", "{", "[", "[1,]", "{\"a\"}", "{\"a\":}", "{,}", "[1 2]", "\"abc", "[\"abc\\\"]",
+                "{\"a\":1]", "[1]]", "[1] x", "nul", "[truex]", "{\"a\" \"b\"}", "\\\"", "[1\\\"a\"]",
+                "[1e]", "[-]", "[1.]", "[.5]", "[1e+]", "[--1]", "[1x]", "[0x10]", "1-", "[\"\\x\"]", "[\"\\u12\"]",
+                "[\"\\u12g4\"]", "{\"\\a\":1}", "[\"\\"
+        };
+        for (String text : texts) {
+            assertNull(text, assertSameIndex(text));
+        }
+    }
+
+    @Test
+    public void numbersAndEscapes() {
+        String[] texts = {
+                "[0,-0,1.5,-1.5e10,1E+2,1e-2,007,12345678901234567890123]",
+                "[\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e9\\uABCD\"]", "{\"\\u0061\":1}"
+        };
+        for (String text : texts) {
+            assertNotNull(text, assertSameIndex(text));
+        }
+    }
+
+    /**
+     * Returns the tape built both ways, or null when both reject the text.
+     */
+    private static int[] assertSameIndex(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int[] swar = tape(bytes, SWAR);
+        int[] scalar = tape(bytes, SCALAR);
+        if (swar == null || scalar == null) {
+            if (swar != scalar) {
+                fail((swar == null ? "only SWAR rejects " : "only the scalar scan rejects ") + text);
+            }
+            return null;
+        }
+        assertArrayEquals(text, scalar, swar);
+        return swar;
+    }
+
+    private static int[] tape(byte[] bytes, int features) {
+        try {
+            JSONIndex index = new JSONIndex(bytes, 0, bytes.length, ParserConfig.getGlobalInstance(), features);
+            return Arrays.copyOf(index.tape, 2 * index.size);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The positions of {@link StructuralScanner#scan}, byte by byte.
+     */
+    private static int[] positions(byte[] text, int off, int end) {
+        // as in the scan, a backslash escapes the next byte even outside strings
+        boolean[] escaped = new boolean[end + 1];
+        for (int i = off; i < end; ++i) {
+            if (text[i] == '\\' && !escaped[i]) {
+                escaped[i + 1] = true;
+            }
+        }
+
+        List<Integer> positions = new ArrayList<Integer>();
+        boolean inString = false;
+        boolean inScalar = false;
+        for (int i = off; i < end; ++i) {
+            byte b = text[i];
+            boolean quote = b == '"' && !escaped[i];
+            if (inString) {
+                if (quote) {
+                    positions.add(i);
+                    inString = false;
+                }
+            } else if (quote) {
+                positions.add(i);
+                inString = true;
+                inScalar = false;
+            } else if ("{}[],:".indexOf(b) >= 0) {
+                positions.add(i);
+                inScalar = false;
+            } else if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == '\b') {
+                inScalar = false;
+            } else if (!inScalar) {
+                positions.add(i);
+                inScalar = true;
+            }
+        }
+        int[] result = new int[positions.size()];
+        for (int k = 0; k < result.length; ++k) {
+            result[k] = positions.get(k);
+        }
+        return result;
+    }
+
+    private static int[] trim(int[] positions) {
+        int n = 0;
+        while (positions[n] >= 0) {
+            n++;
+        }
+        return Arrays.copyOf(positions, n);
+    }
+
+    private static byte[] bytes(Random random, int len) {
+        byte[] alphabet = "{}[],:\"\\\" \n\t\r\f\b01aZ-ÿ\u0080".getBytes(StandardCharsets.ISO_8859_1);
+        byte[] text = new byte[Math.max(len, 4)];
+        for (int k = 0; k < text.length; ++k) {
+            text[k] = random.nextInt(4) == 0 ? (byte) random.nextInt(256) : alphabet[random.nextInt(alphabet.length)];
+        }
+        return text;
+    }
+
+    private static void value(Random random, StringBuilder sb, int depth) {
+        space(random, sb);
+        switch (random.nextInt(depth > 6 ? 4 : 6)) {
+            case 0:
+                string(random, sb);
+                break;
+            case 1:
+                sb.append(random.nextBoolean() ? random.nextLong() : random.nextDouble() * 1e10);
+                break;
+            case 2:
+                sb.append(random.nextBoolean() ? "true" : random.nextBoolean() ? "false" : "null");
+                break;
+            case 3:
+                sb.append(random.nextInt(1000));
+                break;
+            case 4: {
+                sb.append('{');
+                int n = random.nextInt(6);
+                for (int k = 0; k < n; ++k) {
+                    if (k > 0) {
+                        sb.append(',');
+                    }
+                    space(random, sb);
+                    string(random, sb);
+                    space(random, sb);
+                    sb.append(':');
+                    value(random, sb, depth + 1);
+                }
+                space(random, sb);
+                sb.append('}');
+                break;
+            }
+            default: {
+                sb.append('[');
+                int n = random.nextInt(6);
+                for (int k = 0; k < n; ++k) {
+                    if (k > 0) {
+                        sb.append(',');
+                    }
+                    value(random, sb, depth + 1);
+                }
+                space(random, sb);
+                sb.append(']');
+                break;
+            }
+        }
+        space(random, sb);
+    }
+
+    private static void string(Random random, StringBuilder sb) {
+        String chars = "abc xyz{}[],:é中";
+        String[] escapes = {"\\\"", "\\\\", "\\n", "\\u00e9", "\\/"};
+        sb.append('"');
+        int n = random.nextInt(4) == 0 ? random.nextInt(200) : random.nextInt(12);
+        for (int k = 0; k < n; ++k) {
+            if (random.nextInt(5) == 0) {
+                sb.append(escapes[random.nextInt(escapes.length)]);
+            } else {
+                sb.append(chars.charAt(random.nextInt(chars.length())));
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void space(Random random, StringBuilder sb) {
+        int n = random.nextInt(3) == 0 ? random.nextInt(70) : 0;
+        for (int k = 0; k < n; ++k) {
+            sb.append(" \n\t\r".charAt(random.nextInt(4)));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package parser;
+
+import org.junit.Test;
+import util.TypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that names are returned as one canonical instance, and that registered names keep their slot.
+ */
+public class SymbolTableTest {
+
+    @Test
+    public void canonicalNames() {
+        SymbolTable table = new SymbolTable(16);
+        String name = new String("userName");
+        assertSame(name, table.addSymbol(name));
+        assertSame(name, table.addSymbol(new String("userName")));
+        assertSame(name, lookup(table, "userName"));
+
+        String learned = lookup(table, "other");
+        assertEquals("other", learned);
+        assertSame(learned, lookup(table, "other"));
+    }
+
+    @Test
+    public void registeredNamesStay() {
+        SymbolTable table = new SymbolTable(16);
+        String name = table.addSymbol(new String("id"));
+        // fill every slot with learned names, which never replace a registered one
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals("name" + i, lookup(table, "name" + i));
+        }
+        assertSame(name, lookup(table, "id"));
+    }
+
+    @Test
+    public void longNames() {
+        SymbolTable table = new SymbolTable(16);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= SymbolTable.MAX_SYMBOL_LENGTH; ++i) {
+            sb.append('x');
+        }
+        String name = sb.toString();
+        assertEquals(name, lookup(table, name));
+        assertNotSame(table.addSymbol(new String(name)), table.addSymbol(new String(name)));
+    }
+
+    private static String lookup(SymbolTable table, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return table.addSymbol(bytes, 0, bytes.length, TypeUtils.fnv1a_64(name));
+    }
+}
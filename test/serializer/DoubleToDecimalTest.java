@@ -0,0 +1,159 @@
+package serializer;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link DoubleToDecimal} against {@link Double#toString(double)} and {@link Float#toString(float)}: the
+ * decimal reads back as the same value, has no more digits, or at most two, and, from JDK 19 on, where the JDK renders
+ * with Schubfach too, is the same but for the <code>".0"</code> of integral values.
+ */
+public class DoubleToDecimalTest {
+
+    private static final boolean SHORTEST_JDK
+            = Double.parseDouble(System.getProperty("java.specification.version")) >= 19;
+
+    @Test
+    public void randomBits() {
+        Random random = new Random(1);
+        for (int n = 0; n < 200000; ++n) {
+            double v = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(v) && !Double.isInfinite(v)) {
+                assertDouble(v);
+            }
+        }
+    }
+
+    @Test
+    public void subnormals() {
+        assertDouble(Double.MIN_VALUE);
+        assertDouble(2 * Double.MIN_VALUE);
+        assertDouble(3 * Double.MIN_VALUE);
+        assertDouble(Double.MIN_NORMAL);
+        assertDouble(Math.nextDown(Double.MIN_NORMAL));
+        Random random = new Random(2);
+        for (int n = 0; n < 50000; ++n) {
+            assertDouble(Double.longBitsToDouble(random.nextLong() & ((1L << 52) - 1)));
+            assertDouble(Double.longBitsToDouble(random.nextInt(1 << 12)));
+        }
+    }
+
+    @Test
+    public void powersOfTen() {
+        for (int e = -323; e <= 308; ++e) {
+            double v = Double.parseDouble("1e" + e);
+            assertDouble(v);
+            assertDouble(Math.nextUp(v));
+            assertDouble(Math.nextDown(v));
+        }
+    }
+
+    @Test
+    public void powersOfTwo() {
+        for (int e = -1074; e <= 1023; ++e) {
+            assertDouble(Math.scalb(1.0, e));
+        }
+    }
+
+    @Test
+    public void integers() {
+        Random random = new Random(3);
+        for (int n = 0; n < 50000; ++n) {
+            assertDouble(random.nextInt());
+            assertDouble(random.nextLong() >> random.nextInt(64));
+        }
+        assertDouble(1L << 53);
+        assertDouble((1L << 53) - 1);
+        assertDouble(Double.MAX_VALUE);
+    }
+
+    @Test
+    public void seventeenDigits() {
+        Random random = new Random(4);
+        for (int n = 0; n < 50000; ++n) {
+            long mantissa = 10000000000000000L + (random.nextLong() & Long.MAX_VALUE) % 90000000000000000L;
+            double v = Double.parseDouble(mantissa + "e" + (random.nextInt(600) - 320));
+            if (!Double.isInfinite(v)) {
+                assertDouble(v);
+            }
+        }
+    }
+
+    @Test
+    public void floats() {
+        Random random = new Random(5);
+        for (int n = 0; n < 200000; ++n) {
+            float v = Float.intBitsToFloat(random.nextInt());
+            if (!Float.isNaN(v) && !Float.isInfinite(v)) {
+                assertFloat(v);
+            }
+        }
+        for (int e = -149; e <= 127; ++e) {
+            assertFloat(Math.scalb(1.0f, e));
+        }
+        for (int e = -45; e <= 38; ++e) {
+            float v = Float.parseFloat("1e" + e);
+            assertFloat(v);
+            assertFloat(Math.nextUp(v));
+        }
+        assertFloat(Float.MIN_VALUE);
+        assertFloat(Float.MAX_VALUE);
+    }
+
+    private static void assertDouble(double v) {
+        String text = write(v);
+        String expected = Double.toString(v);
+        assertEquals(expected, Double.doubleToLongBits(v), Double.doubleToLongBits(Double.parseDouble(text)));
+        assertShortest(expected, text);
+    }
+
+    private static void assertFloat(float v) {
+        String text = write(v);
+        String expected = Float.toString(v);
+        assertEquals(expected, Float.floatToIntBits(v), Float.floatToIntBits(Float.parseFloat(text)));
+        assertShortest(expected, text);
+    }
+
+    private static void assertShortest(String expected, String text) {
+        // with one digit enough, the closest decimal of two digits is taken, as in 9.9E-324 for 2 * MIN_VALUE
+        assertTrue(expected + " " + text, digits(text) <= Math.max(2, digits(expected)));
+        if (SHORTEST_JDK) {
+            if (expected.endsWith(".0")) {
+                expected = expected.substring(0, expected.length() - 2);
+            }
+            assertEquals(expected, text);
+        }
+    }
+
+    private static String write(double v) {
+        byte[] buf = new byte[DoubleToDecimal.MAX_CHARS];
+        return new String(buf, 0, DoubleToDecimal.write(buf, 0, v), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String write(float v) {
+        byte[] buf = new byte[DoubleToDecimal.MAX_CHARS];
+        return new String(buf, 0, DoubleToDecimal.write(buf, 0, v), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * The number of significant digits.
+     */
+    private static int digits(String text) {
+        int e = text.indexOf('E');
+        String mantissa = (e < 0 ? text : text.substring(0, e)).replace("-", "").replace(".", "");
+        int start = 0;
+        while (start < mantissa.length() - 1 && mantissa.charAt(start) == '0') {
+            start++;
+        }
+        int end = mantissa.length();
+        while (end > start + 1 && mantissa.charAt(end - 1) == '0') {
+            end--;
+        }
+        return end - start;
+    }
+}
@@ -0,0 +1,143 @@
+package util;
+
+import org.junit.Test;
+import parser.ParserConfig;
+import parser.deserializer.ObjectDeserializer;
+import serializer.JavaBeanSerializer;
+import serializer.ObjectSerializer;
+import serializer.SerializeBeanInfo;
+import serializer.SerializeConfig;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Races many threads on the codec of a class no one has asked for yet, and checks that its class is generated and
+ * defined once, and that every thread gets the same codec.
+ */
+public class CodecCacheTest {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 20;
+
+    public static class Bean {
+        public int id;
+        public String name;
+        public List<Bean> children;
+    }
+
+    @Test
+    public void serializerGeneratedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; ++round) {
+                final AtomicInteger generated = new AtomicInteger();
+                final SerializeConfig config = new SerializeConfig() {
+                    @Override
+                    public ObjectSerializer createJavaBeanSerializer(SerializeBeanInfo beanInfo) {
+                        generated.incrementAndGet();
+                        pause();
+                        return super.createJavaBeanSerializer(beanInfo);
+                    }
+                };
+
+                List<ObjectSerializer> writers = race(executor, new Callable<ObjectSerializer>() {
+                    public ObjectSerializer call() {
+                        return config.getObjectWriter(Bean.class);
+                    }
+                });
+
+                assertEquals(1, generated.get());
+                assertSameCodec(writers, "ASMSerializer_");
+                assertTrue(writers.get(0) instanceof JavaBeanSerializer);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void deserializerGeneratedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; ++round) {
+                final AtomicInteger generated = new AtomicInteger();
+                final ParserConfig config = new ParserConfig() {
+                    @Override
+                    public ObjectDeserializer createJavaBeanDeserializer(Class<?> clazz, Type type) {
+                        generated.incrementAndGet();
+                        pause();
+                        return super.createJavaBeanDeserializer(clazz, type);
+                    }
+                };
+
+                List<ObjectDeserializer> readers = race(executor, new Callable<ObjectDeserializer>() {
+                    public ObjectDeserializer call() {
+                        return config.getDeserializer(Bean.class);
+                    }
+                });
+
+                assertEquals(1, generated.get());
+                assertSameCodec(readers, "ASMDeserializer_");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts the task on all the threads at once and returns what each returned.
+     */
+    private static <T> List<T> race(ExecutorService executor, final Callable<T> task) throws Exception {
+        final CountDownLatch ready = new CountDownLatch(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<Future<T>>();
+        for (int i = 0; i < THREADS; ++i) {
+            futures.add(executor.submit(new Callable<T>() {
+                public T call() throws Exception {
+                    ready.countDown();
+                    start.await();
+                    return task.call();
+                }
+            }));
+        }
+        ready.await();
+        start.countDown();
+
+        List<T> results = new ArrayList<T>();
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static void assertSameCodec(List<?> codecs, String classPrefix) {
+        Object first = codecs.get(0);
+        assertTrue(first.getClass().getName(), first.getClass().getSimpleName().startsWith(classPrefix));
+        for (Object codec : codecs) {
+            assertSame(first, codec);
+        }
+    }
+
+    /**
+     * Holds the generating thread, so that the others ask while it is still generating.
+     */
+    private static void pause() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}